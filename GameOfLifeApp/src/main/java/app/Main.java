@@ -2,30 +2,59 @@ package app;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.Writer;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
+import edu.uweo.javaintro.game_of_life_lib.BitGrid;
 import edu.uweo.javaintro.game_of_life_lib.Board;
 import edu.uweo.javaintro.game_of_life_lib.Cell;
+import edu.uweo.javaintro.game_of_life_lib.CheckpointStore;
 import edu.uweo.javaintro.game_of_life_lib.ControlEvent;
 import edu.uweo.javaintro.game_of_life_lib.ControlListener;
 import edu.uweo.javaintro.game_of_life_lib.Controls;
+import edu.uweo.javaintro.game_of_life_lib.CycleDetector;
+import edu.uweo.javaintro.game_of_life_lib.History;
+import edu.uweo.javaintro.game_of_life_lib.Life106Reader;
+import edu.uweo.javaintro.game_of_life_lib.Life106Writer;
+import edu.uweo.javaintro.game_of_life_lib.ParallelEngine;
+import edu.uweo.javaintro.game_of_life_lib.PatternFile;
+import edu.uweo.javaintro.game_of_life_lib.RleReader;
+import edu.uweo.javaintro.game_of_life_lib.RleWriter;
+import edu.uweo.javaintro.game_of_life_lib.Rule;
+import edu.uweo.javaintro.game_of_life_lib.Topology;
 
 public class Main implements ActionListener, ControlListener
 {
+    private static final String RLE_SUFFIX          = ".rle";
+    private static final String CHECKPOINT_SUFFIX   = ".ckpt";
+    private static final String BACK_LABEL          = "Back";
+    private static final String FORWARD_LABEL       = "Forward";
+    private static final long   HISTORY_BUDGET      = 64L << 20;
+    
     private Board           board;
     private boolean         running         = false;
     private JFileChooser    fileChooser     = new JFileChooser();
     private Controls        controls        = new Controls();
     private Thread          controlThread   = null;
     private Runner          runner          = new Runner();
+    private CheckpointStore checkpoint      = null;
+    private File            checkpointFile  = null;
+    private volatile CycleDetector detector = new CycleDetector(new ParallelEngine());
+    private boolean         cycleReported   = false;
 
     public static void main(String[] args)
     {
@@ -41,9 +70,12 @@ public class Main implements ActionListener, ControlListener
 
     private void execute()
     {
-        board = new Board(100);
+        board = new Board(100, Topology.TORUS);
+        board.setEngine(detector);
+        board.setHistory(new History(HISTORY_BUDGET));
         board.addActionListener(this);
         board.start();
+        controls.setUserButtons(new String[] { BACK_LABEL, FORWARD_LABEL, "" });
         controls.addControlListener(this);
         controls.start();
     }
@@ -83,6 +115,12 @@ public class Main implements ActionListener, ControlListener
         case Controls.EXIT_LABEL:
             doExit();
             break;
+        case BACK_LABEL:
+            doBack();
+            break;
+        case FORWARD_LABEL:
+            doForward();
+            break;
         default:
             // new Throwable().printStackTrace();
             System.err.println("eh?");
@@ -117,7 +155,21 @@ public class Main implements ActionListener, ControlListener
 
     private void doStep()
     {
-        nextState(board.getCells());
+        nextState();
+    }
+
+    private void doBack()
+    {
+        if (board.rewind(board.getGeneration() - 1))
+            board.refresh();
+    }
+
+    private void doForward()
+    {
+        if (board.rewind(board.getGeneration() + 1))
+            board.refresh();
+        else
+            nextState();
     }
 
     private void doSave()
@@ -126,11 +178,24 @@ public class Main implements ActionListener, ControlListener
         if (rcode == JFileChooser.APPROVE_OPTION)
         {
             File file = fileChooser.getSelectedFile();
-            try (FileOutputStream fStream = new FileOutputStream(file);)
+            String name = file.getName().toLowerCase();
+            try
             {
-
-                ObjectOutputStream oStream = new ObjectOutputStream(fStream);
-                oStream.writeObject(board.getCells());
+                if (name.endsWith(CHECKPOINT_SUFFIX))
+                    saveCheckpoint(file);
+                else if (name.endsWith(RLE_SUFFIX))
+                    saveText(file, false);
+                else if (isLife106(name))
+                    saveText(file, true);
+                else
+                {
+                    PatternFile pattern = new PatternFile(
+                        board.getGrid(), 
+                        board.getGeneration(),
+                        board.getEngine().getRule().toString()
+                    );
+                    pattern.write(file);
+                }
             } catch (IOException exc)
             {
                 JOptionPane.showMessageDialog(null, "Save failure");
@@ -145,52 +210,216 @@ public class Main implements ActionListener, ControlListener
         if (rcode == JFileChooser.APPROVE_OPTION)
         {
             File file = fileChooser.getSelectedFile();
-            try (FileInputStream fStream = new FileInputStream(file);)
+            String name = file.getName().toLowerCase();
+            if (name.endsWith(CHECKPOINT_SUFFIX))
+                openCheckpoint(file);
+            else if (name.endsWith(RLE_SUFFIX) || isLife106(name))
+                openText(file, isLife106(name));
+            else
+                openBinary(file);
+        }
+    }
+
+    private void openBinary(File file)
+    {
+        try (InputStream iStream = 
+            new BufferedInputStream(new FileInputStream(file)))
+        {
+            if (PatternFile.isPatternFile(iStream))
+                openPattern(PatternFile.read(iStream));
+            else
             {
-                ObjectInputStream oStream = new ObjectInputStream(fStream);
+                // Saved by an earlier version of the application.
+                ObjectInputStream oStream = new ObjectInputStream(iStream);
                 boolean[][] cells = (boolean[][]) oStream.readObject();
                 board.setCells(cells);
-                board.refresh();
-            } catch (IOException | ClassNotFoundException
-                | ClassCastException exc)
+            }
+            board.refresh();
+        } catch (IOException | ClassNotFoundException
+            | ClassCastException | IllegalArgumentException exc)
+        {
+            JOptionPane.showMessageDialog(null, "Open failure");
+            exc.printStackTrace();
+        }
+    }
+
+    /*
+     * A pattern that does not match the size of the board is
+     * placed in the upper-left corner of the board, and clipped
+     * to the board if necessary.
+     */
+    private void openPattern(PatternFile pattern)
+    {
+        BitGrid state = pattern.getGrid();
+        BitGrid grid = board.getGrid();
+        if (state.getRows() != grid.getRows() 
+            || state.getCols() != grid.getCols())
+        {
+            grid = new BitGrid(grid.getRows(), grid.getCols());
+            grid.copyFrom(state, 0, 0);
+            state = grid;
+        }
+        setRule(Rule.parse(pattern.getRule()));
+        board.setGrid(state);
+        board.setGeneration(pattern.getGeneration());
+    }
+
+    /*
+     * An RLE pattern is centered on the board; the origin
+     * of a Life 1.06 pattern is placed at the center of the board.
+     * Cells that fall outside the board are ignored.
+     */
+    private void openText(File file, boolean life106)
+    {
+        try (Reader reader = new BufferedReader(new FileReader(file)))
+        {
+            int side = board.getSide();
+            board.clear();
+            if (life106)
+                board.paste(new Life106Reader(reader), side / 2, side / 2);
+            else
             {
-                JOptionPane.showMessageDialog(null, "Open failure");
-                exc.printStackTrace();
+                RleReader rle = new RleReader(reader);
+                setRule(Rule.parse(rle.getRule()));
+                long row = (side - rle.getHeight()) / 2;
+                long col = (side - rle.getWidth()) / 2;
+                board.paste(rle, row, col);
+            }
+            board.refresh();
+        } catch (IOException | ArithmeticException 
+            | IllegalArgumentException exc)
+        {
+            JOptionPane.showMessageDialog(null, "Open failure");
+            exc.printStackTrace();
+        }
+    }
+
+    /*
+     * Patterns are stepped with the rule recorded in the file
+     * from which they were opened. The board swaps engines under
+     * its lock, so the runner finishes any step in progress with
+     * the old engine; the old pool is shut down only after the
+     * board has stopped using it.
+     */
+    private void setRule(Rule rule)
+    {
+        if (!rule.equals(board.getEngine().getRule()))
+        {
+            CycleDetector old = detector;
+            CycleDetector next = new CycleDetector(new ParallelEngine(rule));
+            board.setEngine(next);
+            detector = next;
+            ((ParallelEngine) old.getDelegate()).shutdown();
+        }
+    }
+
+    private void saveText(File file, boolean life106) throws IOException
+    {
+        try (Writer writer = new BufferedWriter(new FileWriter(file)))
+        {
+            if (life106)
+                new Life106Writer(writer).write(board.getGrid());
+            else
+            {
+                Rule rule = board.getEngine().getRule();
+                new RleWriter(writer).write(board.getGrid(), rule.toString());
             }
         }
     }
 
+    /*
+     * The most recently used checkpoint store is kept open, 
+     * so repeated checkpoints to the same file only copy the
+     * board into the mapped file and force it to disk.
+     */
+    private void saveCheckpoint(File file) throws IOException
+    {
+        if (checkpoint == null || !file.equals(checkpointFile))
+        {
+            closeCheckpoint();
+            int side = board.getSide();
+            checkpoint = CheckpointStore.create(
+                file.toPath(), 
+                side, 
+                side, 
+                board.getTopology()
+            );
+            checkpointFile = file;
+        }
+        board.checkpoint(checkpoint);
+    }
+
+    private void openCheckpoint(File file)
+    {
+        try
+        {
+            closeCheckpoint();
+            checkpoint = CheckpointStore.open(file.toPath());
+            checkpointFile = file;
+            board.restore(checkpoint);
+            board.refresh();
+        } catch (IOException | IllegalArgumentException exc)
+        {
+            JOptionPane.showMessageDialog(null, "Open failure");
+            exc.printStackTrace();
+        }
+    }
+
+    private void closeCheckpoint() throws IOException
+    {
+        if (checkpoint != null)
+        {
+            CheckpointStore store = checkpoint;
+            checkpoint = null;
+            checkpointFile = null;
+            store.close();
+        }
+    }
+
+    private static boolean isLife106(String name)
+    {
+        return name.endsWith(".lif") || name.endsWith(".life");
+    }
+
     private void doExit()
     {
         System.exit(0);
     }
 
     /*
-     * Rules: 1. Off-board cells are always dead. 2. A live cell with fewer than
-     * two live neighbors dies. 3. A live cell with two or three live neighbors
-     * remains alive. 4. A live cell with more than three live neighbors dies.
-     * 5. A dead cell with exactly three live neighbors becomes alive.
+     * The board's engine applies the current rule (B3/S23 unless a
+     * pattern names another); the board's topology determines whether
+     * off-board cells are dead or wrap around to the opposite edge.
      */
-    private void nextState(boolean[][] cells)
+    private void nextState()
     {
-        int len = cells.length;
-        boolean[][] temp = new boolean[cells.length][cells.length];
-        Neighborhood neigh = new Neighborhood();
-        for (int row = 0; row < len; ++row)
-            for (int col = 0; col < len; ++col)
+        board.step();
+        board.refresh();
+    }
+
+    private void offerFastForward()
+    {
+        String[] options = { "Stop", "Jump ahead", "Keep running" };
+        String message = "Generation " + board.getGeneration()
+            + " repeats with period " + detector.getPeriod() + ".";
+        int choice = JOptionPane.showOptionDialog(null, message, "Cycle detected",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE,
+            null, options, options[0]);
+        if (choice == 1)
+        {
+            String target = JOptionPane.showInputDialog("Jump to generation:");
+            try
             {
-                neigh.reset(row, col, cells);
-                int count = neigh.getLivingCellCount();
-                if (count < 2 || count > 3)
-                    temp[row][col] = false;
-                else if (count == 3)
-                    temp[row][col] = true;
-                else
-                    temp[row][col] = cells[row][col];
+                if (target != null && board.fastForward(Long.parseLong(target.trim())))
+                    board.refresh();
             }
-
-        board.setCells(temp);
-        board.refresh();
+            catch (NumberFormatException exc)
+            {
+                JOptionPane.showMessageDialog(null, "Not a generation: " + target);
+            }
+        }
+        else if (choice == 2)
+            doRun();
     }
 
     private static void pause(long millis)
@@ -213,7 +442,15 @@ public class Main implements ActionListener, ControlListener
             updateGPS();
             while (running)
             {
-                nextState(board.getCells());
+                nextState();
+                if (detector.getPeriod() == 0)
+                    cycleReported = false;
+                else if (!cycleReported)
+                {
+                    cycleReported = true;
+                    running = false;
+                    SwingUtilities.invokeLater(() -> offerFastForward());
+                }
                 pause(millis);
             }
         }
@@ -0,0 +1,288 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.Arrays;
+
+/**
+ * Step engine that skips the parts of the grid that cannot change.
+ * The grid is divided into tiles of {@link #TILE_ROWS} rows
+ * by one word (64 columns). A tile is recomputed only if it,
+ * or one of its eight neighboring tiles, changed
+ * in the previous generation; any other tile is guaranteed to be
+ * the same in the next generation as it is in the current one.
+ * On boards that are mostly empty, or that hold mostly still lifes,
+ * only a small fraction of the tiles is recomputed.
+ * <p>
+ * The engine relies on being used with a pair of buffers
+ * that are swapped after each generation, as a Board does:
+ * the grid passed as <em>next</em> must hold the generation
+ * before <em>current</em>, so that unchanged tiles need not be
+ * written at all. If the engine is called with any other pair
+ * of grids, every tile is recomputed. Changes made to the current
+ * generation between steps must be reported through
+ * {@link #cellChanged(int, int)} or {@link #invalidate()}.
+ * <p>
+ * If the grid is a torus, the tiles on opposite edges
+ * of the grid are neighbors.
+ *
+ * @see Board#step()
+ */
+public class ActiveRegionEngine implements StepEngine
+{
+    /** The number of rows in a tile. */
+    public static final int         TILE_ROWS   = 64;
+
+    /** Computes the next generation of a single tile. */
+    private final BitSliceEngine    tileEngine;
+
+    /** The current generation passed to the most recent step. */
+    private BitGrid                 lastCurrent;
+
+    /** The next generation passed to the most recent step. */
+    private BitGrid                 lastNext;
+
+    /** The number of tile rows in the grid. */
+    private int                     tileRows;
+
+    /** The number of tile columns in the grid. */
+    private int                     tileCols;
+
+    /**
+     * For each tile, true if the tile may differ between
+     * the current generation and the generation before it.
+     */
+    private boolean[]               changed     = new boolean[0];
+
+    /** Receives the changed flags for the next generation. */
+    private boolean[]               nextChanged = new boolean[0];
+
+    /** True if the tiles on opposite edges of the grid are neighbors. */
+    private boolean                 torus;
+
+    /** The number of tiles recomputed by the most recent step. */
+    private int                     computedTiles;
+
+    /**
+     * Instantiates a new engine that applies the Game of Life.
+     */
+    public ActiveRegionEngine()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new engine that applies the given rule.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     */
+    public ActiveRegionEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        tileEngine = new BitSliceEngine( rule );
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+        if ( current != lastNext || next != lastCurrent )
+            reset( current );
+
+        int rows    = current.getRows();
+        computedTiles = 0;
+        current.fillGhosts();
+        try
+        {
+            stepTiles( current, next, rows );
+        }
+        finally
+        {
+            current.clearGhosts();
+        }
+
+        boolean[]   temp    = changed;
+        changed = nextChanged;
+        nextChanged = temp;
+        lastCurrent = current;
+        lastNext = next;
+    }
+
+    /**
+     * Recomputes every tile whose neighborhood changed
+     * in the previous generation.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     * @param rows      the number of rows in the grid
+     */
+    private void stepTiles( BitGrid current, BitGrid next, int rows )
+    {
+        for ( int tileRow = 0 ; tileRow < tileRows ; ++tileRow )
+        {
+            int fromRow = tileRow * TILE_ROWS;
+            int toRow   = Math.min( fromRow + TILE_ROWS, rows );
+            for ( int tileCol = 0 ; tileCol < tileCols ; ++tileCol )
+            {
+                boolean result  = false;
+                if ( isNeighborhoodChanged( tileRow, tileCol ) )
+                {
+                    result = tileEngine.stepBlock(
+                        current, next, fromRow, toRow, tileCol, tileCol + 1
+                    );
+                    ++computedTiles;
+                }
+                nextChanged[tileRow * tileCols + tileCol] = result;
+            }
+        }
+    }
+
+    /**
+     * Marks the tile containing the given cell as changed.
+     *
+     * @param row   the row of the changed cell
+     * @param col   the column of the changed cell
+     */
+    @Override
+    public void cellChanged( int row, int col )
+    {
+        int tileRow = row / TILE_ROWS;
+        int tileCol = col / BitGrid.WORD_BITS;
+        if ( tileRow >= 0 && tileRow < tileRows
+            && tileCol >= 0 && tileCol < tileCols )
+            changed[tileRow * tileCols + tileCol] = true;
+    }
+
+    /**
+     * Causes every tile to be recomputed by the next step.
+     */
+    @Override
+    public void invalidate()
+    {
+        lastCurrent = null;
+        lastNext = null;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return tileEngine.getRule();
+    }
+
+    /**
+     * Determines whether any tile overlapping the given words
+     * changed in the most recent step.
+     *
+     * @param fromRow   the first of the given rows
+     * @param toRow     the row following the last of the given rows
+     * @param fromWord  the first of the given word columns
+     * @param toWord    the word column following the last
+     *                  of the given word columns
+     *
+     * @return false if none of the given words can have changed;
+     *         true otherwise
+     */
+    @Override
+    public boolean mayHaveChanged( int fromRow, int toRow, int fromWord, int toWord )
+    {
+        boolean result  = lastNext == null;
+        int     toTile  = Math.min( (toRow + TILE_ROWS - 1) / TILE_ROWS, tileRows );
+        int     toCol   = Math.min( toWord, tileCols );
+        for ( int row = fromRow / TILE_ROWS ; row < toTile && !result ; ++row )
+            for ( int col = fromWord ; col < toCol && !result ; ++col )
+                result = changed[row * tileCols + col];
+        return result;
+    }
+
+    /**
+     * Gets the number of tiles recomputed by the most recent step.
+     * Mainly useful for testing and tuning.
+     *
+     * @return the number of tiles recomputed by the most recent step
+     */
+    public int getComputedTiles()
+    {
+        return computedTiles;
+    }
+
+    /**
+     * Prepares to recompute every tile of a grid
+     * with the dimensions of the given grid.
+     *
+     * @param current   the given grid
+     */
+    private void reset( BitGrid current )
+    {
+        tileRows = (current.getRows() + TILE_ROWS - 1) / TILE_ROWS;
+        tileCols = current.getWordsPerRow();
+        torus = current.getTopology() == Topology.TORUS;
+
+        int tiles   = tileRows * tileCols;
+        if ( changed.length != tiles )
+        {
+            changed = new boolean[tiles];
+            nextChanged = new boolean[tiles];
+        }
+        Arrays.fill( changed, true );
+    }
+
+    /**
+     * Determines whether the given tile, or any of its neighbors,
+     * changed in the previous generation.
+     * On a torus, the neighbors of an edge tile
+     * wrap around to the opposite edge.
+     *
+     * @param tileRow   the tile row of the given tile
+     * @param tileCol   the tile column of the given tile
+     *
+     * @return true, if the given tile must be recomputed
+     */
+    private boolean isNeighborhoodChanged( int tileRow, int tileCol )
+    {
+        boolean result  = false;
+        if ( torus )
+            result = isWrappedNeighborhoodChanged( tileRow, tileCol );
+        else
+        {
+            int fromRow = Math.max( tileRow - 1, 0 );
+            int toRow   = Math.min( tileRow + 1, tileRows - 1 );
+            int fromCol = Math.max( tileCol - 1, 0 );
+            int toCol   = Math.min( tileCol + 1, tileCols - 1 );
+            for ( int row = fromRow ; row <= toRow && !result ; ++row )
+                for ( int col = fromCol ; col <= toCol && !result ; ++col )
+                    result = changed[row * tileCols + col];
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the given tile, or any of its neighbors
+     * on a torus, changed in the previous generation.
+     *
+     * @param tileRow   the tile row of the given tile
+     * @param tileCol   the tile column of the given tile
+     *
+     * @return true, if the given tile must be recomputed
+     */
+    private boolean isWrappedNeighborhoodChanged( int tileRow, int tileCol )
+    {
+        boolean result  = false;
+        for ( int dRow = -1 ; dRow <= 1 && !result ; ++dRow )
+        {
+            int row = Math.floorMod( tileRow + dRow, tileRows );
+            for ( int dCol = -1 ; dCol <= 1 && !result ; ++dCol )
+            {
+                int col = Math.floorMod( tileCol + dCol, tileCols );
+                result = changed[row * tileCols + col];
+            }
+        }
+        return result;
+    }
+}
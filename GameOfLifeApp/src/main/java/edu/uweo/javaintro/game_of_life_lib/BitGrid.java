@@ -0,0 +1,630 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.Arrays;
+
+/**
+ * Encapsulates the state of a rectangular grid of cells,
+ * stored as one bit per cell.
+ * Each row of the grid is packed into consecutive <em>long</em> words;
+ * the cell in column <em>col</em> of a row is stored in bit
+ * <em>col % 64</em> of word <em>col / 64</em> of that row.
+ * Bits in the last word of a row that lie beyond the last column
+ * are always zero.
+ * <p>
+ * Each row is stored with a <em>ghost</em> word on either side,
+ * and the grid is stored with a ghost row above the first row
+ * and below the last row, so that a step engine can read the neighbors
+ * of any word without testing for the edges of the grid.
+ * The ghost cells are dead, except while a step engine
+ * is computing a generation of a grid with the {@link Topology#TORUS}
+ * topology; see {@link #fillGhosts()}.
+ * <p>
+ * Compared to a <em>boolean[][]</em> a BitGrid occupies
+ * one eighth of the memory, and allows a step engine
+ * to process 64 cells with a single word operation.
+ *
+ * @see StepEngine
+ * @see BitSliceEngine
+ */
+public class BitGrid
+{
+    /** The number of cells stored in a single word. */
+    public static final int WORD_BITS   = 64;
+
+    /** The number of rows in the grid. */
+    private final int       rows;
+
+    /** The number of columns in the grid. */
+    private final int       cols;
+
+    /** The number of words needed to store a single row. */
+    private final int       wordsPerRow;
+
+    /** The number of words between the starts of consecutive rows. */
+    private final int       stride;
+
+    /** The number of valid bits in the last word of a row; 0 if all. */
+    private final int       lastBits;
+
+    /** Mask that selects the valid bits in the last word of a row. */
+    private final long      lastWordMask;
+
+    /** Determines how the edges of the grid are connected. */
+    private final Topology  topology;
+
+    /**
+     * The state of every cell in the grid, stored row by row,
+     * surrounded by ghost rows and words.
+     */
+    private final long[]    words;
+
+    /**
+     * Instantiates a new, finite grid with the given dimensions.
+     * Initially, all cells are dead.
+     *
+     * @param rows  the number of rows in the grid
+     * @param cols  the number of columns in the grid
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1
+     */
+    public BitGrid( int rows, int cols )
+        throws IllegalArgumentException
+    {
+        this( rows, cols, Topology.FINITE );
+    }
+
+    /**
+     * Instantiates a new grid with the given dimensions and topology.
+     * Initially, all cells are dead.
+     *
+     * @param rows      the number of rows in the grid
+     * @param cols      the number of columns in the grid
+     * @param topology  the topology of the grid
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1, or the topology is null
+     */
+    public BitGrid( int rows, int cols, Topology topology )
+        throws IllegalArgumentException
+    {
+        if ( rows < 1 || cols < 1 )
+        {
+            String  msg = "Invalid grid dimensions: " + rows + "x" + cols;
+            throw new IllegalArgumentException( msg );
+        }
+        if ( topology == null )
+            throw new IllegalArgumentException( "topology is null" );
+
+        this.rows = rows;
+        this.cols = cols;
+        this.topology = topology;
+        wordsPerRow = (cols + WORD_BITS - 1) / WORD_BITS;
+        stride = wordsPerRow + 2;
+
+        lastBits = cols % WORD_BITS;
+        lastWordMask = lastBits == 0 ? -1L : (1L << lastBits) - 1;
+        words = new long[(rows + 2) * stride];
+    }
+
+    /**
+     * Copy constructor. Creates a new grid with the
+     * same dimensions, topology and state as a given grid.
+     *
+     * @param that  the given grid
+     */
+    public BitGrid( BitGrid that )
+    {
+        this( that.rows, that.cols, that.topology );
+        System.arraycopy( that.words, 0, words, 0, words.length );
+    }
+
+    /**
+     * Instantiates a new, finite grid with the dimensions and state
+     * of the given array.
+     *
+     * @param state array that determines the state of each cell;
+     *              the array must be rectangular
+     *
+     * @throws IllegalArgumentException if the given array
+     *         is empty or not rectangular
+     */
+    public BitGrid( boolean[][] state )
+        throws IllegalArgumentException
+    {
+        this( state.length, state.length == 0 ? 0 : state[0].length );
+        copyCells( state );
+    }
+
+    /**
+     * Gets the number of rows in this grid.
+     *
+     * @return the number of rows in this grid
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns in this grid.
+     *
+     * @return the number of columns in this grid
+     */
+    public int getCols()
+    {
+        return cols;
+    }
+
+    /**
+     * Gets the number of words used to store a single row.
+     *
+     * @return the number of words used to store a single row
+     */
+    public int getWordsPerRow()
+    {
+        return wordsPerRow;
+    }
+
+    /**
+     * Gets the topology of this grid.
+     *
+     * @return the topology of this grid
+     */
+    public Topology getTopology()
+    {
+        return topology;
+    }
+
+    /**
+     * Gets the mask that selects the valid bits
+     * in the last word of a row.
+     *
+     * @return the mask that selects the valid bits
+     *         in the last word of a row
+     */
+    public long getLastWordMask()
+    {
+        return lastWordMask;
+    }
+
+    /**
+     * Gets the array in which the state of this grid is stored.
+     * Note that the <em>actual</em> array is returned;
+     * this method is intended for use by step engines,
+     * which must preserve the invariant that unused bits
+     * in the last word of each row, and ghost cells, are zero.
+     * Row <em>-1</em> and row <em>rows</em> are the ghost rows,
+     * and word <em>-1</em> and word <em>wordsPerRow</em> of each row
+     * are the ghost words.
+     *
+     * @return the array in which the state of this grid is stored
+     */
+    long[] getWords()
+    {
+        return words;
+    }
+
+    /**
+     * Gets the number of words between the start
+     * of one row and the start of the next
+     * in the array returned by getWords().
+     *
+     * @return the number of words between the starts of consecutive rows
+     */
+    int getStride()
+    {
+        return stride;
+    }
+
+    /**
+     * Gets the index of the first word of the given row
+     * in the array returned by getWords().
+     * The row may be -1 or <em>rows</em>, for the ghost rows.
+     *
+     * @param row   the given row
+     *
+     * @return the index of the first word of the given row
+     */
+    final int rowOffset( int row )
+    {
+        return (row + 1) * stride + 1;
+    }
+
+    /**
+     * Prepares this grid for stepping. If this grid is a torus,
+     * the ghost cells are set to the state of the cells
+     * on the opposite edge of the grid, and the unused bit
+     * following the last column of each row (if any) is set
+     * to the state of the first column; afterwards,
+     * the neighbors of every cell can be read with no
+     * special treatment of the edges. For a finite grid
+     * this method does nothing.
+     * <p>
+     * Every call to this method must be followed
+     * by a call to {@link #clearGhosts()} once the next generation
+     * has been computed.
+     */
+    void fillGhosts()
+    {
+        if ( topology == Topology.TORUS )
+        {
+            int lastCol = (cols - 1) % WORD_BITS;
+            for ( int row = 0 ; row < rows ; ++row )
+            {
+                int     base    = rowOffset( row );
+                int     last    = base + wordsPerRow - 1;
+                long    west    = (words[last] >>> lastCol) & 1;
+                long    east    = words[base] & 1;
+                words[base - 1] = west << (WORD_BITS - 1);
+                words[last + 1] = east;
+                if ( lastBits != 0 )
+                    words[last] |= east << lastBits;
+            }
+            System.arraycopy( words, rowOffset( rows - 1 ) - 1, words, 0, stride );
+            System.arraycopy(
+                words, rowOffset( 0 ) - 1, words, rowOffset( rows ) - 1, stride
+            );
+        }
+    }
+
+    /**
+     * Restores the ghost cells, and the unused bits in the last word
+     * of each row, to zero after a call to {@link #fillGhosts()}.
+     */
+    void clearGhosts()
+    {
+        if ( topology == Topology.TORUS )
+        {
+            Arrays.fill( words, 0, stride, 0 );
+            Arrays.fill( words, rowOffset( rows ) - 1, words.length, 0 );
+            for ( int row = 0 ; row < rows ; ++row )
+            {
+                int     base    = rowOffset( row );
+                int     last    = base + wordsPerRow - 1;
+                words[base - 1] = 0;
+                words[last + 1] = 0;
+                words[last] &= lastWordMask;
+            }
+        }
+    }
+
+    /**
+     * Gets the state of the cell at the given row and column.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     *
+     * @return true, if the cell is alive
+     *
+     * @throws IndexOutOfBoundsException if the given row or column
+     *         is outside the bounds of the grid
+     */
+    public boolean get( int row, int col )
+        throws IndexOutOfBoundsException
+    {
+        validatePosition( row, col );
+        long    word    = words[rowOffset( row ) + (col >>> 6)];
+        return (word & (1L << col)) != 0;
+    }
+
+    /**
+     * Sets the state of the cell at the given row and column.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     * @param alive true to make the cell alive, false to make it dead
+     *
+     * @throws IndexOutOfBoundsException if the given row or column
+     *         is outside the bounds of the grid
+     */
+    public void set( int row, int col, boolean alive )
+        throws IndexOutOfBoundsException
+    {
+        validatePosition( row, col );
+        int     inx     = rowOffset( row ) + (col >>> 6);
+        long    bit     = 1L << col;
+        if ( alive )
+            words[inx] |= bit;
+        else
+            words[inx] &= ~bit;
+    }
+
+    /**
+     * Marks every cell in this grid dead.
+     */
+    public void clear()
+    {
+        Arrays.fill( words, 0 );
+    }
+
+    /**
+     * Copies the state of the given grid into this grid.
+     * The topology of this grid is not changed.
+     *
+     * @param that  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions
+     *         of the given grid do not match the dimensions
+     *         of this grid
+     */
+    public void copyFrom( BitGrid that )
+        throws IllegalArgumentException
+    {
+        validateDimensions( that.rows, that.cols );
+        System.arraycopy( that.words, 0, words, 0, words.length );
+    }
+
+    /**
+     * Copies the state of the given grid into this grid,
+     * with the upper-left corner of the given grid placed
+     * at the given row and column of this grid.
+     * Cells of the given grid that fall outside this grid
+     * are ignored, and cells of this grid that are not covered
+     * by the given grid are not changed.
+     * The dimensions of the two grids need not match,
+     * and the position may be negative.
+     *
+     * @param that  the given grid
+     * @param row   the row of this grid at which to place
+     *              the first row of the given grid
+     * @param col   the column of this grid at which to place
+     *              the first column of the given grid
+     */
+    public void copyFrom( BitGrid that, int row, int col )
+    {
+        int     fromRow = Math.max( row, 0 );
+        int     toRow   = (int)Math.min( (long)row + that.rows, rows );
+        long    fromCol = Math.max( col, 0 );
+        long    toCol   = Math.min( (long)col + that.cols, cols );
+        for ( int dRow = fromRow ; dRow < toRow && fromCol < toCol ; ++dRow )
+        {
+            int base    = rowOffset( dRow );
+            int sBase   = that.rowOffset( dRow - row );
+            int toWord  = (int)((toCol - 1) >>> 6);
+            for ( int word = (int)(fromCol >>> 6) ; word <= toWord ; ++word )
+            {
+                long    start   = (long)word * WORD_BITS;
+                long    lo      = Math.max( fromCol - start, 0 );
+                long    hi      = Math.min( toCol - start, WORD_BITS );
+                long    mask    = (-1L << lo) & (hi == WORD_BITS ? -1L : (1L << hi) - 1);
+                long    bits    = that.bitsAt( sBase, start - col );
+                words[base + word] = (words[base + word] & ~mask) | (bits & mask);
+            }
+        }
+    }
+
+    /**
+     * Gets the state of 64 consecutive cells of a row,
+     * starting at the given column, which may lie
+     * up to one word before the first column of the row
+     * or after its last column; cells outside the row are dead.
+     *
+     * @param base  the index of the first word of the row
+     * @param start the column of the first cell
+     *
+     * @return the state of the cells, with the first cell in bit 0
+     */
+    private long bitsAt( int base, long start )
+    {
+        int     word    = (int)Math.floorDiv( start, WORD_BITS );
+        int     shift   = Math.floorMod( start, WORD_BITS );
+        long    bits    = wordAt( base, word ) >>> shift;
+        if ( shift != 0 )
+            bits |= wordAt( base, word + 1 ) << (WORD_BITS - shift);
+        return bits;
+    }
+
+    /**
+     * Gets the given word of a row; words outside the row,
+     * including the ghost words, are zero.
+     *
+     * @param base  the index of the first word of the row
+     * @param word  the given word
+     *
+     * @return the given word of the row
+     */
+    private long wordAt( int base, int word )
+    {
+        return word >= 0 && word < wordsPerRow ? words[base + word] : 0;
+    }
+
+    /**
+     * Sets the state of every cell in this grid from the given array.
+     *
+     * @param state array that determines the state of each cell
+     *
+     * @throws IllegalArgumentException if the dimensions of the given
+     *         array do not exactly match the dimensions of this grid
+     */
+    public void setCells( boolean[][] state )
+        throws IllegalArgumentException
+    {
+        copyCells( state );
+    }
+
+    /**
+     * Sets the state of every cell in this grid from the given array.
+     * Called by {@link #setCells(boolean[][])}, and by the constructor,
+     * which must not call an overridable method.
+     *
+     * @param state array that determines the state of each cell
+     *
+     * @throws IllegalArgumentException if the dimensions of the given
+     *         array do not exactly match the dimensions of this grid
+     */
+    private void copyCells( boolean[][] state )
+        throws IllegalArgumentException
+    {
+        if ( state.length != rows )
+            validateDimensions( state.length, cols );
+
+        for ( int row = 0 ; row < rows ; ++row )
+        {
+            boolean[]   source  = state[row];
+            if ( source.length != cols )
+                validateDimensions( rows, source.length );
+
+            int base = rowOffset( row );
+            for ( int word = 0 ; word < wordsPerRow ; ++word )
+            {
+                long    bits    = 0;
+                int     start   = word * WORD_BITS;
+                int     limit   = Math.min( start + WORD_BITS, cols );
+                for ( int col = start ; col < limit ; ++col )
+                    if ( source[col] )
+                        bits |= 1L << col;
+                words[base + word] = bits;
+            }
+        }
+    }
+
+    /**
+     * Returns the state of this grid as a 2-D boolean array.
+     * Changing the returned array will <em>not</em> affect
+     * the state of this grid.
+     *
+     * @return the state of this grid
+     */
+    public boolean[][] toArray()
+    {
+        boolean[][] arr = new boolean[rows][cols];
+        for ( int row = 0 ; row < rows ; ++row )
+        {
+            boolean[]   dest    = arr[row];
+            int         base    = rowOffset( row );
+            for ( int col = 0 ; col < cols ; ++col )
+                dest[col] = (words[base + (col >>> 6)] & (1L << col)) != 0;
+        }
+        return arr;
+    }
+
+    /**
+     * Counts the number of live cells in this grid.
+     *
+     * @return the number of live cells in this grid
+     */
+    public long getPopulation()
+    {
+        long    count   = 0;
+        for ( long word : words )
+            count += Long.bitCount( word );
+        return count;
+    }
+
+    /**
+     * Compares two grids for equality.
+     * Two grids are equal if they have the same dimensions,
+     * topology and state.
+     */
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean rval    = false;
+
+        if ( obj == this )
+            rval = true;
+        else if ( !(obj instanceof BitGrid) )
+            rval = false;
+        else
+        {
+            BitGrid that    = (BitGrid)obj;
+            rval =
+                this.rows == that.rows
+                && this.cols == that.cols
+                && this.topology == that.topology
+                && Arrays.equals( this.words, that.words );
+        }
+
+        return rval;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        int hash    = 31 * (31 * rows + cols) + Arrays.hashCode( words );
+        return hash;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder   bldr    = new StringBuilder();
+        bldr.append( "rows=" ).append( rows )
+            .append( ",cols=" ).append( cols )
+            .append( ",topology=" ).append( topology )
+            .append( ",population=" ).append( getPopulation() );
+        return bldr.toString();
+    }
+
+    /**
+     * Verifies that the given grids are suitable for use
+     * as the current and next generations of a step engine.
+     *
+     * @param current   the current generation
+     * @param next      the next generation
+     *
+     * @throws IllegalArgumentException if the given grids are
+     *         the same object, or if their dimensions
+     *         or topologies differ
+     *
+     * @see StepEngine#step(BitGrid, BitGrid)
+     */
+    static void validatePair( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        if ( current == next )
+            throw new IllegalArgumentException( "current and next are the same grid" );
+        next.validateDimensions( current.rows, current.cols );
+        if ( current.topology != next.topology )
+        {
+            String  msg =
+                "Topology mismatch: " + current.topology + ", " + next.topology;
+            throw new IllegalArgumentException( msg );
+        }
+    }
+
+    /**
+     * Verifies that the given dimensions match the dimensions
+     * of this grid.
+     *
+     * @param actRows   the given number of rows
+     * @param actCols   the given number of columns
+     *
+     * @throws IllegalArgumentException if the given dimensions
+     *         do not match the dimensions of this grid
+     */
+    private void validateDimensions( int actRows, int actCols )
+        throws IllegalArgumentException
+    {
+        final String errFmt =
+            "Invalid array dimensions: [%d][%d]; expected: [%d][%d]";
+        if ( actRows != rows || actCols != cols )
+        {
+            String msg = String.format( errFmt, actRows, actCols, rows, cols );
+            throw new IllegalArgumentException( msg );
+        }
+    }
+
+    /**
+     * Verifies that the given position lies on the grid.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     *
+     * @throws IndexOutOfBoundsException if the given position
+     *         is outside the bounds of the grid
+     */
+    private void validatePosition( int row, int col )
+        throws IndexOutOfBoundsException
+    {
+        if ( row < 0 || row >= rows || col < 0 || col >= cols )
+            throw new IndexOutOfBoundsException( "row=" + row + ",col=" + col );
+    }
+}
@@ -0,0 +1,246 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Step engine that computes 64 cells at a time.
+ * For each word of a row, the eight neighbor words
+ * (the word itself shifted one bit east and west, and the same
+ * for the rows above and below) are summed with a network
+ * of bit-sliced half- and full-adders. The result is a set
+ * of four words, each holding one bit of the neighbor count
+ * of all 64 cells; the rule is then applied with
+ * a handful of logical operations, with no per-cell branches.
+ * The engine applies the Game of Life unless another rule
+ * is given at construction.
+ * <p>
+ * The neighbors of the words on the edges of the grid are read
+ * from the grid's ghost cells, so the inner loop tests
+ * neither for the edges of the grid nor for its topology.
+ *
+ * @see BitGrid
+ * @see Rule
+ */
+public class BitSliceEngine implements StepEngine
+{
+    /** The rule applied by this engine. */
+    private final Rule  rule;
+
+    /**
+     * Instantiates a new engine that applies the Game of Life.
+     */
+    public BitSliceEngine()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new engine that applies the given rule.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     */
+    public BitSliceEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( rule == null )
+            throw new IllegalArgumentException( "rule is null" );
+        this.rule = rule;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+        current.fillGhosts();
+        try
+        {
+            stepRows( current, next, 0, current.getRows() );
+        }
+        finally
+        {
+            current.clearGhosts();
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Computes the next generation for a band of rows.
+     * Only rows <em>fromRow</em> (inclusive) through <em>toRow</em>
+     * (exclusive) of <em>next</em> are written, which allows
+     * disjoint bands to be computed concurrently.
+     * The caller is responsible for bracketing the computation
+     * of a generation with calls to <em>current.fillGhosts()</em>
+     * and <em>current.clearGhosts()</em>.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     * @param fromRow   the first row of the band
+     * @param toRow     the row following the last row of the band
+     */
+    public void stepRows( BitGrid current, BitGrid next, int fromRow, int toRow )
+    {
+        stepBlock( current, next, fromRow, toRow, 0, current.getWordsPerRow() );
+    }
+
+    /**
+     * Computes the next generation for a rectangular block of words.
+     * Only the words in rows <em>fromRow</em> (inclusive) through
+     * <em>toRow</em> (exclusive), and word columns <em>fromWord</em>
+     * (inclusive) through <em>toWord</em> (exclusive) of <em>next</em>
+     * are written.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     * @param fromRow   the first row of the block
+     * @param toRow     the row following the last row of the block
+     * @param fromWord  the first word column of the block
+     * @param toWord    the word column following the last word column
+     *                  of the block
+     *
+     * @return true, if any cell in the block differs between
+     *         the current and next generations
+     */
+    boolean stepBlock(
+        BitGrid current,
+        BitGrid next,
+        int fromRow,
+        int toRow,
+        int fromWord,
+        int toWord
+    )
+    {
+        long[]  src         = current.getWords();
+        long[]  dst         = next.getWords();
+        int     stride      = current.getStride();
+        int     lastWord    = current.getWordsPerRow() - 1;
+        int     limit       = Math.min( toWord, lastWord );
+        long    lastMask    = current.getLastWordMask();
+        long    diffs       = 0;
+
+        for ( int row = fromRow ; row < toRow ; ++row )
+        {
+            int     mid     = current.rowOffset( row );
+            int     up      = mid - stride;
+            int     down    = mid + stride;
+
+            long    upPrev      = src[up + fromWord - 1];
+            long    midPrev     = src[mid + fromWord - 1];
+            long    downPrev    = src[down + fromWord - 1];
+            long    upCurr      = src[up + fromWord];
+            long    midCurr     = src[mid + fromWord];
+            long    downCurr    = src[down + fromWord];
+            for ( int word = fromWord ; word < limit ; ++word )
+            {
+                long    upNext      = src[up + word + 1];
+                long    midNext     = src[mid + word + 1];
+                long    downNext    = src[down + word + 1];
+
+                long    result      = evolve(
+                    rule,
+                    upPrev, upCurr, upNext,
+                    midPrev, midCurr, midNext,
+                    downPrev, downCurr, downNext
+                );
+                dst[mid + word] = result;
+                diffs |= result ^ midCurr;
+
+                upPrev = upCurr;
+                upCurr = upNext;
+                midPrev = midCurr;
+                midCurr = midNext;
+                downPrev = downCurr;
+                downCurr = downNext;
+            }
+
+            // The last word of the row is masked.
+            if ( toWord > lastWord )
+            {
+                long    result      = evolve(
+                    rule,
+                    upPrev, upCurr, src[up + lastWord + 1],
+                    midPrev, midCurr, src[mid + lastWord + 1],
+                    downPrev, downCurr, src[down + lastWord + 1]
+                ) & lastMask;
+                dst[mid + lastWord] = result;
+                diffs |= (result ^ midCurr) & lastMask;
+            }
+        }
+
+        return diffs != 0;
+    }
+
+    /**
+     * Computes the next state of the 64 cells in a single word
+     * under the given rule. Each row is given as three consecutive words;
+     * the word to the west, the word itself and the word
+     * to the east. Bit <em>n</em> of a word is the column
+     * to the west of bit <em>n + 1</em>.
+     *
+     * @param rule      the given rule
+     * @param upPrev    word west of the word in the row above
+     * @param up        word in the row above
+     * @param upNext    word east of the word in the row above
+     * @param midPrev   word west of the given word
+     * @param mid       the given word
+     * @param midNext   word east of the given word
+     * @param downPrev  word west of the word in the row below
+     * @param down      word in the row below
+     * @param downNext  word east of the word in the row below
+     *
+     * @return the next state of the cells in the given word
+     */
+    static long evolve(
+        Rule rule,
+        long upPrev, long up, long upNext,
+        long midPrev, long mid, long midNext,
+        long downPrev, long down, long downNext
+    )
+    {
+        long    nWest   = (up << 1) | (upPrev >>> 63);
+        long    nEast   = (up >>> 1) | (upNext << 63);
+        long    west    = (mid << 1) | (midPrev >>> 63);
+        long    east    = (mid >>> 1) | (midNext << 63);
+        long    sWest   = (down << 1) | (downPrev >>> 63);
+        long    sEast   = (down >>> 1) | (downNext << 63);
+
+        // Row above: full adder.
+        long    sumUp   = nWest ^ up ^ nEast;
+        long    carUp   = (nWest & up) | (nEast & (nWest ^ up));
+        // Same row: half adder.
+        long    sumMid  = west ^ east;
+        long    carMid  = west & east;
+        // Row below: full adder.
+        long    sumDown = sWest ^ down ^ sEast;
+        long    carDown = (sWest & down) | (sEast & (sWest ^ down));
+
+        // Bit 0 of the count; carries have weight 2.
+        long    ones    = sumUp ^ sumMid ^ sumDown;
+        long    carOnes =
+            (sumUp & sumMid) | (sumDown & (sumUp ^ sumMid));
+
+        // Bit 1 of the count; carries have weight 4.
+        long    partial = carUp ^ carMid ^ carDown;
+        long    carPart =
+            (carUp & carMid) | (carDown & (carUp ^ carMid));
+        long    twos    = partial ^ carOnes;
+        long    carTwos = partial & carOnes;
+
+        // Bits 2 and 3 of the count.
+        long    fours   = carPart ^ carTwos;
+        long    eights  = carPart & carTwos;
+
+        return rule.apply( ones, twos, fours, eights, mid );
+    }
+}
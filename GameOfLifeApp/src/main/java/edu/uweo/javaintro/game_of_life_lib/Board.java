@@ -5,17 +5,21 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Stroke;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
@@ -35,6 +39,39 @@ import javax.swing.border.MatteBorder;
  * <p>
  * An ActionEvent is dispatched each time the
  * user clicks on the board.
+ * <p>
+ * The board is double-buffered. Successive generations are computed
+ * by a step engine, which reads the current generation from the
+ * <em>front</em> buffer and writes the next generation to the
+ * <em>back</em> buffer; the buffers are then swapped. No memory is
+ * allocated, and no cells are copied, when stepping the board.
+ * <p>
+ * Alternatively, the board may display a <em>viewport</em> onto
+ * an unbounded SparseUniverse. In that case, stepping the board
+ * steps the universe, and changes made to the board's cells are
+ * made to the corresponding cells of the universe.
+ * <p>
+ * Refreshing the board repaints only the parts of the board
+ * that have changed since the previous refresh. The grid lines,
+ * which never change, are drawn from a cached image.
+ * If the RENDER_MODE property is RASTER, the board is instead
+ * written directly into the pixels of an image, and only the changed
+ * parts of the image are rewritten.
+ * <p>
+ * To show a board too large to fit on the screen, the board
+ * may be zoomed out, so that each pixel shows a square block
+ * of cells, shaded as determined by the LOD_SHADING property.
+ * The number of live cells in each block is kept in a pyramid
+ * of block counts that is updated incrementally as the board changes.
+ * <p>
+ * The board may be changed and stepped on any thread, such as
+ * a thread that runs the simulation, while it is painted on the
+ * event dispatch thread. Refreshing the board publishes a copy
+ * of the current generation through an atomic reference, and the
+ * board is always painted from the most recently published copy,
+ * which is never changed while it is being painted. Painting takes
+ * no locks, so it neither blocks nor is blocked by the simulation,
+ * and never shows part of one generation and part of another.
  * 
  * @see Properties
  * @see <a href="https://en.wikipedia.org/wiki/Conway%27s_Game_of_Life">
@@ -49,6 +86,9 @@ public class Board implements Runnable
      */
     public static final String CANVAS_NAME = "GameOfLifeCanvas";
     
+    /** The greatest level to which the board may be zoomed out. */
+    public static final int MAX_ZOOM_OUT = 16;
+    
     /** The frame that contains the game board. */
     private JFrame frame = new JFrame("Game of Life");
 
@@ -96,11 +136,71 @@ public class Board implements Runnable
     /** The color of a live cell. */
     private Color       cellColor;
     
+    /** The technique used to draw the board. */
+    private RenderMode  renderMode;
+    
     /** 
      * Reflects the state (alive/dead) of every cell on the
-     * game board.
+     * game board, stored as one bit per cell. This is the
+     * <em>front</em> buffer; it holds the current generation.
+     */
+    private BitGrid     allCells;
+    
+    /** 
+     * The <em>back</em> buffer, which receives the next generation
+     * when the board is stepped.
+     */
+    private BitGrid     nextCells;
+    
+    /** 
+     * Guards the front and back buffers, so that changes made
+     * to the board on different threads do not interfere.
+     * Painting the board does not take this lock.
+     */
+    private final Object    bufferLock  = new Object();
+    
+    /** 
+     * Passes the generations published by refresh() to the event
+     * dispatch thread, which paints them.
      */
-    private boolean[][] allCells;
+    private SnapshotBuffer  snapshots;
+    
+    /** Computes successive generations of the board. */
+    private StepEngine  engine  = new BitSliceEngine();
+    
+    /** The number of generations computed since the board was cleared. */
+    private volatile long   generation;
+    
+    /** Determines how the edges of the board are connected. */
+    private Topology        topology    = Topology.FINITE;
+    
+    /** Finds the parts of the board that changed since the last refresh. */
+    private final DirtyTracker  dirtyTracker    = new DirtyTracker();
+    
+    /** Determines how a block of cells is shown when zoomed out. */
+    private LodShading  lodShading;
+    
+    /** 
+     * The level of detail at which the board is shown; 
+     * each pixel shows a block of 2^zoomOut x 2^zoomOut cells.
+     * If 0, the board is not zoomed out.
+     */
+    private volatile int    zoomOut;
+    
+    /** The live cell counts used to shade the board when zoomed out. */
+    private final CellPyramid   pyramid = new CellPyramid();
+    
+    /** The universe displayed by the board; null if none. */
+    private SparseUniverse  universe;
+    
+    /** The recent generations of the board; null if none are recorded. */
+    private History     history;
+    
+    /** The universe row displayed in row 0 of the board. */
+    private long        viewRow;
+    
+    /** The universe column displayed in column 0 of the board. */
+    private long        viewCol;
 
     /** Event listeners. */
     private List<ActionListener> listeners = new ArrayList<>();
@@ -114,13 +214,31 @@ public class Board implements Runnable
     }
 
     /**
-     * Instantiates a new board of the given width/height, in cells.
+     * Instantiates a new, finite board of the given width/height, in cells.
      *
      * @param gridSide the given width/height
      */
     public Board( int gridSide )
     {
+        this( gridSide, Topology.FINITE );
+    }
+
+    /**
+     * Instantiates a new board of the given width/height, in cells,
+     * and the given topology.
+     *
+     * @param gridSide the given width/height
+     * @param topology the given topology
+     * 
+     * @throws IllegalArgumentException if the given topology is null
+     */
+    public Board( int gridSide, Topology topology )
+        throws IllegalArgumentException
+    {
+        if ( topology == null )
+            throw new IllegalArgumentException( "topology is null" );
         Properties.GRID_SIDE.setProperty(gridSide);
+        this.topology = topology;
         initState();
     }
 
@@ -130,7 +248,12 @@ public class Board implements Runnable
      */
     public void run()
     {
+        synchronized ( bufferLock )
+        {
+            snapshots.publish( allCells, generation );
+        }
         canvas = new Canvas();
+        canvas.requestUpdate();
         
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         JScrollPane pane = new JScrollPane( canvas );
@@ -173,10 +296,29 @@ public class Board implements Runnable
      */
     public boolean[][] getCells()
     {
-        boolean[][] arr = new boolean[allCells.length][];
-        for (int inx = 0; inx < arr.length; ++inx)
-            arr[inx] = Arrays.copyOf(allCells[inx], allCells[inx].length);
-        return arr;
+        synchronized ( bufferLock )
+        {
+            return allCells.toArray();
+        }
+    }
+
+    /**
+     * Returns a copy of the state of all cells on the game board,
+     * packed one bit per cell.
+     * Note that, since a <em>copy</em> of the state is returned,
+     * changing the returned grid will <em>not</em> affect
+     * the state of the board.
+     *
+     * @return the cells
+     * 
+     * @see #setGrid(BitGrid)
+     */
+    public BitGrid getGrid()
+    {
+        synchronized ( bufferLock )
+        {
+            return new BitGrid( allCells );
+        }
     }
 
     /**
@@ -205,11 +347,11 @@ public class Board implements Runnable
     public void setCell(Cell cell)
         throws IndexOutOfBoundsException
     {
-        int row = cell.getRow();
-        int col = cell.getCol();
-        if (row >= gridSide || row < 0 || col >= gridSide || col < 0)
-            throw new IndexOutOfBoundsException(cell.toString());
-        allCells[row][col] = cell.isAlive();
+        synchronized ( bufferLock )
+        {
+            changeCell( cell );
+            recordEdit();
+        }
     }
 
     /**
@@ -227,8 +369,18 @@ public class Board implements Runnable
     public void setCells(Cell[] cells)
         throws IndexOutOfBoundsException
     {
-        for (Cell cell : cells)
-            setCell(cell);
+        synchronized ( bufferLock )
+        {
+            try
+            {
+                for (Cell cell : cells)
+                    changeCell(cell);
+            }
+            finally
+            {
+                recordEdit();
+            }
+        }
     }
 
     /**
@@ -248,16 +400,488 @@ public class Board implements Runnable
     public void setCells( boolean[][] state ) throws IllegalArgumentException
     {
         validateState( state );
+        synchronized ( bufferLock )
+        {
+            allCells.setCells( state );
+            engine.invalidate();
+            if ( universe != null )
+                universe.copyFrom( allCells, viewRow, viewCol );
+            resetHistory();
+        }
+    }
 
-        int rowLimit = allCells.length;
-        for (int row = 0; row < rowLimit; ++row)
+    /**
+     * Sets the state of all the cells on the board
+     * from a grid packed one bit per cell.
+     * Note that the board will not visually reflect the given state
+     * until the user performs a refresh operation.
+     *
+     * @param state grid that determines the state of each cell
+     *              on the board.
+     * 
+     * @throws IllegalArgumentException
+     *         if the dimensions of the given grid do not exactly match
+     *         the dimensions of the board.
+     *         
+     * @see #refresh()
+     */
+    public void setGrid( BitGrid state ) throws IllegalArgumentException
+    {
+        synchronized ( bufferLock )
+        {
+            allCells.copyFrom( state );
+            engine.invalidate();
+            if ( universe != null )
+                universe.copyFrom( allCells, viewRow, viewCol );
+            resetHistory();
+        }
+    }
+    
+    /**
+     * Makes alive the cells of the board at which the live cells 
+     * of the given pattern fall, when the origin of the pattern 
+     * is placed at the given row and column. Other cells are not
+     * changed. Cells that fall outside the board are ignored,
+     * unless the board displays a universe, in which case they
+     * are placed in the universe.
+     * The pattern is read a cell at a time, so no array
+     * of the pattern's cells is built. 
+     * Note that the board will not visually reflect the new state
+     * until the user performs a refresh operation.
+     *
+     * @param source    the given pattern
+     * @param row       the row at which to place the pattern's origin
+     * @param col       the column at which to place the pattern's origin
+     * 
+     * @throws IOException if an I/O error occurs while reading 
+     *         the pattern, or the pattern is malformed; the cells
+     *         read before the error remain on the board
+     *         
+     * @see RleReader
+     * @see Life106Reader
+     * @see #refresh()
+     */
+    public void paste( PatternSource source, long row, long col )
+        throws IOException
+    {
+        synchronized ( bufferLock )
+        {
+            try
+            {
+                while ( source.next() )
+                {
+                    long    cellRow = row + source.getRow();
+                    long    cellCol = col + source.getCol();
+                    if ( universe != null )
+                        universe.set( viewRow + cellRow, viewCol + cellCol, true );
+                    else if ( cellRow >= 0 && cellRow < gridSide
+                        && cellCol >= 0 && cellCol < gridSide )
+                        allCells.set( (int)cellRow, (int)cellCol, true );
+                }
+            }
+            finally
+            {
+                if ( universe != null )
+                    universe.copyTo( allCells, viewRow, viewCol );
+                engine.invalidate();
+                resetHistory();
+            }
+        }
+    }
+    
+    /**
+     * Writes a checkpoint of the board, and its generation,
+     * to the given store. The buffers are locked only while
+     * the cells are copied into the store; the checkpoint
+     * is forced to the file after they are unlocked.
+     *
+     * @param store the given store
+     * 
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the store do not match those of the board
+     *         
+     * @see CheckpointStore
+     */
+    public void checkpoint( CheckpointStore store )
+        throws IllegalArgumentException
+    {
+        synchronized ( bufferLock )
+        {
+            store.write( allCells, generation );
+        }
+        store.force();
+    }
+    
+    /**
+     * Restores the board, and its generation, 
+     * from the checkpoint in the given store.
+     * Note that the board will not visually reflect the restored state
+     * until the user performs a refresh operation.
+     *
+     * @param store the given store
+     * 
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the store do not match those of the board
+     * @throws IOException if the store holds no complete checkpoint
+     *         
+     * @see CheckpointStore
+     * @see #refresh()
+     */
+    public void restore( CheckpointStore store )
+        throws IllegalArgumentException, IOException
+    {
+        synchronized ( bufferLock )
+        {
+            store.read( allCells );
+            engine.invalidate();
+            if ( universe != null )
+                universe.copyFrom( allCells, viewRow, viewCol );
+            generation = store.getGeneration();
+            resetHistory();
+        }
+    }
+    
+    /**
+     * Replaces the current generation with the next generation,
+     * as computed by this board's step engine.
+     * If the board displays a universe, the universe is stepped instead,
+     * and the board is updated to show the viewport's new state.
+     * Note that the board will not visually reflect the new state
+     * until the user performs a refresh operation.
+     * 
+     * @see #setEngine(StepEngine)
+     * @see #setUniverse(SparseUniverse)
+     * @see #refresh()
+     */
+    public void step()
+    {
+        synchronized ( bufferLock )
+        {
+            if ( universe != null )
+            {
+                universe.step();
+                universe.copyTo( allCells, viewRow, viewCol );
+            }
+            else
+                advance();
+            ++generation;
+            if ( history != null && universe == null )
+                history.record( allCells, generation );
+        }
+    }
+    
+    /**
+     * Records the recent generations of the board in the given history,
+     * beginning with the current generation, so that the board
+     * can be rewound to them. Each generation is recorded as it
+     * is computed by {@link #step()}. Setting individual cells
+     * records the current generation again, replacing the recorded
+     * state of it and discarding any later generations; replacing
+     * all the cells, or changing the generation, restarts the history
+     * at the current generation.
+     * Generations are not recorded while the board displays a universe.
+     *
+     * @param history the given history; null to stop recording
+     * 
+     * @see #rewind(long)
+     */
+    public void setHistory( History history )
+    {
+        synchronized ( bufferLock )
+        {
+            this.history = history;
+            if ( history != null && universe == null )
+                history.record( allCells, generation );
+        }
+    }
+    
+    /**
+     * Gets the history in which the generations of the board are recorded.
+     *
+     * @return the history in which the generations of the board 
+     *         are recorded; null if none
+     */
+    public History getHistory()
+    {
+        return history;
+    }
+    
+    /**
+     * Restores the board, and its generation, to the given generation
+     * recorded in the board's history, without recomputing it. 
+     * Later generations remain in the history until the board 
+     * is stepped from the restored generation.
+     * Note that the board will not visually reflect the restored state
+     * until the user performs a refresh operation.
+     *
+     * @param generation the given generation
+     * 
+     * @return true if the board was restored; false if the board
+     *         has no history, the given generation is not retained,
+     *         or the board displays a universe
+     *         
+     * @see #setHistory(History)
+     * @see #refresh()
+     */
+    public boolean rewind( long generation )
+    {
+        boolean result  = false;
+        synchronized ( bufferLock )
+        {
+            if ( history != null && universe == null 
+                && history.contains( generation ) )
+            {
+                history.restore( generation, allCells );
+                engine.invalidate();
+                this.generation = generation;
+                result = true;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Advances the board to the given generation, taking advantage
+     * of a repetition detected by the board's engine: if the board
+     * repeats with period <em>p</em>, fewer than <em>p</em> steps
+     * are needed to reach any later generation.
+     * The intermediate generations are not recorded in the
+     * board's history. Unless the given generation immediately
+     * follows the current generation, the jump therefore
+     * resets the history, which then begins with the given generation.
+     * Note that the board will not visually reflect the new state
+     * until the user performs a refresh operation.
+     *
+     * @param generation the given generation
+     * 
+     * @return true if the board was advanced; false if the board's
+     *         engine is not a CycleDetector, or has not detected
+     *         a repetition, the given generation precedes the 
+     *         current generation, or the board displays a universe
+     *         
+     * @see CycleDetector
+     * @see #setEngine(StepEngine)
+     * @see #setHistory(History)
+     * @see #refresh()
+     */
+    public boolean fastForward( long generation )
+    {
+        boolean result  = false;
+        synchronized ( bufferLock )
+        {
+            long    period  = 0;
+            if ( engine instanceof CycleDetector && universe == null )
+                period = ((CycleDetector)engine).getPeriod();
+            if ( period > 0 && generation >= this.generation )
+            {
+                long    count   = (generation - this.generation) % period;
+                for ( long inx = 0 ; inx < count ; ++inx )
+                    advance();
+                if ( generation != this.generation && history != null )
+                    history.record( allCells, generation );
+                this.generation = generation;
+                result = true;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the topology of this board.
+     *
+     * @return the topology of this board
+     */
+    public Topology getTopology()
+    {
+        return topology;
+    }
+    
+    /**
+     * Causes the board to display a viewport onto the given universe.
+     * The board's cells are replaced by the cells of the universe
+     * in the viewport. The universe is unbounded, so the board's
+     * topology has no effect while a universe is displayed. If the given universe is null the board
+     * stops displaying a universe, and keeps the cells
+     * of the most recent viewport.
+     *
+     * @param universe the given universe; may be null
+     * 
+     * @see #setViewOrigin(long, long)
+     */
+    public void setUniverse( SparseUniverse universe )
+    {
+        synchronized ( bufferLock )
+        {
+            this.universe = universe;
+            if ( universe != null )
+            {
+                universe.copyTo( allCells, viewRow, viewCol );
+                generation = universe.getGeneration();
+            }
+            engine.invalidate();
+            resetHistory();
+        }
+    }
+    
+    /**
+     * Gets the universe displayed by the board.
+     *
+     * @return the universe displayed by the board; null if none
+     */
+    public SparseUniverse getUniverse()
+    {
+        return universe;
+    }
+    
+    /**
+     * Moves the viewport onto the displayed universe so that
+     * the given universe position is displayed in the upper-left
+     * corner of the board.
+     * Note that the board will not visually reflect the new state
+     * until the user performs a refresh operation.
+     *
+     * @param row the given universe row
+     * @param col the given universe column
+     * 
+     * @see #setUniverse(SparseUniverse)
+     */
+    public void setViewOrigin( long row, long col )
+    {
+        synchronized ( bufferLock )
+        {
+            viewRow = row;
+            viewCol = col;
+            if ( universe != null )
+            {
+                universe.copyTo( allCells, viewRow, viewCol );
+                engine.invalidate();
+            }
+        }
+    }
+    
+    /**
+     * Gets the universe row displayed in row 0 of the board.
+     *
+     * @return the universe row displayed in row 0 of the board
+     */
+    public long getViewRow()
+    {
+        return viewRow;
+    }
+    
+    /**
+     * Gets the universe column displayed in column 0 of the board.
+     *
+     * @return the universe column displayed in column 0 of the board
+     */
+    public long getViewCol()
+    {
+        return viewCol;
+    }
+    
+    /**
+     * Gets the number of generations computed since the
+     * board was instantiated or cleared.
+     *
+     * @return the number of generations computed
+     * 
+     * @see #step()
+     * @see #clear()
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+    
+    /**
+     * Sets the generation count of the board;
+     * typically used when restoring a saved board.
+     *
+     * @param generation the new generation count
+     * 
+     * @throws IllegalArgumentException if the given count is negative
+     * 
+     * @see #getGeneration()
+     */
+    public void setGeneration( long generation ) 
+        throws IllegalArgumentException
+    {
+        if ( generation < 0 )
+            throw new IllegalArgumentException( "generation = " + generation );
+        synchronized ( bufferLock )
         {
-            int colLimit = allCells[row].length;
-            for (int col = 0; col < colLimit; ++col)
-                allCells[row][col] = state[row][col];
+            this.generation = generation;
+            resetHistory();
         }
     }
     
+    /**
+     * Gets the engine used to compute successive generations.
+     *
+     * @return the engine used to compute successive generations
+     */
+    public StepEngine getEngine()
+    {
+        return engine;
+    }
+    
+    /**
+     * Sets the engine used to compute successive generations.
+     * The default is a BitSliceEngine.
+     *
+     * @param engine the engine used to compute successive generations
+     * 
+     * @see #step()
+     */
+    public void setEngine( StepEngine engine )
+    {
+        synchronized ( bufferLock )
+        {
+            this.engine = engine;
+        }
+    }
+    
+    /**
+     * Zooms the board out, so that each pixel shows a square block
+     * of 2<sup>level</sup> x 2<sup>level</sup> cells, shaded as 
+     * determined by the LOD_SHADING property. 
+     * If the level is 0, each cell is shown at its normal size.
+     * While the board is zoomed out, clicking on the board
+     * does not dispatch events.
+     *
+     * @param level the given level
+     * 
+     * @throws IllegalArgumentException if the given level is negative,
+     *         or greater than MAX_ZOOM_OUT
+     *         
+     * @see #MAX_ZOOM_OUT
+     */
+    public void setZoomOut( int level ) throws IllegalArgumentException
+    {
+        if ( level < 0 || level > MAX_ZOOM_OUT )
+        {
+            String  msg = "zoom out level " + level 
+                + " not in range 0 to " + MAX_ZOOM_OUT;
+            throw new IllegalArgumentException( msg );
+        }
+        
+        zoomOut = level;
+        if ( canvas != null )
+            canvas.repaint();
+    }
+    
+    /**
+     * Gets the level of detail at which the board is shown.
+     *
+     * @return the level of detail at which the board is shown
+     * 
+     * @see #setZoomOut(int)
+     */
+    public int getZoomOut()
+    {
+        return zoomOut;
+    }
+    
     /**
      * Gets the length of the side of the board, in cells.
      *
@@ -269,11 +893,23 @@ public class Board implements Runnable
     }
 
     /**
-     * Redraws the board.
+     * Redraws the parts of the board that have changed
+     * since the previous refresh. The current generation is
+     * published for painting, and the changed parts of the board
+     * are found and repainted on the event dispatch thread;
+     * if this method is not called on the event dispatch thread,
+     * it does not wait for them to be repainted.
      */
     public void refresh()
     {
-        frame.getContentPane().repaint();
+        synchronized ( bufferLock )
+        {
+            snapshots.publish( allCells, generation );
+        }
+        if ( canvas == null )
+            frame.getContentPane().repaint();
+        else
+            canvas.requestUpdate();
     }
 
     /**
@@ -287,13 +923,21 @@ public class Board implements Runnable
     }
 
     /**
-     * Clears the game board; every cell will be marked dead.
+     * Clears the game board; every cell will be marked dead,
+     * and the generation count is reset to 0.
+     * If the board displays a universe, the whole universe is cleared.
      */
     public void clear()
     {
-        for (int inx = 0; inx < allCells.length; ++inx)
-            for (int jnx = 0; jnx < allCells[inx].length; ++jnx)
-                allCells[inx][jnx] = false;
+        synchronized ( bufferLock )
+        {
+            allCells.clear();
+            engine.invalidate();
+            if ( universe != null )
+                universe.clear();
+            generation = 0;
+            resetHistory();
+        }
     }
     
     /**
@@ -317,6 +961,67 @@ public class Board implements Runnable
         }
     }
 
+    /**
+     * Sets the state of a given cell, without recording it
+     * in the history. The caller must hold the buffer lock.
+     *
+     * @param cell the given cell
+     * 
+     * @throws IndexOutOfBoundsException if the row or column
+     *         of the given cell is outside the bounds of the board.
+     */
+    private void changeCell(Cell cell)
+        throws IndexOutOfBoundsException
+    {
+        int row = cell.getRow();
+        int col = cell.getCol();
+        if (row >= gridSide || row < 0 || col >= gridSide || col < 0)
+            throw new IndexOutOfBoundsException(cell.toString());
+        allCells.set( row, col, cell.isAlive() );
+        engine.cellChanged( row, col );
+        if ( universe != null )
+            universe.set( viewRow + row, viewCol + col, cell.isAlive() );
+    }
+
+    /**
+     * Records the current generation in the history again
+     * after its cells have been edited; later generations
+     * are discarded. The caller must hold the buffer lock.
+     */
+    private void recordEdit()
+    {
+        if ( history != null && universe == null )
+            history.record( allCells, generation );
+    }
+
+    /**
+     * Discards the history, and records the current generation
+     * as the first of a new history. Used when the cells
+     * are replaced or the generation changes.
+     * The caller must hold the buffer lock.
+     */
+    private void resetHistory()
+    {
+        if ( history != null && universe == null )
+        {
+            history.clear();
+            history.record( allCells, generation );
+        }
+    }
+
+    /**
+     * Replaces the cells with the next generation, as computed
+     * by this board's step engine, without counting or recording it.
+     * The caller must hold the buffer lock.
+     */
+    private void advance()
+    {
+        engine.step( allCells, nextCells );
+        BitGrid temp = allCells;
+        allCells = nextCells;
+        nextCells = temp;
+    }
+
     /**
      * Initializes the state of the game board.
      */
@@ -332,7 +1037,11 @@ public class Board implements Runnable
         gridSide        = (int) Properties.GRID_SIDE.getProperty();
         minCellSide     = (int) Properties.MIN_CELL_SIDE.getProperty();
         backgroundColor = (Color)Properties.BACKGROUND_COLOR.getProperty();
-        allCells        = new boolean[gridSide][gridSide];
+        renderMode      = (RenderMode)Properties.RENDER_MODE.getProperty();
+        lodShading      = (LodShading)Properties.LOD_SHADING.getProperty();
+        allCells        = new BitGrid(gridSide, gridSide, topology);
+        nextCells       = new BitGrid(gridSide, gridSide, topology);
+        snapshots       = new SnapshotBuffer(gridSide, gridSide, topology);
         
         if ( gridColor == null || gridLineWidth <= 0 )
             useGrid = false;
@@ -357,8 +1066,8 @@ public class Board implements Runnable
         final String errFmt = "Invalid array dimensions: [%d][%d]; expected: [%d][%d]";
 
         boolean err = false;
-        int expRows = allCells.length;
-        int expCols = allCells[0].length;
+        int expRows = allCells.getRows();
+        int expCols = allCells.getCols();
         int actRows = state.length;
         int actCols = state[0].length;
 
@@ -368,7 +1077,6 @@ public class Board implements Runnable
         {
             for ( int row = 0 ; row < expRows && !err ; ++row )
             {
-                expCols = allCells[row].length;
                 actCols = state[row].length;
                 if (expCols != actCols)
                     err = true;
@@ -389,14 +1097,70 @@ public class Board implements Runnable
      * the board is resized, the geometry of a cell will be adjusted.
      * The side of a cell will never be smaller than the 
      * MIN_CELL_SIDE property.
+     * <p>
+     * The canvas paints the generation most recently acquired from
+     * the snapshot buffer. Its images, and the dirty tracker and
+     * pyramid that follow the acquired generation, are only used
+     * on the event dispatch thread, so they need no locks.
      */
     @SuppressWarnings("serial")
     private class Canvas extends JPanel
     {
         
+        /** The number of cells on a side of the cached grid image. */
+        private static final int    GRID_TILE_CELLS = 32;
+        
         /** The grid line stroke. */
         private final Stroke    gridLineStroke = 
             new BasicStroke(gridLineWidth);
+        
+        /** Image of a square block of grid cells; null if not built. */
+        private BufferedImage   gridTile;
+        
+        /** The cell side for which the grid image was built. */
+        private int             gridTileCellSide;
+        
+        /** The image of the board in raster mode; null if not built. */
+        private BufferedImage   raster;
+        
+        /** The pixels of the raster. */
+        private int[]           pixels;
+        
+        /** The cell side for which the raster was built. */
+        private int             rasterCellSide;
+        
+        /** The width of a grid line in the raster; 0 if no grid. */
+        private int             rasterLine;
+        
+        /** The RGB value of a live cell in the raster. */
+        private int             cellRGB;
+        
+        /** The RGB value of a dead cell in the raster. */
+        private int             backgroundRGB;
+        
+        /** The RGB value of a grid line in the raster. */
+        private int             gridRGB;
+        
+        /** The image of the zoomed out board; null if not built. */
+        private BufferedImage   lodImage;
+        
+        /** The pixels of the zoomed out image. */
+        private int[]           lodPixels;
+        
+        /** The zoom out level for which the zoomed out image was built. */
+        private int             lodLevel;
+        
+        /** 
+         * The zoom out level at which the board is shown; 
+         * follows zoomOut on the event dispatch thread.
+         */
+        private int             zoom;
+        
+        /** True if the pyramid counts the cells of the acquired generation. */
+        private boolean         pyramidBuilt;
+        
+        /** True if an update has been requested and not yet performed. */
+        private final AtomicBoolean updatePending = new AtomicBoolean();
 
         /**
          * Instantiates a new canvas.
@@ -456,58 +1220,554 @@ public class Board implements Runnable
                 cellSide = minCellSide;
             }
 
-            // Draw the board.
-            paintGrid(gtx);
-            
-            // Recalculate the preferred size of the Canvas.
-            // This is necessary to make the scroll bars work properly.
+            // Draw the acquired generation.
+            syncZoom();
             int size = gridSide * cellSide;
+            if (zoom > 0)
+            {
+                paintLod(gtx);
+                size = lodImage.getWidth();
+            }
+            else if (renderMode == RenderMode.RASTER)
+                paintRaster(gtx);
+            else
+            {
+                paintCells(gtx);
+                if (useGrid)
+                    paintGrid(gtx);
+            }
+            gtx.dispose();
+            
+            // Recalculate the preferred size of the Canvas if it
+            // has changed. This is necessary to make the scroll bars
+            // work properly.
             if (useBorder)
                 size += 2 * borderWidth;
-            setPreferredSize(new Dimension(size, size));
-            revalidate();
+            if (size != getPreferredSize().width)
+            {
+                setPreferredSize(new Dimension(size, size));
+                revalidate();
+            }
         }
 
         /**
-         * Paints the grid.
+         * Gets the bounds of the region to be painted: 
+         * the clip bounds of the given graphics context.
+         * When the canvas is painted in a scroll pane, Swing limits
+         * the clip to the visible part of the canvas.
+         * If there is no clip, the whole canvas is painted.
          *
-         * @param gtx the gtx
+         * @param gtx the given graphics context
+         * 
+         * @return the bounds of the region to be painted
          */
-        private void paintGrid(Graphics2D gtx)
+        private Rectangle getPaintBounds(Graphics2D gtx)
         {
-            int xco = 0;
-            int yco = 0;
-            gtx.setStroke(gridLineStroke);
+            Rectangle bounds = gtx.getClipBounds();
+            if (bounds == null)
+                bounds = new Rectangle(0, 0, getWidth(), getHeight());
+            return bounds;
+        }
 
-            if (useBorder)
+        /**
+         * Gets the index of the first row or column of cells 
+         * that extends past the given offset from the origin
+         * of the board.
+         *
+         * @param offset the given offset, in pixels
+         * 
+         * @return the index of the first row or column of cells
+         *         that extends past the given offset
+         */
+        private int firstCell(int offset)
+        {
+            int index = offset < 0 ? 0 : offset / cellSide;
+            return Math.min(index, gridSide);
+        }
+
+        /**
+         * Gets the index of the row or column of cells following
+         * the last row or column that begins before the given 
+         * offset from the origin of the board.
+         *
+         * @param offset the given offset, in pixels
+         * 
+         * @return the index of the row or column following the last
+         *         row or column that begins before the given offset
+         */
+        private int lastCell(int offset)
+        {
+            int index = offset < 0 ? 0 : (offset + cellSide - 1) / cellSide;
+            return Math.min(index, gridSide);
+        }
+
+        /**
+         * Requests that the most recently published generation
+         * be acquired and displayed on the event dispatch thread.
+         * If called on the event dispatch thread, the update is
+         * performed immediately; otherwise it is queued, unless 
+         * an update is already queued.
+         */
+        public void requestUpdate()
+        {
+            if (SwingUtilities.isEventDispatchThread())
+                update();
+            else if (updatePending.compareAndSet(false, true))
+                SwingUtilities.invokeLater(this::update);
+        }
+
+        /**
+         * Acquires the most recently published generation, if it
+         * has not already been acquired, and requests that the tiles
+         * that changed be repainted. 
+         * Must be called on the event dispatch thread.
+         */
+        private void update()
+        {
+            updatePending.set(false);
+            syncZoom();
+            if (snapshots.acquire())
+            {
+                BitGrid cells = snapshots.getGrid();
+                if (dirtyTracker.update(cells) > 0)
+                {
+                    if (zoom >= CellPyramid.BASE_LEVEL && pyramidBuilt)
+                        pyramid.update(cells, dirtyTracker);
+                    else
+                        pyramidBuilt = false;
+                    repaintDirtyTiles();
+                }
+            }
+        }
+
+        /**
+         * Brings the zoom out level at which the board is shown
+         * up to date with the zoomOut property of the board.
+         * When the level changes, the raster and the zoomed out 
+         * image, which are only kept up to date at the level at 
+         * which they are shown, are discarded.
+         * Must be called on the event dispatch thread.
+         */
+        private void syncZoom()
+        {
+            int level = zoomOut;
+            if (level != zoom)
+            {
+                zoom = level;
+                raster = null;
+                lodImage = null;
+            }
+        }
+
+        /**
+         * Requests that the tiles found to be dirty
+         * by the most recent dirty tracker update be repainted.
+         * In raster mode, the dirty tiles are first rewritten
+         * in the raster. Must be called on the event dispatch thread.
+         * 
+         * @see DirtyTracker#update(BitGrid)
+         */
+        private void repaintDirtyTiles()
+        {
+            if (zoom > 0)
+                repaintDirtyBlocks();
+            else if (cellSide == 0)
+                repaint();
+            else
             {
-                xco += borderWidth;
-                yco += borderWidth;
+                boolean render = raster != null && rasterCellSide == cellSide;
+                int tileRows = dirtyTracker.getTileRows();
+                int tileCols = dirtyTracker.getTileCols();
+                for (int tileRow = 0; tileRow < tileRows; ++tileRow)
+                    for (int tileCol = 0; tileCol < tileCols; ++tileCol)
+                        if (dirtyTracker.isDirty(tileRow, tileCol))
+                        {
+                            if (render)
+                                renderTile(tileRow, tileCol);
+                            repaintTile(tileRow, tileCol);
+                        }
             }
+        }
 
-            Rectangle2D rect = new Rectangle2D.Double();
-            int saveYco = yco;
-            for (int inx = 0; inx < gridSide; ++inx)
+        /**
+         * Requests that the given tile be repainted.
+         *
+         * @param tileRow   the tile row of the given tile
+         * @param tileCol   the tile column of the given tile
+         */
+        private void repaintTile(int tileRow, int tileCol)
+        {
+            // Note that rows of cells are laid out horizontally.
+            int origin = useBorder ? borderWidth : 0;
+            int fromRow = tileRow * DirtyTracker.TILE_ROWS;
+            int toRow = Math.min(fromRow + DirtyTracker.TILE_ROWS, gridSide);
+            int fromCol = tileCol * DirtyTracker.TILE_COLS;
+            int toCol = Math.min(fromCol + DirtyTracker.TILE_COLS, gridSide);
+            int xco = origin + fromRow * cellSide - gridLineWidth;
+            int yco = origin + fromCol * cellSide - gridLineWidth;
+            int width = (toRow - fromRow) * cellSide + 2 * gridLineWidth;
+            int height = (toCol - fromCol) * cellSide + 2 * gridLineWidth;
+            repaint(xco, yco, width, height);
+        }
+
+        /**
+         * Paints the live cells. Only cells that intersect
+         * the clip bounds of the graphics context are visited,
+         * so the cost of painting depends on the size of the
+         * visible part of the board, not on the size of the board.
+         *
+         * @param gtx the graphics context
+         */
+        private void paintCells(Graphics2D gtx)
+        {
+            int origin = useBorder ? borderWidth : 0;
+            Rectangle clip = getPaintBounds(gtx);
+            int fromRow = firstCell(clip.x - origin);
+            int toRow = lastCell(clip.x + clip.width - origin);
+            int fromCol = firstCell(clip.y - origin);
+            int toCol = lastCell(clip.y + clip.height - origin);
+            BitGrid cells = snapshots.getGrid();
+            gtx.setColor(cellColor);
+            for (int inx = fromRow; inx < toRow; ++inx)
             {
-                yco = saveYco;
-                for (int jnx = 0; jnx < gridSide; ++jnx)
+                int xco = origin + inx * cellSide;
+                for (int jnx = fromCol; jnx < toCol; ++jnx)
                 {
-                    rect.setRect(xco, yco, cellSide, cellSide);
-                    if (useGrid)
+                    if (cells.get(inx, jnx))
                     {
-                        gtx.setColor(gridColor);
-                        gtx.draw(rect);
+                        int yco = origin + jnx * cellSide;
+                        gtx.fillRect(xco, yco, cellSide, cellSide);
                     }
-                    if (allCells[inx][jnx])
+                }
+            }
+        }
+
+        /**
+         * Paints the grid lines. The grid is drawn by repeating
+         * an image of a square block of grid cells, which is only
+         * rebuilt when the size of a cell changes; blocks that lie
+         * entirely outside the clip are skipped.
+         *
+         * @param gtx the graphics context
+         */
+        private void paintGrid(Graphics2D gtx)
+        {
+            if (gridTile == null || gridTileCellSide != cellSide)
+                buildGridTile();
+
+            int origin = useBorder ? borderWidth : 0;
+            int pad = gridLineWidth;
+            int boardSize = gridSide * cellSide;
+            int tileSize = GRID_TILE_CELLS * cellSide;
+            gtx.clipRect(
+                origin - pad, 
+                origin - pad, 
+                boardSize + 2 * pad, 
+                boardSize + 2 * pad
+            );
+            Rectangle clip = gtx.getClipBounds();
+            int imageSize = gridTile.getWidth();
+            for (int xco = 0; xco < boardSize; xco += tileSize)
+            {
+                int left = origin + xco - pad;
+                boolean visible = left <= clip.x + clip.width 
+                    && left + imageSize >= clip.x;
+                for (int yco = 0; yco < boardSize && visible; yco += tileSize)
+                {
+                    int top = origin + yco - pad;
+                    if (top <= clip.y + clip.height 
+                        && top + imageSize >= clip.y)
+                        gtx.drawImage(gridTile, left, top, null);
+                }
+            }
+        }
+
+        /**
+         * Paints the board by drawing the raster. If the raster
+         * does not exist, or was built for a different cell size,
+         * it is rebuilt first. Only the part of the raster
+         * that intersects the clip bounds is drawn.
+         *
+         * @param gtx the graphics context
+         */
+        private void paintRaster(Graphics2D gtx)
+        {
+            int origin = useBorder ? borderWidth : 0;
+            if (raster == null || rasterCellSide != cellSide)
+                buildRaster();
+            
+            int size = raster.getWidth();
+            Rectangle clip = getPaintBounds(gtx)
+                .intersection(new Rectangle(origin, origin, size, size));
+            if (!clip.isEmpty())
+            {
+                int left = clip.x - origin;
+                int top = clip.y - origin;
+                gtx.drawImage(
+                    raster,
+                    clip.x, clip.y, 
+                    clip.x + clip.width, clip.y + clip.height,
+                    left, top, 
+                    left + clip.width, top + clip.height,
+                    null
+                );
+            }
+        }
+
+        /**
+         * Allocates the raster for the current cell size, 
+         * and renders every cell into it. 
+         * In the raster, the grid line on the west and north sides
+         * of each cell is drawn inside the cell, and the final lines
+         * on the east and south sides of the board are drawn
+         * outside the last row and column of cells.
+         * Must be called on the event dispatch thread.
+         */
+        private void buildRaster()
+        {
+            Color background = 
+                backgroundColor != null ? backgroundColor : getBackground();
+            backgroundRGB = background.getRGB();
+            cellRGB = cellColor.getRGB();
+            gridRGB = useGrid ? gridColor.getRGB() : backgroundRGB;
+            rasterLine = useGrid ? Math.min(gridLineWidth, cellSide - 1) : 0;
+            
+            int size = gridSide * cellSide + rasterLine;
+            raster = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            rasterCellSide = cellSide;
+            pixels = ((DataBufferInt)raster.getRaster().getDataBuffer()).getData();
+            
+            // Final grid lines, then every tile.
+            Arrays.fill(pixels, gridRGB);
+            int tileRows = (gridSide + DirtyTracker.TILE_ROWS - 1) 
+                / DirtyTracker.TILE_ROWS;
+            int tileCols = (gridSide + DirtyTracker.TILE_COLS - 1) 
+                / DirtyTracker.TILE_COLS;
+            for (int tileRow = 0; tileRow < tileRows; ++tileRow)
+                for (int tileCol = 0; tileCol < tileCols; ++tileCol)
+                    renderTile(tileRow, tileCol);
+        }
+
+        /**
+         * Writes the cells of the given tile into the raster.
+         * Must be called on the event dispatch thread.
+         *
+         * @param tileRow   the tile row of the given tile
+         * @param tileCol   the tile column of the given tile
+         */
+        private void renderTile(int tileRow, int tileCol)
+        {
+            // Note that rows of cells are laid out horizontally.
+            int fromRow = tileRow * DirtyTracker.TILE_ROWS;
+            int toRow = Math.min(fromRow + DirtyTracker.TILE_ROWS, gridSide);
+            int fromCol = tileCol * DirtyTracker.TILE_COLS;
+            int toCol = Math.min(fromCol + DirtyTracker.TILE_COLS, gridSide);
+            int width = raster.getWidth();
+            BitGrid cells = snapshots.getGrid();
+            for (int col = fromCol; col < toCol; ++col)
+            {
+                int yco = col * cellSide;
+                for (int line = 0; line < cellSide; ++line)
+                {
+                    int base = (yco + line) * width;
+                    boolean onGrid = line < rasterLine;
+                    for (int row = fromRow; row < toRow; ++row)
                     {
-                        gtx.setColor(cellColor);
-                        gtx.fill(rect);
+                        int xco = base + row * cellSide;
+                        int rgb = gridRGB;
+                        if (!onGrid)
+                            rgb = cells.get(row, col) ? cellRGB : backgroundRGB;
+                        Arrays.fill(pixels, xco, xco + rasterLine, gridRGB);
+                        Arrays.fill(pixels, xco + rasterLine, xco + cellSide, rgb);
                     }
-                    yco += cellSide;
                 }
-                xco += cellSide;
             }
         }
+
+        /**
+         * Rewrites and repaints the pixels of the zoomed out image
+         * that show the tiles found to be dirty by the most recent 
+         * dirty tracker update. 
+         * Must be called on the event dispatch thread.
+         */
+        private void repaintDirtyBlocks()
+        {
+            if (lodImage == null || lodLevel != zoom)
+                repaint();
+            else
+            {
+                int origin = useBorder ? borderWidth : 0;
+                int tileRows = dirtyTracker.getTileRows();
+                int tileCols = dirtyTracker.getTileCols();
+                for (int tileRow = 0; tileRow < tileRows; ++tileRow)
+                    for (int tileCol = 0; tileCol < tileCols; ++tileCol)
+                        if (dirtyTracker.isDirty(tileRow, tileCol))
+                        {
+                            int fromRow = tileRow * DirtyTracker.TILE_ROWS;
+                            int toRow = Math.min(
+                                fromRow + DirtyTracker.TILE_ROWS, gridSide
+                            );
+                            int fromCol = tileCol * DirtyTracker.TILE_COLS;
+                            int toCol = Math.min(
+                                fromCol + DirtyTracker.TILE_COLS, gridSide
+                            );
+                            int left = fromRow >> zoom;
+                            int right = ((toRow - 1) >> zoom) + 1;
+                            int top = fromCol >> zoom;
+                            int bottom = ((toCol - 1) >> zoom) + 1;
+                            renderBlocks(left, right, top, bottom);
+                            repaint(
+                                origin + left, 
+                                origin + top, 
+                                right - left, 
+                                bottom - top
+                            );
+                        }
+            }
+        }
+
+        /**
+         * Paints the zoomed out board by drawing the zoomed out image,
+         * in which each pixel shows a block of cells. If the image 
+         * does not exist, or was built for a different level,
+         * it is rebuilt first. Only the part of the image
+         * that intersects the clip bounds is drawn.
+         *
+         * @param gtx the graphics context
+         */
+        private void paintLod(Graphics2D gtx)
+        {
+            int origin = useBorder ? borderWidth : 0;
+            if (lodImage == null || lodLevel != zoom)
+                buildLod();
+            
+            int size = lodImage.getWidth();
+            Rectangle clip = getPaintBounds(gtx)
+                .intersection(new Rectangle(origin, origin, size, size));
+            if (!clip.isEmpty())
+            {
+                int left = clip.x - origin;
+                int top = clip.y - origin;
+                gtx.drawImage(
+                    lodImage,
+                    clip.x, clip.y, 
+                    clip.x + clip.width, clip.y + clip.height,
+                    left, top, 
+                    left + clip.width, top + clip.height,
+                    null
+                );
+            }
+        }
+
+        /**
+         * Allocates the zoomed out image for the current level,
+         * and renders every block of cells into it. If the pyramid
+         * is needed, and does not count the cells of the acquired
+         * generation, it is rebuilt first.
+         * Must be called on the event dispatch thread.
+         */
+        private void buildLod()
+        {
+            if (zoom >= CellPyramid.BASE_LEVEL && !pyramidBuilt)
+            {
+                pyramid.build(snapshots.getGrid());
+                pyramidBuilt = true;
+            }
+            
+            Color background = 
+                backgroundColor != null ? backgroundColor : getBackground();
+            backgroundRGB = background.getRGB();
+            cellRGB = cellColor.getRGB();
+            
+            int size = CellPyramid.blocks(gridSide, zoom);
+            lodImage = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            lodLevel = zoom;
+            lodPixels = 
+                ((DataBufferInt)lodImage.getRaster().getDataBuffer()).getData();
+            renderBlocks(0, size, 0, size);
+        }
+
+        /**
+         * Writes the given blocks of cells into the zoomed out image.
+         * Must be called on the event dispatch thread.
+         *
+         * @param fromRow   the first row of blocks
+         * @param toRow     the row following the last row of blocks
+         * @param fromCol   the first column of blocks
+         * @param toCol     the column following the last column of blocks
+         */
+        private void renderBlocks(int fromRow, int toRow, int fromCol, int toCol)
+        {
+            // Note that rows of cells are laid out horizontally.
+            // Above the top of the pyramid, the whole board is one block.
+            int level = Math.min(zoom, pyramid.getMaxLevel());
+            double area = (double)(1L << (2 * zoom));
+            int width = lodImage.getWidth();
+            BitGrid cells = snapshots.getGrid();
+            for (int col = fromCol; col < toCol; ++col)
+            {
+                int base = col * width;
+                for (int row = fromRow; row < toRow; ++row)
+                {
+                    int count = zoom < CellPyramid.BASE_LEVEL
+                        ? CellPyramid.countBlock(cells, zoom, row, col)
+                        : pyramid.getCount(level, row, col);
+                    lodPixels[base + row] = shade(count / area);
+                }
+            }
+        }
+
+        /**
+         * Computes the RGB value of a pixel showing a block of cells
+         * with the given fraction of live cells.
+         *
+         * @param density   the given fraction of live cells
+         * 
+         * @return  the RGB value of the pixel
+         */
+        private int shade(double density)
+        {
+            int rgb = density > 0 ? cellRGB : backgroundRGB;
+            if (lodShading == LodShading.DENSITY && density > 0)
+            {
+                rgb = 0;
+                for (int shift = 0; shift < 24; shift += 8)
+                {
+                    int from = (backgroundRGB >> shift) & 0xff;
+                    int to = (cellRGB >> shift) & 0xff;
+                    int channel = from + (int)Math.round((to - from) * density);
+                    rgb |= channel << shift;
+                }
+            }
+            return rgb;
+        }
+
+        /**
+         * Builds the image of a block of grid cells used to draw the grid.
+         * The image is padded on all sides by the width of a grid line,
+         * so that lines on the edges of the block are drawn completely.
+         */
+        private void buildGridTile()
+        {
+            int pad = gridLineWidth;
+            int size = GRID_TILE_CELLS * cellSide + 2 * pad;
+            gridTile = 
+                new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            gridTileCellSide = cellSide;
+            
+            Graphics2D gtx = gridTile.createGraphics();
+            gtx.setStroke(gridLineStroke);
+            gtx.setColor(gridColor);
+            for (int inx = 0; inx < GRID_TILE_CELLS; ++inx)
+                for (int jnx = 0; jnx < GRID_TILE_CELLS; ++jnx)
+                    gtx.drawRect(
+                        pad + inx * cellSide, 
+                        pad + jnx * cellSide, 
+                        cellSide, 
+                        cellSide
+                    );
+            gtx.dispose();
+        }
     }
 
     /**
@@ -532,11 +1792,15 @@ public class Board implements Runnable
                 yco -= borderWidth;
             }
 
-            int row = xco / cellSide;
-            int col = yco / cellSide;
-            if (row < allCells.length && col < allCells[row].length)
+            // Clicks on the border give negative indices; floorDiv
+            // keeps them from rounding toward zero into the grid.
+            int row = Math.floorDiv(xco, cellSide);
+            int col = Math.floorDiv(yco, cellSide);
+            if (zoomOut == 0 && row >= 0 && col >= 0
+                && row < gridSide && col < gridSide)
             {
-                boolean alive = allCells[row][col];
+                // The state of the cell as shown.
+                boolean alive = snapshots.getGrid().get(row, col);
                 Cell cell = new Cell(row, col, alive);
                 int ident = evt.getID();
                 int modifiers = evt.getModifiers();
@@ -0,0 +1,534 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps checkpoints of a grid in a memory-mapped file.
+ * The file holds the words of the grid in the same bit-packed
+ * layout as a BitGrid, so taking a checkpoint is a bulk copy
+ * of the words into the mapped file followed by a <em>force</em>
+ * (msync), with no serialization or compression; restoring
+ * a checkpoint is a bulk copy in the other direction.
+ * Opening a store maps the file, and takes constant time
+ * regardless of the size of the grid.
+ * <p>
+ * The file consists of a header of {@link #HEADER_BYTES} bytes:
+ * <ol>
+ * <li>the magic number {@link #MAGIC} (<em>int</em>);</li>
+ * <li>the format version {@link #VERSION} (<em>short</em>);</li>
+ * <li>the ordinal of the topology (<em>byte</em>);</li>
+ * <li>a reserved byte;</li>
+ * <li>the number of rows and columns (<em>int</em>, <em>int</em>);</li>
+ * <li>the generation of the checkpoint in each slot
+ *     (<em>long</em>, <em>long</em>);</li>
+ * <li>1 if the checkpoint in each slot is complete, 0 otherwise
+ *     (<em>byte</em>, <em>byte</em>);</li>
+ * <li>six reserved bytes;</li>
+ * <li>the sequence number of the checkpoint in each slot
+ *     (<em>long</em>, <em>long</em>);</li>
+ * </ol>
+ * followed by two slots, each holding the words of each row
+ * of one checkpoint, little-endian. Checkpoints are written
+ * to the slots alternately, and a slot is marked incomplete,
+ * and the mark forced to the file, before it is overwritten;
+ * so a checkpoint interrupted by a crash is never mistaken
+ * for a valid one, and the previous checkpoint remains readable.
+ * Each checkpoint has a sequence number one greater than that
+ * of the checkpoint before it, so the most recent one is found
+ * even if the generation went backward, as after a rewind.
+ * <p>
+ * A single mapping is limited to 2 GB, so the rows of a large grid
+ * are mapped in chunks of at most {@link #CHUNK_BYTES} bytes.
+ *
+ * @see Board#checkpoint(CheckpointStore)
+ * @see Board#restore(CheckpointStore)
+ */
+public class CheckpointStore implements AutoCloseable
+{
+    /** The magic number that begins every checkpoint file: "GOLC". */
+    public static final int     MAGIC           = 0x474F4C43;
+
+    /** The version of the format written by this class. */
+    public static final short   VERSION         = 1;
+
+    /** The number of bytes in the header. */
+    public static final int     HEADER_BYTES    = 64;
+
+    /** The maximum number of bytes in a single mapping of rows. */
+    static final long           CHUNK_BYTES     = 1L << 30;
+
+    /** The number of slots in which checkpoints are kept. */
+    private static final int    SLOTS           = 2;
+
+    /** Offset of the magic number in the header. */
+    private static final int    MAGIC_OFFSET        = 0;
+
+    /** Offset of the version in the header. */
+    private static final int    VERSION_OFFSET      = 4;
+
+    /** Offset of the topology in the header. */
+    private static final int    TOPOLOGY_OFFSET     = 6;
+
+    /** Offset of the number of rows in the header. */
+    private static final int    ROWS_OFFSET         = 8;
+
+    /** Offset of the number of columns in the header. */
+    private static final int    COLS_OFFSET         = 12;
+
+    /** Offset of the generation of slot 0 in the header. */
+    private static final int    GENERATION_OFFSET   = 16;
+
+    /** Offset of the completion flag of slot 0 in the header. */
+    private static final int    COMPLETE_OFFSET     = 32;
+
+    /** Offset of the sequence number of slot 0 in the header. */
+    private static final int    SEQUENCE_OFFSET     = 40;
+
+    /** The channel of the mapped file. */
+    private final FileChannel           channel;
+
+    /** The mapping of the header. */
+    private final MappedByteBuffer      header;
+
+    /** The mappings of the rows of each slot, in order. */
+    private final MappedByteBuffer[][]  chunks;
+
+    /** The number of rows in each mapping but the last. */
+    private final int                   chunkRows;
+
+    /** The number of rows in the grid. */
+    private final int                   rows;
+
+    /** The number of columns in the grid. */
+    private final int                   cols;
+
+    /** The number of words in a row of the grid. */
+    private final int                   wordsPerRow;
+
+    /** The topology of the grid. */
+    private final Topology              topology;
+
+    /** The slot of the most recent complete checkpoint; -1 if none. */
+    private int                         latest;
+
+    /** The slot written but not yet forced; -1 if none. */
+    private int                         pending;
+
+    /** The sequence number of the most recent complete checkpoint. */
+    private long                        sequence;
+
+    /**
+     * Instantiates a new store on the given channel,
+     * whose header has already been validated or written.
+     *
+     * @param channel   the given channel
+     * @param header    the mapping of the header
+     * @param rows      the number of rows in the grid
+     * @param cols      the number of columns in the grid
+     * @param topology  the topology of the grid
+     *
+     * @throws IOException if the rows cannot be mapped
+     */
+    private CheckpointStore(
+        FileChannel channel,
+        MappedByteBuffer header,
+        int rows,
+        int cols,
+        Topology topology
+    ) throws IOException
+    {
+        this.channel = channel;
+        this.header = header;
+        this.rows = rows;
+        this.cols = cols;
+        this.topology = topology;
+        wordsPerRow = (cols + BitGrid.WORD_BITS - 1) / BitGrid.WORD_BITS;
+
+        long    rowBytes    = (long)wordsPerRow * Long.BYTES;
+        chunkRows = (int)Math.min( Math.max( CHUNK_BYTES / rowBytes, 1 ), rows );
+        chunks = new MappedByteBuffer[SLOTS][(rows + chunkRows - 1) / chunkRows];
+        for ( int slot = 0 ; slot < SLOTS ; ++slot )
+        {
+            long    base    = HEADER_BYTES + slot * rows * rowBytes;
+            for ( int inx = 0 ; inx < chunks[slot].length ; ++inx )
+            {
+                long    first   = (long)inx * chunkRows;
+                long    count   = Math.min( chunkRows, rows - first );
+                chunks[slot][inx] = channel.map(
+                    MapMode.READ_WRITE,
+                    base + first * rowBytes,
+                    count * rowBytes
+                );
+                chunks[slot][inx].order( ByteOrder.LITTLE_ENDIAN );
+            }
+        }
+
+        // The most recent complete checkpoint is the one
+        // with the greater sequence number.
+        latest = -1;
+        pending = -1;
+        for ( int slot = 0 ; slot < SLOTS ; ++slot )
+            if ( header.get( COMPLETE_OFFSET + slot ) != 0
+                && (latest < 0 || getSequence( slot ) > getSequence( latest )) )
+                latest = slot;
+        sequence = latest < 0 ? 0 : getSequence( latest );
+    }
+
+    /**
+     * Creates a store for grids with the given dimensions and topology
+     * in the given file, replacing any existing file.
+     * The store initially holds no complete checkpoint.
+     *
+     * @param path      the given file
+     * @param rows      the number of rows in the grids
+     * @param cols      the number of columns in the grids
+     * @param topology  the topology of the grids
+     *
+     * @return the new store
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1, or the topology is null
+     * @throws IOException if an I/O error occurs
+     */
+    public static CheckpointStore create(
+        Path path,
+        int rows,
+        int cols,
+        Topology topology
+    ) throws IllegalArgumentException, IOException
+    {
+        if ( rows < 1 || cols < 1 || topology == null )
+        {
+            String  msg = "invalid grid: " + rows + " x " + cols + " (" + topology + ")";
+            throw new IllegalArgumentException( msg );
+        }
+
+        FileChannel channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        CheckpointStore store   = null;
+        try
+        {
+            MappedByteBuffer    header  =
+                channel.map( MapMode.READ_WRITE, 0, HEADER_BYTES );
+            header.putInt( MAGIC_OFFSET, MAGIC );
+            header.putShort( VERSION_OFFSET, VERSION );
+            header.put( TOPOLOGY_OFFSET, (byte)topology.ordinal() );
+            header.putInt( ROWS_OFFSET, rows );
+            header.putInt( COLS_OFFSET, cols );
+            for ( int slot = 0 ; slot < SLOTS ; ++slot )
+            {
+                header.putLong( GENERATION_OFFSET + slot * Long.BYTES, 0 );
+                header.put( COMPLETE_OFFSET + slot, (byte)0 );
+                header.putLong( SEQUENCE_OFFSET + slot * Long.BYTES, 0 );
+            }
+            store = new CheckpointStore( channel, header, rows, cols, topology );
+            header.force();
+        }
+        finally
+        {
+            if ( store == null )
+                channel.close();
+        }
+        return store;
+    }
+
+    /**
+     * Opens the store in the given file, which must have been
+     * created by {@link #create(Path, int, int, Topology)}.
+     * The file is mapped, but not read.
+     *
+     * @param path  the given file
+     *
+     * @return the store in the given file
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the file is not a valid checkpoint file
+     */
+    public static CheckpointStore open( Path path )
+        throws IOException
+    {
+        FileChannel channel = FileChannel.open(
+            path,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        CheckpointStore store   = null;
+        try
+        {
+            if ( channel.size() < HEADER_BYTES )
+                throw new IOException( "not a checkpoint file: " + path );
+            MappedByteBuffer    header  =
+                channel.map( MapMode.READ_WRITE, 0, HEADER_BYTES );
+            if ( header.getInt( MAGIC_OFFSET ) != MAGIC )
+                throw new IOException( "not a checkpoint file: " + path );
+            short   version = header.getShort( VERSION_OFFSET );
+            if ( version != VERSION )
+                throw new IOException( "unsupported checkpoint version: " + version );
+            int     topo    = header.get( TOPOLOGY_OFFSET );
+            int     rows    = header.getInt( ROWS_OFFSET );
+            int     cols    = header.getInt( COLS_OFFSET );
+            if ( topo < 0 || topo >= Topology.values().length
+                || rows < 1 || cols < 1 )
+                throw new IOException( "invalid checkpoint header: " + path );
+            long    words   = (long)rows * ((cols + BitGrid.WORD_BITS - 1) / BitGrid.WORD_BITS);
+            if ( channel.size() < HEADER_BYTES + SLOTS * words * Long.BYTES )
+                throw new IOException( "checkpoint file is truncated: " + path );
+            store = new CheckpointStore(
+                channel, header, rows, cols, Topology.values()[topo]
+            );
+        }
+        finally
+        {
+            if ( store == null )
+                channel.close();
+        }
+        return store;
+    }
+
+    /**
+     * Gets the number of rows in the checkpointed grid.
+     *
+     * @return the number of rows in the checkpointed grid
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns in the checkpointed grid.
+     *
+     * @return the number of columns in the checkpointed grid
+     */
+    public int getCols()
+    {
+        return cols;
+    }
+
+    /**
+     * Gets the topology of the checkpointed grid.
+     *
+     * @return the topology of the checkpointed grid
+     */
+    public Topology getTopology()
+    {
+        return topology;
+    }
+
+    /**
+     * Determines whether the store holds a complete checkpoint.
+     *
+     * @return true, if the store holds a complete checkpoint
+     */
+    public boolean isComplete()
+    {
+        return latest >= 0;
+    }
+
+    /**
+     * Gets the generation of the most recent complete checkpoint.
+     *
+     * @return the generation of the most recent complete checkpoint;
+     *         meaningless if the store holds no complete checkpoint
+     */
+    public long getGeneration()
+    {
+        long    result  = 0;
+        if ( latest >= 0 )
+            result = getGeneration( latest );
+        return result;
+    }
+
+    /**
+     * Copies the state of the given grid into the slot
+     * not holding the most recent complete checkpoint,
+     * which is first marked incomplete. The new checkpoint
+     * becomes complete, and durable, after the next call
+     * to {@link #force()}; until then the most recent complete
+     * checkpoint is unchanged. Because the copy is much faster
+     * than the force, a caller that must block other threads
+     * while the grid is read need only do so for the copy.
+     *
+     * @param grid          the given grid
+     * @param generation    the generation of the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of the store,
+     *         or the generation is negative
+     */
+    public void write( BitGrid grid, long generation )
+        throws IllegalArgumentException
+    {
+        validate( grid );
+        if ( generation < 0 )
+            throw new IllegalArgumentException( "generation = " + generation );
+
+        // The slot must be marked incomplete in the file
+        // before any of its rows can reach the file.
+        int     slot    = latest == 0 ? 1 : 0;
+        header.put( COMPLETE_OFFSET + slot, (byte)0 );
+        header.force();
+        header.putLong( GENERATION_OFFSET + slot * Long.BYTES, generation );
+        header.putLong( SEQUENCE_OFFSET + slot * Long.BYTES, sequence + 1 );
+        long[]  words   = grid.getWords();
+        for ( int row = 0 ; row < rows ; ++row )
+            rowBuffer( slot, row ).put( words, grid.rowOffset( row ), wordsPerRow );
+        pending = slot;
+    }
+
+    /**
+     * Forces the most recently written checkpoint to the file,
+     * then marks it complete. Does nothing if no checkpoint
+     * has been written since the last force.
+     */
+    public void force()
+    {
+        if ( pending >= 0 )
+        {
+            for ( MappedByteBuffer chunk : chunks[pending] )
+                chunk.force();
+            header.put( COMPLETE_OFFSET + pending, (byte)1 );
+            header.force();
+            latest = pending;
+            sequence = getSequence( latest );
+            pending = -1;
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the given grid, and forces it to the file.
+     *
+     * @param grid          the given grid
+     * @param generation    the generation of the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of the store,
+     *         or the generation is negative
+     *
+     * @see #write(BitGrid, long)
+     * @see #force()
+     */
+    public void save( BitGrid grid, long generation )
+        throws IllegalArgumentException
+    {
+        write( grid, generation );
+        force();
+    }
+
+    /**
+     * Copies the state of the most recent complete checkpoint
+     * into the given grid.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of the store
+     * @throws IOException if the store holds no complete checkpoint
+     */
+    public void read( BitGrid grid )
+        throws IllegalArgumentException, IOException
+    {
+        validate( grid );
+        if ( !isComplete() )
+            throw new IOException( "checkpoint is not complete" );
+
+        long[]  words   = grid.getWords();
+        long    mask    = grid.getLastWordMask();
+        for ( int row = 0 ; row < rows ; ++row )
+        {
+            int base    = grid.rowOffset( row );
+            rowBuffer( latest, row ).get( words, base, wordsPerRow );
+            words[base + wordsPerRow - 1] &= mask;
+        }
+    }
+
+    /**
+     * Closes the file. The mappings are released when
+     * they are garbage collected.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Gets the generation of the checkpoint in the given slot.
+     *
+     * @param slot  the given slot
+     *
+     * @return the generation of the checkpoint in the given slot
+     */
+    private long getGeneration( int slot )
+    {
+        return header.getLong( GENERATION_OFFSET + slot * Long.BYTES );
+    }
+
+    /**
+     * Gets the sequence number of the checkpoint in the given slot.
+     *
+     * @param slot  the given slot
+     *
+     * @return the sequence number of the checkpoint in the given slot
+     */
+    private long getSequence( int slot )
+    {
+        return header.getLong( SEQUENCE_OFFSET + slot * Long.BYTES );
+    }
+
+    /**
+     * Gets a view of the words of the given row in the given slot.
+     *
+     * @param slot  the given slot
+     * @param row   the given row
+     *
+     * @return a view of the words of the given row
+     */
+    private LongBuffer rowBuffer( int slot, int row )
+    {
+        MappedByteBuffer    chunk   = chunks[slot][row / chunkRows];
+        int                 offset  = (row % chunkRows) * wordsPerRow * Long.BYTES;
+        return chunk.slice( offset, wordsPerRow * Long.BYTES )
+            .order( ByteOrder.LITTLE_ENDIAN )
+            .asLongBuffer();
+    }
+
+    /**
+     * Verifies that the dimensions and topology of the given grid
+     * match those of the store.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of the store
+     */
+    private void validate( BitGrid grid )
+        throws IllegalArgumentException
+    {
+        if ( grid.getRows() != rows || grid.getCols() != cols
+            || grid.getTopology() != topology )
+        {
+            String  msg = String.format(
+                "grid is %d x %d (%s); checkpoint is %d x %d (%s)",
+                grid.getRows(), grid.getCols(), grid.getTopology(),
+                rows, cols, topology
+            );
+            throw new IllegalArgumentException( msg );
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a pattern in the Life 1.06 format, which lists
+ * the position of each live cell on a line of its own.
+ * For example, a glider:
+ * <pre>
+ * #Life 1.06
+ * 1 0
+ * 2 1
+ * 0 2
+ * 1 2
+ * 2 2
+ * </pre>
+ * Each line gives the <em>x</em> (column) and <em>y</em> (row)
+ * of a live cell, relative to the origin of the pattern;
+ * either may be negative. Lines beginning with <em>#</em> are ignored.
+ * The cells are read a line at a time as they are requested.
+ *
+ * @see Life106Writer
+ */
+public class Life106Reader implements PatternSource
+{
+    /** The header that begins every Life 1.06 file. */
+    public static final String  HEADER  = "#Life 1.06";
+
+    /** The source of the pattern. */
+    private final BufferedReader    reader;
+
+    /** The number of the line most recently read. */
+    private long                    lineNumber;
+
+    /** The position in the current line of the next character to parse. */
+    private int                     cursor;
+
+    /** The row of the current live cell. */
+    private long                    cellRow;
+
+    /** The column of the current live cell. */
+    private long                    cellCol;
+
+    /**
+     * Instantiates a new reader, and reads the header
+     * of the pattern from the given source.
+     *
+     * @param reader    the given source
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the header is missing
+     */
+    public Life106Reader( Reader reader )
+        throws IOException
+    {
+        this.reader = reader instanceof BufferedReader
+            ? (BufferedReader)reader : new BufferedReader( reader );
+        String  line    = this.reader.readLine();
+        lineNumber = 1;
+        if ( line == null || !line.trim().equals( HEADER ) )
+            throw new IOException( "not a Life 1.06 file" );
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.PatternSource#next()
+     */
+    @Override
+    public boolean next()
+        throws IOException
+    {
+        String  line    = reader.readLine();
+        ++lineNumber;
+        while ( line != null && (line.isBlank() || line.startsWith( "#" )) )
+        {
+            line = reader.readLine();
+            ++lineNumber;
+        }
+
+        if ( line != null )
+        {
+            cursor = 0;
+            cellCol = parseLong( line );
+            cellRow = parseLong( line );
+            skipBlanks( line );
+            if ( cursor < line.length() )
+                throw invalidLine( line );
+        }
+        return line != null;
+    }
+
+    /**
+     * Parses a number from the given line, beginning at the cursor,
+     * and advances the cursor past the number.
+     * Leading blanks are skipped.
+     *
+     * @param line  the given line
+     *
+     * @return the parsed number
+     *
+     * @throws IOException if the cursor is not at a number
+     */
+    private long parseLong( String line )
+        throws IOException
+    {
+        skipBlanks( line );
+        int     length      = line.length();
+        boolean negative    = cursor < length && line.charAt( cursor ) == '-';
+        if ( negative )
+            ++cursor;
+
+        int     start   = cursor;
+        long    value   = 0;
+        char    digit   = cursor < length ? line.charAt( cursor ) : ' ';
+        while ( digit >= '0' && digit <= '9' )
+        {
+            value = 10 * value + (digit - '0');
+            ++cursor;
+            digit = cursor < length ? line.charAt( cursor ) : ' ';
+        }
+        if ( cursor == start || cursor - start > 18 )
+            throw invalidLine( line );
+        return negative ? -value : value;
+    }
+
+    /**
+     * Advances the cursor past any blanks in the given line.
+     *
+     * @param line  the given line
+     */
+    private void skipBlanks( String line )
+    {
+        while ( cursor < line.length() && Character.isWhitespace( line.charAt( cursor ) ) )
+            ++cursor;
+    }
+
+    /**
+     * Creates the exception that reports an invalid line.
+     *
+     * @param line  the invalid line
+     *
+     * @return the exception that reports the invalid line
+     */
+    private IOException invalidLine( String line )
+    {
+        return new IOException( "line " + lineNumber + ": invalid cell: " + line );
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.PatternSource#getRow()
+     */
+    @Override
+    public long getRow()
+    {
+        return cellRow;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.PatternSource#getCol()
+     */
+    @Override
+    public long getCol()
+    {
+        return cellCol;
+    }
+}
@@ -0,0 +1,221 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Step engine that divides the grid into bands of rows
+ * and computes the bands concurrently on a ForkJoinPool.
+ * Each band reads the current generation, which is not modified,
+ * and writes only its own rows of the next generation,
+ * so the bands need no synchronization; the result is
+ * identical to that of a BitSliceEngine.
+ * <p>
+ * The number of threads is taken from the
+ * {@link Properties#STEP_THREADS} property at construction.
+ *
+ * @see BitSliceEngine
+ * @see Properties#STEP_THREADS
+ */
+public class ParallelEngine implements StepEngine
+{
+    /** Bands smaller than this are not split further. */
+    private static final int        MIN_BAND_ROWS   = 16;
+
+    /** The number of bands allocated to each thread. */
+    private static final int        BANDS_PER_THREAD    = 4;
+
+    /** Computes the next generation of a single band. */
+    private final BitSliceEngine    bandEngine;
+
+    /** The number of threads used to compute a generation. */
+    private final int               threads;
+
+    /** The pool on which the bands are computed. */
+    private final ForkJoinPool      pool;
+
+    /**
+     * Instantiates a new parallel step engine using the number of
+     * threads given by the STEP_THREADS property.
+     *
+     * @see Properties#STEP_THREADS
+     */
+    public ParallelEngine()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new parallel step engine that applies
+     * the given rule, using the number of threads given by
+     * the STEP_THREADS property.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     *
+     * @see Properties#STEP_THREADS
+     */
+    public ParallelEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        this( (int)Properties.STEP_THREADS.getProperty(), rule );
+    }
+
+    /**
+     * Instantiates a new parallel step engine using
+     * the given number of threads.
+     *
+     * @param threads   the given number of threads
+     *
+     * @throws IllegalArgumentException if the given number of
+     *         threads is less than 1
+     */
+    public ParallelEngine( int threads )
+        throws IllegalArgumentException
+    {
+        this( threads, Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new parallel step engine that applies
+     * the given rule, using the given number of threads.
+     *
+     * @param threads   the given number of threads
+     * @param rule      the given rule
+     *
+     * @throws IllegalArgumentException if the given number of
+     *         threads is less than 1, or the given rule is null
+     */
+    public ParallelEngine( int threads, Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( threads < 1 )
+            throw new IllegalArgumentException( "threads = " + threads );
+        bandEngine = new BitSliceEngine( rule );
+        this.threads = threads;
+        pool = new ForkJoinPool( threads );
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+
+        int rows        = current.getRows();
+        int bandRows    = rows / (threads * BANDS_PER_THREAD);
+        if ( bandRows < MIN_BAND_ROWS )
+            bandRows = MIN_BAND_ROWS;
+
+        current.fillGhosts();
+        try
+        {
+            if ( threads == 1 || rows <= bandRows )
+                bandEngine.stepRows( current, next, 0, rows );
+            else
+                pool.invoke( new Band( current, next, 0, rows, bandRows ) );
+        }
+        finally
+        {
+            current.clearGhosts();
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return bandEngine.getRule();
+    }
+
+    /**
+     * Gets the number of threads used to compute a generation.
+     *
+     * @return the number of threads used to compute a generation
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Releases the threads used by this engine.
+     * The engine may not be used after it is shut down.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Task that computes the next generation for a band of rows,
+     * splitting the band in half until it is no larger than
+     * a given number of rows.
+     */
+    @SuppressWarnings("serial")
+    private class Band extends RecursiveAction
+    {
+        /** The current generation. */
+        private final BitGrid   current;
+
+        /** Grid to receive the next generation. */
+        private final BitGrid   next;
+
+        /** The first row of the band. */
+        private final int       fromRow;
+
+        /** The row following the last row of the band. */
+        private final int       toRow;
+
+        /** Bands no larger than this are computed directly. */
+        private final int       bandRows;
+
+        /**
+         * Instantiates a new band.
+         *
+         * @param current   the current generation
+         * @param next      grid to receive the next generation
+         * @param fromRow   the first row of the band
+         * @param toRow     the row following the last row of the band
+         * @param bandRows  bands no larger than this are computed directly
+         */
+        public Band(
+            BitGrid current,
+            BitGrid next,
+            int fromRow,
+            int toRow,
+            int bandRows
+        )
+        {
+            this.current = current;
+            this.next = next;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.bandRows = bandRows;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute()
+        {
+            if ( toRow - fromRow <= bandRows )
+                bandEngine.stepRows( current, next, fromRow, toRow );
+            else
+            {
+                int middle  = (fromRow + toRow) >>> 1;
+                invokeAll(
+                    new Band( current, next, fromRow, middle, bandRows ),
+                    new Band( current, next, middle, toRow, bandRows )
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+
+/**
+ * A source of the live cells of a pattern, delivered one at a time
+ * in the order in which they are read. Because only the current cell
+ * is held, a pattern of any size may be placed on a board
+ * or in a universe without first building an array of its cells.
+ * Positions are relative to the origin of the pattern,
+ * and may be negative.
+ *
+ * @see Board#paste(PatternSource, long, long)
+ * @see RleReader
+ * @see Life106Reader
+ */
+public interface PatternSource
+{
+    /**
+     * Advances to the next live cell of the pattern.
+     *
+     * @return true, if there is another live cell,
+     *         false if the pattern is exhausted
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the pattern is malformed
+     */
+    boolean next() throws IOException;
+
+    /**
+     * Gets the row of the current live cell.
+     *
+     * @return the row of the current live cell
+     */
+    long getRow();
+
+    /**
+     * Gets the column of the current live cell.
+     *
+     * @return the column of the current live cell
+     */
+    long getCol();
+}
@@ -136,6 +136,25 @@ import java.awt.Color;
  * <li>{@link #CELL_COLOR}</li>
  * </ul>
  * </dd>
+ * 
+ * <dt>Category: Rendering</dt>
+ * <dd>
+ * The technique used to draw the board.
+ * <p>See:</p>
+ * <ul>
+ * <li>{@link #RENDER_MODE}</li>
+ * <li>{@link #LOD_SHADING}</li>
+ * </ul>
+ * </dd>
+ * 
+ * <dt>Category: Simulation</dt>
+ * <dd>
+ * Properties of the engines that compute successive generations.
+ * <p>See:</p>
+ * <ul>
+ * <li>{@link #STEP_THREADS}</li>
+ * </ul>
+ * </dd>
  * </dl>
  * </blockquote>
  */
@@ -222,7 +241,35 @@ public enum Properties
      * 
      * @see #BACKGROUND_COLOR
      */
-    CELL_COLOR( Color.BLACK );
+    CELL_COLOR( Color.BLACK ),
+    
+    /** 
+     * The technique used to draw the board.
+     * RASTER is much faster than SHAPES for large boards.
+     * The default is <em>RenderMode.SHAPES.</em>
+     * 
+     * @see RenderMode
+     */
+    RENDER_MODE( RenderMode.SHAPES ),
+    
+    /** 
+     * How a block of cells is shown by a single pixel
+     * when the board is zoomed out.
+     * The default is <em>LodShading.DENSITY.</em>
+     * 
+     * @see LodShading
+     * @see Board#setZoomOut(int)
+     */
+    LOD_SHADING( LodShading.DENSITY ),
+    
+    /** 
+     * The number of threads used by a parallel step engine
+     * to compute the next generation.
+     * The default is the number of processors available to the JVM.
+     * 
+     * @see ParallelEngine
+     */
+    STEP_THREADS( Runtime.getRuntime().availableProcessors() );
     
     /** The default value of this property. */
     private final Object    defValue;
@@ -0,0 +1,23 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Determines how the cells of a Board are drawn.
+ *
+ * @see Properties#RENDER_MODE
+ */
+public enum RenderMode
+{
+    /**
+     * Each live cell, and the grid, is drawn with Java2D
+     * shape operations.
+     */
+    SHAPES,
+    
+    /**
+     * The cells and the grid are written directly into the pixels
+     * of an image, which is drawn on the screen with a single
+     * operation. Only the parts of the image that have changed
+     * are rewritten.
+     */
+    RASTER
+}
@@ -0,0 +1,276 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a pattern in the run length encoded (RLE) format
+ * used by most Game of Life programs. For example, a glider:
+ * <pre>
+ * #N Glider
+ * x = 3, y = 3, rule = B3/S23
+ * bob$2bo$3o!
+ * </pre>
+ * Lines beginning with <em>#</em> that precede the header
+ * are comments. The header gives the width (<em>x</em>) and height
+ * (<em>y</em>) of the pattern, and optionally its rule.
+ * The body is a sequence of runs, each an optional count followed by
+ * a tag: <em>b</em> for dead cells, <em>o</em> (or any other letter)
+ * for live cells, and <em>$</em> for the end of a row.
+ * The pattern ends with <em>!</em>. Lines of the pattern
+ * are rows of the grid, and positions within a line are columns.
+ * <p>
+ * The header is read when the reader is constructed;
+ * the body is read a character at a time as the live cells
+ * are requested, so the caller should supply a buffered reader.
+ *
+ * @see RleWriter
+ */
+public class RleReader implements PatternSource
+{
+    /** The source of the pattern. */
+    private final Reader    reader;
+
+    /** The width of the pattern, from the header. */
+    private final long      width;
+
+    /** The height of the pattern, from the header. */
+    private final long      height;
+
+    /** The rule of the pattern, from the header. */
+    private final String    rule;
+
+    /** The row of the next cell to be read. */
+    private long            row;
+
+    /** The column of the next cell to be read. */
+    private long            col;
+
+    /** The number of live cells remaining in the current run. */
+    private long            pending;
+
+    /** True if the end of the pattern has been read. */
+    private boolean         done;
+
+    /** The row of the current live cell. */
+    private long            cellRow;
+
+    /** The column of the current live cell. */
+    private long            cellCol;
+
+    /**
+     * Instantiates a new reader, and reads the comments
+     * and header of the pattern from the given source.
+     *
+     * @param reader    the given source
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the header is missing or malformed
+     */
+    public RleReader( Reader reader )
+        throws IOException
+    {
+        this.reader = reader;
+
+        String  line    = readLine();
+        while ( line != null && (line.isBlank() || line.startsWith( "#" )) )
+            line = readLine();
+        if ( line == null )
+            throw new IOException( "RLE header not found" );
+
+        long    xVal    = -1;
+        long    yVal    = -1;
+        String  rVal    = PatternFile.LIFE_RULE;
+        for ( String field : line.split( "," ) )
+        {
+            String[]    pair    = field.split( "=" );
+            if ( pair.length != 2 )
+                throw new IOException( "invalid RLE header: " + line );
+            String  key     = pair[0].trim();
+            String  value   = pair[1].trim();
+            switch ( key )
+            {
+            case "x":
+                xVal = parseSize( value, line );
+                break;
+            case "y":
+                yVal = parseSize( value, line );
+                break;
+            case "rule":
+                rVal = value;
+                break;
+            default:
+                // Unknown fields are ignored.
+                break;
+            }
+        }
+        if ( xVal < 0 || yVal < 0 )
+            throw new IOException( "RLE header lacks dimensions: " + line );
+        width = xVal;
+        height = yVal;
+        rule = rVal;
+    }
+
+    /**
+     * Gets the width of the pattern, in columns, as given by the header.
+     *
+     * @return the width of the pattern
+     */
+    public long getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Gets the height of the pattern, in rows, as given by the header.
+     *
+     * @return the height of the pattern
+     */
+    public long getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Gets the rule of the pattern, in B/S notation.
+     * If the header does not specify a rule,
+     * the rule of the Game of Life is assumed.
+     *
+     * @return the rule of the pattern
+     */
+    public String getRule()
+    {
+        return rule;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.PatternSource#next()
+     */
+    @Override
+    public boolean next()
+        throws IOException
+    {
+        boolean found   = false;
+        while ( !found && !done )
+        {
+            if ( pending > 0 )
+            {
+                cellRow = row;
+                cellCol = col++;
+                --pending;
+                found = true;
+            }
+            else
+                readRun();
+        }
+        return found;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.PatternSource#getRow()
+     */
+    @Override
+    public long getRow()
+    {
+        return cellRow;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.PatternSource#getCol()
+     */
+    @Override
+    public long getCol()
+    {
+        return cellCol;
+    }
+
+    /**
+     * Reads the next run of the body, and updates the position
+     * of the next cell accordingly. The end of the input
+     * is treated as the end of the pattern.
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the body is malformed
+     */
+    private void readRun()
+        throws IOException
+    {
+        int     next    = reader.read();
+        while ( Character.isWhitespace( next ) )
+            next = reader.read();
+
+        long    count   = 0;
+        boolean counted = false;
+        while ( next >= '0' && next <= '9' )
+        {
+            count = Math.addExact( Math.multiplyExact( count, 10 ), next - '0' );
+            counted = true;
+            next = reader.read();
+        }
+        if ( !counted )
+            count = 1;
+
+        if ( next == 'b' || next == '.' )
+            col += count;
+        else if ( next == '$' )
+        {
+            row += count;
+            col = 0;
+        }
+        else if ( next == '!' || next < 0 )
+            done = true;
+        else if ( Character.isLetter( next ) )
+            pending = count;
+        else
+            throw new IOException( "invalid RLE tag: " + (char)next );
+    }
+
+    /**
+     * Reads a line of the header.
+     *
+     * @return the line, without its terminator;
+     *         null if the end of the input has been reached
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private String readLine()
+        throws IOException
+    {
+        StringBuilder   bldr    = new StringBuilder();
+        int             next    = reader.read();
+        while ( next >= 0 && next != '\n' )
+        {
+            if ( next != '\r' )
+                bldr.append( (char)next );
+            next = reader.read();
+        }
+        return next < 0 && bldr.length() == 0 ? null : bldr.toString();
+    }
+
+    /**
+     * Parses a dimension of the header.
+     *
+     * @param value the text of the dimension
+     * @param line  the header, for error messages
+     *
+     * @return the parsed dimension
+     *
+     * @throws IOException if the dimension is not a non-negative number
+     */
+    private static long parseSize( String value, String line )
+        throws IOException
+    {
+        long    size    = -1;
+        try
+        {
+            size = Long.parseLong( value );
+        }
+        catch ( NumberFormatException exc )
+        {
+            throw new IOException( "invalid RLE header: " + line, exc );
+        }
+        if ( size < 0 )
+            throw new IOException( "invalid RLE header: " + line );
+        return size;
+    }
+}
@@ -0,0 +1,135 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the state of a grid in the run length encoded (RLE) format
+ * read by {@link RleReader}. The grid is written a row at a time,
+ * and runs are found a word at a time, so writing a grid
+ * takes time proportional to the number of runs
+ * plus the number of words in the grid. Dead cells at the end
+ * of a row, and empty rows at the end of the grid, are omitted,
+ * as is customary; lines of the body are at most
+ * {@link #LINE_LENGTH} characters long.
+ *
+ * @see RleReader
+ */
+public class RleWriter
+{
+    /** The maximum length of a line of the body. */
+    public static final int LINE_LENGTH = 70;
+
+    /** The destination of the pattern. */
+    private final Writer    writer;
+
+    /** The length of the current line of the body. */
+    private int             lineLength;
+
+    /**
+     * Instantiates a new writer that writes to the given destination.
+     *
+     * @param writer    the given destination
+     */
+    public RleWriter( Writer writer )
+    {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the given grid, with the given rule in the header.
+     * The destination is flushed, but not closed.
+     *
+     * @param grid  the given grid
+     * @param rule  the given rule, in B/S notation
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write( BitGrid grid, String rule )
+        throws IOException
+    {
+        int     rows    = grid.getRows();
+        int     cols    = grid.getCols();
+        writer.write(
+            "x = " + cols + ", y = " + rows + ", rule = " + rule + "\n"
+        );
+
+        lineLength = 0;
+        long[]  words   = grid.getWords();
+        long    endRows = 0;
+        for ( int row = 0 ; row < rows ; ++row )
+        {
+            int     base    = grid.rowOffset( row );
+            int     col     = 0;
+            while ( col < cols )
+            {
+                boolean alive   = (words[base + (col >>> 6)] & (1L << col)) != 0;
+                int     end     = runEnd( words, base, col, alive, cols );
+
+                // Dead cells at the end of a row are not written.
+                if ( alive || end < cols )
+                {
+                    if ( endRows > 0 )
+                        writeRun( endRows, '$' );
+                    endRows = 0;
+                    writeRun( end - col, alive ? 'o' : 'b' );
+                }
+                col = end;
+            }
+            ++endRows;
+        }
+        writeRun( 1, '!' );
+        writer.write( '\n' );
+        writer.flush();
+    }
+
+    /**
+     * Writes a run, beginning a new line
+     * if the current line would become too long.
+     *
+     * @param count the length of the run
+     * @param tag   the tag of the run
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeRun( long count, char tag )
+        throws IOException
+    {
+        String  run     = count == 1 ? String.valueOf( tag ) : count + "" + tag;
+        if ( lineLength + run.length() > LINE_LENGTH )
+        {
+            writer.write( '\n' );
+            lineLength = 0;
+        }
+        writer.write( run );
+        lineLength += run.length();
+    }
+
+    /**
+     * Finds the end of the run of cells beginning at the given column
+     * of a row.
+     *
+     * @param words the words of the grid
+     * @param base  the index of the first word of the row
+     * @param col   the given column
+     * @param alive the state of the cell in the given column
+     * @param cols  the number of columns in the grid
+     *
+     * @return the column following the last cell of the run
+     */
+    private static int runEnd( long[] words, int base, int col, boolean alive, int cols )
+    {
+        int     word    = col >>> 6;
+        int     last    = (cols - 1) >>> 6;
+        long    flip    = alive ? -1L : 0;
+        long    diff    = (words[base + word] ^ flip) & (-1L << col);
+        while ( diff == 0 && word < last )
+        {
+            ++word;
+            diff = words[base + word] ^ flip;
+        }
+        int     end     = diff == 0 ? cols
+            : word * BitGrid.WORD_BITS + Long.numberOfTrailingZeros( diff );
+        return Math.min( end, cols );
+    }
+}
@@ -0,0 +1,181 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Runs a Game of Life simulation with no user interface.
+ * A Simulation owns a pair of grids, which it steps
+ * with a StepEngine exactly as a Board does,
+ * but it does not load any AWT or Swing classes,
+ * so it can be used on machines without a display.
+ * The time spent computing generations is accumulated
+ * so that throughput can be reported.
+ *
+ * @see SimulationMain
+ * @see Board
+ */
+public class Simulation
+{
+    /** The current generation. */
+    private BitGrid     current;
+
+    /** Receives the next generation; swapped with current after each step. */
+    private BitGrid     next;
+
+    /** Computes the next generation. */
+    private StepEngine  engine;
+
+    /** The number of generations computed so far. */
+    private long        generation;
+
+    /** The time spent computing generations, in nanoseconds. */
+    private long        elapsedNanos;
+
+    /**
+     * Instantiates a new simulation with the given initial state,
+     * stepped by a BitSliceEngine.
+     *
+     * @param initial   the given initial state; the simulation
+     *                  makes its own copy
+     */
+    public Simulation( BitGrid initial )
+    {
+        this( initial, new BitSliceEngine() );
+    }
+
+    /**
+     * Instantiates a new simulation with the given initial state
+     * and step engine.
+     *
+     * @param initial   the given initial state; the simulation
+     *                  makes its own copy
+     * @param engine    the given step engine
+     *
+     * @throws IllegalArgumentException if the given engine is null
+     */
+    public Simulation( BitGrid initial, StepEngine engine )
+        throws IllegalArgumentException
+    {
+        if ( engine == null )
+            throw new IllegalArgumentException( "engine is null" );
+        this.engine = engine;
+        current = new BitGrid( initial );
+        next = new BitGrid(
+            initial.getRows(), initial.getCols(), initial.getTopology()
+        );
+    }
+
+    /**
+     * Computes the next generation.
+     */
+    public void step()
+    {
+        run( 1 );
+    }
+
+    /**
+     * Computes the given number of generations.
+     *
+     * @param generations   the given number of generations
+     *
+     * @throws IllegalArgumentException if the given number
+     *         of generations is negative
+     */
+    public void run( long generations )
+        throws IllegalArgumentException
+    {
+        if ( generations < 0 )
+            throw new IllegalArgumentException( "generations = " + generations );
+
+        long    start       = System.nanoTime();
+        long    remaining   = generations;
+        while ( remaining > 0 )
+        {
+            int     count   = (int)Math.min( remaining, Integer.MAX_VALUE );
+            engine.step( current, next, count );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+            remaining -= count;
+        }
+        elapsedNanos += System.nanoTime() - start;
+        generation += generations;
+    }
+
+    /**
+     * Gets a copy of the current generation.
+     *
+     * @return a copy of the current generation
+     */
+    public BitGrid getGrid()
+    {
+        return new BitGrid( current );
+    }
+
+    /**
+     * Gets the number of generations computed so far.
+     *
+     * @return the number of generations computed so far
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Counts the number of live cells in the current generation.
+     *
+     * @return the number of live cells in the current generation
+     */
+    public long getPopulation()
+    {
+        return current.getPopulation();
+    }
+
+    /**
+     * Gets the time spent computing generations, in nanoseconds.
+     *
+     * @return the time spent computing generations, in nanoseconds
+     */
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the average number of generations computed per second.
+     *
+     * @return the average number of generations computed per second;
+     *         0 if no time has been spent computing generations
+     */
+    public double getGenerationsPerSecond()
+    {
+        double  rval    = 0;
+        if ( elapsedNanos > 0 )
+            rval = generation * 1e9 / elapsedNanos;
+        return rval;
+    }
+
+    /**
+     * Gets the engine that computes the next generation.
+     *
+     * @return the engine that computes the next generation
+     */
+    public StepEngine getEngine()
+    {
+        return engine;
+    }
+
+    /**
+     * Sets the engine that computes the next generation.
+     *
+     * @param engine    the engine that computes the next generation
+     *
+     * @throws IllegalArgumentException if the given engine is null
+     */
+    public void setEngine( StepEngine engine )
+        throws IllegalArgumentException
+    {
+        if ( engine == null )
+            throw new IllegalArgumentException( "engine is null" );
+        this.engine = engine;
+    }
+}
@@ -0,0 +1,341 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Command line runner for headless simulations.
+ * Reads a pattern, computes a number of generations
+ * as fast as possible, optionally writes the final state,
+ * and reports timing statistics on standard output.
+ * No AWT or Swing classes are loaded.
+ * <p>
+ * Usage:
+ * <pre>
+ * java edu.uweo.javaintro.game_of_life_lib.SimulationMain [options] input
+ *
+ *   -g generations   number of generations to compute (default 100)
+ *   -e engine        bitslice, parallel, active, vector, changelist
+ *                    or temporal (default bitslice)
+ *   -t threads       number of threads for the parallel engine
+ *                    (default: number of processors)
+ *   -r rule          rule to apply, in B/S notation such as B36/S23;
+ *                    by default the rule recorded in the input file
+ *   -w               wrap the edges of the grid (torus); by default
+ *                    the topology recorded in the input file is used
+ *   -o output        file to receive the final state
+ * </pre>
+ * Patterns are read and written in the format used
+ * by the Game of Life application's Save and Open commands;
+ * see {@link PatternFile}. The generation recorded in the output
+ * file continues from the generation recorded in the input file.
+ * Input files written by earlier versions of the application,
+ * which contain a serialized <em>boolean[][]</em>, are also accepted.
+ *
+ * @see Simulation
+ */
+public class SimulationMain
+{
+    /** Usage message. */
+    private static final String USAGE   =
+        "usage: SimulationMain [-g generations] [-e engine] [-t threads] "
+        + "[-r rule] [-w] [-o output] input";
+
+    /** The names of the engines that may be selected. */
+    private static final List<String>   ENGINES =
+        List.of( "bitslice", "parallel", "active", "vector", "changelist",
+            "temporal" );
+
+    /** The number of generations to compute. */
+    private long        generations = 100;
+
+    /** The name of the engine to use. */
+    private String      engineName  = "bitslice";
+
+    /** The number of threads for the parallel engine. */
+    private int         threads     = Runtime.getRuntime().availableProcessors();
+
+    /** The rule to apply; null to apply the rule recorded in the input file. */
+    private Rule        rule;
+
+    /** The topology of the grid, unless the input file specifies a torus. */
+    private Topology    topology    = Topology.FINITE;
+
+    /** The file from which to read the initial state. */
+    private File        input;
+
+    /** The file to receive the final state; null if none. */
+    private File        output;
+
+    /**
+     * Application entry point.
+     *
+     * @param args  command line arguments; see class documentation
+     */
+    public static void main( String[] args )
+    {
+        int status  = run( args, System.out, System.err );
+        if ( status != 0 )
+            System.exit( status );
+    }
+
+    /**
+     * Runs a simulation as directed by the given command line arguments.
+     *
+     * @param args  the given command line arguments
+     * @param out   stream to receive the timing statistics
+     * @param err   stream to receive error messages
+     *
+     * @return 0 if the simulation was successful, nonzero otherwise
+     */
+    static int run( String[] args, PrintStream out, PrintStream err )
+    {
+        int status  = 0;
+        try
+        {
+            SimulationMain  main    = new SimulationMain();
+            main.parseArgs( args );
+            main.execute( out );
+        }
+        catch ( IllegalArgumentException exc )
+        {
+            err.println( exc.getMessage() );
+            err.println( USAGE );
+            status = 2;
+        }
+        catch ( IOException | ClassNotFoundException | ClassCastException exc )
+        {
+            err.println( "I/O failure: " + exc.getMessage() );
+            status = 1;
+        }
+        return status;
+    }
+
+    /**
+     * Parses the given command line arguments.
+     *
+     * @param args  the given command line arguments
+     *
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    private void parseArgs( String[] args )
+        throws IllegalArgumentException
+    {
+        for ( int inx = 0 ; inx < args.length ; ++inx )
+        {
+            String  arg     = args[inx];
+            switch ( arg )
+            {
+            case "-g":
+                generations = parseLong( arg, nextArg( args, ++inx ) );
+                break;
+            case "-e":
+                engineName = nextArg( args, ++inx );
+                break;
+            case "-t":
+                threads = (int)parseLong( arg, nextArg( args, ++inx ) );
+                break;
+            case "-r":
+                rule = Rule.parse( nextArg( args, ++inx ) );
+                break;
+            case "-w":
+                topology = Topology.TORUS;
+                break;
+            case "-o":
+                output = new File( nextArg( args, ++inx ) );
+                break;
+            default:
+                if ( arg.startsWith( "-" ) || input != null )
+                    throw new IllegalArgumentException( "unexpected: " + arg );
+                input = new File( arg );
+                break;
+            }
+        }
+
+        if ( input == null )
+            throw new IllegalArgumentException( "no input file" );
+        if ( !ENGINES.contains( engineName ) )
+            throw new IllegalArgumentException( "unknown engine: " + engineName );
+        if ( generations < 0 )
+            throw new IllegalArgumentException( "generations = " + generations );
+    }
+
+    /**
+     * Reads the initial state, computes the generations,
+     * writes the final state and reports the statistics.
+     *
+     * @param out   stream to receive the statistics
+     *
+     * @throws IOException              if an I/O error occurs
+     * @throws ClassNotFoundException   if the input file
+     *                                  is neither a pattern file
+     *                                  nor a serialized array
+     * @throws IllegalArgumentException if the engine name is invalid,
+     *                                  or the rule recorded in the
+     *                                  input file is malformed
+     */
+    private void execute( PrintStream out )
+        throws IOException, ClassNotFoundException, IllegalArgumentException
+    {
+        PatternFile pattern = readState( input );
+        if ( rule == null )
+            rule = Rule.parse( pattern.getRule() );
+        StepEngine  engine  = newEngine();
+        BitGrid     grid;
+        Simulation  sim;
+        long        start;
+        try
+        {
+            BitGrid     state   = pattern.getGrid();
+            if ( topology == Topology.FINITE )
+                topology = state.getTopology();
+            grid = new BitGrid( state.getRows(), state.getCols(), topology );
+            grid.copyFrom( state );
+            start = pattern.getGeneration();
+            sim = new Simulation( grid, engine );
+            sim.run( generations );
+        }
+        finally
+        {
+            if ( engine instanceof ParallelEngine )
+                ((ParallelEngine)engine).shutdown();
+        }
+
+        if ( output != null )
+            new PatternFile(
+                sim.getGrid(), start + sim.getGeneration(), rule.toString()
+            ).write( output );
+
+        double  millis  = sim.getElapsedNanos() / 1e6;
+        double  area    = (double)grid.getRows() * grid.getCols();
+        out.printf( "grid:          %d x %d (%s)%n",
+            grid.getRows(), grid.getCols(), topology );
+        out.printf( "engine:        %s%n", engine.getClass().getSimpleName() );
+        out.printf( "rule:          %s%n", rule );
+        out.printf( "generations:   %d%n", sim.getGeneration() );
+        out.printf( "elapsed ms:    %.3f%n", millis );
+        out.printf( "gens/second:   %.1f%n", sim.getGenerationsPerSecond() );
+        out.printf( "cells/second:  %.4g%n", sim.getGenerationsPerSecond() * area );
+        out.printf( "population:    %d%n", sim.getPopulation() );
+    }
+
+    /**
+     * Creates the step engine selected by the command line,
+     * applying the selected rule.
+     *
+     * @return the step engine selected by the command line
+     *
+     * @throws IllegalArgumentException if the engine name is invalid
+     */
+    private StepEngine newEngine()
+        throws IllegalArgumentException
+    {
+        StepEngine  engine;
+        switch ( engineName )
+        {
+        case "bitslice":
+            engine = new BitSliceEngine( rule );
+            break;
+        case "parallel":
+            engine = new ParallelEngine( threads, rule );
+            break;
+        case "active":
+            engine = new ActiveRegionEngine( rule );
+            break;
+        case "vector":
+            engine = new VectorEngine( rule );
+            break;
+        case "changelist":
+            engine = new ChangeListEngine( rule );
+            break;
+        case "temporal":
+            engine = new TemporalBlockEngine( rule );
+            break;
+        default:
+            throw new IllegalArgumentException( "unknown engine: " + engineName );
+        }
+        return engine;
+    }
+
+    /**
+     * Gets the command line argument at the given index.
+     *
+     * @param args  the command line arguments
+     * @param inx   the given index
+     *
+     * @return the command line argument at the given index
+     *
+     * @throws IllegalArgumentException if there is no such argument
+     */
+    private static String nextArg( String[] args, int inx )
+        throws IllegalArgumentException
+    {
+        if ( inx >= args.length )
+            throw new IllegalArgumentException( "missing value for " + args[inx - 1] );
+        return args[inx];
+    }
+
+    /**
+     * Parses the value of a numeric option.
+     *
+     * @param option    the option
+     * @param value     the value of the option
+     *
+     * @return the parsed value
+     *
+     * @throws IllegalArgumentException if the value is not a valid long
+     */
+    private static long parseLong( String option, String value )
+        throws IllegalArgumentException
+    {
+        try
+        {
+            return Long.parseLong( value );
+        }
+        catch ( NumberFormatException exc )
+        {
+            throw new IllegalArgumentException( option + ": invalid number: " + value );
+        }
+    }
+
+    /**
+     * Reads a pattern file from the given file. If the file
+     * is not a pattern file, it is read as a serialized
+     * <em>boolean[][]</em>, describing a finite grid at generation 0.
+     *
+     * @param file  the given file
+     *
+     * @return the pattern read from the file
+     *
+     * @throws IOException              if an I/O error occurs
+     * @throws ClassNotFoundException   if the file contains neither
+     *                                  a pattern nor a serialized array
+     * @throws IllegalArgumentException if the array is empty
+     */
+    private static PatternFile readState( File file )
+        throws IOException, ClassNotFoundException, IllegalArgumentException
+    {
+        try ( InputStream inStream =
+            new BufferedInputStream( new FileInputStream( file ) ) )
+        {
+            PatternFile pattern;
+            if ( PatternFile.isPatternFile( inStream ) )
+                pattern = PatternFile.read( inStream );
+            else
+            {
+                ObjectInputStream   oStream = new ObjectInputStream( inStream );
+                boolean[][]         cells   = (boolean[][])oStream.readObject();
+                if ( cells.length == 0 || cells[0].length == 0 )
+                    throw new IllegalArgumentException( "empty pattern: " + file );
+                pattern = new PatternFile( new BitGrid( cells ), 0 );
+            }
+            return pattern;
+        }
+    }
+}
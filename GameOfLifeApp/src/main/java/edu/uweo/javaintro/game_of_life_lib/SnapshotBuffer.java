@@ -0,0 +1,137 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Passes complete generations of a grid from the thread
+ * that computes them to the thread that displays them,
+ * without locks. The buffer holds three snapshots:
+ * one being written by the <em>writer</em>, one being read
+ * by the <em>reader</em>, and the most recently published one,
+ * which is held in an atomic reference. Publishing copies a grid
+ * into the writer's snapshot and exchanges it for the published one;
+ * acquiring exchanges the reader's snapshot for the published one,
+ * if it is newer. Neither thread ever waits for the other,
+ * and the snapshot held by the reader is never changed
+ * until the reader acquires another, so the reader always sees
+ * a complete generation. No memory is allocated after construction.
+ * <p>
+ * At most one thread may publish at a time,
+ * and at most one thread may acquire and read at a time.
+ *
+ * @see Board#refresh()
+ */
+class SnapshotBuffer
+{
+    /** The snapshot being written by the writer. */
+    private Snapshot                            writing;
+
+    /** The most recently published snapshot, or one already read. */
+    private final AtomicReference<Snapshot>     latest;
+
+    /** The snapshot being read by the reader. */
+    private Snapshot                            reading;
+
+    /**
+     * Instantiates a new buffer for grids of the given dimensions
+     * and topology. Until the first generation is published,
+     * the reader sees a grid of dead cells, at generation 0.
+     *
+     * @param rows      the number of rows in the grids
+     * @param cols      the number of columns in the grids
+     * @param topology  the topology of the grids
+     */
+    SnapshotBuffer( int rows, int cols, Topology topology )
+    {
+        writing = new Snapshot( rows, cols, topology );
+        latest = new AtomicReference<>( new Snapshot( rows, cols, topology ) );
+        reading = new Snapshot( rows, cols, topology );
+    }
+
+    /**
+     * Publishes a copy of the given grid, at the given generation.
+     * Called by the writer.
+     *
+     * @param grid          the given grid
+     * @param generation    the given generation
+     *
+     * @throws IllegalArgumentException if the dimensions of the given grid
+     *         differ from those of the buffer
+     */
+    void publish( BitGrid grid, long generation )
+        throws IllegalArgumentException
+    {
+        writing.grid.copyFrom( grid );
+        writing.generation = generation;
+        writing.fresh = true;
+        writing = latest.getAndSet( writing );
+    }
+
+    /**
+     * Makes the most recently published snapshot available
+     * to the reader, if it has not already been acquired.
+     * Called by the reader.
+     *
+     * @return true, if a newly published snapshot was acquired
+     */
+    boolean acquire()
+    {
+        boolean result  = false;
+        if ( latest.get().fresh )
+        {
+            reading.fresh = false;
+            reading = latest.getAndSet( reading );
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the grid of the snapshot most recently acquired
+     * by the reader. Called by the reader; the grid must not be changed.
+     *
+     * @return the grid of the snapshot most recently acquired
+     */
+    BitGrid getGrid()
+    {
+        return reading.grid;
+    }
+
+    /**
+     * Gets the generation of the snapshot most recently acquired
+     * by the reader. Called by the reader.
+     *
+     * @return the generation of the snapshot most recently acquired
+     */
+    long getGeneration()
+    {
+        return reading.generation;
+    }
+
+    /**
+     * A generation of a grid.
+     */
+    private static class Snapshot
+    {
+        /** The state of the grid. */
+        private final BitGrid   grid;
+
+        /** The generation of the grid. */
+        private long            generation;
+
+        /** True if published and not yet acquired. */
+        private boolean         fresh;
+
+        /**
+         * Instantiates a new snapshot of a grid of dead cells.
+         *
+         * @param rows      the number of rows in the grid
+         * @param cols      the number of columns in the grid
+         * @param topology  the topology of the grid
+         */
+        Snapshot( int rows, int cols, Topology topology )
+        {
+            grid = new BitGrid( rows, cols, topology );
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects the coordinator of a {@link DistributedSimulation}
+ * to its workers over loopback sockets. By default each worker
+ * runs in a new process, started with the same Java runtime
+ * and class path as the current process; the worker connects
+ * back to a listening socket bound to the loopback address.
+ * Alternatively, each worker may run on a new thread
+ * of the current process, which exercises the same protocol
+ * over the same kind of socket without the cost of starting
+ * a process.
+ *
+ * @see DistributedWorker
+ */
+public class SocketTransport implements Transport
+{
+    /** The time allowed for a worker to connect, in milliseconds. */
+    static final int        CONNECT_MILLIS  = 60_000;
+
+    /** The time allowed for a worker process to exit, in milliseconds. */
+    static final long       EXIT_MILLIS     = 5_000;
+
+    /** True if workers run on threads of the current process. */
+    private final boolean   inProcess;
+
+    /**
+     * Instantiates a new transport that runs each worker
+     * in a new process.
+     */
+    public SocketTransport()
+    {
+        this( false );
+    }
+
+    /**
+     * Instantiates a new transport that runs each worker
+     * in a new process, or on a new thread of the current process.
+     *
+     * @param inProcess true to run each worker on a new thread
+     *                  of the current process
+     */
+    public SocketTransport( boolean inProcess )
+    {
+        this.inProcess = inProcess;
+    }
+
+    /**
+     * Indicates whether workers run on threads of the current process.
+     *
+     * @return true, if workers run on threads of the current process
+     */
+    public boolean isInProcess()
+    {
+        return inProcess;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.Transport#open()
+     */
+    @Override
+    public Link open()
+        throws IOException
+    {
+        InetAddress loopback    = InetAddress.getLoopbackAddress();
+        Process     process     = null;
+        Link        link        = null;
+        try ( ServerSocket server = new ServerSocket( 0, 1, loopback ) )
+        {
+            server.setSoTimeout( CONNECT_MILLIS );
+            int     port    = server.getLocalPort();
+            if ( inProcess )
+                startThread( loopback, port );
+            else
+                process = startProcess( loopback, port );
+
+            Socket  socket  = server.accept();
+            socket.setTcpNoDelay( true );
+            link = new SocketLink( socket, process );
+        }
+        finally
+        {
+            if ( link == null && process != null )
+                process.destroyForcibly();
+        }
+        return link;
+    }
+
+    /**
+     * Starts a worker on a new daemon thread,
+     * which connects to the given port.
+     *
+     * @param host  the address to connect to
+     * @param port  the given port
+     */
+    private static void startThread( InetAddress host, int port )
+    {
+        Thread  thread  = new Thread( () -> {
+            try ( Socket socket = new Socket( host, port ) )
+            {
+                socket.setTcpNoDelay( true );
+                DistributedWorker.serve(
+                    socket.getInputStream(), socket.getOutputStream()
+                );
+            }
+            catch ( IOException exc )
+            {
+                exc.printStackTrace();
+            }
+        }, "DistributedWorker-" + port );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    /**
+     * Starts a worker in a new process,
+     * which connects to the given port.
+     *
+     * @param host  the address to connect to
+     * @param port  the given port
+     *
+     * @return the new process
+     *
+     * @throws IOException if the process cannot be started
+     */
+    private static Process startProcess( InetAddress host, int port )
+        throws IOException
+    {
+        String          java    =
+            System.getProperty( "java.home" ) + File.separator + "bin"
+            + File.separator + "java";
+        List<String>    command = List.of(
+            java,
+            "-cp",
+            System.getProperty( "java.class.path" ),
+            DistributedWorker.class.getName(),
+            host.getHostAddress(),
+            String.valueOf( port )
+        );
+        return new ProcessBuilder( command ).inheritIO().start();
+    }
+
+    /**
+     * A link to a worker over a socket.
+     */
+    private static class SocketLink implements Link
+    {
+        /** The connection to the worker. */
+        private final Socket    socket;
+
+        /** The process in which the worker runs; null for a thread. */
+        private final Process   process;
+
+        /**
+         * Instantiates a new link over the given socket.
+         *
+         * @param socket    the connection to the worker
+         * @param process   the process in which the worker runs;
+         *                  null if it runs on a thread
+         */
+        SocketLink( Socket socket, Process process )
+        {
+            this.socket = socket;
+            this.process = process;
+        }
+
+        /* (non-Javadoc)
+         * @see edu.uweo.javaintro.game_of_life_lib.Transport.Link#getInputStream()
+         */
+        @Override
+        public InputStream getInputStream()
+        {
+            InputStream stream  = null;
+            try
+            {
+                stream = socket.getInputStream();
+            }
+            catch ( IOException exc )
+            {
+                throw new IllegalStateException( "socket is closed", exc );
+            }
+            return stream;
+        }
+
+        /* (non-Javadoc)
+         * @see edu.uweo.javaintro.game_of_life_lib.Transport.Link#getOutputStream()
+         */
+        @Override
+        public OutputStream getOutputStream()
+        {
+            OutputStream    stream  = null;
+            try
+            {
+                stream = socket.getOutputStream();
+            }
+            catch ( IOException exc )
+            {
+                throw new IllegalStateException( "socket is closed", exc );
+            }
+            return stream;
+        }
+
+        /**
+         * Closes the socket, which stops the worker,
+         * and waits briefly for the worker's process to exit;
+         * the process is destroyed if it does not.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        public void close()
+            throws IOException
+        {
+            socket.close();
+            if ( process != null )
+            {
+                try
+                {
+                    if ( !process.waitFor( EXIT_MILLIS, TimeUnit.MILLISECONDS ) )
+                        process.destroyForcibly();
+                }
+                catch ( InterruptedException exc )
+                {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.Arrays;
+
+/**
+ * Computes generations of an {@link OffHeapGrid}.
+ * The grid is streamed a row at a time through a window
+ * of three row buffers: the rows above, at and below the row
+ * being computed. Each row of the current generation is read
+ * once, and each row of the next generation written once;
+ * the words of a row are computed with the bit-sliced
+ * adder network of the BitSliceEngine.
+ * <p>
+ * Each row buffer holds a ghost word on either side of the row,
+ * which for a torus holds the cell on the opposite edge,
+ * so the inner loop tests neither for the edges of the grid
+ * nor for its topology. The buffers are allocated when the engine
+ * first steps a grid of a given width, and reused thereafter;
+ * stepping allocates nothing on the heap.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @see OffHeapGrid
+ * @see BitSliceEngine
+ */
+public class StreamingEngine
+{
+    /** The rule applied by this engine. */
+    private final Rule  rule;
+
+    /** The row above the row being computed, with ghost words. */
+    private long[]      up      = new long[0];
+
+    /** The row being computed, with ghost words. */
+    private long[]      mid     = new long[0];
+
+    /** The row below the row being computed, with ghost words. */
+    private long[]      down    = new long[0];
+
+    /** Receives the next generation of the row being computed. */
+    private long[]      result  = new long[0];
+
+    /**
+     * Instantiates a new engine that applies the Game of Life.
+     */
+    public StreamingEngine()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new engine that applies the given rule.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     */
+    public StreamingEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( rule == null )
+            throw new IllegalArgumentException( "rule is null" );
+        this.rule = rule;
+    }
+
+    /**
+     * Computes the generation following <em>current</em>
+     * and stores it in <em>next</em>. The state of <em>current</em>
+     * is not changed. The two grids must be distinct objects
+     * with identical dimensions and topologies.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     *
+     * @throws IllegalArgumentException if the given grids are
+     *         the same object, or if their dimensions differ
+     */
+    public void step( OffHeapGrid current, OffHeapGrid next )
+        throws IllegalArgumentException
+    {
+        OffHeapGrid.validatePair( current, next );
+        int     rows    = current.getRows();
+        int     words   = current.getWordsPerRow();
+        if ( mid.length != words + 2 )
+        {
+            up = new long[words + 2];
+            mid = new long[words + 2];
+            down = new long[words + 2];
+            result = new long[words];
+        }
+
+        loadRow( current, -1, up );
+        loadRow( current, 0, mid );
+        for ( int row = 0 ; row < rows ; ++row )
+        {
+            loadRow( current, row + 1, down );
+            evolveRow( words, current.getLastWordMask() );
+            next.writeRow( row, result, 0 );
+
+            long[]  temp    = up;
+            up = mid;
+            mid = down;
+            down = temp;
+        }
+    }
+
+    /**
+     * Gets the rule applied by this engine.
+     *
+     * @return the rule applied by this engine
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Copies the given row of a grid into a row buffer,
+     * and fills the buffer's ghost words. The row may be -1
+     * or <em>rows</em>; on a finite grid these rows are dead,
+     * and on a torus they wrap around to the opposite edge.
+     * On a torus, as in {@link BitGrid#fillGhosts()},
+     * the unused bit following the last column of the row
+     * (if any) is set to the state of the first column.
+     *
+     * @param grid      the grid
+     * @param row       the given row
+     * @param buffer    the row buffer
+     */
+    private static void loadRow( OffHeapGrid grid, int row, long[] buffer )
+    {
+        int     rows    = grid.getRows();
+        int     words   = grid.getWordsPerRow();
+        boolean torus   = grid.getTopology() == Topology.TORUS;
+        if ( torus )
+        {
+            grid.readRow( Math.floorMod( row, rows ), buffer, 1 );
+            int     lastBits    = grid.getCols() % BitGrid.WORD_BITS;
+            int     lastCol     = (grid.getCols() - 1) % BitGrid.WORD_BITS;
+            long    west        = (buffer[words] >>> lastCol) & 1;
+            long    east        = buffer[1] & 1;
+            buffer[0] = west << (BitGrid.WORD_BITS - 1);
+            buffer[words + 1] = east;
+            if ( lastBits != 0 )
+                buffer[words] |= east << lastBits;
+        }
+        else if ( row >= 0 && row < rows )
+        {
+            grid.readRow( row, buffer, 1 );
+            buffer[0] = 0;
+            buffer[words + 1] = 0;
+        }
+        else
+            Arrays.fill( buffer, 0 );
+    }
+
+    /**
+     * Computes the next generation of the row in the middle buffer,
+     * and stores it in the result buffer.
+     *
+     * @param words     the number of words in a row
+     * @param lastMask  mask that selects the valid bits
+     *                  in the last word of a row
+     */
+    private void evolveRow( int words, long lastMask )
+    {
+        long    upPrev      = up[0];
+        long    midPrev     = mid[0];
+        long    downPrev    = down[0];
+        long    upCurr      = up[1];
+        long    midCurr     = mid[1];
+        long    downCurr    = down[1];
+        for ( int word = 1 ; word <= words ; ++word )
+        {
+            long    upNext      = up[word + 1];
+            long    midNext     = mid[word + 1];
+            long    downNext    = down[word + 1];
+
+            result[word - 1] = BitSliceEngine.evolve(
+                rule,
+                upPrev, upCurr, upNext,
+                midPrev, midCurr, midNext,
+                downPrev, downCurr, downNext
+            );
+
+            upPrev = upCurr;
+            upCurr = upNext;
+            midPrev = midCurr;
+            midCurr = midNext;
+            downPrev = downCurr;
+            downCurr = downNext;
+        }
+        result[words - 1] &= lastMask;
+    }
+}
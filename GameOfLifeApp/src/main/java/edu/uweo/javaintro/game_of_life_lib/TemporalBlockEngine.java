@@ -0,0 +1,461 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Step engine that computes several generations per pass over the grid.
+ * A generation computed by a {@link BitSliceEngine} reads and writes
+ * every word of the grid; on a grid much larger than the processor's
+ * caches, that is one trip through main memory per generation.
+ * This engine instead divides the grid into tiles of
+ * {@link #TILE_ROWS} rows by {@link #TILE_WORDS} words,
+ * copies each tile together with a halo of surrounding cells
+ * into a small local buffer that stays in cache, and advances
+ * the buffer <em>k</em> generations before writing the tile
+ * to the next generation. Since a cell's state can influence
+ * only the cells one row or column away per generation,
+ * a halo <em>k</em> rows high and one word (64 columns) wide
+ * is enough for the tile to be exact after <em>k</em> generations;
+ * each generation, the part of the buffer that is still exact
+ * shrinks by one row at the top and bottom. Memory traffic is cut
+ * by roughly a factor of <em>k</em>, at the cost of recomputing
+ * the halos.
+ * <p>
+ * The edges of the grid are honored within the buffer:
+ * on a finite grid, the cells outside the grid are cleared
+ * after every generation, and on a torus the halo is copied
+ * from the opposite edges.
+ *
+ * @see #step(BitGrid, BitGrid, int)
+ * @see Simulation#run(long)
+ */
+public class TemporalBlockEngine implements StepEngine
+{
+    /** The number of rows in a tile. */
+    public static final int         TILE_ROWS       = 256;
+
+    /** The number of words in each row of a tile. */
+    public static final int         TILE_WORDS      = 64;
+
+    /** The default number of generations computed per pass. */
+    public static final int         DEFAULT_DEPTH   = 4;
+
+    /**
+     * The largest number of generations computed per pass;
+     * the width of the halo on either side of a tile.
+     */
+    public static final int         MAX_DEPTH       = BitGrid.WORD_BITS;
+
+    /** The rule applied by this engine. */
+    private final Rule              rule;
+
+    /** The largest number of generations computed per pass. */
+    private final int               depth;
+
+    /** The number of words between the starts of consecutive buffer rows. */
+    private final int               localStride     = TILE_WORDS + 4;
+
+    /**
+     * A tile and its halo, with a ghost row above and below
+     * and a ghost word before and after each row, laid out
+     * like the words of a BitGrid.
+     */
+    private final long[]            buffer;
+
+    /** Receives each generation of the buffer; swapped with buffer. */
+    private final long[]            spare;
+
+    /** For each word of a buffer row, the mask selecting cells in the grid. */
+    private final long[]            colMasks        = new long[TILE_WORDS + 2];
+
+    /**
+     * Instantiates a new engine that applies the Game of Life
+     * with the default depth.
+     */
+    public TemporalBlockEngine()
+    {
+        this( DEFAULT_DEPTH, Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new engine that applies the given rule
+     * with the default depth.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     */
+    public TemporalBlockEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        this( DEFAULT_DEPTH, rule );
+    }
+
+    /**
+     * Instantiates a new engine that applies the Game of Life
+     * with the given depth.
+     *
+     * @param depth the largest number of generations computed per pass
+     *
+     * @throws IllegalArgumentException if the depth is less than 1
+     *         or greater than {@link #MAX_DEPTH}
+     */
+    public TemporalBlockEngine( int depth )
+        throws IllegalArgumentException
+    {
+        this( depth, Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new engine that applies the given rule
+     * with the given depth.
+     *
+     * @param depth the largest number of generations computed per pass
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the depth is less than 1
+     *         or greater than {@link #MAX_DEPTH}, or the rule is null
+     */
+    public TemporalBlockEngine( int depth, Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( depth < 1 || depth > MAX_DEPTH )
+            throw new IllegalArgumentException( "depth = " + depth );
+        if ( rule == null )
+            throw new IllegalArgumentException( "rule is null" );
+        this.depth = depth;
+        this.rule = rule;
+        int size    = (TILE_ROWS + 2 * depth + 2) * localStride;
+        buffer = new long[size];
+        spare = new long[size];
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        step( current, next, 1 );
+    }
+
+    /**
+     * Computes the generation that follows <em>current</em>
+     * by the given number of generations, and stores it
+     * in <em>next</em>, computing up to {@link #getDepth()}
+     * generations per pass over the grid. The result is identical
+     * to that of the given number of calls to
+     * {@link #step(BitGrid, BitGrid)}. If the number of generations
+     * is at most the depth, the state of <em>current</em>
+     * is not changed; otherwise the passes alternate between
+     * the grids, as in {@link StepEngine#step(BitGrid, BitGrid, int)}.
+     *
+     * @param current       the current generation
+     * @param next          grid to receive the later generation
+     * @param generations   the given number of generations
+     *
+     * @throws IllegalArgumentException if the given grids are
+     *         the same object, or if their dimensions differ,
+     *         or if the number of generations is negative
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next, int generations )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+        if ( generations < 0 )
+            throw new IllegalArgumentException( "generations = " + generations );
+
+        int     passes      = generations == 0 ? 1 : (generations - 1) / depth + 1;
+        int     remaining   = generations;
+        BitGrid from        = current;
+        BitGrid to          = next;
+        if ( passes % 2 == 0 )
+        {
+            next.copyFrom( current );
+            from = next;
+            to = current;
+        }
+        for ( int pass = 0 ; pass < passes ; ++pass )
+        {
+            int count   = Math.min( remaining, depth );
+            stepPass( from, to, count );
+            remaining -= count;
+            BitGrid temp    = from;
+            from = to;
+            to = temp;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Gets the largest number of generations computed per pass.
+     *
+     * @return the largest number of generations computed per pass
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Advances every tile by the given number of generations
+     * in a single pass over the grid.
+     *
+     * @param current       the current generation
+     * @param next          grid to receive the later generation
+     * @param generations   the given number of generations;
+     *                      at most the depth of this engine
+     */
+    private void stepPass( BitGrid current, BitGrid next, int generations )
+    {
+        int rows    = current.getRows();
+        int words   = current.getWordsPerRow();
+        for ( int fromRow = 0 ; fromRow < rows ; fromRow += TILE_ROWS )
+            for ( int fromWord = 0 ; fromWord < words ; fromWord += TILE_WORDS )
+                stepTile(
+                    current, next,
+                    fromRow, Math.min( fromRow + TILE_ROWS, rows ),
+                    fromWord, Math.min( fromWord + TILE_WORDS, words ),
+                    generations
+                );
+    }
+
+    /**
+     * Advances a single tile by the given number of generations.
+     *
+     * @param current       the current generation
+     * @param next          grid to receive the later generation
+     * @param fromRow       the first row of the tile
+     * @param toRow         the row following the last row of the tile
+     * @param fromWord      the first word column of the tile
+     * @param toWord        the word column following the last
+     *                      word column of the tile
+     * @param generations   the given number of generations
+     */
+    private void stepTile(
+        BitGrid current,
+        BitGrid next,
+        int fromRow,
+        int toRow,
+        int fromWord,
+        int toWord,
+        int generations
+    )
+    {
+        int     tileRows    = toRow - fromRow;
+        int     localRows   = tileRows + 2 * generations;
+        int     localWords  = toWord - fromWord + 2;
+        int     lastWord    = current.getWordsPerRow() - 1;
+        int     firstRow    = fromRow - generations;
+        // Only a tile whose buffer extends beyond a finite grid,
+        // or includes its partial last word, has cells to clear.
+        boolean clear       = current.getTopology() == Topology.FINITE
+            && (firstRow < 0 || toRow + generations > current.getRows()
+                || fromWord == 0 || toWord > lastWord);
+
+        load( current, firstRow, fromWord - 1, localRows, localWords );
+        for ( int word = 0 ; word < localWords ; ++word )
+        {
+            int global  = fromWord - 1 + word;
+            colMasks[word] = global < 0 || global > lastWord ? 0
+                : global == lastWord ? current.getLastWordMask() : -1;
+        }
+
+        long[]  src     = buffer;
+        long[]  dst     = spare;
+        for ( int gen = 1 ; gen <= generations ; ++gen )
+        {
+            evolveRows( src, dst, gen, localRows - gen, localWords );
+            if ( clear )
+                clearOutside(
+                    dst, current.getRows(), firstRow,
+                    gen, localRows - gen, localWords
+                );
+            long[]  temp    = src;
+            src = dst;
+            dst = temp;
+        }
+
+        long[]  words   = next.getWords();
+        for ( int row = 0 ; row < tileRows ; ++row )
+        {
+            int base    = next.rowOffset( fromRow + row );
+            int local   = localOffset( generations + row ) + 1;
+            for ( int word = fromWord ; word < toWord ; ++word )
+                words[base + word] = src[local + word - fromWord]
+                    & (word == lastWord ? next.getLastWordMask() : -1);
+        }
+    }
+
+    /**
+     * Copies a block of the given grid into the buffer.
+     * Rows and words outside a finite grid are dead;
+     * those outside a torus wrap around to the opposite edge.
+     *
+     * @param grid          the given grid
+     * @param fromRow       the grid row of the first buffer row
+     * @param fromWord      the grid word column of the first buffer word
+     * @param localRows     the number of rows to copy
+     * @param localWords    the number of words of each row to copy
+     */
+    private void load(
+        BitGrid grid, int fromRow, int fromWord, int localRows, int localWords
+    )
+    {
+        long[]  words       = grid.getWords();
+        int     rows        = grid.getRows();
+        int     cols        = grid.getCols();
+        boolean torus       = grid.getTopology() == Topology.TORUS;
+        // Words that can be copied directly: on a torus only those
+        // wholly within the grid, since the others must wrap.
+        int     copyFrom    = Math.max( fromWord, 0 );
+        int     copyTo      = Math.min(
+            fromWord + localWords,
+            torus ? cols / BitGrid.WORD_BITS : grid.getWordsPerRow()
+        );
+        for ( int row = 0 ; row < localRows ; ++row )
+        {
+            int     local   = localOffset( row );
+            int     global  = fromRow + row;
+            boolean inside  = global >= 0 && global < rows;
+            if ( torus )
+                global = Math.floorMod( global, rows );
+            int     base    = grid.rowOffset( global );
+            boolean copy    = (inside || torus) && copyFrom < copyTo;
+            if ( copy )
+                System.arraycopy(
+                    words, base + copyFrom,
+                    buffer, local + copyFrom - fromWord, copyTo - copyFrom
+                );
+            for ( int word = 0 ; word < localWords ; ++word )
+            {
+                int     gWord   = fromWord + word;
+                if ( !copy || gWord < copyFrom || gWord >= copyTo )
+                    buffer[local + word] = torus
+                        ? wrappedWord( words, base, gWord * BitGrid.WORD_BITS, cols )
+                        : 0;
+            }
+        }
+    }
+
+    /**
+     * Gets 64 consecutive cells of a row of a torus,
+     * starting at the given column, which may lie
+     * outside the grid.
+     *
+     * @param words the words of the torus
+     * @param base  the index of the first word of the row
+     * @param col   the given column
+     * @param cols  the number of columns in the torus
+     *
+     * @return the cells, with the given column in bit 0
+     */
+    private static long wrappedWord( long[] words, int base, int col, int cols )
+    {
+        long    result  = 0;
+        for ( int bit = 0 ; bit < BitGrid.WORD_BITS ; ++bit )
+        {
+            int     wrapped = Math.floorMod( col + bit, cols );
+            long    cell    = words[base + (wrapped >>> 6)] >>> (wrapped & 63);
+            result |= (cell & 1) << bit;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the next generation of a band of buffer rows.
+     * The ghost rows and words of the buffer are always dead;
+     * the error that introduces spreads inward by one cell
+     * per generation, and never reaches the tile.
+     *
+     * @param src           the current generation of the buffer
+     * @param dst           the next generation of the buffer
+     * @param fromRow       the first buffer row of the band
+     * @param toRow         the buffer row following the last row of the band
+     * @param localWords    the number of words in each buffer row
+     */
+    private void evolveRows(
+        long[] src, long[] dst, int fromRow, int toRow, int localWords
+    )
+    {
+        for ( int row = fromRow ; row < toRow ; ++row )
+        {
+            int     mid     = localOffset( row );
+            int     up      = mid - localStride;
+            int     down    = mid + localStride;
+
+            long    upPrev      = src[up - 1];
+            long    midPrev     = src[mid - 1];
+            long    downPrev    = src[down - 1];
+            long    upCurr      = src[up];
+            long    midCurr     = src[mid];
+            long    downCurr    = src[down];
+            for ( int word = 0 ; word < localWords ; ++word )
+            {
+                long    upNext      = src[up + word + 1];
+                long    midNext     = src[mid + word + 1];
+                long    downNext    = src[down + word + 1];
+
+                dst[mid + word] = BitSliceEngine.evolve(
+                    rule,
+                    upPrev, upCurr, upNext,
+                    midPrev, midCurr, midNext,
+                    downPrev, downCurr, downNext
+                );
+
+                upPrev = upCurr;
+                upCurr = upNext;
+                midPrev = midCurr;
+                midCurr = midNext;
+                downPrev = downCurr;
+                downCurr = downNext;
+            }
+        }
+    }
+
+    /**
+     * Clears the cells of a band of buffer rows that lie
+     * outside a finite grid, which are dead in every generation.
+     *
+     * @param dst           the buffer
+     * @param rows          the number of rows in the grid
+     * @param firstRow      the grid row of the first buffer row
+     * @param fromRow       the first buffer row of the band
+     * @param toRow         the buffer row following the last row of the band
+     * @param localWords    the number of words in each buffer row
+     */
+    private void clearOutside(
+        long[] dst, int rows, int firstRow, int fromRow, int toRow, int localWords
+    )
+    {
+        for ( int row = fromRow ; row < toRow ; ++row )
+        {
+            int     local   = localOffset( row );
+            int     global  = firstRow + row;
+            boolean inside  = global >= 0 && global < rows;
+            for ( int word = 0 ; word < localWords ; ++word )
+                dst[local + word] &= inside ? colMasks[word] : 0;
+        }
+    }
+
+    /**
+     * Gets the index of the first word of the given buffer row,
+     * following the ghost word; row -1 is the ghost row.
+     *
+     * @param row   the given buffer row
+     *
+     * @return the index of the first word of the given row
+     */
+    private int localOffset( int row )
+    {
+        return (row + 1) * localStride + 1;
+    }
+}
@@ -0,0 +1,24 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Determines how the cells on the edges of a grid
+ * are connected to one another.
+ *
+ * @see BitGrid#BitGrid(int, int, Topology)
+ * @see Board#Board(int, Topology)
+ */
+public enum Topology
+{
+    /**
+     * The grid is bounded; any cell outside the bounds
+     * of the grid is considered dead.
+     */
+    FINITE,
+    
+    /**
+     * The grid wraps around in both directions;
+     * the last row is adjacent to the first row,
+     * and the last column is adjacent to the first column.
+     */
+    TORUS
+}
@@ -0,0 +1,125 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Step engine that applies the bit-sliced adder network
+ * of the BitSliceEngine to a whole vector of words at a time,
+ * using the incubating Java Vector API (<em>jdk.incubator.vector</em>).
+ * On a machine with 256-bit vectors, each operation processes
+ * four words, or 256 cells.
+ * <p>
+ * The Vector API is only available if the <em>jdk.incubator.vector</em>
+ * module has been added to the boot layer, for example with the
+ * <em>--add-modules jdk.incubator.vector</em> command line option.
+ * If it has not, this engine falls back to the scalar code
+ * of a BitSliceEngine, producing identical results.
+ *
+ * @see BitSliceEngine
+ * @see #isVectorized()
+ */
+public class VectorEngine implements StepEngine
+{
+    /** The name of the module that contains the Vector API. */
+    private static final String     VECTOR_MODULE   = "jdk.incubator.vector";
+
+    /** Computes generations if the Vector API is not available. */
+    private final BitSliceEngine    scalarEngine;
+
+    /** Computes generations with the Vector API; null if not available. */
+    private final VectorKernel      kernel;
+
+    /**
+     * Instantiates a new vector step engine that applies the Game of Life.
+     * If the Vector API is not available, the engine uses scalar code.
+     */
+    public VectorEngine()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new vector step engine that applies the given rule.
+     * If the Vector API is not available, the engine uses scalar code.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     */
+    public VectorEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        this( rule, ModuleLayer.boot().findModule( VECTOR_MODULE ).isPresent() );
+    }
+
+    /**
+     * Instantiates a new step engine that applies the given rule,
+     * with or without the Vector API. Lets tests exercise
+     * the scalar fallback in a JVM where the Vector API is available.
+     *
+     * @param rule      the given rule
+     * @param vectorize true to use the Vector API, which must be
+     *                  available; false to use scalar code
+     *
+     * @throws IllegalArgumentException if the given rule is null
+     */
+    VectorEngine( Rule rule, boolean vectorize )
+        throws IllegalArgumentException
+    {
+        scalarEngine = new BitSliceEngine( rule );
+        kernel = vectorize ? new VectorKernel( rule ) : null;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        if ( kernel == null )
+            scalarEngine.step( current, next );
+        else
+        {
+            BitGrid.validatePair( current, next );
+            current.fillGhosts();
+            try
+            {
+                kernel.stepRows( current, next, 0, current.getRows() );
+            }
+            finally
+            {
+                current.clearGhosts();
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return scalarEngine.getRule();
+    }
+
+    /**
+     * Indicates whether this engine uses the Vector API.
+     *
+     * @return true, if this engine uses the Vector API;
+     *         false, if it falls back to scalar code
+     */
+    public boolean isVectorized()
+    {
+        return kernel != null;
+    }
+
+    /**
+     * Gets the number of words processed by a single vector operation.
+     *
+     * @return the number of words processed by a single vector operation,
+     *         or 1 if this engine does not use the Vector API
+     */
+    public int getLanes()
+    {
+        return kernel == null ? 1 : VectorKernel.SPECIES.length();
+    }
+}
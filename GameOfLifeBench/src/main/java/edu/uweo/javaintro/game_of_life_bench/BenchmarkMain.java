@@ -0,0 +1,36 @@
+package edu.uweo.javaintro.game_of_life_bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with JMH's GC profiler enabled,
+ * so that the allocation rate (<em>gc.alloc.rate.norm</em>,
+ * bytes per generation) is reported alongside the throughput.
+ * Any standard JMH command line options may be given.
+ */
+public class BenchmarkMain
+{
+    /**
+     * Application entry point.
+     *
+     * @param args  JMH command line options
+     *
+     * @throws RunnerException              if the benchmarks fail
+     * @throws CommandLineOptionException   if the options are invalid
+     */
+    public static void main( String[] args )
+        throws RunnerException, CommandLineOptionException
+    {
+        Options options = new OptionsBuilder()
+            .parent( new CommandLineOptions( args ) )
+            .addProfiler( GCProfiler.class )
+            .build();
+        new Runner( options ).run();
+    }
+}
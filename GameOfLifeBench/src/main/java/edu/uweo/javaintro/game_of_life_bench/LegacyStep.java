@@ -0,0 +1,40 @@
+package edu.uweo.javaintro.game_of_life_bench;
+
+import app.Neighborhood;
+
+/**
+ * The original next-state computation of the Game of Life application,
+ * which visits every cell with a Neighborhood and allocates
+ * a new array for each generation. It is reproduced here,
+ * without the board update, as the baseline against which
+ * the step engines are measured.
+ */
+public class LegacyStep
+{
+    /**
+     * Computes the generation following the given generation.
+     *
+     * @param cells the given generation; must be square
+     *
+     * @return the next generation
+     */
+    public static boolean[][] nextState( boolean[][] cells )
+    {
+        int len = cells.length;
+        boolean[][] temp = new boolean[cells.length][cells.length];
+        Neighborhood neigh = new Neighborhood();
+        for (int row = 0; row < len; ++row)
+            for (int col = 0; col < len; ++col)
+            {
+                neigh.reset(row, col, cells);
+                int count = neigh.getLivingCellCount();
+                if (count < 2 || count > 3)
+                    temp[row][col] = false;
+                else if (count == 3)
+                    temp[row][col] = true;
+                else
+                    temp[row][col] = cells[row][col];
+            }
+        return temp;
+    }
+}
@@ -0,0 +1,88 @@
+package edu.uweo.javaintro.game_of_life_bench;
+
+import java.util.Random;
+
+/**
+ * Creates the initial states used by the benchmarks.
+ */
+public class Patterns
+{
+    /** The seed for random patterns, so that every run is the same. */
+    private static final long       SEED        = 1954;
+
+    /** The cells of a Gosper glider gun, as row/column pairs. */
+    private static final int[][]    GOSPER_GUN  =
+    {
+        {4, 0}, {4, 1}, {5, 0}, {5, 1},
+        {4, 10}, {5, 10}, {6, 10}, {3, 11}, {7, 11}, {2, 12}, {8, 12},
+        {2, 13}, {8, 13}, {5, 14}, {3, 15}, {7, 15}, {4, 16}, {5, 16},
+        {6, 16}, {5, 17},
+        {2, 20}, {3, 20}, {4, 20}, {2, 21}, {3, 21}, {4, 21}, {1, 22},
+        {5, 22}, {0, 24}, {1, 24}, {5, 24}, {6, 24},
+        {2, 34}, {3, 34}, {2, 35}, {3, 35}
+    };
+
+    /** The height of the area occupied by a glider gun, with margin. */
+    private static final int        GUN_HEIGHT  = 20;
+
+    /** The width of the area occupied by a glider gun, with margin. */
+    private static final int        GUN_WIDTH   = 40;
+
+    /**
+     * Creates a square pattern of the given size.
+     * The pattern name is one of:
+     * <ul>
+     * <li><em>empty</em>: every cell is dead;</li>
+     * <li><em>random10</em>: each cell is alive with probability 0.1;</li>
+     * <li><em>random50</em>: each cell is alive with probability 0.5;</li>
+     * <li><em>gliderGuns</em>: Gosper glider guns tiled
+     *     along the diagonal of the grid.</li>
+     * </ul>
+     *
+     * @param name  the name of the pattern
+     * @param side  the width/height of the pattern
+     *
+     * @return the pattern
+     *
+     * @throws IllegalArgumentException if the name is not recognized
+     */
+    public static boolean[][] create( String name, int side )
+        throws IllegalArgumentException
+    {
+        boolean[][] cells   = new boolean[side][side];
+        switch ( name )
+        {
+        case "empty":
+            break;
+        case "random10":
+            fillRandom( cells, 0.1 );
+            break;
+        case "random50":
+            fillRandom( cells, 0.5 );
+            break;
+        case "gliderGuns":
+            for ( int base = 0 ; base + GUN_WIDTH <= side ; base += GUN_WIDTH )
+                if ( base + GUN_HEIGHT <= side )
+                    for ( int[] cell : GOSPER_GUN )
+                        cells[base + cell[0] + 1][base + cell[1] + 1] = true;
+            break;
+        default:
+            throw new IllegalArgumentException( "unknown pattern: " + name );
+        }
+        return cells;
+    }
+
+    /**
+     * Makes each cell of the given array alive with the given probability.
+     *
+     * @param cells         the given array
+     * @param probability   the given probability
+     */
+    private static void fillRandom( boolean[][] cells, double probability )
+    {
+        Random  random  = new Random( SEED );
+        for ( boolean[] row : cells )
+            for ( int col = 0 ; col < row.length ; ++col )
+                row[col] = random.nextDouble() < probability;
+    }
+}
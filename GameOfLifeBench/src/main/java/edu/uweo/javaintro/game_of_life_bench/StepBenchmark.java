@@ -0,0 +1,198 @@
+package edu.uweo.javaintro.game_of_life_bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uweo.javaintro.game_of_life_lib.ActiveRegionEngine;
+import edu.uweo.javaintro.game_of_life_lib.BitGrid;
+import edu.uweo.javaintro.game_of_life_lib.BitSliceEngine;
+import edu.uweo.javaintro.game_of_life_lib.ParallelEngine;
+import edu.uweo.javaintro.game_of_life_lib.StepEngine;
+import edu.uweo.javaintro.game_of_life_lib.VectorEngine;
+
+/**
+ * Measures the number of generations per second computed
+ * by the original Neighborhood-based computation
+ * and by each of the step engines, for several board sizes
+ * and initial patterns. Each benchmark invocation restores
+ * the initial pattern and computes a fixed batch of
+ * {@link #GENERATIONS} generations from it, so every invocation
+ * measures boards of the density named by the pattern,
+ * rather than the ash that a random soup decays into.
+ * Throughput is reported in generations per second.
+ *
+ * @see LegacyStep
+ * @see Patterns
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" } )
+public class StepBenchmark
+{
+    /** The number of generations computed by each invocation. */
+    static final int            GENERATIONS = 32;
+
+    /** The width/height of the board. */
+    @Param( { "64", "256", "1024" } )
+    private int                 size;
+
+    /** The name of the initial pattern. */
+    @Param( { "empty", "random10", "random50", "gliderGuns" } )
+    private String              pattern;
+
+    /** The initial pattern. */
+    private boolean[][]         initial;
+
+    /** The initial pattern, packed one bit per cell. */
+    private BitGrid             start;
+
+    /** The current generation of the step engines. */
+    private BitGrid             current;
+
+    /** Receives the next generation of the step engines. */
+    private BitGrid             next;
+
+    /** Serial bit-sliced engine. */
+    private StepEngine          bitSliceEngine;
+
+    /** Multi-threaded engine. */
+    private ParallelEngine      parallelEngine;
+
+    /** Engine that skips quiescent tiles. */
+    private StepEngine          activeEngine;
+
+    /** Engine that uses the Vector API. */
+    private StepEngine          vectorEngine;
+
+    /**
+     * Creates the initial pattern and the engines.
+     */
+    @Setup( Level.Trial )
+    public void setupTrial()
+    {
+        initial = Patterns.create( pattern, size );
+        start = new BitGrid( initial );
+        current = new BitGrid( size, size );
+        next = new BitGrid( size, size );
+        bitSliceEngine = new BitSliceEngine();
+        parallelEngine = new ParallelEngine(
+            Runtime.getRuntime().availableProcessors()
+        );
+        activeEngine = new ActiveRegionEngine();
+        vectorEngine = new VectorEngine();
+    }
+
+    /**
+     * Releases the threads of the parallel engine.
+     */
+    @TearDown( Level.Trial )
+    public void tearDownTrial()
+    {
+        parallelEngine.shutdown();
+    }
+
+    /**
+     * Computes a batch of generations with the original 
+     * Neighborhood-based code.
+     *
+     * @return the last generation
+     */
+    @Benchmark
+    @OperationsPerInvocation( GENERATIONS )
+    public boolean[][] legacy()
+    {
+        boolean[][] cells   = initial;
+        for ( int gen = 0 ; gen < GENERATIONS ; ++gen )
+            cells = LegacyStep.nextState( cells );
+        return cells;
+    }
+
+    /**
+     * Computes a batch of generations with a BitSliceEngine.
+     *
+     * @return the last generation
+     */
+    @Benchmark
+    @OperationsPerInvocation( GENERATIONS )
+    public BitGrid bitSlice()
+    {
+        return run( bitSliceEngine );
+    }
+
+    /**
+     * Computes a batch of generations with a ParallelEngine.
+     *
+     * @return the last generation
+     */
+    @Benchmark
+    @OperationsPerInvocation( GENERATIONS )
+    public BitGrid parallel()
+    {
+        return run( parallelEngine );
+    }
+
+    /**
+     * Computes a batch of generations with an ActiveRegionEngine.
+     *
+     * @return the last generation
+     */
+    @Benchmark
+    @OperationsPerInvocation( GENERATIONS )
+    public BitGrid activeRegion()
+    {
+        return run( activeEngine );
+    }
+
+    /**
+     * Computes a batch of generations with a VectorEngine.
+     *
+     * @return the last generation
+     */
+    @Benchmark
+    @OperationsPerInvocation( GENERATIONS )
+    public BitGrid vector()
+    {
+        return run( vectorEngine );
+    }
+
+    /**
+     * Restores the initial pattern, and computes a batch
+     * of generations from it with the given engine.
+     * Restoring the pattern copies one word per 64 cells,
+     * which is small next to the cost of the batch.
+     *
+     * @param engine    the given engine
+     *
+     * @return the last generation
+     */
+    private BitGrid run( StepEngine engine )
+    {
+        current.copyFrom( start );
+        engine.invalidate();
+        for ( int gen = 0 ; gen < GENERATIONS ; ++gen )
+        {
+            engine.step( current, next );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+        }
+        return current;
+    }
+}
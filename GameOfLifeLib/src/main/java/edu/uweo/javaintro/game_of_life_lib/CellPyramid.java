@@ -0,0 +1,218 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Maintains the number of live cells in square blocks of a grid
+ * at successively coarser levels of detail, like the levels
+ * of a mipmap. At level <em>k</em>, each block holds
+ * 2<sup>k</sup> x 2<sup>k</sup> cells, and its count is the sum
+ * of the counts of the four blocks of level <em>k - 1</em>
+ * that it contains. The finest level stored is {@link #BASE_LEVEL};
+ * counts for finer levels are cheap to compute directly
+ * from the bits of the grid with {@link #countBlock(BitGrid, int, int, int)}.
+ * The coarsest level consists of a single block.
+ * <p>
+ * When a grid changes, only the blocks that contain changed
+ * cells, and the blocks that contain them at coarser levels,
+ * need to be recomputed; see {@link #update(BitGrid, DirtyTracker)}.
+ *
+ * @see Board#setZoomOut(int)
+ */
+class CellPyramid
+{
+    /** The finest level of detail stored by the pyramid. */
+    static final int    BASE_LEVEL  = 3;
+
+    /** The largest level of detail that fits within a single word. */
+    static final int    WORD_LEVEL  = 6;
+
+    /** The number of rows in the grid. */
+    private int         rows;
+
+    /** The number of columns in the grid. */
+    private int         cols;
+
+    /** The block counts of each level, starting with BASE_LEVEL. */
+    private int[][]     counts      = new int[0][];
+
+    /** The number of rows of blocks at each level. */
+    private int[]       levelRows   = new int[0];
+
+    /** The number of columns of blocks at each level. */
+    private int[]       levelCols   = new int[0];
+
+    /**
+     * Computes every level of the pyramid for the given grid.
+     *
+     * @param grid  the given grid
+     */
+    void build( BitGrid grid )
+    {
+        rows = grid.getRows();
+        cols = grid.getCols();
+
+        int levels  = 1;
+        while ( blocks( rows, BASE_LEVEL + levels - 1 ) > 1
+            || blocks( cols, BASE_LEVEL + levels - 1 ) > 1 )
+            ++levels;
+
+        counts = new int[levels][];
+        levelRows = new int[levels];
+        levelCols = new int[levels];
+        for ( int inx = 0 ; inx < levels ; ++inx )
+        {
+            levelRows[inx] = blocks( rows, BASE_LEVEL + inx );
+            levelCols[inx] = blocks( cols, BASE_LEVEL + inx );
+            counts[inx] = new int[levelRows[inx] * levelCols[inx]];
+        }
+        updateRegion( grid, 0, rows, 0, cols );
+    }
+
+    /**
+     * Recomputes the blocks that contain the tiles found to be dirty
+     * by the most recent update of the given tracker.
+     * If the dimensions of the grid have changed,
+     * the whole pyramid is rebuilt.
+     *
+     * @param grid      the grid tracked by the given tracker
+     * @param tracker   the given tracker
+     */
+    void update( BitGrid grid, DirtyTracker tracker )
+    {
+        if ( grid.getRows() != rows || grid.getCols() != cols )
+            build( grid );
+        else
+        {
+            for ( int tileRow = 0 ; tileRow < tracker.getTileRows() ; ++tileRow )
+                for ( int tileCol = 0 ; tileCol < tracker.getTileCols() ; ++tileCol )
+                    if ( tracker.isDirty( tileRow, tileCol ) )
+                    {
+                        int fromRow = tileRow * DirtyTracker.TILE_ROWS;
+                        int fromCol = tileCol * DirtyTracker.TILE_COLS;
+                        updateRegion(
+                            grid,
+                            fromRow,
+                            Math.min( fromRow + DirtyTracker.TILE_ROWS, rows ),
+                            fromCol,
+                            Math.min( fromCol + DirtyTracker.TILE_COLS, cols )
+                        );
+                    }
+        }
+    }
+
+    /**
+     * Recomputes the blocks that contain any cell
+     * of the given rectangular region of the given grid.
+     *
+     * @param grid      the given grid
+     * @param fromRow   the first row of the region
+     * @param toRow     the row following the last row of the region
+     * @param fromCol   the first column of the region
+     * @param toCol     the column following the last column of the region
+     */
+    void updateRegion( BitGrid grid, int fromRow, int toRow, int fromCol, int toCol )
+    {
+        int firstRow    = fromRow >> BASE_LEVEL;
+        int lastRow     = (toRow - 1) >> BASE_LEVEL;
+        int firstCol    = fromCol >> BASE_LEVEL;
+        int lastCol     = (toCol - 1) >> BASE_LEVEL;
+        int[]   base    = counts[0];
+        for ( int row = firstRow ; row <= lastRow ; ++row )
+            for ( int col = firstCol ; col <= lastCol ; ++col )
+                base[row * levelCols[0] + col] =
+                    countBlock( grid, BASE_LEVEL, row, col );
+
+        for ( int inx = 1 ; inx < counts.length ; ++inx )
+        {
+            firstRow >>= 1;
+            lastRow >>= 1;
+            firstCol >>= 1;
+            lastCol >>= 1;
+            int[]   child       = counts[inx - 1];
+            int     childRows   = levelRows[inx - 1];
+            int     childCols   = levelCols[inx - 1];
+            for ( int row = firstRow ; row <= lastRow ; ++row )
+                for ( int col = firstCol ; col <= lastCol ; ++col )
+                {
+                    int sum     = 0;
+                    int cRow    = 2 * row;
+                    int cCol    = 2 * col;
+                    for ( int dRow = 0 ; dRow < 2 && cRow + dRow < childRows ; ++dRow )
+                        for ( int dCol = 0 ; dCol < 2 && cCol + dCol < childCols ; ++dCol )
+                            sum += child[(cRow + dRow) * childCols + cCol + dCol];
+                    counts[inx][row * levelCols[inx] + col] = sum;
+                }
+        }
+    }
+
+    /**
+     * Gets the coarsest level of the pyramid,
+     * at which the grid is a single block.
+     *
+     * @return the coarsest level of the pyramid
+     */
+    int getMaxLevel()
+    {
+        return BASE_LEVEL + counts.length - 1;
+    }
+
+    /**
+     * Gets the number of live cells in the given block
+     * of the given level.
+     *
+     * @param level the given level; between BASE_LEVEL and getMaxLevel()
+     * @param row   the row of the given block
+     * @param col   the column of the given block
+     *
+     * @return the number of live cells in the given block
+     */
+    int getCount( int level, int row, int col )
+    {
+        int inx = level - BASE_LEVEL;
+        return counts[inx][row * levelCols[inx] + col];
+    }
+
+    /**
+     * Counts the live cells in the given block of the given level
+     * directly from the bits of the given grid.
+     * The level may be no greater than {@link #WORD_LEVEL},
+     * so that each row of the block lies within a single word.
+     *
+     * @param grid      the given grid
+     * @param level     the given level
+     * @param blockRow  the row of the given block
+     * @param blockCol  the column of the given block
+     *
+     * @return the number of live cells in the given block
+     */
+    static int countBlock( BitGrid grid, int level, int blockRow, int blockCol )
+    {
+        long[]  words   = grid.getWords();
+        int     side    = 1 << level;
+        int     fromRow = blockRow << level;
+        int     toRow   = Math.min( fromRow + side, grid.getRows() );
+        int     col     = blockCol << level;
+        int     word    = col >>> 6;
+        int     shift   = col & 63;
+        long    mask    = level == WORD_LEVEL ? -1L : (1L << side) - 1;
+        int     count   = 0;
+        for ( int row = fromRow ; row < toRow ; ++row )
+            count += Long.bitCount(
+                (words[grid.rowOffset( row ) + word] >>> shift) & mask
+            );
+        return count;
+    }
+
+    /**
+     * Computes the number of blocks of the given level
+     * needed to cover the given number of cells.
+     *
+     * @param cells the given number of cells
+     * @param level the given level
+     *
+     * @return the number of blocks needed to cover the given cells
+     */
+    static int blocks( int cells, int level )
+    {
+        return (int)((cells + (1L << level) - 1) >> level);
+    }
+}
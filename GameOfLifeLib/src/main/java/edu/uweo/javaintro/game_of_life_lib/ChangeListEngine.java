@@ -0,0 +1,369 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.Arrays;
+
+/**
+ * Step engine whose cost is proportional to the number of cells
+ * that change, rather than to the size of the grid.
+ * The engine keeps, for every cell, the number of its live neighbors.
+ * When a cell is born or dies, only the counts of its eight neighbors
+ * are updated; and the only cells evaluated in the next generation
+ * are the cells that changed in the previous one, and their neighbors,
+ * since no other cell's neighborhood can be different.
+ * On a sparse, slowly evolving board this is far less work
+ * than recounting every neighborhood of the grid.
+ * <p>
+ * Like an {@link ActiveRegionEngine}, this engine relies on being used
+ * with a pair of buffers that are swapped after each generation:
+ * the grid passed as <em>next</em> must hold the generation
+ * before <em>current</em>, so that only the cells on the change lists
+ * need be written. If the engine is called with any other pair
+ * of grids, the counts are rebuilt and every cell is evaluated.
+ * Changes made to the current generation between steps
+ * must be reported through {@link #cellChanged(int, int)}
+ * or {@link #invalidate()}.
+ * <p>
+ * A rule under which a cell with no live neighbors is born
+ * changes every dead cell at once, and cannot be applied
+ * by this engine.
+ *
+ * @see ActiveRegionEngine
+ */
+public class ChangeListEngine implements StepEngine
+{
+    /** The bits of a cell's state that hold its neighbor count. */
+    private static final int    COUNT_MASK  = 0x0F;
+
+    /** The bit of a cell's state that is set if the cell is alive. */
+    private static final int    ALIVE       = 0x10;
+
+    /** The bit of a cell's state that is set if the cell is to be evaluated. */
+    private static final int    QUEUED      = 0x20;
+
+    /** The rule applied by this engine. */
+    private final Rule          rule;
+
+    /**
+     * The next state of a cell, indexed by the low five bits
+     * of its state: its neighbor count, and whether it is alive.
+     */
+    private final boolean[]     table       = new boolean[ALIVE << 1];
+
+    /** The current generation passed to the most recent step. */
+    private BitGrid             lastCurrent;
+
+    /** The next generation passed to the most recent step. */
+    private BitGrid             lastNext;
+
+    /** The number of rows in the grid. */
+    private int                 rows;
+
+    /** The number of columns in the grid. */
+    private int                 cols;
+
+    /** True if the cells on opposite edges of the grid are neighbors. */
+    private boolean             torus;
+
+    /**
+     * The state of each cell of the grid most recently
+     * passed as <em>next</em>, in row-major order.
+     */
+    private byte[]              states      = new byte[0];
+
+    /**
+     * The indices of the cells that differ between
+     * the current generation and the generation before it.
+     * A cell may appear more than once.
+     */
+    private int[]               changes     = new int[64];
+
+    /** The number of entries in changes. */
+    private int                 changeCount;
+
+    /** Receives the indices of the cells changed by the next step. */
+    private int[]               nextChanges = new int[64];
+
+    /** The number of entries in nextChanges. */
+    private int                 nextCount;
+
+    /** The indices of the cells to be evaluated by the next step. */
+    private int[]               queue       = new int[64];
+
+    /** The number of entries in queue. */
+    private int                 queueCount;
+
+    /**
+     * Instantiates a new engine that applies the Game of Life.
+     */
+    public ChangeListEngine()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new engine that applies the given rule.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null,
+     *         or if a cell with no live neighbors is born under it
+     */
+    public ChangeListEngine( Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( rule == null || rule.isBorn( 0 ) )
+            throw new IllegalArgumentException( "unsupported rule: " + rule );
+        this.rule = rule;
+        for ( int count = 0 ; count <= 8 ; ++count )
+        {
+            table[count] = rule.isBorn( count );
+            table[ALIVE | count] = rule.survives( count );
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+        nextCount = 0;
+        if ( current != lastNext || next != lastCurrent )
+            rebuild( current, next );
+        else
+        {
+            // Bring next up to date with current; the only cells
+            // in which they differ are those on the change list.
+            for ( int inx = 0 ; inx < changeCount ; ++inx )
+            {
+                int cell    = changes[inx];
+                next.set( cell / cols, cell % cols, (states[cell] & ALIVE) != 0 );
+                enqueueNeighborhood( cell );
+            }
+            for ( int inx = 0 ; inx < queueCount ; ++inx )
+            {
+                int cell    = queue[inx];
+                states[cell] &= ~QUEUED;
+                evaluate( cell );
+            }
+            queueCount = 0;
+        }
+        applyChanges( next );
+
+        int[]   temp    = changes;
+        changes = nextChanges;
+        nextChanges = temp;
+        changeCount = nextCount;
+        lastCurrent = current;
+        lastNext = next;
+    }
+
+    /**
+     * Adds the given cell to the change list, so that it and its
+     * neighbors are evaluated by the next step, and updates
+     * the counts of its neighbors.
+     *
+     * @param row   the row of the changed cell
+     * @param col   the column of the changed cell
+     */
+    @Override
+    public void cellChanged( int row, int col )
+    {
+        if ( lastNext != null
+            && row >= 0 && row < rows && col >= 0 && col < cols )
+        {
+            int     cell    = row * cols + col;
+            boolean alive   = lastNext.get( row, col );
+            if ( alive != ((states[cell] & ALIVE) != 0) )
+            {
+                states[cell] ^= ALIVE;
+                adjustNeighbors( cell, alive ? 1 : -1 );
+                changes = append( changes, changeCount++, cell );
+            }
+        }
+    }
+
+    /**
+     * Causes the counts to be rebuilt, and every cell
+     * to be evaluated, by the next step.
+     */
+    @Override
+    public void invalidate()
+    {
+        lastCurrent = null;
+        lastNext = null;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Gets the number of cells that changed in the most recent step.
+     * Mainly useful for testing and tuning.
+     *
+     * @return the number of cells that changed in the most recent step
+     */
+    public int getChangedCells()
+    {
+        return changeCount;
+    }
+
+    /**
+     * Computes the counts and states of every cell from the given grid,
+     * copies it to the other grid, and evaluates every cell.
+     *
+     * @param current   the given grid
+     * @param next      grid to receive the next generation
+     */
+    private void rebuild( BitGrid current, BitGrid next )
+    {
+        rows = current.getRows();
+        cols = current.getCols();
+        torus = current.getTopology() == Topology.TORUS;
+        int cells   = rows * cols;
+        if ( states.length != cells )
+            states = new byte[cells];
+        else
+            Arrays.fill( states, (byte)0 );
+        changeCount = 0;
+        queueCount = 0;
+
+        for ( int row = 0 ; row < rows ; ++row )
+            for ( int col = 0 ; col < cols ; ++col )
+                if ( current.get( row, col ) )
+                {
+                    int cell    = row * cols + col;
+                    states[cell] |= ALIVE;
+                    adjustNeighbors( cell, 1 );
+                }
+        next.copyFrom( current );
+        for ( int cell = 0 ; cell < cells ; ++cell )
+            evaluate( cell );
+    }
+
+    /**
+     * Determines whether the given cell changes in the next generation,
+     * and if it does adds it to the next change list.
+     *
+     * @param cell  the index of the given cell
+     */
+    private void evaluate( int cell )
+    {
+        int     state   = states[cell];
+        boolean alive   = (state & ALIVE) != 0;
+        if ( table[state & (ALIVE | COUNT_MASK)] != alive )
+            nextChanges = append( nextChanges, nextCount++, cell );
+    }
+
+    /**
+     * Applies the changes on the next change list:
+     * updates the states of the changed cells and the counts
+     * of their neighbors, and stores the changes in the given grid.
+     * The cells are all evaluated before any is changed,
+     * so that every cell sees the counts of the current generation.
+     *
+     * @param next  grid to receive the next generation
+     */
+    private void applyChanges( BitGrid next )
+    {
+        for ( int inx = 0 ; inx < nextCount ; ++inx )
+        {
+            int     cell    = nextChanges[inx];
+            states[cell] ^= ALIVE;
+            boolean alive   = (states[cell] & ALIVE) != 0;
+            adjustNeighbors( cell, alive ? 1 : -1 );
+            next.set( cell / cols, cell % cols, alive );
+        }
+    }
+
+    /**
+     * Adds the given cell and its neighbors to the queue of cells
+     * to be evaluated, skipping any that are already queued.
+     *
+     * @param cell  the index of the given cell
+     */
+    private void enqueueNeighborhood( int cell )
+    {
+        int row     = cell / cols;
+        int col     = cell % cols;
+        for ( int dRow = -1 ; dRow <= 1 ; ++dRow )
+            for ( int dCol = -1 ; dCol <= 1 ; ++dCol )
+            {
+                int neighbor    = neighbor( row + dRow, col + dCol );
+                if ( neighbor >= 0 && (states[neighbor] & QUEUED) == 0 )
+                {
+                    states[neighbor] |= QUEUED;
+                    queue = append( queue, queueCount++, neighbor );
+                }
+            }
+    }
+
+    /**
+     * Adds the given amount to the counts of the neighbors
+     * of the given cell.
+     *
+     * @param cell      the index of the given cell
+     * @param amount    the given amount; 1 or -1
+     */
+    private void adjustNeighbors( int cell, int amount )
+    {
+        int row     = cell / cols;
+        int col     = cell % cols;
+        for ( int dRow = -1 ; dRow <= 1 ; ++dRow )
+            for ( int dCol = -1 ; dCol <= 1 ; ++dCol )
+                if ( dRow != 0 || dCol != 0 )
+                {
+                    int neighbor    = neighbor( row + dRow, col + dCol );
+                    if ( neighbor >= 0 )
+                        states[neighbor] = (byte)(states[neighbor] + amount);
+                }
+    }
+
+    /**
+     * Gets the index of the cell at the given position.
+     * On a torus, positions outside the grid wrap around
+     * to the opposite edge.
+     *
+     * @param row   the row of the given position
+     * @param col   the column of the given position
+     *
+     * @return the index of the cell at the given position;
+     *         -1 if the position is outside a finite grid
+     */
+    private int neighbor( int row, int col )
+    {
+        int result  = -1;
+        if ( torus )
+            result = Math.floorMod( row, rows ) * cols + Math.floorMod( col, cols );
+        else if ( row >= 0 && row < rows && col >= 0 && col < cols )
+            result = row * cols + col;
+        return result;
+    }
+
+    /**
+     * Stores a value at the given index of an array,
+     * growing the array if necessary.
+     *
+     * @param array the array
+     * @param inx   the given index
+     * @param value the value
+     *
+     * @return the array, or its replacement if it was grown
+     */
+    private static int[] append( int[] array, int inx, int value )
+    {
+        int[]   result  = array;
+        if ( inx == result.length )
+            result = Arrays.copyOf( result, result.length * 2 );
+        result[inx] = value;
+        return result;
+    }
+}
@@ -0,0 +1,342 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Step engine that delegates to another engine, and detects when
+ * the grid returns to a state it held in a recent generation:
+ * that is, when it has become a still life (period 1)
+ * or an oscillator. Once the grid repeats with period <em>p</em>,
+ * generation <em>n + kp</em> is identical to generation <em>n</em>
+ * for every <em>k</em>, so any later generation can be reached
+ * in fewer than <em>p</em> steps.
+ * <p>
+ * Each generation is identified by a 64-bit hash: the exclusive-or,
+ * over the words of the grid, of a pseudo-random function
+ * of each word's position and contents. The hash of the next
+ * generation is computed from the hash of the current one
+ * by replacing the terms of just the words that changed;
+ * on a settled board, that is almost none of them. Only the parts
+ * of the grid that the delegate reports
+ * {@linkplain StepEngine#mayHaveChanged(int, int, int, int) may have changed}
+ * are examined, so with an {@link ActiveRegionEngine}
+ * the cost of the hash is proportional to the active area.
+ * A repeated hash is taken to be a repeated state; the chance
+ * of two different states having the same hash is negligible.
+ * <p>
+ * The hashes of the most recent {@link #getWindow()} generations
+ * are retained, so any period up to the window is detected.
+ * The hashes are discarded whenever the grid is changed
+ * by some means other than stepping.
+ *
+ * @see Board#fastForward(long)
+ */
+public class CycleDetector implements StepEngine
+{
+    /** The default number of generations whose hashes are retained. */
+    public static final int     DEFAULT_WINDOW  = 1024;
+
+    /** The number of rows in each band of the grid examined for changes. */
+    private static final int    BAND_ROWS       = ActiveRegionEngine.TILE_ROWS;
+
+    /** The engine that computes each generation. */
+    private final StepEngine    delegate;
+
+    /** The number of generations whose hashes are retained. */
+    private final int           window;
+
+    /** Maps the hashes of recent generations to their step counts. */
+    private final Map<Long, Long>   seen    = new HashMap<>();
+
+    /** The hashes of recent generations, oldest first. */
+    private final Deque<Long>   recent      = new ArrayDeque<>();
+
+    /** The grid passed as next to the most recent step. */
+    private BitGrid             lastNext;
+
+    /** The hash of lastNext; valid only if lastNext is not null. */
+    private long                hash;
+
+    /** The number of steps since the hashes were last discarded. */
+    private long                steps;
+
+    /** The period of the grid; 0 if no repetition has been detected. */
+    private long                period;
+
+    /** For each word column of a band, true if it may have changed. */
+    private boolean[]           changedWords    = new boolean[0];
+
+    /**
+     * Instantiates a new cycle detector
+     * that delegates to the given engine,
+     * with the default window.
+     *
+     * @param delegate  the given engine
+     */
+    public CycleDetector( StepEngine delegate )
+    {
+        this( delegate, DEFAULT_WINDOW );
+    }
+
+    /**
+     * Instantiates a new cycle detector
+     * that delegates to the given engine,
+     * with the given window.
+     *
+     * @param delegate  the given engine
+     * @param window    the number of generations whose hashes
+     *                  are retained; the longest period detected
+     *
+     * @throws IllegalArgumentException if the engine is null,
+     *         or the window is not positive
+     */
+    public CycleDetector( StepEngine delegate, int window )
+        throws IllegalArgumentException
+    {
+        if ( delegate == null || window <= 0 )
+            throw new IllegalArgumentException( "window = " + window );
+        this.delegate = delegate;
+        this.window = window;
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#step(BitGrid, BitGrid)
+     */
+    @Override
+    public void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+        if ( current != lastNext )
+        {
+            reset();
+            hash = hash( current );
+            remember( hash );
+        }
+
+        delegate.step( current, next );
+        hash ^= changes( current, next );
+        lastNext = next;
+        ++steps;
+
+        Long    previous    = seen.get( hash );
+        if ( period == 0 && previous != null )
+            period = steps - previous;
+        remember( hash );
+    }
+
+    /**
+     * Discards the retained hashes and the detected period,
+     * and notifies the delegate.
+     *
+     * @param row   the row of the changed cell
+     * @param col   the column of the changed cell
+     */
+    @Override
+    public void cellChanged( int row, int col )
+    {
+        lastNext = null;
+        reset();
+        delegate.cellChanged( row, col );
+    }
+
+    /**
+     * Discards the retained hashes and the detected period,
+     * and notifies the delegate.
+     */
+    @Override
+    public void invalidate()
+    {
+        lastNext = null;
+        reset();
+        delegate.invalidate();
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#mayHaveChanged(int, int, int, int)
+     */
+    @Override
+    public boolean mayHaveChanged( int fromRow, int toRow, int fromWord, int toWord )
+    {
+        return delegate.mayHaveChanged( fromRow, toRow, fromWord, toWord );
+    }
+
+    /* (non-Javadoc)
+     * @see edu.uweo.javaintro.game_of_life_lib.StepEngine#getRule()
+     */
+    @Override
+    public Rule getRule()
+    {
+        return delegate.getRule();
+    }
+
+    /**
+     * Gets the period with which the grid repeats.
+     *
+     * @return the period with which the grid repeats;
+     *         0 if no repetition has been detected
+     */
+    public long getPeriod()
+    {
+        return period;
+    }
+
+    /**
+     * Gets the hash of the grid passed as <em>next</em>
+     * to the most recent step.
+     *
+     * @return the hash of the most recently computed generation
+     */
+    public long getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Gets the number of generations whose hashes are retained.
+     *
+     * @return the number of generations whose hashes are retained
+     */
+    public int getWindow()
+    {
+        return window;
+    }
+
+    /**
+     * Gets the engine that computes each generation.
+     *
+     * @return the engine that computes each generation
+     */
+    public StepEngine getDelegate()
+    {
+        return delegate;
+    }
+
+    /**
+     * Computes the hash of the given grid.
+     *
+     * @param grid  the given grid
+     *
+     * @return the hash of the given grid
+     */
+    public static long hash( BitGrid grid )
+    {
+        long[]  words   = grid.getWords();
+        int     perRow  = grid.getWordsPerRow();
+        long    result  = 0;
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            int base    = grid.rowOffset( row );
+            for ( int word = 0 ; word < perRow ; ++word )
+                result ^= term( row, word, words[base + word] );
+        }
+        return result;
+    }
+
+    /**
+     * Computes the exclusive-or of the terms of the hash
+     * that differ between the given grids, which were passed
+     * to the most recent step of the delegate. Only the words
+     * that the delegate reports may have changed are compared.
+     *
+     * @param current   the first grid
+     * @param next      the second grid
+     *
+     * @return the exclusive-or of the terms of the changed words,
+     *         before and after the change
+     */
+    private long changes( BitGrid current, BitGrid next )
+    {
+        long[]  from    = current.getWords();
+        long[]  to      = next.getWords();
+        int     rows    = current.getRows();
+        int     perRow  = current.getWordsPerRow();
+        long    result  = 0;
+        if ( changedWords.length != perRow )
+            changedWords = new boolean[perRow];
+        for ( int fromRow = 0 ; fromRow < rows ; fromRow += BAND_ROWS )
+        {
+            int     toRow   = Math.min( fromRow + BAND_ROWS, rows );
+            boolean any     = false;
+            for ( int word = 0 ; word < perRow ; ++word )
+            {
+                changedWords[word] =
+                    delegate.mayHaveChanged( fromRow, toRow, word, word + 1 );
+                any |= changedWords[word];
+            }
+            for ( int row = fromRow ; row < toRow && any ; ++row )
+            {
+                int base    = current.rowOffset( row );
+                for ( int word = 0 ; word < perRow ; ++word )
+                {
+                    long    before  = from[base + word];
+                    long    after   = to[base + word];
+                    if ( changedWords[word] && before != after )
+                        result ^= term( row, word, before ) ^ term( row, word, after );
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the term of the hash contributed by a word.
+     *
+     * @param row   the row of the word
+     * @param word  the index of the word within the row
+     * @param bits  the contents of the word
+     *
+     * @return the term contributed by the word
+     */
+    private static long term( int row, int word, long bits )
+    {
+        return mix( mix( (long)row << 32 | word ) + bits );
+    }
+
+    /**
+     * Scrambles the given value; this is the finalizer
+     * of the SplitMix64 generator.
+     *
+     * @param value the given value
+     *
+     * @return the scrambled value
+     */
+    private static long mix( long value )
+    {
+        long    result  = value + 0x9E3779B97F4A7C15L;
+        result = (result ^ (result >>> 30)) * 0xBF58476D1CE4E5B9L;
+        result = (result ^ (result >>> 27)) * 0x94D049BB133111EBL;
+        return result ^ (result >>> 31);
+    }
+
+    /**
+     * Retains the given hash as that of the current step,
+     * discarding the oldest hash if the window is full.
+     *
+     * @param value the given hash
+     */
+    private void remember( long value )
+    {
+        if ( recent.size() == window )
+        {
+            Long    oldest  = recent.removeFirst();
+            seen.remove( oldest, steps - window );
+        }
+        seen.put( value, steps );
+        recent.addLast( value );
+    }
+
+    /**
+     * Discards the retained hashes and the detected period.
+     */
+    private void reset()
+    {
+        seen.clear();
+        recent.clear();
+        steps = 0;
+        period = 0;
+    }
+}
@@ -0,0 +1,155 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the parts of a grid that have changed
+ * since the grid was last displayed. The grid is divided into
+ * tiles of {@link #TILE_ROWS} rows by one word (64 columns);
+ * each time {@link #update(BitGrid)} is called, the tiles
+ * that differ from the previous call are marked dirty.
+ * Comparing a tile costs at most {@link #TILE_ROWS} word comparisons,
+ * so finding the dirty tiles is cheap compared to drawing them.
+ *
+ * @see Board#refresh()
+ */
+class DirtyTracker
+{
+    /** The number of rows in a tile. */
+    static final int    TILE_ROWS   = 64;
+
+    /** The number of columns in a tile. */
+    static final int    TILE_COLS   = BitGrid.WORD_BITS;
+
+    /** The state of the grid at the most recent update; null if none. */
+    private BitGrid     shown;
+
+    /** The number of tile rows in the grid. */
+    private int         tileRows;
+
+    /** The number of tile columns in the grid. */
+    private int         tileCols;
+
+    /** For each tile, true if it changed at the most recent update. */
+    private boolean[]   dirty       = new boolean[0];
+
+    /** The number of dirty tiles. */
+    private int         dirtyCount;
+
+    /**
+     * Marks dirty every tile of the given grid that has changed
+     * since the most recent update, and records the state
+     * of the given grid for comparison by the next update.
+     * If this is the first update, or if the dimensions of the grid
+     * have changed, every tile is dirty.
+     *
+     * @param grid  the given grid
+     *
+     * @return the number of dirty tiles
+     */
+    int update( BitGrid grid )
+    {
+        int     rows    = grid.getRows();
+        int     cols    = grid.getCols();
+        if ( shown == null || shown.getRows() != rows || shown.getCols() != cols )
+        {
+            shown = new BitGrid( rows, cols );
+            tileRows = (rows + TILE_ROWS - 1) / TILE_ROWS;
+            tileCols = grid.getWordsPerRow();
+            dirty = new boolean[tileRows * tileCols];
+            Arrays.fill( dirty, true );
+            dirtyCount = dirty.length;
+            copyTiles( grid );
+        }
+        else
+        {
+            long[]  src     = grid.getWords();
+            long[]  dst     = shown.getWords();
+            dirtyCount = 0;
+            for ( int tileRow = 0 ; tileRow < tileRows ; ++tileRow )
+            {
+                int fromRow = tileRow * TILE_ROWS;
+                int toRow   = Math.min( fromRow + TILE_ROWS, rows );
+                for ( int word = 0 ; word < tileCols ; ++word )
+                {
+                    boolean changed = false;
+                    for ( int row = fromRow ; row < toRow ; ++row )
+                    {
+                        int inx = grid.rowOffset( row ) + word;
+                        if ( src[inx] != dst[inx] )
+                        {
+                            dst[inx] = src[inx];
+                            changed = true;
+                        }
+                    }
+                    dirty[tileRow * tileCols + word] = changed;
+                    if ( changed )
+                        ++dirtyCount;
+                }
+            }
+        }
+        return dirtyCount;
+    }
+
+    /**
+     * Gets the number of tile rows in the grid.
+     *
+     * @return the number of tile rows in the grid
+     */
+    int getTileRows()
+    {
+        return tileRows;
+    }
+
+    /**
+     * Gets the number of tile columns in the grid.
+     *
+     * @return the number of tile columns in the grid
+     */
+    int getTileCols()
+    {
+        return tileCols;
+    }
+
+    /**
+     * Gets the number of tiles that were dirty
+     * at the most recent update.
+     *
+     * @return the number of dirty tiles
+     */
+    int getDirtyCount()
+    {
+        return dirtyCount;
+    }
+
+    /**
+     * Determines whether the given tile was dirty
+     * at the most recent update.
+     *
+     * @param tileRow   the tile row of the given tile
+     * @param tileCol   the tile column of the given tile
+     *
+     * @return true, if the given tile was dirty
+     */
+    boolean isDirty( int tileRow, int tileCol )
+    {
+        return dirty[tileRow * tileCols + tileCol];
+    }
+
+    /**
+     * Copies the state of every cell of the given grid
+     * into the recorded state.
+     *
+     * @param grid  the given grid
+     */
+    private void copyTiles( BitGrid grid )
+    {
+        long[]  src     = grid.getWords();
+        long[]  dst     = shown.getWords();
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            int base    = grid.rowOffset( row );
+            System.arraycopy( src, base, dst, base, tileCols );
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Runs a Game of Life simulation whose grid is partitioned
+ * among several workers, each of which may run in its own process.
+ * The grid is cut into horizontal bands of nearly equal height,
+ * each owned by one {@link DistributedWorker}; the coordinator
+ * holds only the first and last rows of each band.
+ * <p>
+ * Each generation the coordinator sends every worker its halo rows:
+ * the last row of the band above and the first row of the band below,
+ * wrapping around on a torus, and dead rows at the edges
+ * of a finite grid. The workers then compute the next generation
+ * of their bands concurrently, and reply with their new first and
+ * last rows, which become the halo rows of the following generation.
+ * The workers therefore advance in lockstep, and the entire grid is
+ * only assembled on request, for instance to be displayed:
+ * <pre>
+ * board.setGrid( simulation.getGrid() );
+ * </pre>
+ * Instances are not thread-safe.
+ *
+ * @see Transport
+ * @see SocketTransport
+ * @see Simulation
+ */
+public class DistributedSimulation implements AutoCloseable
+{
+    /** The rule applied by the workers. */
+    private final Rule                  rule;
+
+    /** The number of rows in the grid. */
+    private final int                   rows;
+
+    /** The number of columns in the grid. */
+    private final int                   cols;
+
+    /** The topology of the grid. */
+    private final Topology              topology;
+
+    /** The connections to the workers, from the top band to the bottom. */
+    private final Transport.Link[]      links;
+
+    /** The streams from which the workers' replies are read. */
+    private final DataInputStream[]     inputs;
+
+    /** The streams to which commands are written to the workers. */
+    private final DataOutputStream[]    outputs;
+
+    /** The first row of each band in the grid. */
+    private final int[]                 firstRows;
+
+    /** The first and last rows of each band, in rows 2b and 2b + 1. */
+    private final BitGrid               edges;
+
+    /** The number of generations computed so far. */
+    private long                        generation;
+
+    /**
+     * Instantiates a new simulation of the Game of Life
+     * with the given initial state, partitioned among the given
+     * number of workers started by the given transport.
+     *
+     * @param initial   the given initial state
+     * @param workers   the given number of workers
+     * @param transport the given transport
+     *
+     * @throws IllegalArgumentException if the given number of workers
+     *         is less than 1 or greater than the number of rows,
+     *         or if the initial state or transport is null
+     * @throws IOException if the workers cannot be started
+     */
+    public DistributedSimulation( BitGrid initial, int workers, Transport transport )
+        throws IllegalArgumentException, IOException
+    {
+        this( initial, Rule.CONWAY, workers, transport );
+    }
+
+    /**
+     * Instantiates a new simulation of the given rule
+     * with the given initial state, partitioned among the given
+     * number of workers started by the given transport.
+     *
+     * @param initial   the given initial state
+     * @param rule      the given rule
+     * @param workers   the given number of workers
+     * @param transport the given transport
+     *
+     * @throws IllegalArgumentException if the given number of workers
+     *         is less than 1 or greater than the number of rows,
+     *         or if the initial state, rule or transport is null
+     * @throws IOException if the workers cannot be started
+     */
+    public DistributedSimulation(
+        BitGrid initial,
+        Rule rule,
+        int workers,
+        Transport transport
+    ) throws IllegalArgumentException, IOException
+    {
+        if ( initial == null || rule == null || transport == null )
+            throw new IllegalArgumentException( "initial, rule or transport is null" );
+        if ( workers < 1 || workers > initial.getRows() )
+            throw new IllegalArgumentException( "workers = " + workers );
+
+        this.rule = rule;
+        rows = initial.getRows();
+        cols = initial.getCols();
+        topology = initial.getTopology();
+        links = new Transport.Link[workers];
+        inputs = new DataInputStream[workers];
+        outputs = new DataOutputStream[workers];
+        firstRows = new int[workers + 1];
+        for ( int band = 0 ; band <= workers ; ++band )
+            firstRows[band] = (int)((long)rows * band / workers);
+        edges = new BitGrid( 2 * workers, cols );
+
+        try
+        {
+            for ( int band = 0 ; band < workers ; ++band )
+            {
+                links[band] = transport.open();
+                inputs[band] = new DataInputStream(
+                    new BufferedInputStream( links[band].getInputStream() )
+                );
+                outputs[band] = new DataOutputStream(
+                    new BufferedOutputStream( links[band].getOutputStream() )
+                );
+                DataOutputStream    output  = outputs[band];
+                output.write( DistributedWorker.INIT );
+                output.writeInt( firstRows[band + 1] - firstRows[band] );
+                output.writeInt( cols );
+                output.writeByte( topology.ordinal() );
+                output.writeUTF( rule.toString() );
+            }
+            load( initial );
+        }
+        catch ( Throwable exc )
+        {
+            try
+            {
+                closeLinks();
+            }
+            catch ( IOException cleanup )
+            {
+                exc.addSuppressed( cleanup );
+            }
+            throw exc;
+        }
+    }
+
+    /**
+     * Computes the next generation.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void step()
+        throws IOException
+    {
+        run( 1 );
+    }
+
+    /**
+     * Computes the given number of generations.
+     *
+     * @param generations   the given number of generations
+     *
+     * @throws IllegalArgumentException if the given number
+     *         of generations is negative
+     * @throws IOException if an I/O error occurs
+     */
+    public void run( long generations )
+        throws IllegalArgumentException, IOException
+    {
+        if ( generations < 0 )
+            throw new IllegalArgumentException( "generations = " + generations );
+
+        int     workers = links.length;
+        for ( long count = 0 ; count < generations ; ++count )
+        {
+            // Send every worker its halo rows before reading any
+            // replies, so that the workers compute concurrently.
+            for ( int band = 0 ; band < workers ; ++band )
+            {
+                DataOutputStream    output  = outputs[band];
+                output.write( DistributedWorker.STEP );
+                writeHalo( output, band - 1, 1 );
+                writeHalo( output, band + 1, 0 );
+                output.flush();
+            }
+            for ( int band = 0 ; band < workers ; ++band )
+            {
+                DistributedWorker.readRow( inputs[band], edges, 2 * band );
+                DistributedWorker.readRow( inputs[band], edges, 2 * band + 1 );
+            }
+            ++generation;
+        }
+    }
+
+    /**
+     * Gathers the current generation from the workers.
+     *
+     * @return a new grid holding the current generation
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public BitGrid getGrid()
+        throws IOException
+    {
+        BitGrid grid    = new BitGrid( rows, cols, topology );
+        snapshot( grid );
+        return grid;
+    }
+
+    /**
+     * Gathers the current generation from the workers
+     * into the given grid, which must have the same dimensions
+     * and topology as the simulated grid.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid differ from those of the simulated grid
+     * @throws IOException if an I/O error occurs
+     */
+    public void snapshot( BitGrid grid )
+        throws IllegalArgumentException, IOException
+    {
+        validate( grid );
+        for ( DataOutputStream output : outputs )
+        {
+            output.write( DistributedWorker.SNAPSHOT );
+            output.flush();
+        }
+        for ( int band = 0 ; band < links.length ; ++band )
+            for ( int row = firstRows[band] ; row < firstRows[band + 1] ; ++row )
+                DistributedWorker.readRow( inputs[band], grid, row );
+    }
+
+    /**
+     * Replaces the state of the simulated grid with the state
+     * of the given grid, which must have the same dimensions
+     * and topology. The generation is not changed.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid differ from those of the simulated grid
+     * @throws IOException if an I/O error occurs
+     */
+    public void setGrid( BitGrid grid )
+        throws IllegalArgumentException, IOException
+    {
+        validate( grid );
+        load( grid );
+    }
+
+    /**
+     * Gets the number of generations computed so far.
+     *
+     * @return the number of generations computed so far
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Gets the number of workers.
+     *
+     * @return the number of workers
+     */
+    public int getWorkers()
+    {
+        return links.length;
+    }
+
+    /**
+     * Gets the rule applied by the workers.
+     *
+     * @return the rule applied by the workers
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Stops the workers, and closes the connections to them.
+     * Every connection is closed, even if closing one fails.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        closeLinks();
+    }
+
+    /**
+     * Stops the workers that have been started, and closes
+     * the connections to them. Every connection is closed,
+     * even if closing one fails.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void closeLinks()
+        throws IOException
+    {
+        IOException failure = null;
+        for ( int band = 0 ; band < links.length ; ++band )
+        {
+            if ( links[band] == null )
+                continue;
+            try
+            {
+                try
+                {
+                    if ( outputs[band] != null )
+                    {
+                        outputs[band].write( DistributedWorker.CLOSE );
+                        outputs[band].flush();
+                    }
+                }
+                finally
+                {
+                    links[band].close();
+                    links[band] = null;
+                }
+            }
+            catch ( IOException exc )
+            {
+                if ( failure == null )
+                    failure = exc;
+                else
+                    failure.addSuppressed( exc );
+            }
+        }
+        if ( failure != null )
+            throw failure;
+    }
+
+    /**
+     * Sends each worker the rows of its band of the given grid,
+     * and records the first and last rows of each band.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void load( BitGrid grid )
+        throws IOException
+    {
+        for ( int band = 0 ; band < links.length ; ++band )
+        {
+            DataOutputStream    output  = outputs[band];
+            int                 first   = firstRows[band];
+            int                 last    = firstRows[band + 1] - 1;
+            output.write( DistributedWorker.LOAD );
+            for ( int row = first ; row <= last ; ++row )
+                DistributedWorker.writeRow( output, grid, row );
+            output.flush();
+            copyRow( grid, first, 2 * band );
+            copyRow( grid, last, 2 * band + 1 );
+        }
+    }
+
+    /**
+     * Writes the halo row taken from the given band:
+     * its first row if <em>which</em> is 0, its last row if 1.
+     * Bands beyond the top or bottom of the grid wrap around
+     * on a torus, and are dead on a finite grid.
+     *
+     * @param output    the stream to which to write the row
+     * @param band      the given band; may be -1 or the number of bands
+     * @param which     0 for the first row of the band, 1 for the last
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeHalo( DataOutputStream output, int band, int which )
+        throws IOException
+    {
+        int     workers = links.length;
+        if ( topology == Topology.TORUS || (band >= 0 && band < workers) )
+            DistributedWorker.writeRow(
+                output, edges, 2 * Math.floorMod( band, workers ) + which
+            );
+        else
+            for ( int word = 0 ; word < edges.getWordsPerRow() ; ++word )
+                output.writeLong( 0 );
+    }
+
+    /**
+     * Copies the given row of a grid into the given row of the edges.
+     *
+     * @param grid      the grid
+     * @param row       the given row of the grid
+     * @param edgeRow   the given row of the edges
+     */
+    private void copyRow( BitGrid grid, int row, int edgeRow )
+    {
+        System.arraycopy(
+            grid.getWords(), grid.rowOffset( row ),
+            edges.getWords(), edges.rowOffset( edgeRow ),
+            edges.getWordsPerRow()
+        );
+    }
+
+    /**
+     * Verifies that the dimensions and topology of the given grid
+     * match those of the simulated grid.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of the simulated grid
+     */
+    private void validate( BitGrid grid )
+        throws IllegalArgumentException
+    {
+        if ( grid.getRows() != rows || grid.getCols() != cols
+            || grid.getTopology() != topology )
+        {
+            String  msg = String.format(
+                "grid is %d x %d (%s); simulation is %d x %d (%s)",
+                grid.getRows(), grid.getCols(), grid.getTopology(),
+                rows, cols, topology
+            );
+            throw new IllegalArgumentException( msg );
+        }
+    }
+}
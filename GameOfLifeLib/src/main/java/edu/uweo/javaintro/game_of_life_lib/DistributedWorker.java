@@ -0,0 +1,259 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * Computes one band of rows of a {@link DistributedSimulation}.
+ * The worker holds the rows of its band between two halo rows,
+ * which receive the rows adjacent to the band, owned by the
+ * neighboring workers; every generation the coordinator sends
+ * the halo rows, and the worker replies with the first and last
+ * rows of its band, from which the coordinator makes the halo rows
+ * of the neighboring workers. Because a band spans the full width
+ * of the grid, a torus wraps horizontally within the worker,
+ * and no halo columns are needed.
+ * <p>
+ * The worker obeys commands read from an input stream, and writes
+ * its replies to an output stream. Each command is a byte,
+ * followed by its operands:
+ * <ul>
+ * <li>{@link #INIT}: the number of rows in the band and the number
+ *     of columns (<em>int</em>, <em>int</em>), the ordinal
+ *     of the topology (<em>byte</em>), and the rule (<em>UTF</em>);</li>
+ * <li>{@link #LOAD}: the words of each row of the band;</li>
+ * <li>{@link #STEP}: the words of the halo rows above and below
+ *     the band; the worker computes the next generation of the band,
+ *     and replies with the words of its first and last rows;</li>
+ * <li>{@link #SNAPSHOT}: the worker replies with the words
+ *     of each row of the band;</li>
+ * <li>{@link #CLOSE}: the worker stops.</li>
+ * </ul>
+ * Words are written as by {@link DataOutputStream#writeLong(long)}.
+ * <p>
+ * To run a worker in its own process:
+ * <pre>
+ * java edu.uweo.javaintro.game_of_life_lib.DistributedWorker host port
+ * </pre>
+ * The worker connects to the given port, obeys the commands
+ * read from the connection, and exits when it is closed.
+ *
+ * @see DistributedSimulation
+ * @see Transport
+ */
+public class DistributedWorker
+{
+    /** Command that stops the worker. */
+    static final int            CLOSE       = 0;
+
+    /** Command that sets the dimensions of the band and the rule. */
+    static final int            INIT        = 1;
+
+    /** Command that sets the state of the band. */
+    static final int            LOAD        = 2;
+
+    /** Command that computes the next generation of the band. */
+    static final int            STEP        = 3;
+
+    /** Command that reads the state of the band. */
+    static final int            SNAPSHOT    = 4;
+
+    /** Usage message. */
+    private static final String USAGE       = "usage: DistributedWorker host port";
+
+    /** Computes the next generation of the band. */
+    private BitSliceEngine      engine;
+
+    /** The band, with a halo row above and below. */
+    private BitGrid             current;
+
+    /** Receives the next generation; swapped with current after each step. */
+    private BitGrid             next;
+
+    /** The number of rows in the band. */
+    private int                 rows;
+
+    /**
+     * Worker process entry point.
+     *
+     * @param args  the host and port to connect to
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main( String[] args )
+        throws IOException
+    {
+        if ( args.length != 2 )
+        {
+            System.err.println( USAGE );
+            System.exit( 2 );
+        }
+        try ( Socket socket = new Socket( args[0], Integer.parseInt( args[1] ) ) )
+        {
+            socket.setTcpNoDelay( true );
+            serve( socket.getInputStream(), socket.getOutputStream() );
+        }
+    }
+
+    /**
+     * Obeys the commands read from the given input stream,
+     * and writes the replies to the given output stream,
+     * until a {@link #CLOSE} command is read or the input
+     * stream ends. The streams are not closed.
+     *
+     * @param in    the given input stream
+     * @param out   the given output stream
+     *
+     * @throws IOException if an I/O error occurs, or an invalid
+     *         command is read
+     */
+    public static void serve( InputStream in, OutputStream out )
+        throws IOException
+    {
+        DataInputStream     input   =
+            new DataInputStream( new BufferedInputStream( in ) );
+        DataOutputStream    output  =
+            new DataOutputStream( new BufferedOutputStream( out ) );
+        DistributedWorker   worker  = new DistributedWorker();
+        boolean             done    = false;
+        while ( !done )
+        {
+            int command = input.read();
+            if ( command > INIT && command <= SNAPSHOT && worker.current == null )
+                throw new IOException( "worker is not initialized" );
+            switch ( command )
+            {
+            case INIT:
+                worker.init( input );
+                break;
+            case LOAD:
+                for ( int row = 1 ; row <= worker.rows ; ++row )
+                    readRow( input, worker.current, row );
+                break;
+            case STEP:
+                worker.step( input, output );
+                break;
+            case SNAPSHOT:
+                for ( int row = 1 ; row <= worker.rows ; ++row )
+                    writeRow( output, worker.current, row );
+                break;
+            case CLOSE:
+            case -1:
+                done = true;
+                break;
+            default:
+                throw new IOException( "invalid command: " + command );
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * Reads the operands of an {@link #INIT} command,
+     * and allocates the band.
+     *
+     * @param input the stream from which to read the operands
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the operands are invalid
+     */
+    private void init( DataInputStream input )
+        throws IOException
+    {
+        int     bandRows    = input.readInt();
+        int     cols        = input.readInt();
+        int     topo        = input.readByte();
+        String  text        = input.readUTF();
+        if ( bandRows < 1 || cols < 1 || topo < 0 || topo >= Topology.values().length )
+        {
+            String  msg = "invalid band: " + bandRows + " x " + cols + " (" + topo + ")";
+            throw new IOException( msg );
+        }
+
+        Topology    topology    = Topology.values()[topo];
+        try
+        {
+            engine = new BitSliceEngine( Rule.parse( text ) );
+        }
+        catch ( IllegalArgumentException exc )
+        {
+            throw new IOException( "invalid rule: " + text, exc );
+        }
+        rows = bandRows;
+        current = new BitGrid( rows + 2, cols, topology );
+        next = new BitGrid( rows + 2, cols, topology );
+    }
+
+    /**
+     * Reads the halo rows of a {@link #STEP} command,
+     * computes the next generation of the band,
+     * and writes the first and last rows of the band.
+     * <p>
+     * On a torus the halo rows of the local grid wrap around
+     * to each other, so the next generation of the halo rows
+     * is meaningless; it is overwritten by the next step.
+     *
+     * @param input     the stream from which to read the halo rows
+     * @param output    the stream to which to write the reply
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void step( DataInputStream input, DataOutputStream output )
+        throws IOException
+    {
+        readRow( input, current, 0 );
+        readRow( input, current, rows + 1 );
+        engine.step( current, next );
+        BitGrid temp    = current;
+        current = next;
+        next = temp;
+        writeRow( output, current, 1 );
+        writeRow( output, current, rows );
+    }
+
+    /**
+     * Reads the words of the given row of a grid.
+     * Unused bits in the last word are discarded.
+     *
+     * @param input the stream from which to read the words
+     * @param grid  the grid
+     * @param row   the given row
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    static void readRow( DataInputStream input, BitGrid grid, int row )
+        throws IOException
+    {
+        long[]  words   = grid.getWords();
+        int     base    = grid.rowOffset( row );
+        int     count   = grid.getWordsPerRow();
+        for ( int word = 0 ; word < count ; ++word )
+            words[base + word] = input.readLong();
+        words[base + count - 1] &= grid.getLastWordMask();
+    }
+
+    /**
+     * Writes the words of the given row of a grid.
+     *
+     * @param output    the stream to which to write the words
+     * @param grid      the grid
+     * @param row       the given row
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeRow( DataOutputStream output, BitGrid grid, int row )
+        throws IOException
+    {
+        long[]  words   = grid.getWords();
+        int     base    = grid.rowOffset( row );
+        int     count   = grid.getWordsPerRow();
+        for ( int word = 0 ; word < count ; ++word )
+            output.writeLong( words[base + word] );
+    }
+}
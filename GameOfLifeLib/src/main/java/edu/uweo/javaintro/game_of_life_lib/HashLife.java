@@ -0,0 +1,903 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Encapsulates an unbounded Game of Life universe that is advanced with
+ * Gosper's HashLife algorithm. The universe is stored as a quadtree of
+ * <em>macrocells</em>: a macrocell at level <em>n</em> is a square of
+ * 2<sup><em>n</em></sup> cells on a side, made of four macrocells
+ * at level <em>n - 1</em>. Macrocells are canonicalized, so identical
+ * regions anywhere in the universe, at any time, share a single node;
+ * and the result of advancing the center of each macrocell is memoized
+ * in the node. Patterns with regular structure can thus be advanced
+ * by billions of generations at once.
+ * <p>
+ * Canonical nodes are kept in a cache whose size is bounded by the
+ * <em>maxNodes</em> given at construction. When a step begins and the
+ * cache is full, every node that is not part of the current universe is
+ * evicted, along with the memoized results that refer to it. Note that
+ * the cache may grow beyond the bound during a single step.
+ * <p>
+ * Universe coordinates are <em>long</em> row/column pairs.
+ * A pattern imported from a grid is placed with cell (0, 0) of the grid
+ * at universe position (0, 0); exporting to a grid copies
+ * the region of the same size at the same position. Unlike a Board,
+ * the universe has no edge, so cells that leave the exported
+ * region continue to evolve.
+ * <p>
+ * The universe follows the Game of Life unless another rule
+ * is given at construction; since the universe is unbounded,
+ * the rule may not cause cells with no live neighbors to be born.
+ *
+ * @see Rule
+ * @see <a href="https://en.wikipedia.org/wiki/Hashlife">
+ *     <em>Hashlife,</em> on Wikipedia.
+ * </a>
+ */
+public class HashLife
+{
+    /** The default maximum number of nodes in the cache. */
+    public static final int     DEFAULT_MAX_NODES   = 1 << 20;
+
+    /** The level of the smallest root node. */
+    private static final int    MIN_ROOT_LEVEL      = 3;
+
+    /**
+     * The highest level of a node; the coordinates of the cells
+     * of a node, up to 2<sup>level</sup>, must fit in a long.
+     */
+    private static final int    MAX_LEVEL           = 62;
+
+    /** The initial number of buckets in the cache. */
+    private static final int    INITIAL_BUCKETS     = 1 << 10;
+
+    /** The dead leaf. */
+    private static final Node   DEAD    = new Node( 0 );
+
+    /** The live leaf. */
+    private static final Node   ALIVE   = new Node( 1 );
+
+    /** The maximum number of nodes retained in the cache. */
+    private final int   maxNodes;
+
+    /** The rule followed by the universe. */
+    private final Rule  rule;
+
+    /** The cache of canonical nodes; chained through Node.next. */
+    private Node[]      buckets     = new Node[INITIAL_BUCKETS];
+
+    /** The number of nodes in the cache. */
+    private int         nodeCount;
+
+    /** The canonical empty node at each level; built on demand. */
+    private Node[]      empty       = new Node[MAX_LEVEL + 1];
+
+    /** Stamp used to mark live nodes during an eviction. */
+    private int         markEpoch;
+
+    /** The root of the universe. */
+    private Node        root;
+
+    /** The number of generations computed since the last import. */
+    private long        generation;
+
+    /**
+     * Instantiates a new, empty universe with the default cache size.
+     */
+    public HashLife()
+    {
+        this( DEFAULT_MAX_NODES );
+    }
+
+    /**
+     * Instantiates a new, empty universe whose cache
+     * holds at most the given number of nodes between steps.
+     *
+     * @param maxNodes  the given number of nodes
+     *
+     * @throws IllegalArgumentException if the given number of nodes
+     *         is less than 1
+     */
+    public HashLife( int maxNodes )
+        throws IllegalArgumentException
+    {
+        this( maxNodes, Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new, empty universe that follows the given rule,
+     * whose cache holds at most the given number of nodes between steps.
+     *
+     * @param maxNodes  the given number of nodes
+     * @param rule      the given rule
+     *
+     * @throws IllegalArgumentException if the given number of nodes
+     *         is less than 1, or the given rule is null
+     *         or causes cells with no live neighbors to be born
+     */
+    public HashLife( int maxNodes, Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( maxNodes < 1 )
+            throw new IllegalArgumentException( "maxNodes = " + maxNodes );
+        if ( rule == null || rule.isBorn( 0 ) )
+            throw new IllegalArgumentException( "unsupported rule: " + rule );
+        this.maxNodes = maxNodes;
+        this.rule = rule;
+        root = getEmpty( MIN_ROOT_LEVEL );
+    }
+
+    /**
+     * Gets the rule followed by the universe.
+     *
+     * @return the rule followed by the universe
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Replaces the universe with the state of the given array.
+     * Cell [row][col] of the array is placed at universe position
+     * (row, col); every other cell is dead.
+     * The generation count is reset to 0.
+     *
+     * @param cells array that determines the state of each cell
+     *
+     * @see Board#getCells()
+     */
+    public void setCells( boolean[][] cells )
+    {
+        int rows    = cells.length;
+        int cols    = rows == 0 ? 0 : cells[0].length;
+        importCells( rows, cols, (row, col) -> cells[row][col] );
+    }
+
+    /**
+     * Replaces the universe with the state of the given grid.
+     * Cell (row, col) of the grid is placed at universe position
+     * (row, col); every other cell is dead.
+     * The generation count is reset to 0.
+     *
+     * @param grid  grid that determines the state of each cell
+     *
+     * @see Board#getGrid()
+     */
+    public void setGrid( BitGrid grid )
+    {
+        importCells( grid.getRows(), grid.getCols(), grid::get );
+    }
+
+    /**
+     * Returns the state of the region of the universe with the given
+     * dimensions whose upper-left corner is at universe position (0, 0).
+     *
+     * @param rows  the number of rows in the region
+     * @param cols  the number of columns in the region
+     *
+     * @return the state of the given region
+     *
+     * @see Board#setCells(boolean[][])
+     */
+    public boolean[][] getCells( int rows, int cols )
+    {
+        BitGrid grid    = new BitGrid( rows, cols );
+        getGrid( grid );
+        return grid.toArray();
+    }
+
+    /**
+     * Copies the state of the region of the universe with the dimensions
+     * of the given grid, and whose upper-left corner is at universe
+     * position (0, 0), into the given grid.
+     *
+     * @param grid  the given grid
+     *
+     * @see Board#setGrid(BitGrid)
+     */
+    public void getGrid( BitGrid grid )
+    {
+        grid.clear();
+        long    half    = 1L << (root.level - 1);
+        exportNode( root, -half, -half, grid );
+    }
+
+    /**
+     * Gets the state of the cell at the given universe position.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     *
+     * @return true, if the cell is alive
+     */
+    public boolean get( long row, long col )
+    {
+        Node    node    = root;
+        long    half    = 1L << (node.level - 1);
+        long    rowOff  = row + half;
+        long    colOff  = col + half;
+        boolean alive   = false;
+        if ( rowOff >= 0 && rowOff < 2 * half && colOff >= 0 && colOff < 2 * half )
+        {
+            while ( node.level > 0 && node.population > 0 )
+            {
+                half = 1L << (node.level - 1);
+                boolean south   = rowOff >= half;
+                boolean east    = colOff >= half;
+                if ( south )
+                    rowOff -= half;
+                if ( east )
+                    colOff -= half;
+                node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+            }
+            alive = node == ALIVE;
+        }
+        return alive;
+    }
+
+    /**
+     * Advances the universe by the given number of generations.
+     *
+     * @param generations   the given number of generations
+     *
+     * @throws IllegalArgumentException if the given number of
+     *         generations is negative
+     */
+    public void advance( long generations )
+        throws IllegalArgumentException
+    {
+        if ( generations < 0 )
+            throw new IllegalArgumentException( "generations = " + generations );
+        for ( int log2 = 0 ; generations >> log2 != 0 ; ++log2 )
+            if ( ((generations >> log2) & 1) != 0 )
+                advancePow2( log2 );
+    }
+
+    /**
+     * Advances the universe by 2<sup><em>log2</em></sup> generations
+     * in a single step.
+     *
+     * @param log2  the base-2 logarithm of the number of generations
+     *
+     * @throws IllegalArgumentException if the given logarithm
+     *         is negative or greater than 60
+     */
+    public void advancePow2( int log2 )
+        throws IllegalArgumentException
+    {
+        if ( log2 < 0 || log2 > MAX_LEVEL - 2 )
+            throw new IllegalArgumentException( "log2 = " + log2 );
+
+        if ( nodeCount > maxNodes )
+            evict();
+
+        if ( root.population > 0 )
+        {
+            // The pattern must lie in the center quarter of the root,
+            // so that it cannot escape the result in 2^log2 generations.
+            // A saturated population cannot show that the pattern fits.
+            while ( root.level < log2 + 3
+                || root.population == Long.MAX_VALUE
+                || centeredSubSub( root ).population != root.population )
+            {
+                if ( root.level >= MAX_LEVEL )
+                    throw new IllegalStateException( "universe too large" );
+                root = expand( root );
+            }
+            root = successor( root, log2 );
+        }
+        generation += 1L << log2;
+    }
+
+    /**
+     * Gets the number of generations computed since
+     * the last import.
+     *
+     * @return the number of generations computed
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Counts the number of live cells in the universe.
+     * A node of level 32 or higher can hold more live cells
+     * than a long can count; such populations saturate
+     * at Long.MAX_VALUE.
+     *
+     * @return the number of live cells in the universe;
+     *         Long.MAX_VALUE if there are too many to count
+     */
+    public long getPopulation()
+    {
+        return root.population;
+    }
+
+    /**
+     * Gets the number of nodes in the cache.
+     * Mainly useful for testing and tuning.
+     *
+     * @return the number of nodes in the cache
+     */
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * Replaces the universe with the cells produced by the given source.
+     *
+     * @param rows      the number of rows produced by the source
+     * @param cols      the number of columns produced by the source
+     * @param source    the given source
+     */
+    private void importCells( int rows, int cols, CellSource source )
+    {
+        int level   = MIN_ROOT_LEVEL;
+        while ( (1L << (level - 1)) < Math.max( rows, cols ) )
+            ++level;
+
+        long    half    = 1L << (level - 1);
+        root = buildNode( level, -half, -half, rows, cols, source );
+        generation = 0;
+    }
+
+    /**
+     * Builds the node for the square region with the given
+     * level and upper-left corner.
+     *
+     * @param level     the given level
+     * @param row       the row of the upper-left corner
+     * @param col       the column of the upper-left corner
+     * @param rows      the number of rows produced by the source
+     * @param cols      the number of columns produced by the source
+     * @param source    produces the state of each cell
+     *
+     * @return the node for the given region
+     */
+    private Node buildNode(
+        int level,
+        long row,
+        long col,
+        int rows,
+        int cols,
+        CellSource source
+    )
+    {
+        long    side    = 1L << level;
+        Node    node;
+        if ( row >= rows || col >= cols || row + side <= 0 || col + side <= 0 )
+            node = getEmpty( level );
+        else if ( level == 0 )
+            node = source.isAlive( (int)row, (int)col ) ? ALIVE : DEAD;
+        else
+        {
+            long    half    = side / 2;
+            int     sub     = level - 1;
+            node = join(
+                buildNode( sub, row, col, rows, cols, source ),
+                buildNode( sub, row, col + half, rows, cols, source ),
+                buildNode( sub, row + half, col, rows, cols, source ),
+                buildNode( sub, row + half, col + half, rows, cols, source )
+            );
+        }
+        return node;
+    }
+
+    /**
+     * Copies the live cells of the given node that lie within
+     * the bounds of the given grid into the grid.
+     *
+     * @param node  the given node
+     * @param row   the universe row of the node's upper-left corner
+     * @param col   the universe column of the node's upper-left corner
+     * @param grid  the given grid
+     */
+    private void exportNode( Node node, long row, long col, BitGrid grid )
+    {
+        long    side    = 1L << node.level;
+        if ( node.population == 0
+            || row >= grid.getRows() || col >= grid.getCols()
+            || row + side <= 0 || col + side <= 0 )
+            return;
+
+        if ( node.level == 0 )
+            grid.set( (int)row, (int)col, true );
+        else
+        {
+            long    half    = side / 2;
+            exportNode( node.nw, row, col, grid );
+            exportNode( node.ne, row, col + half, grid );
+            exportNode( node.sw, row + half, col, grid );
+            exportNode( node.se, row + half, col + half, grid );
+        }
+    }
+
+    /**
+     * Computes the center of the given node, at one level lower,
+     * advanced by 2<sup><em>log2</em></sup> generations.
+     *
+     * @param node  the given node; its level must be at least
+     *              <em>log2</em> + 2
+     * @param log2  the base-2 logarithm of the number of generations
+     *
+     * @return the advanced center of the given node
+     */
+    private Node successor( Node node, int log2 )
+    {
+        Node    result;
+        if ( node.population == 0 )
+            result = getEmpty( node.level - 1 );
+        else if ( log2 == node.level - 2 )
+        {
+            if ( node.result == null )
+                node.result = advanceFull( node );
+            result = node.result;
+        }
+        else
+        {
+            if ( node.partResult == null || node.partLog2 != log2 )
+            {
+                node.partResult = advancePart( node, log2 );
+                node.partLog2 = log2;
+            }
+            result = node.partResult;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the center of the given node advanced by
+     * 2<sup><em>level - 2</em></sup> generations.
+     *
+     * @param node  the given node
+     *
+     * @return the advanced center of the given node
+     */
+    private Node advanceFull( Node node )
+    {
+        if ( node.level == 2 )
+            return advanceBase( node );
+
+        int     log2    = node.level - 3;
+        Node[]  nine    = nineSubnodes( node );
+        Node[]  step    = new Node[9];
+        for ( int inx = 0 ; inx < 9 ; ++inx )
+            step[inx] = successor( nine[inx], log2 );
+        return joinQuarters( step, log2 );
+    }
+
+    /**
+     * Computes the center of the given node advanced by
+     * 2<sup><em>log2</em></sup> generations, where <em>log2</em>
+     * is less than <em>level - 2</em>.
+     *
+     * @param node  the given node
+     * @param log2  the base-2 logarithm of the number of generations
+     *
+     * @return the advanced center of the given node
+     */
+    private Node advancePart( Node node, int log2 )
+    {
+        Node[]  nine    = nineSubnodes( node );
+        Node[]  center  = new Node[9];
+        for ( int inx = 0 ; inx < 9 ; ++inx )
+            center[inx] = centeredSub( nine[inx] );
+        return joinQuarters( center, log2 );
+    }
+
+    /**
+     * Combines nine overlapping nodes, arranged as a 3x3 square,
+     * into four nodes, advances each, and joins the results.
+     *
+     * @param nine  the nine nodes, in row-major order
+     * @param log2  the base-2 logarithm of the number of generations
+     *              by which to advance the four nodes
+     *
+     * @return the joined results
+     */
+    private Node joinQuarters( Node[] nine, int log2 )
+    {
+        Node    nWest   = join( nine[0], nine[1], nine[3], nine[4] );
+        Node    nEast   = join( nine[1], nine[2], nine[4], nine[5] );
+        Node    sWest   = join( nine[3], nine[4], nine[6], nine[7] );
+        Node    sEast   = join( nine[4], nine[5], nine[7], nine[8] );
+        return join(
+            successor( nWest, log2 ),
+            successor( nEast, log2 ),
+            successor( sWest, log2 ),
+            successor( sEast, log2 )
+        );
+    }
+
+    /**
+     * Computes the center 2x2 cells of the given 4x4 node
+     * advanced by one generation.
+     *
+     * @param node  the given node
+     *
+     * @return the advanced center of the given node
+     */
+    private Node advanceBase( Node node )
+    {
+        int bits    = 0;
+        for ( int row = 0 ; row < 4 ; ++row )
+            for ( int col = 0 ; col < 4 ; ++col )
+            {
+                Node    quad    = row < 2
+                    ? (col < 2 ? node.nw : node.ne)
+                    : (col < 2 ? node.sw : node.se);
+                Node    leaf    = (row & 1) == 0
+                    ? ((col & 1) == 0 ? quad.nw : quad.ne)
+                    : ((col & 1) == 0 ? quad.sw : quad.se);
+                if ( leaf == ALIVE )
+                    bits |= 1 << (row * 4 + col);
+            }
+
+        return join(
+            nextLeaf( bits, 1, 1 ),
+            nextLeaf( bits, 1, 2 ),
+            nextLeaf( bits, 2, 1 ),
+            nextLeaf( bits, 2, 2 )
+        );
+    }
+
+    /**
+     * Computes the next state of a cell of a 4x4 square.
+     *
+     * @param bits  the state of the square; bit <em>row * 4 + col</em>
+     *              is set if the cell at (row, col) is alive
+     * @param row   the row of the cell
+     * @param col   the column of the cell
+     *
+     * @return the leaf representing the next state of the cell
+     */
+    private Node nextLeaf( int bits, int row, int col )
+    {
+        int neighborhood    = 0;
+        for ( int dRow = 0 ; dRow < 3 ; ++dRow )
+        {
+            int shift   = (row + dRow - 1) * 4 + col - 1;
+            neighborhood |= ((bits >> shift) & 7) << (dRow * 3);
+        }
+        return rule.next( neighborhood ) ? ALIVE : DEAD;
+    }
+
+    /**
+     * Gets the nine overlapping subnodes, one level lower,
+     * that cover the given node in a 3x3 arrangement.
+     *
+     * @param node  the given node
+     *
+     * @return the nine subnodes, in row-major order
+     */
+    private Node[] nineSubnodes( Node node )
+    {
+        Node    nw  = node.nw;
+        Node    ne  = node.ne;
+        Node    sw  = node.sw;
+        Node    se  = node.se;
+        return new Node[] {
+            nw,
+            join( nw.ne, ne.nw, nw.se, ne.sw ),
+            ne,
+            join( nw.sw, nw.se, sw.nw, sw.ne ),
+            join( nw.se, ne.sw, sw.ne, se.nw ),
+            join( ne.sw, ne.se, se.nw, se.ne ),
+            sw,
+            join( sw.ne, se.nw, sw.se, se.sw ),
+            se
+        };
+    }
+
+    /**
+     * Gets the center of the given node, one level lower.
+     *
+     * @param node  the given node
+     *
+     * @return the center of the given node
+     */
+    private Node centeredSub( Node node )
+    {
+        return join( node.nw.se, node.ne.sw, node.sw.ne, node.se.nw );
+    }
+
+    /**
+     * Gets the center of the given node, two levels lower.
+     *
+     * @param node  the given node
+     *
+     * @return the center of the given node
+     */
+    private Node centeredSubSub( Node node )
+    {
+        return join(
+            node.nw.se.se,
+            node.ne.sw.sw,
+            node.sw.ne.ne,
+            node.se.nw.nw
+        );
+    }
+
+    /**
+     * Creates a node one level higher than the given node,
+     * with the given node at its center, surrounded by dead cells.
+     *
+     * @param node  the given node
+     *
+     * @return the expanded node
+     */
+    private Node expand( Node node )
+    {
+        Node    border  = getEmpty( node.level - 1 );
+        return join(
+            join( border, border, border, node.nw ),
+            join( border, border, node.ne, border ),
+            join( border, node.sw, border, border ),
+            join( node.se, border, border, border )
+        );
+    }
+
+    /**
+     * Gets the canonical empty node at the given level.
+     *
+     * @param level the given level
+     *
+     * @return the canonical empty node at the given level
+     */
+    private Node getEmpty( int level )
+    {
+        if ( empty[level] == null )
+        {
+            if ( level == 0 )
+                empty[level] = DEAD;
+            else
+            {
+                Node    sub = getEmpty( level - 1 );
+                empty[level] = join( sub, sub, sub, sub );
+            }
+        }
+        return empty[level];
+    }
+
+    /**
+     * Gets the canonical node with the given quadrants,
+     * creating it if necessary.
+     *
+     * @param nw    the northwest quadrant
+     * @param ne    the northeast quadrant
+     * @param sw    the southwest quadrant
+     * @param se    the southeast quadrant
+     *
+     * @return the canonical node
+     */
+    private Node join( Node nw, Node ne, Node sw, Node se )
+    {
+        int     hash    = Node.hash( nw, ne, sw, se );
+        int     inx     = hash & (buckets.length - 1);
+        Node    node    = buckets[inx];
+        while ( node != null
+            && !(node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) )
+            node = node.next;
+
+        if ( node == null )
+        {
+            node = new Node( nw, ne, sw, se, hash );
+            node.next = buckets[inx];
+            buckets[inx] = node;
+            if ( ++nodeCount > buckets.length - (buckets.length >> 2) )
+                rehash( buckets.length * 2 );
+        }
+        return node;
+    }
+
+    /**
+     * Moves every node in the cache to a new table
+     * with the given number of buckets.
+     *
+     * @param size  the given number of buckets
+     */
+    private void rehash( int size )
+    {
+        Node[]  old = buckets;
+        buckets = new Node[size];
+        for ( Node chain : old )
+        {
+            while ( chain != null )
+            {
+                Node    next    = chain.next;
+                int     inx     = chain.hash & (size - 1);
+                chain.next = buckets[inx];
+                buckets[inx] = chain;
+                chain = next;
+            }
+        }
+    }
+
+    /**
+     * Evicts from the cache every node that is not part
+     * of the current universe, and discards memoized results
+     * that refer to evicted nodes.
+     */
+    private void evict()
+    {
+        ++markEpoch;
+        mark( root );
+        for ( Node node : empty )
+            if ( node != null )
+                mark( node );
+
+        Node[]  old = buckets;
+        buckets = new Node[old.length];
+        nodeCount = 0;
+        for ( Node chain : old )
+        {
+            while ( chain != null )
+            {
+                Node    next    = chain.next;
+                if ( chain.mark == markEpoch )
+                {
+                    if ( chain.result != null && chain.result.mark != markEpoch )
+                        chain.result = null;
+                    if ( chain.partResult != null
+                        && chain.partResult.mark != markEpoch )
+                        chain.partResult = null;
+                    int inx = chain.hash & (buckets.length - 1);
+                    chain.next = buckets[inx];
+                    buckets[inx] = chain;
+                    ++nodeCount;
+                }
+                chain = next;
+            }
+        }
+    }
+
+    /**
+     * Marks the given node, and every node below it, as live.
+     *
+     * @param node  the given node
+     */
+    private void mark( Node node )
+    {
+        if ( node.level > 0 && node.mark != markEpoch )
+        {
+            node.mark = markEpoch;
+            mark( node.nw );
+            mark( node.ne );
+            mark( node.sw );
+            mark( node.se );
+        }
+    }
+
+    /**
+     * Produces the state of the cells of a rectangular region.
+     */
+    private interface CellSource
+    {
+        /**
+         * Gets the state of the cell at the given position.
+         *
+         * @param row   the given row
+         * @param col   the given column
+         *
+         * @return true, if the cell is alive
+         */
+        boolean isAlive( int row, int col );
+    }
+
+    /**
+     * A canonical macrocell.
+     */
+    private static class Node
+    {
+        /** The level of this node; the side is 2^level cells. */
+        final int   level;
+
+        /** The northwest quadrant; null for a leaf. */
+        final Node  nw;
+
+        /** The northeast quadrant; null for a leaf. */
+        final Node  ne;
+
+        /** The southwest quadrant; null for a leaf. */
+        final Node  sw;
+
+        /** The southeast quadrant; null for a leaf. */
+        final Node  se;
+
+        /** The number of live cells in this node, saturated at Long.MAX_VALUE. */
+        final long  population;
+
+        /** The hash code of this node, derived from its quadrants. */
+        final int   hash;
+
+        /** The next node in the same cache bucket. */
+        Node        next;
+
+        /** The center, advanced by 2^(level - 2) generations. */
+        Node        result;
+
+        /** The center, advanced by 2^partLog2 generations. */
+        Node        partResult;
+
+        /** The base-2 logarithm of the step of partResult. */
+        int         partLog2;
+
+        /** The epoch in which this node was last marked live. */
+        int         mark;
+
+        /**
+         * Instantiates a new leaf.
+         *
+         * @param population    1 for a live leaf, 0 for a dead leaf
+         */
+        Node( int population )
+        {
+            level = 0;
+            nw = ne = sw = se = null;
+            this.population = population;
+            hash = population;
+        }
+
+        /**
+         * Instantiates a new node with the given quadrants.
+         *
+         * @param nw    the northwest quadrant
+         * @param ne    the northeast quadrant
+         * @param sw    the southwest quadrant
+         * @param se    the southeast quadrant
+         * @param hash  the hash code of the new node
+         */
+        Node( Node nw, Node ne, Node sw, Node se, int hash )
+        {
+            level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            population = add(
+                add( nw.population, ne.population ),
+                add( sw.population, se.population )
+            );
+            this.hash = hash;
+        }
+
+        /**
+         * Adds two populations, saturating at Long.MAX_VALUE.
+         *
+         * @param first     the first population
+         * @param second    the second population
+         *
+         * @return the sum of the populations,
+         *         or Long.MAX_VALUE if it overflows
+         */
+        static long add( long first, long second )
+        {
+            long    result  = first + second;
+            if ( result < 0 )
+                result = Long.MAX_VALUE;
+            return result;
+        }
+
+        /**
+         * Computes the hash code of a node with the given quadrants.
+         *
+         * @param nw    the northwest quadrant
+         * @param ne    the northeast quadrant
+         * @param sw    the southwest quadrant
+         * @param se    the southeast quadrant
+         *
+         * @return the hash code
+         */
+        static int hash( Node nw, Node ne, Node sw, Node se )
+        {
+            int hash    = nw.level;
+            hash = hash * 0x9E3779B1 + nw.hash;
+            hash = hash * 0x9E3779B1 + ne.hash;
+            hash = hash * 0x9E3779B1 + sw.hash;
+            hash = hash * 0x9E3779B1 + se.hash;
+            return hash ^ (hash >>> 15);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Retains the recent generations of a grid, so that the grid can be
+ * rewound to any of them without recomputing it from the start.
+ * <p>
+ * Generations are stored in <em>segments</em>. The first generation
+ * of a segment is a <em>keyframe</em>: the complete state of the grid,
+ * compressed with a Deflater. Each following generation is a
+ * <em>delta</em>: the exclusive-or of its state with the state of the
+ * generation before it, also compressed. Since only a small fraction
+ * of the cells of a typical board change from one generation to the
+ * next, a delta is mostly zeros and compresses to a few bytes.
+ * A new segment is begun every {@link #getKeyframeInterval()}
+ * generations, so restoring any generation decompresses
+ * one keyframe and fewer than that many deltas.
+ * <p>
+ * The total size of the compressed generations is limited by a budget.
+ * When the budget is exceeded, the oldest segments are discarded;
+ * the newest segment is always kept, even if it alone
+ * exceeds the budget.
+ *
+ * @see Board#setHistory(History)
+ * @see Board#rewind(long)
+ */
+public class History
+{
+    /** The default number of generations in a segment. */
+    public static final int     DEFAULT_KEYFRAME_INTERVAL   = 32;
+
+    /** The approximate number of bytes of overhead for each generation. */
+    private static final int    ENTRY_OVERHEAD  = 48;
+
+    /** The maximum number of bytes of compressed generations to retain. */
+    private final long          budget;
+
+    /** The number of generations in a segment. */
+    private final int           keyframeInterval;
+
+    /** The retained generations, oldest first. */
+    private final List<Entry>   entries     = new ArrayList<>();
+
+    /** The state of the newest retained generation; null if none. */
+    private BitGrid             last;
+
+    /** The number of bytes retained, including overhead. */
+    private long                size;
+
+    /** Compresses generations. */
+    private final Deflater      deflater    = new Deflater( Deflater.BEST_SPEED );
+
+    /** Decompresses generations. */
+    private final Inflater      inflater    = new Inflater();
+
+    /** Holds the bytes of a generation while it is compressed or decompressed. */
+    private ByteBuffer          scratch     = ByteBuffer.allocate( 0 );
+
+    /** Receives the compressed bytes of a generation. */
+    private byte[]              output      = new byte[0];
+
+    /**
+     * Instantiates a new, empty history with the given budget
+     * and the default keyframe interval.
+     *
+     * @param budget    the maximum number of bytes of compressed
+     *                  generations to retain
+     *
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public History( long budget )
+        throws IllegalArgumentException
+    {
+        this( budget, DEFAULT_KEYFRAME_INTERVAL );
+    }
+
+    /**
+     * Instantiates a new, empty history with the given budget
+     * and keyframe interval.
+     *
+     * @param budget            the maximum number of bytes of compressed
+     *                          generations to retain
+     * @param keyframeInterval  the number of generations in a segment
+     *
+     * @throws IllegalArgumentException if either argument is not positive
+     */
+    public History( long budget, int keyframeInterval )
+        throws IllegalArgumentException
+    {
+        if ( budget <= 0 || keyframeInterval <= 0 )
+        {
+            String  msg = "budget = " + budget + ", interval = " + keyframeInterval;
+            throw new IllegalArgumentException( msg );
+        }
+        this.budget = budget;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Records the given generation of the given grid.
+     * Normally the generation follows the newest generation
+     * already recorded, and is stored as a delta. Otherwise,
+     * any generations at or after the given generation are discarded,
+     * as are all generations if the dimensions or topology of the grid
+     * have changed, and the generation is stored as a keyframe.
+     *
+     * @param grid          the given grid
+     * @param generation    the given generation
+     */
+    public void record( BitGrid grid, long generation )
+    {
+        boolean consecutive =
+            last != null
+            && generation == getNewestGeneration() + 1
+            && sameShape( grid, last );
+        if ( last != null && !sameShape( grid, last ) )
+            clear();
+        else if ( !consecutive )
+            truncate( generation );
+
+        boolean keyframe    = !consecutive || isSegmentFull();
+        if ( last == null )
+            last = new BitGrid( grid );
+        Entry   entry       = new Entry( generation, keyframe, compress( grid, keyframe ) );
+        last.copyFrom( grid );
+        entries.add( entry );
+        size += entry.data.length + ENTRY_OVERHEAD;
+
+        while ( size > budget && entries.size() > segmentLength() )
+            dropOldestSegment();
+    }
+
+    /**
+     * Determines whether the given generation is retained.
+     *
+     * @param generation    the given generation
+     *
+     * @return true, if the given generation is retained
+     */
+    public boolean contains( long generation )
+    {
+        return !entries.isEmpty()
+            && generation >= getOldestGeneration()
+            && generation <= getNewestGeneration();
+    }
+
+    /**
+     * Copies the state of the given generation into the given grid.
+     *
+     * @param generation    the given generation
+     * @param grid          the given grid
+     *
+     * @throws IllegalArgumentException if the given generation
+     *         is not retained, or the dimensions or topology of the
+     *         given grid do not match those of the recorded grid
+     */
+    public void restore( long generation, BitGrid grid )
+        throws IllegalArgumentException
+    {
+        if ( !contains( generation ) )
+            throw new IllegalArgumentException( "generation not retained: " + generation );
+        if ( !sameShape( grid, last ) )
+            throw new IllegalArgumentException( "grid does not match history: " + grid );
+
+        int target  = (int)(generation - getOldestGeneration());
+        int start   = target;
+        while ( !entries.get( start ).keyframe )
+            --start;
+        for ( int inx = start ; inx <= target ; ++inx )
+            decompress( entries.get( inx ), grid );
+    }
+
+    /**
+     * Discards every recorded generation.
+     */
+    public void clear()
+    {
+        entries.clear();
+        last = null;
+        size = 0;
+    }
+
+    /**
+     * Gets the oldest retained generation.
+     *
+     * @return the oldest retained generation; -1 if none
+     */
+    public long getOldestGeneration()
+    {
+        return entries.isEmpty() ? -1 : entries.get( 0 ).generation;
+    }
+
+    /**
+     * Gets the newest retained generation.
+     *
+     * @return the newest retained generation; -1 if none
+     */
+    public long getNewestGeneration()
+    {
+        return entries.isEmpty() ? -1 : entries.get( entries.size() - 1 ).generation;
+    }
+
+    /**
+     * Gets the number of bytes retained, including an estimate
+     * of the overhead of each generation.
+     *
+     * @return the number of bytes retained
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of bytes to retain.
+     *
+     * @return the maximum number of bytes to retain
+     */
+    public long getBudget()
+    {
+        return budget;
+    }
+
+    /**
+     * Gets the number of generations in a segment.
+     *
+     * @return the number of generations in a segment
+     */
+    public int getKeyframeInterval()
+    {
+        return keyframeInterval;
+    }
+
+    /**
+     * Gets the number of generations in the newest segment.
+     *
+     * @return the number of generations in the newest segment
+     */
+    private int segmentLength()
+    {
+        int inx = entries.size() - 1;
+        while ( inx >= 0 && !entries.get( inx ).keyframe )
+            --inx;
+        return entries.size() - Math.max( inx, 0 );
+    }
+
+    /**
+     * Determines whether the next generation recorded should begin
+     * a new segment: that is, whether the newest segment holds
+     * {@link #getKeyframeInterval()} generations, or its deltas
+     * are together larger than its keyframe. The latter happens
+     * when most of the grid changes in every generation;
+     * decompressing a new keyframe is then cheaper than
+     * decompressing the deltas that would lead to it.
+     *
+     * @return true, if the next generation should be a keyframe
+     */
+    private boolean isSegmentFull()
+    {
+        int     length  = segmentLength();
+        int     start   = entries.size() - length;
+        long    deltas  = 0;
+        for ( int inx = start + 1 ; inx < entries.size() ; ++inx )
+            deltas += entries.get( inx ).data.length;
+        return length >= keyframeInterval
+            || deltas >= entries.get( start ).data.length;
+    }
+
+    /**
+     * Discards the oldest keyframe and the deltas that follow it.
+     */
+    private void dropOldestSegment()
+    {
+        int end = 1;
+        while ( end < entries.size() && !entries.get( end ).keyframe )
+            ++end;
+        List<Entry> dropped = entries.subList( 0, end );
+        for ( Entry entry : dropped )
+            size -= entry.data.length + ENTRY_OVERHEAD;
+        dropped.clear();
+    }
+
+    /**
+     * Discards the retained generations at or after the given generation.
+     * If the given generation would not then follow the newest
+     * retained generation, every generation is discarded,
+     * so that the retained generations are always consecutive.
+     *
+     * @param generation    the given generation
+     */
+    private void truncate( long generation )
+    {
+        int end = entries.size();
+        while ( end > 0 && entries.get( end - 1 ).generation >= generation )
+            --end;
+        List<Entry> dropped = entries.subList( end, entries.size() );
+        for ( Entry entry : dropped )
+            size -= entry.data.length + ENTRY_OVERHEAD;
+        dropped.clear();
+        if ( !entries.isEmpty() && getNewestGeneration() != generation - 1 )
+            clear();
+    }
+
+    /**
+     * Compresses the state of the given grid, or its exclusive-or
+     * with the state of the newest retained generation.
+     *
+     * @param grid      the given grid
+     * @param keyframe  true to compress the state of the grid,
+     *                  false to compress its exclusive-or
+     *                  with the newest retained generation
+     *
+     * @return the compressed bytes
+     */
+    private byte[] compress( BitGrid grid, boolean keyframe )
+    {
+        long[]  words   = grid.getWords();
+        long[]  prev    = last.getWords();
+        int     perRow  = grid.getWordsPerRow();
+        prepare( grid );
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            int base    = grid.rowOffset( row );
+            for ( int word = base ; word < base + perRow ; ++word )
+                scratch.putLong( keyframe ? words[word] : words[word] ^ prev[word] );
+        }
+
+        deflater.reset();
+        deflater.setInput( scratch.array(), 0, scratch.position() );
+        deflater.finish();
+        int     length  = 0;
+        while ( !deflater.finished() )
+        {
+            if ( length == output.length )
+                output = Arrays.copyOf( output, Math.max( 2 * length, 1024 ) );
+            length += deflater.deflate( output, length, output.length - length );
+        }
+        return Arrays.copyOf( output, length );
+    }
+
+    /**
+     * Applies the given generation to the given grid: if it is
+     * a keyframe, the grid is replaced by the keyframe's state;
+     * if it is a delta, it is exclusive-or'd into the grid.
+     *
+     * @param entry the given generation
+     * @param grid  the given grid
+     */
+    private void decompress( Entry entry, BitGrid grid )
+    {
+        prepare( grid );
+        inflater.reset();
+        inflater.setInput( entry.data );
+        try
+        {
+            int length  = 0;
+            while ( length < scratch.capacity() && !inflater.finished() )
+                length += inflater.inflate(
+                    scratch.array(), length, scratch.capacity() - length
+                );
+        }
+        catch ( DataFormatException exc )
+        {
+            // The data was compressed by this object.
+            throw new IllegalStateException( "corrupt history", exc );
+        }
+
+        long[]  words   = grid.getWords();
+        int     perRow  = grid.getWordsPerRow();
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            int base    = grid.rowOffset( row );
+            for ( int word = base ; word < base + perRow ; ++word )
+            {
+                long    bits    = scratch.getLong();
+                words[word] = entry.keyframe ? bits : words[word] ^ bits;
+            }
+        }
+    }
+
+    /**
+     * Makes the scratch buffer large enough to hold the words
+     * of the given grid, and clears it.
+     *
+     * @param grid  the given grid
+     */
+    private void prepare( BitGrid grid )
+    {
+        int bytes   = grid.getRows() * grid.getWordsPerRow() * Long.BYTES;
+        if ( scratch.capacity() != bytes )
+        {
+            scratch = ByteBuffer.allocate( bytes );
+            scratch.order( ByteOrder.LITTLE_ENDIAN );
+        }
+        scratch.clear();
+    }
+
+    /**
+     * Determines whether two grids have the same dimensions and topology.
+     *
+     * @param grid  the first grid
+     * @param that  the second grid
+     *
+     * @return true, if the grids have the same dimensions and topology
+     */
+    private static boolean sameShape( BitGrid grid, BitGrid that )
+    {
+        return grid.getRows() == that.getRows()
+            && grid.getCols() == that.getCols()
+            && grid.getTopology() == that.getTopology();
+    }
+
+    /**
+     * A single retained generation.
+     */
+    private static class Entry
+    {
+        /** The generation. */
+        private final long      generation;
+
+        /** True if this generation is a keyframe, false if a delta. */
+        private final boolean   keyframe;
+
+        /** The compressed state or delta. */
+        private final byte[]    data;
+
+        /**
+         * Instantiates a new retained generation.
+         *
+         * @param generation    the generation
+         * @param keyframe      true if the generation is a keyframe
+         * @param data          the compressed state or delta
+         */
+        private Entry( long generation, boolean keyframe, byte[] data )
+        {
+            this.generation = generation;
+            this.keyframe = keyframe;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the live cells of a grid in the Life 1.06 format
+ * read by {@link Life106Reader}. The grid is scanned a word at a time,
+ * so empty parts of the grid cost almost nothing to write.
+ *
+ * @see Life106Reader
+ */
+public class Life106Writer
+{
+    /** The destination of the pattern. */
+    private final Writer    writer;
+
+    /**
+     * Instantiates a new writer that writes to the given destination.
+     *
+     * @param writer    the given destination
+     */
+    public Life106Writer( Writer writer )
+    {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the live cells of the given grid, relative to the
+     * upper-left corner of the grid. The destination is flushed,
+     * but not closed.
+     *
+     * @param grid  the given grid
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write( BitGrid grid )
+        throws IOException
+    {
+        writer.write( Life106Reader.HEADER );
+        writer.write( '\n' );
+
+        long[]  words   = grid.getWords();
+        int     perRow  = grid.getWordsPerRow();
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            int base    = grid.rowOffset( row );
+            for ( int word = 0 ; word < perRow ; ++word )
+            {
+                long    bits    = words[base + word];
+                while ( bits != 0 )
+                {
+                    int col = word * BitGrid.WORD_BITS
+                        + Long.numberOfTrailingZeros( bits );
+                    writer.write( col + " " + row + "\n" );
+                    bits &= bits - 1;
+                }
+            }
+        }
+        writer.flush();
+    }
+}
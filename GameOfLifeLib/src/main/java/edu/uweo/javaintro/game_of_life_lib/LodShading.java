@@ -0,0 +1,24 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Determines how a block of cells is shown by a single pixel
+ * when a Board is zoomed out.
+ *
+ * @see Properties#LOD_SHADING
+ * @see Board#setZoomOut(int)
+ */
+public enum LodShading
+{
+    /**
+     * The pixel is shaded between the background color
+     * and the cell color in proportion to the fraction
+     * of cells in the block that are alive.
+     */
+    DENSITY,
+    
+    /**
+     * The pixel has the cell color if any cell in the block is alive,
+     * and the background color otherwise.
+     */
+    ANY_ALIVE
+}
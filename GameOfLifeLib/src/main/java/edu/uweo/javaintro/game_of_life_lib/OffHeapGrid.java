@@ -0,0 +1,574 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A grid of cells stored outside the Java heap,
+ * for boards too large to keep in a BitGrid.
+ * The rows are bit-packed exactly as in a BitGrid, but are held
+ * in direct buffers, or in a memory-mapped file, so they are
+ * never scanned or moved by the garbage collector, and the number
+ * of cells is limited only by memory (or disk) rather than
+ * by the maximum size of a Java array. A grid of
+ * 200,000 x 200,000 cells, for example, occupies 5 GB.
+ * <p>
+ * A single buffer is limited to 2 GB, so the rows are stored
+ * in chunks of at most {@link CheckpointStore#CHUNK_BYTES} bytes,
+ * each holding a whole number of rows. Views of the chunks
+ * are created once, when the grid is instantiated;
+ * reading and writing rows allocates nothing.
+ * <p>
+ * Direct memory is limited by the JVM's
+ * <em>-XX:MaxDirectMemorySize</em> option, which by default
+ * equals the maximum heap size; a grid backed by a file
+ * is limited only by the size of the file system.
+ * The memory of a grid is released when the grid
+ * is garbage collected.
+ *
+ * @see StreamingEngine
+ * @see BitGrid
+ */
+public class OffHeapGrid implements AutoCloseable
+{
+    /** The number of rows in the grid. */
+    private final int           rows;
+
+    /** The number of columns in the grid. */
+    private final int           cols;
+
+    /** The number of words needed to store a single row. */
+    private final int           wordsPerRow;
+
+    /** Mask that selects the valid bits in the last word of a row. */
+    private final long          lastWordMask;
+
+    /** Determines how the edges of the grid are connected. */
+    private final Topology      topology;
+
+    /** The number of rows in each chunk but the last. */
+    private final int           chunkRows;
+
+    /** The words of the rows, a chunk of rows at a time. */
+    private final LongBuffer[]  chunks;
+
+    /** The channel of the backing file; null if the grid is in direct memory. */
+    private final FileChannel   channel;
+
+    /**
+     * Instantiates a new grid in direct memory.
+     * Initially, all cells are dead.
+     *
+     * @param rows      the number of rows in the grid
+     * @param cols      the number of columns in the grid
+     * @param topology  the topology of the grid
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1, or the topology is null
+     */
+    public OffHeapGrid( int rows, int cols, Topology topology )
+        throws IllegalArgumentException
+    {
+        this( rows, cols, topology, CheckpointStore.CHUNK_BYTES );
+    }
+
+    /**
+     * Instantiates a new grid in direct memory,
+     * stored in chunks of at most the given size.
+     * Mainly useful for testing.
+     *
+     * @param rows          the number of rows in the grid
+     * @param cols          the number of columns in the grid
+     * @param topology      the topology of the grid
+     * @param chunkBytes    the maximum number of bytes in a chunk
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1, or the topology is null
+     */
+    OffHeapGrid( int rows, int cols, Topology topology, long chunkBytes )
+        throws IllegalArgumentException
+    {
+        validate( rows, cols, topology );
+        this.rows = rows;
+        this.cols = cols;
+        this.topology = topology;
+        channel = null;
+        wordsPerRow = (cols + BitGrid.WORD_BITS - 1) / BitGrid.WORD_BITS;
+        lastWordMask = lastWordMask( cols );
+        chunkRows = chunkRows( rows, wordsPerRow, chunkBytes );
+        chunks = new LongBuffer[(rows + chunkRows - 1) / chunkRows];
+        for ( int inx = 0 ; inx < chunks.length ; ++inx )
+        {
+            int     count   = Math.min( chunkRows, rows - inx * chunkRows );
+            chunks[inx] = ByteBuffer.allocateDirect( count * wordsPerRow * Long.BYTES )
+                .order( ByteOrder.nativeOrder() )
+                .asLongBuffer();
+        }
+    }
+
+    /**
+     * Instantiates a new grid backed by the given channel.
+     *
+     * @param channel   the given channel
+     * @param rows      the number of rows in the grid
+     * @param cols      the number of columns in the grid
+     * @param topology  the topology of the grid
+     *
+     * @throws IOException if the file cannot be mapped
+     */
+    private OffHeapGrid( FileChannel channel, int rows, int cols, Topology topology )
+        throws IOException
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.topology = topology;
+        this.channel = channel;
+        wordsPerRow = (cols + BitGrid.WORD_BITS - 1) / BitGrid.WORD_BITS;
+        lastWordMask = lastWordMask( cols );
+        chunkRows = chunkRows( rows, wordsPerRow, CheckpointStore.CHUNK_BYTES );
+        chunks = new LongBuffer[(rows + chunkRows - 1) / chunkRows];
+        long    rowBytes    = (long)wordsPerRow * Long.BYTES;
+        for ( int inx = 0 ; inx < chunks.length ; ++inx )
+        {
+            long    first   = (long)inx * chunkRows;
+            long    count   = Math.min( chunkRows, rows - first );
+            chunks[inx] = channel.map( MapMode.READ_WRITE, first * rowBytes, count * rowBytes )
+                .order( ByteOrder.LITTLE_ENDIAN )
+                .asLongBuffer();
+        }
+    }
+
+    /**
+     * Creates a grid backed by the given file, replacing
+     * any existing file. The file holds the words of each row,
+     * little-endian, with no header. Initially, all cells are dead.
+     *
+     * @param path      the given file
+     * @param rows      the number of rows in the grid
+     * @param cols      the number of columns in the grid
+     * @param topology  the topology of the grid
+     *
+     * @return the new grid
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1, or the topology is null
+     * @throws IOException if an I/O error occurs
+     */
+    public static OffHeapGrid create( Path path, int rows, int cols, Topology topology )
+        throws IllegalArgumentException, IOException
+    {
+        validate( rows, cols, topology );
+        FileChannel channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        OffHeapGrid grid    = null;
+        try
+        {
+            grid = new OffHeapGrid( channel, rows, cols, topology );
+        }
+        finally
+        {
+            if ( grid == null )
+                channel.close();
+        }
+        return grid;
+    }
+
+    /**
+     * Gets the number of rows in the grid.
+     *
+     * @return the number of rows in the grid
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Gets the number of columns in the grid.
+     *
+     * @return the number of columns in the grid
+     */
+    public int getCols()
+    {
+        return cols;
+    }
+
+    /**
+     * Gets the number of words needed to store a single row.
+     *
+     * @return the number of words needed to store a single row
+     */
+    public int getWordsPerRow()
+    {
+        return wordsPerRow;
+    }
+
+    /**
+     * Gets the topology of the grid.
+     *
+     * @return the topology of the grid
+     */
+    public Topology getTopology()
+    {
+        return topology;
+    }
+
+    /**
+     * Gets the mask that selects the valid bits
+     * in the last word of a row.
+     *
+     * @return the mask that selects the valid bits
+     *         in the last word of a row
+     */
+    public long getLastWordMask()
+    {
+        return lastWordMask;
+    }
+
+    /**
+     * Determines whether this grid is backed by a file.
+     *
+     * @return true, if this grid is backed by a file;
+     *         false, if it is in direct memory
+     */
+    public boolean isMapped()
+    {
+        return channel != null;
+    }
+
+    /**
+     * Gets the state of the cell at the given row and column.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     *
+     * @return true, if the cell is alive
+     *
+     * @throws IndexOutOfBoundsException if the given row or column
+     *         is outside the bounds of the grid
+     */
+    public boolean get( int row, int col )
+        throws IndexOutOfBoundsException
+    {
+        checkBounds( row, col );
+        long    word    = chunk( row ).get( wordIndex( row, col ) );
+        return (word & (1L << col)) != 0;
+    }
+
+    /**
+     * Sets the state of the cell at the given row and column.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     * @param alive true to make the cell alive, false to make it dead
+     *
+     * @throws IndexOutOfBoundsException if the given row or column
+     *         is outside the bounds of the grid
+     */
+    public void set( int row, int col, boolean alive )
+        throws IndexOutOfBoundsException
+    {
+        checkBounds( row, col );
+        LongBuffer  chunk   = chunk( row );
+        int         inx     = wordIndex( row, col );
+        long        word    = chunk.get( inx );
+        if ( alive )
+            word |= 1L << col;
+        else
+            word &= ~(1L << col);
+        chunk.put( inx, word );
+    }
+
+    /**
+     * Kills every cell in the grid.
+     */
+    public void clear()
+    {
+        long[]  zeros   = new long[wordsPerRow];
+        for ( int row = 0 ; row < rows ; ++row )
+            writeRow( row, zeros, 0 );
+    }
+
+    /**
+     * Copies the state of the given grid into this grid.
+     *
+     * @param that  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of this grid
+     */
+    public void copyFrom( BitGrid that )
+        throws IllegalArgumentException
+    {
+        validate( that );
+        long[]  words   = that.getWords();
+        for ( int row = 0 ; row < rows ; ++row )
+            writeRow( row, words, that.rowOffset( row ) );
+    }
+
+    /**
+     * Copies the state of this grid into the given grid.
+     *
+     * @param that  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of this grid
+     */
+    public void copyTo( BitGrid that )
+        throws IllegalArgumentException
+    {
+        validate( that );
+        long[]  words   = that.getWords();
+        for ( int row = 0 ; row < rows ; ++row )
+            readRow( row, words, that.rowOffset( row ) );
+    }
+
+    /**
+     * Counts the number of live cells in the grid.
+     *
+     * @return the number of live cells in the grid
+     */
+    public long getPopulation()
+    {
+        long    result  = 0;
+        for ( LongBuffer chunk : chunks )
+            for ( int inx = 0 ; inx < chunk.capacity() ; ++inx )
+                result += Long.bitCount( chunk.get( inx ) );
+        return result;
+    }
+
+    /**
+     * Forces any changes to the backing file. If the grid
+     * is in direct memory, this method does nothing.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void force()
+        throws IOException
+    {
+        if ( channel != null )
+            channel.force( false );
+    }
+
+    /**
+     * Closes the backing file, if any. The memory of the grid
+     * is released when the grid is garbage collected.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        if ( channel != null )
+            channel.close();
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return "rows=" + rows + ",cols=" + cols + ",topology=" + topology
+            + ",mapped=" + isMapped();
+    }
+
+    /**
+     * Copies the words of the given row of this grid
+     * into the given array.
+     *
+     * @param row       the given row
+     * @param dst       the given array
+     * @param offset    the index in the array of the first word
+     */
+    void readRow( int row, long[] dst, int offset )
+    {
+        chunk( row ).get( rowIndex( row ), dst, offset, wordsPerRow );
+    }
+
+    /**
+     * Copies words from the given array into the given row
+     * of this grid. The unused bits of the last word
+     * of the row are cleared.
+     *
+     * @param row       the given row
+     * @param src       the given array
+     * @param offset    the index in the array of the first word
+     */
+    void writeRow( int row, long[] src, int offset )
+    {
+        LongBuffer  chunk   = chunk( row );
+        int         base    = rowIndex( row );
+        chunk.put( base, src, offset, wordsPerRow );
+        int         last    = base + wordsPerRow - 1;
+        chunk.put( last, chunk.get( last ) & lastWordMask );
+    }
+
+    /**
+     * Verifies that the dimensions and topology of the given grid
+     * match those of this grid.
+     *
+     * @param that  the given grid
+     *
+     * @throws IllegalArgumentException if the dimensions or topology
+     *         of the given grid do not match those of this grid
+     */
+    void validate( BitGrid that )
+        throws IllegalArgumentException
+    {
+        if ( that.getRows() != rows || that.getCols() != cols
+            || that.getTopology() != topology )
+        {
+            String  msg = String.format(
+                "grid is %d x %d (%s); expected %d x %d (%s)",
+                that.getRows(), that.getCols(), that.getTopology(),
+                rows, cols, topology
+            );
+            throw new IllegalArgumentException( msg );
+        }
+    }
+
+    /**
+     * Verifies that the given pair of grids may be used
+     * as the current and next generations of a step.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     *
+     * @throws IllegalArgumentException if the given grids are
+     *         the same object, or if their dimensions or topologies differ
+     */
+    static void validatePair( OffHeapGrid current, OffHeapGrid next )
+        throws IllegalArgumentException
+    {
+        if ( current == next )
+            throw new IllegalArgumentException( "current and next are the same grid" );
+        if ( current.rows != next.rows || current.cols != next.cols
+            || current.topology != next.topology )
+        {
+            String  msg = "grid dimensions differ: " + current + " and " + next;
+            throw new IllegalArgumentException( msg );
+        }
+    }
+
+    /**
+     * Verifies the given dimensions and topology.
+     *
+     * @param rows      the number of rows
+     * @param cols      the number of columns
+     * @param topology  the topology
+     *
+     * @throws IllegalArgumentException if either dimension
+     *         is less than 1, or the topology is null
+     */
+    private static void validate( int rows, int cols, Topology topology )
+        throws IllegalArgumentException
+    {
+        if ( rows < 1 || cols < 1 || topology == null )
+        {
+            String  msg = "invalid grid: " + rows + " x " + cols + " (" + topology + ")";
+            throw new IllegalArgumentException( msg );
+        }
+    }
+
+    /**
+     * Computes the mask that selects the valid bits
+     * in the last word of a row.
+     *
+     * @param cols  the number of columns in the grid
+     *
+     * @return the mask that selects the valid bits
+     *         in the last word of a row
+     */
+    private static long lastWordMask( int cols )
+    {
+        int lastBits    = cols % BitGrid.WORD_BITS;
+        return lastBits == 0 ? -1L : (1L << lastBits) - 1;
+    }
+
+    /**
+     * Computes the number of rows in each chunk.
+     *
+     * @param rows          the number of rows in the grid
+     * @param wordsPerRow   the number of words in a row
+     * @param chunkBytes    the maximum number of bytes in a chunk
+     *
+     * @return the number of rows in each chunk but the last
+     */
+    private static int chunkRows( int rows, int wordsPerRow, long chunkBytes )
+    {
+        long    rowBytes    = (long)wordsPerRow * Long.BYTES;
+        return (int)Math.min( Math.max( chunkBytes / rowBytes, 1 ), rows );
+    }
+
+    /**
+     * Gets the chunk containing the given row.
+     *
+     * @param row   the given row
+     *
+     * @return the chunk containing the given row
+     */
+    private LongBuffer chunk( int row )
+    {
+        return chunks[row / chunkRows];
+    }
+
+    /**
+     * Gets the index within its chunk of the first word of the given row.
+     *
+     * @param row   the given row
+     *
+     * @return the index within its chunk of the first word of the row
+     */
+    private int rowIndex( int row )
+    {
+        return (row % chunkRows) * wordsPerRow;
+    }
+
+    /**
+     * Gets the index within its chunk of the word
+     * containing the given cell.
+     *
+     * @param row   the row of the given cell
+     * @param col   the column of the given cell
+     *
+     * @return the index of the word containing the given cell
+     */
+    private int wordIndex( int row, int col )
+    {
+        return rowIndex( row ) + (col >>> 6);
+    }
+
+    /**
+     * Verifies that the given row and column are within
+     * the bounds of the grid.
+     *
+     * @param row   the given row
+     * @param col   the given column
+     *
+     * @throws IndexOutOfBoundsException if the given row or column
+     *         is outside the bounds of the grid
+     */
+    private void checkBounds( int row, int col )
+        throws IndexOutOfBoundsException
+    {
+        if ( row < 0 || row >= rows || col < 0 || col >= cols )
+        {
+            String  msg = "(" + row + ", " + col + ") is outside "
+                + rows + " x " + cols;
+            throw new IndexOutOfBoundsException( msg );
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encapsulates the contents of a pattern file:
+ * the state of a grid, and the generation and rule
+ * that produced it.
+ * <p>
+ * A pattern file consists of a header,
+ * written with a DataOutputStream:
+ * <ol>
+ * <li>the magic number {@link #MAGIC} (<em>int</em>);</li>
+ * <li>the format version {@link #VERSION} (<em>short</em>);</li>
+ * <li>the number of rows and columns (<em>int</em>, <em>int</em>);</li>
+ * <li>the name of the topology (<em>UTF</em>);</li>
+ * <li>the rule, in B/S notation (<em>UTF</em>);</li>
+ * <li>the generation (<em>long</em>);</li>
+ * </ol>
+ * followed by the rows of the grid, compressed as a single
+ * Deflater stream. Each row is packed eight cells per byte,
+ * with the cell in column <em>col</em> stored in bit
+ * <em>col % 8</em> of byte <em>col / 8</em>;
+ * unused bits in the last byte of a row are zero.
+ * <p>
+ * Rows are written and read one at a time,
+ * so no more memory than the grid itself is needed.
+ * At one bit per cell, a grid of a hundred million cells
+ * is 12.5 MB before compression; sparse or structured patterns
+ * compress to a small fraction of that, but a random soup
+ * hardly compresses at all.
+ * Files written by earlier versions of the application,
+ * which contain a serialized <em>boolean[][]</em>,
+ * can be recognized with {@link #isPatternFile(InputStream)}.
+ *
+ * @see BitGrid
+ */
+public class PatternFile
+{
+    /** The magic number that begins every pattern file: "GOLB". */
+    public static final int     MAGIC       = 0x474F4C42;
+
+    /** The version of the format written by this class. */
+    public static final short   VERSION     = 1;
+
+    /** The rule of the Game of Life, in B/S notation. */
+    public static final String  LIFE_RULE   = "B3/S23";
+
+    /** The size of the buffers used to read and write files. */
+    private static final int    BUFFER_SIZE = 1 << 16;
+
+    /** The state of the grid. */
+    private final BitGrid   grid;
+
+    /** The generation of the grid. */
+    private final long      generation;
+
+    /** The rule that produced the grid, in B/S notation. */
+    private final String    rule;
+
+    /**
+     * Instantiates a new pattern file with the given grid and generation,
+     * produced by the rules of the Game of Life.
+     * The grid is not copied.
+     *
+     * @param grid          the given grid
+     * @param generation    the given generation
+     *
+     * @throws IllegalArgumentException if the grid is null,
+     *         or the generation is negative
+     */
+    public PatternFile( BitGrid grid, long generation )
+        throws IllegalArgumentException
+    {
+        this( grid, generation, LIFE_RULE );
+    }
+
+    /**
+     * Instantiates a new pattern file with the given grid,
+     * generation and rule. The grid is not copied.
+     *
+     * @param grid          the given grid
+     * @param generation    the given generation
+     * @param rule          the given rule, in B/S notation
+     *
+     * @throws IllegalArgumentException if the grid or rule is null,
+     *         or the generation is negative
+     */
+    public PatternFile( BitGrid grid, long generation, String rule )
+        throws IllegalArgumentException
+    {
+        if ( grid == null || rule == null )
+            throw new IllegalArgumentException( "grid and rule may not be null" );
+        if ( generation < 0 )
+            throw new IllegalArgumentException( "generation = " + generation );
+        this.grid = grid;
+        this.generation = generation;
+        this.rule = rule;
+    }
+
+    /**
+     * Gets the state of the grid.
+     *
+     * @return the state of the grid
+     */
+    public BitGrid getGrid()
+    {
+        return grid;
+    }
+
+    /**
+     * Gets the generation of the grid.
+     *
+     * @return the generation of the grid
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Gets the rule that produced the grid, in B/S notation.
+     *
+     * @return the rule that produced the grid
+     */
+    public String getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Writes this pattern file to the given stream.
+     * The stream is flushed, but not closed.
+     *
+     * @param outStream the given stream
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write( OutputStream outStream )
+        throws IOException
+    {
+        DataOutputStream    header  = new DataOutputStream( outStream );
+        header.writeInt( MAGIC );
+        header.writeShort( VERSION );
+        header.writeInt( grid.getRows() );
+        header.writeInt( grid.getCols() );
+        header.writeUTF( grid.getTopology().name() );
+        header.writeUTF( rule );
+        header.writeLong( generation );
+        header.flush();
+
+        Deflater    deflater    = new Deflater( Deflater.BEST_SPEED );
+        try
+        {
+            DeflaterOutputStream    body    =
+                new DeflaterOutputStream( outStream, deflater, BUFFER_SIZE );
+            long[]      words   = grid.getWords();
+            int         perRow  = grid.getWordsPerRow();
+            ByteBuffer  buffer  = rowBuffer( grid );
+            int         length  = rowBytes( grid );
+            for ( int row = 0 ; row < grid.getRows() ; ++row )
+            {
+                buffer.clear();
+                int base    = grid.rowOffset( row );
+                for ( int word = 0 ; word < perRow ; ++word )
+                    buffer.putLong( words[base + word] );
+                body.write( buffer.array(), 0, length );
+            }
+            body.finish();
+            outStream.flush();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes this pattern file to the given file.
+     *
+     * @param file  the given file
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write( File file )
+        throws IOException
+    {
+        try ( OutputStream outStream =
+            new BufferedOutputStream( new FileOutputStream( file ), BUFFER_SIZE ) )
+        {
+            write( outStream );
+        }
+    }
+
+    /**
+     * Reads a pattern file from the given stream.
+     * The stream is not closed, but because the rows are compressed,
+     * bytes following the pattern may have been consumed.
+     *
+     * @param inStream  the given stream
+     *
+     * @return the pattern file read from the stream
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the stream does not contain a valid pattern file
+     */
+    public static PatternFile read( InputStream inStream )
+        throws IOException
+    {
+        DataInputStream header  = new DataInputStream( inStream );
+        int             magic   = header.readInt();
+        if ( magic != MAGIC )
+            throw new IOException( "not a pattern file" );
+        short           version = header.readShort();
+        if ( version != VERSION )
+            throw new IOException( "unsupported pattern file version: " + version );
+        int             rows    = header.readInt();
+        int             cols    = header.readInt();
+        if ( rows < 1 || cols < 1 )
+            throw new IOException( "invalid dimensions: " + rows + " x " + cols );
+        Topology        topology;
+        try
+        {
+            topology = Topology.valueOf( header.readUTF() );
+        }
+        catch ( IllegalArgumentException exc )
+        {
+            throw new IOException( "invalid topology", exc );
+        }
+        String          rule        = header.readUTF();
+        long            generation  = header.readLong();
+        if ( generation < 0 )
+            throw new IOException( "invalid generation: " + generation );
+
+        BitGrid     grid        = new BitGrid( rows, cols, topology );
+        Inflater    inflater    = new Inflater();
+        try
+        {
+            InflaterInputStream body    =
+                new InflaterInputStream( inStream, inflater, BUFFER_SIZE );
+            long[]      words   = grid.getWords();
+            int         perRow  = grid.getWordsPerRow();
+            long        mask    = grid.getLastWordMask();
+            ByteBuffer  buffer  = rowBuffer( grid );
+            byte[]      bytes   = buffer.array();
+            int         length  = rowBytes( grid );
+            for ( int row = 0 ; row < rows ; ++row )
+            {
+                readFully( body, bytes, length );
+                buffer.clear();
+                int base    = grid.rowOffset( row );
+                for ( int word = 0 ; word < perRow ; ++word )
+                    words[base + word] = buffer.getLong();
+                words[base + perRow - 1] &= mask;
+            }
+
+            // Reaching the end of the rows verifies their checksum.
+            if ( body.read() != -1 )
+                throw new IOException( "pattern file is too long" );
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        return new PatternFile( grid, generation, rule );
+    }
+
+    /**
+     * Reads a pattern file from the given file.
+     *
+     * @param file  the given file
+     *
+     * @return the pattern file read from the given file
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the file is not a valid pattern file
+     */
+    public static PatternFile read( File file )
+        throws IOException
+    {
+        try ( InputStream inStream =
+            new BufferedInputStream( new FileInputStream( file ), BUFFER_SIZE ) )
+        {
+            return read( inStream );
+        }
+    }
+
+    /**
+     * Determines whether the given stream begins with the magic number
+     * of a pattern file. The stream must support <em>mark</em>
+     * and <em>reset</em>; its position is not changed.
+     *
+     * @param inStream  the given stream
+     *
+     * @return true, if the given stream begins with the magic number
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean isPatternFile( InputStream inStream )
+        throws IOException
+    {
+        byte[]  bytes   = new byte[Integer.BYTES];
+        inStream.mark( bytes.length );
+        int     count   = inStream.readNBytes( bytes, 0, bytes.length );
+        inStream.reset();
+        return count == bytes.length
+            && ByteBuffer.wrap( bytes ).getInt() == MAGIC;
+    }
+
+    /**
+     * Allocates a buffer large enough to hold the words of a row
+     * of the given grid, in the byte order of a pattern file.
+     *
+     * @param grid  the given grid
+     *
+     * @return a buffer large enough to hold a row of the given grid
+     */
+    private static ByteBuffer rowBuffer( BitGrid grid )
+    {
+        ByteBuffer  buffer  =
+            ByteBuffer.allocate( grid.getWordsPerRow() * Long.BYTES );
+        buffer.order( ByteOrder.LITTLE_ENDIAN );
+        return buffer;
+    }
+
+    /**
+     * Gets the number of bytes in a packed row of the given grid.
+     *
+     * @param grid  the given grid
+     *
+     * @return the number of bytes in a packed row of the given grid
+     */
+    private static int rowBytes( BitGrid grid )
+    {
+        return (grid.getCols() + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    /**
+     * Reads the given number of bytes from the given stream
+     * into the given array, and zeroes the rest of the array.
+     *
+     * @param inStream  the given stream
+     * @param bytes     the given array
+     * @param length    the given number of bytes
+     *
+     * @throws IOException if an I/O error occurs,
+     *         or the stream ends before the given number of bytes is read
+     */
+    private static void readFully( InputStream inStream, byte[] bytes, int length )
+        throws IOException
+    {
+        if ( inStream.readNBytes( bytes, 0, length ) != length )
+            throw new EOFException( "pattern file is truncated" );
+        Arrays.fill( bytes, length, bytes.length, (byte)0 );
+    }
+}
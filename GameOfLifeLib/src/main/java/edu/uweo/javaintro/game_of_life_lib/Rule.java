@@ -0,0 +1,319 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * Encapsulates a rule of a Life-like cellular automaton:
+ * the numbers of live neighbors for which a dead cell is born,
+ * and for which a live cell survives. Rules are written
+ * in B/S notation; for example, the Game of Life is
+ * <em>B3/S23</em>: a dead cell with three live neighbors is born,
+ * and a live cell with two or three live neighbors survives.
+ * <p>
+ * A rule is compiled when it is instantiated into forms
+ * that can be evaluated without branching on the state of a cell:
+ * <ul>
+ * <li>a table of 512 entries, indexed by the state
+ *     of a cell's 3x3 neighborhood, for engines that
+ *     compute one cell at a time; and</li>
+ * <li>a sum of products over the bits of the neighbor count,
+ *     for engines that compute the counts of 64 cells at a time
+ *     with bit-sliced adders.</li>
+ * </ul>
+ * Instances are immutable.
+ *
+ * @see BitSliceEngine#BitSliceEngine(Rule)
+ */
+public final class Rule
+{
+    /** The Game of Life: B3/S23. */
+    public static final Rule    CONWAY          = parse( "B3/S23" );
+
+    /** HighLife, which has a replicator: B36/S23. */
+    public static final Rule    HIGHLIFE        = parse( "B36/S23" );
+
+    /** Day &amp; Night, symmetric under exchange of live and dead: B3678/S34678. */
+    public static final Rule    DAY_AND_NIGHT   = parse( "B3678/S34678" );
+
+    /** The largest possible number of live neighbors. */
+    private static final int    MAX_COUNT       = 8;
+
+    /** The number of longs describing a term of the sum of products. */
+    static final int            TERM_LONGS      = 6;
+
+    /** Bit <em>n</em> is set if a dead cell with <em>n</em> neighbors is born. */
+    private final int           birth;
+
+    /** Bit <em>n</em> is set if a live cell with <em>n</em> neighbors survives. */
+    private final int           survival;
+
+    /**
+     * The next state of a cell, indexed by the state of its neighborhood;
+     * bit <em>row * 3 + col</em> of the index is set if the cell
+     * at (row, col) of the neighborhood is alive.
+     */
+    private final boolean[]     table           = new boolean[512];
+
+    /**
+     * The terms of the sum of products, one for each neighbor count
+     * for which a cell may be alive in the next generation.
+     * Each term is {@link #TERM_LONGS} longs: the values to
+     * exclusive-or with the four bits of the count so that
+     * all four are set exactly when the count matches;
+     * and masks selecting the cells that are born
+     * and the cells that survive with that count.
+     */
+    private final long[]        terms;
+
+    /** True if this rule is the Game of Life. */
+    private final boolean       life;
+
+    /**
+     * Instantiates a new rule.
+     *
+     * @param birth     bit <em>n</em> is set if a dead cell
+     *                  with <em>n</em> neighbors is born
+     * @param survival  bit <em>n</em> is set if a live cell
+     *                  with <em>n</em> neighbors survives
+     */
+    private Rule( int birth, int survival )
+    {
+        this.birth = birth;
+        this.survival = survival;
+        life = birth == 1 << 3 && survival == (1 << 2 | 1 << 3);
+
+        for ( int inx = 0 ; inx < table.length ; ++inx )
+        {
+            int     count   = Integer.bitCount( inx & ~(1 << 4) );
+            boolean alive   = (inx & 1 << 4) != 0;
+            table[inx] = alive ? survives( count ) : isBorn( count );
+        }
+
+        int     used    = Integer.bitCount( birth | survival );
+        terms = new long[used * TERM_LONGS];
+        int     next    = 0;
+        for ( int count = 0 ; count <= MAX_COUNT ; ++count )
+            if ( isBorn( count ) || survives( count ) )
+            {
+                for ( int bit = 0 ; bit < 4 ; ++bit )
+                    terms[next++] = (count & 1 << bit) != 0 ? 0 : -1;
+                terms[next++] = isBorn( count ) ? -1 : 0;
+                terms[next++] = survives( count ) ? -1 : 0;
+            }
+    }
+
+    /**
+     * Parses the given rule. The rule may be written
+     * in B/S notation, such as <em>B36/S23</em>, in which
+     * the parts may appear in either order and the letters
+     * in either case; or in the older S/B notation,
+     * such as <em>23/36</em>.
+     *
+     * @param text  the given rule
+     *
+     * @return the parsed rule
+     *
+     * @throws IllegalArgumentException if the given rule is malformed
+     */
+    public static Rule parse( String text )
+        throws IllegalArgumentException
+    {
+        String[]    parts   = text.trim().split( "/", -1 );
+        if ( parts.length != 2 )
+            throw new IllegalArgumentException( "malformed rule: " + text );
+
+        int     birth       = -1;
+        int     survival    = -1;
+        if ( isCounts( parts[0] ) && isCounts( parts[1] ) )
+        {
+            survival = counts( parts[0], 0, text );
+            birth = counts( parts[1], 0, text );
+        }
+        for ( String part : parts )
+        {
+            char    letter  = part.isEmpty() ? ' ' : Character.toUpperCase( part.charAt( 0 ) );
+            if ( letter == 'B' && birth < 0 )
+                birth = counts( part, 1, text );
+            else if ( letter == 'S' && survival < 0 )
+                survival = counts( part, 1, text );
+        }
+        if ( birth < 0 || survival < 0 )
+            throw new IllegalArgumentException( "malformed rule: " + text );
+
+        return new Rule( birth, survival );
+    }
+
+    /**
+     * Determines whether a dead cell with the given number
+     * of live neighbors is born.
+     *
+     * @param count the given number of live neighbors
+     *
+     * @return true, if the cell is born
+     */
+    public boolean isBorn( int count )
+    {
+        return (birth & 1 << count) != 0;
+    }
+
+    /**
+     * Determines whether a live cell with the given number
+     * of live neighbors survives.
+     *
+     * @param count the given number of live neighbors
+     *
+     * @return true, if the cell survives
+     */
+    public boolean survives( int count )
+    {
+        return (survival & 1 << count) != 0;
+    }
+
+    /**
+     * Gets the next state of a cell, given the state
+     * of its 3x3 neighborhood.
+     *
+     * @param neighborhood  the state of the neighborhood;
+     *                      bit <em>row * 3 + col</em> is set
+     *                      if the cell at (row, col) is alive,
+     *                      so bit 4 is the cell itself
+     *
+     * @return true, if the cell is alive in the next generation
+     */
+    public boolean next( int neighborhood )
+    {
+        return table[neighborhood & 0x1FF];
+    }
+
+    /**
+     * Computes the next state of 64 cells, given their neighbor counts
+     * as four bit slices, as computed by the adder network
+     * of a BitSliceEngine.
+     *
+     * @param ones      bit 0 of the neighbor counts
+     * @param twos      bit 1 of the neighbor counts
+     * @param fours     bit 2 of the neighbor counts
+     * @param eights    bit 3 of the neighbor counts
+     * @param alive     the current state of the cells
+     *
+     * @return the next state of the cells
+     */
+    long apply( long ones, long twos, long fours, long eights, long alive )
+    {
+        long    result  = 0;
+        if ( life )
+            result = twos & ~fours & ~eights & (ones | alive);
+        else
+            for ( int inx = 0 ; inx < terms.length ; inx += TERM_LONGS )
+            {
+                long    match   =
+                    (ones ^ terms[inx]) & (twos ^ terms[inx + 1])
+                    & (fours ^ terms[inx + 2]) & (eights ^ terms[inx + 3]);
+                result |= match
+                    & (~alive & terms[inx + 4] | alive & terms[inx + 5]);
+            }
+        return result;
+    }
+
+    /**
+     * Gets the terms of the sum of products that evaluates this rule.
+     * Note that the <em>actual</em> array is returned.
+     *
+     * @return the terms of the sum of products
+     */
+    long[] getTerms()
+    {
+        return terms;
+    }
+
+    /**
+     * Determines whether this rule is the Game of Life.
+     *
+     * @return true, if this rule is the Game of Life
+     */
+    boolean isLife()
+    {
+        return life;
+    }
+
+    /**
+     * Gets this rule in B/S notation, with the counts in ascending order.
+     *
+     * @return this rule in B/S notation
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder   bldr    = new StringBuilder( "B" );
+        for ( int count = 0 ; count <= MAX_COUNT ; ++count )
+            if ( isBorn( count ) )
+                bldr.append( count );
+        bldr.append( "/S" );
+        for ( int count = 0 ; count <= MAX_COUNT ; ++count )
+            if ( survives( count ) )
+                bldr.append( count );
+        return bldr.toString();
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean result  = false;
+        if ( obj instanceof Rule )
+        {
+            Rule    that    = (Rule)obj;
+            result = birth == that.birth && survival == that.survival;
+        }
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return birth << 9 | survival;
+    }
+
+    /**
+     * Determines whether the given part of a rule
+     * consists only of digits.
+     *
+     * @param part  the given part
+     *
+     * @return true, if the given part consists only of digits
+     */
+    private static boolean isCounts( String part )
+    {
+        return part.chars().allMatch( Character::isDigit );
+    }
+
+    /**
+     * Parses the neighbor counts in the given part of a rule.
+     *
+     * @param part  the given part
+     * @param start the index of the first count in the part
+     * @param text  the whole rule, for error messages
+     *
+     * @return a mask in which bit <em>n</em> is set
+     *         if count <em>n</em> appears in the part
+     *
+     * @throws IllegalArgumentException if the part contains anything
+     *         other than the digits 0 through 8, or a repeated digit
+     */
+    private static int counts( String part, int start, String text )
+        throws IllegalArgumentException
+    {
+        int mask    = 0;
+        for ( int inx = start ; inx < part.length() ; ++inx )
+        {
+            int count   = part.charAt( inx ) - '0';
+            if ( count < 0 || count > MAX_COUNT || (mask & 1 << count) != 0 )
+                throw new IllegalArgumentException( "malformed rule: " + text );
+            mask |= 1 << count;
+        }
+        return mask;
+    }
+}
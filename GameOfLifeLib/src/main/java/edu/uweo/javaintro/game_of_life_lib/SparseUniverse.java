@@ -0,0 +1,492 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encapsulates an unbounded Game of Life universe stored
+ * as a sparse collection of square tiles. Each tile holds
+ * {@link #TILE_SIDE} x {@link #TILE_SIDE} cells, one word per row,
+ * and is keyed by its tile row and column. A tile is allocated
+ * when a cell in it becomes alive and released when all of its
+ * cells die, so memory is proportional to the area of the live
+ * parts of the universe rather than to its extent. Released tiles
+ * are reused, but only as many are kept as the current generation
+ * can be expected to need.
+ * <p>
+ * Universe coordinates are <em>long</em> row/column pairs;
+ * rows and columns may be negative. Tile coordinates are
+ * <em>int</em>, which limits the universe to
+ * 2<sup>37</sup> cells on a side.
+ * <p>
+ * A Board can render a rectangular viewport of a universe.
+ * The universe follows the Game of Life unless another rule
+ * is given at construction; since the universe is unbounded,
+ * the rule may not cause cells with no live neighbors to be born.
+ *
+ * @see Board#setUniverse(SparseUniverse)
+ * @see Rule
+ */
+public class SparseUniverse
+{
+    /** The number of cells on the side of a tile. */
+    public static final int     TILE_SIDE   = BitGrid.WORD_BITS;
+
+    /** 
+     * The number of released tiles that are kept for reuse
+     * in addition to one for each live tile.
+     */
+    static final int            MIN_SPARE_TILES = 64;
+
+    /** A tile in which every cell is dead. */
+    private static final long[] EMPTY_TILE  = new long[TILE_SIDE];
+
+    /** The live tiles of the universe, keyed by tile position. */
+    private Map<Long, long[]>   tiles       = new HashMap<>();
+
+    /** Receives the tiles of the next generation. */
+    private Map<Long, long[]>   nextTiles   = new HashMap<>();
+
+    /** Tiles that have been computed for the next generation. */
+    private final Set<Long>     visited     = new HashSet<>();
+
+    /** 
+     * Released tiles, available for reuse; trimmed after each
+     * generation so that it holds no more than one tile for each
+     * live tile, plus {@link #MIN_SPARE_TILES}.
+     */
+    private final ArrayDeque<long[]>    spareTiles  = new ArrayDeque<>();
+
+    /** The number of generations computed since the universe was cleared. */
+    private long                generation;
+
+    /** The rule followed by the universe. */
+    private final Rule          rule;
+
+    /**
+     * Instantiates a new, empty universe that follows the Game of Life.
+     */
+    public SparseUniverse()
+    {
+        this( Rule.CONWAY );
+    }
+
+    /**
+     * Instantiates a new, empty universe that follows the given rule.
+     *
+     * @param rule  the given rule
+     *
+     * @throws IllegalArgumentException if the given rule is null,
+     *         or causes cells with no live neighbors to be born
+     */
+    public SparseUniverse( Rule rule )
+        throws IllegalArgumentException
+    {
+        if ( rule == null || rule.isBorn( 0 ) )
+            throw new IllegalArgumentException( "unsupported rule: " + rule );
+        this.rule = rule;
+    }
+
+    /**
+     * Gets the rule followed by the universe.
+     *
+     * @return the rule followed by the universe
+     */
+    public Rule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Gets the state of the cell at the given position.
+     *
+     * @param row   the row of the given position
+     * @param col   the column of the given position
+     *
+     * @return true, if the cell is alive
+     */
+    public boolean get( long row, long col )
+    {
+        long[]  tile    = tiles.get( key( tileIndex( row ), tileIndex( col ) ) );
+        return tile != null
+            && (tile[tileOffset( row )] & (1L << tileOffset( col ))) != 0;
+    }
+
+    /**
+     * Sets the state of the cell at the given position.
+     *
+     * @param row   the row of the given position
+     * @param col   the column of the given position
+     * @param alive true to make the cell alive, false to make it dead
+     */
+    public void set( long row, long col, boolean alive )
+    {
+        long    mask    = 1L << tileOffset( col );
+        writeBits( row, tileIndex( col ), alive ? mask : 0, mask );
+    }
+
+    /**
+     * Marks every cell in the universe dead,
+     * and resets the generation count to 0.
+     */
+    public void clear()
+    {
+        spareTiles.addAll( tiles.values() );
+        tiles.clear();
+        trimSpareTiles();
+        generation = 0;
+    }
+
+    /**
+     * Replaces the current generation with the next generation.
+     * Only live tiles, and neighboring tiles that border on a live cell,
+     * are computed.
+     */
+    public void step()
+    {
+        nextTiles.clear();
+        visited.clear();
+        for ( Map.Entry<Long, long[]> entry : tiles.entrySet() )
+        {
+            long    key     = entry.getKey();
+            long[]  tile    = entry.getValue();
+            int     tileRow = (int)(key >> 32);
+            int     tileCol = (int)key;
+            computeTile( tileRow, tileCol );
+
+            long    cols    = 0;
+            for ( long word : tile )
+                cols |= word;
+            boolean north   = tile[0] != 0;
+            boolean south   = tile[TILE_SIDE - 1] != 0;
+            boolean west    = (cols & 1) != 0;
+            boolean east    = cols < 0;
+            if ( north )
+                computeTile( tileRow - 1, tileCol );
+            if ( south )
+                computeTile( tileRow + 1, tileCol );
+            if ( west )
+                computeTile( tileRow, tileCol - 1 );
+            if ( east )
+                computeTile( tileRow, tileCol + 1 );
+            if ( (tile[0] & 1) != 0 )
+                computeTile( tileRow - 1, tileCol - 1 );
+            if ( tile[0] < 0 )
+                computeTile( tileRow - 1, tileCol + 1 );
+            if ( (tile[TILE_SIDE - 1] & 1) != 0 )
+                computeTile( tileRow + 1, tileCol - 1 );
+            if ( tile[TILE_SIDE - 1] < 0 )
+                computeTile( tileRow + 1, tileCol + 1 );
+        }
+
+        spareTiles.addAll( tiles.values() );
+        tiles.clear();
+        Map<Long, long[]>   temp    = tiles;
+        tiles = nextTiles;
+        nextTiles = temp;
+        trimSpareTiles();
+        ++generation;
+    }
+
+    /**
+     * Discards released tiles in excess of the number that
+     * the next generation can be expected to need: one for each
+     * live tile, plus {@link #MIN_SPARE_TILES}. The pool therefore
+     * shrinks with the universe, and does not keep the memory
+     * of its largest generation.
+     */
+    private void trimSpareTiles()
+    {
+        int     limit   = tiles.size() + MIN_SPARE_TILES;
+        while ( spareTiles.size() > limit )
+            spareTiles.pop();
+    }
+
+    /**
+     * Copies the rectangular region of the universe with the dimensions
+     * of the given grid, and whose upper-left corner is at the given
+     * position, into the given grid.
+     *
+     * @param grid      the given grid
+     * @param originRow the row of the upper-left corner of the region
+     * @param originCol the column of the upper-left corner of the region
+     */
+    public void copyTo( BitGrid grid, long originRow, long originCol )
+    {
+        long[]  words   = grid.getWords();
+        int     stride  = grid.getWordsPerRow();
+        long    mask    = grid.getLastWordMask();
+        int     shift   = tileOffset( originCol );
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            long    uRow    = originRow + row;
+            int     base    = grid.rowOffset( row );
+            int     tileCol = tileIndex( originCol );
+            long    lower   = readWord( uRow, tileCol );
+            for ( int word = 0 ; word < stride ; ++word )
+            {
+                long    upper   = readWord( uRow, tileCol + word + 1 );
+                long    bits    = shift == 0
+                    ? lower
+                    : (lower >>> shift) | (upper << (TILE_SIDE - shift));
+                words[base + word] = bits;
+                lower = upper;
+            }
+            words[base + stride - 1] &= mask;
+        }
+    }
+
+    /**
+     * Replaces the rectangular region of the universe with the dimensions
+     * of the given grid, and whose upper-left corner is at the given
+     * position, with the state of the given grid.
+     *
+     * @param grid      the given grid
+     * @param originRow the row of the upper-left corner of the region
+     * @param originCol the column of the upper-left corner of the region
+     */
+    public void copyFrom( BitGrid grid, long originRow, long originCol )
+    {
+        long[]  words   = grid.getWords();
+        int     stride  = grid.getWordsPerRow();
+        int     shift   = tileOffset( originCol );
+        for ( int row = 0 ; row < grid.getRows() ; ++row )
+        {
+            long    uRow    = originRow + row;
+            int     base    = grid.rowOffset( row );
+            int     tileCol = tileIndex( originCol );
+            for ( int word = 0 ; word < stride ; ++word )
+            {
+                long    bits    = words[base + word];
+                long    mask    =
+                    word == stride - 1 ? grid.getLastWordMask() : -1L;
+                writeBits( uRow, tileCol + word, bits << shift, mask << shift );
+                if ( shift != 0 )
+                    writeBits(
+                        uRow,
+                        tileCol + word + 1,
+                        bits >>> (TILE_SIDE - shift),
+                        mask >>> (TILE_SIDE - shift)
+                    );
+            }
+        }
+    }
+
+    /**
+     * Gets the number of generations computed since the
+     * universe was cleared.
+     *
+     * @return the number of generations computed
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Counts the number of live cells in the universe.
+     *
+     * @return the number of live cells in the universe
+     */
+    public long getPopulation()
+    {
+        long    count   = 0;
+        for ( long[] tile : tiles.values() )
+            for ( long word : tile )
+                count += Long.bitCount( word );
+        return count;
+    }
+
+    /**
+     * Gets the number of tiles currently allocated.
+     *
+     * @return the number of tiles currently allocated
+     */
+    public int getTileCount()
+    {
+        return tiles.size();
+    }
+
+    /**
+     * Gets the number of released tiles available for reuse.
+     *
+     * @return the number of released tiles available for reuse
+     */
+    int getSpareTileCount()
+    {
+        return spareTiles.size();
+    }
+
+    /**
+     * Computes the next generation of the tile at the given
+     * tile position, if it has not already been computed,
+     * and stores it in the next generation if it has any live cells.
+     *
+     * @param tileRow   the tile row of the given tile
+     * @param tileCol   the tile column of the given tile
+     */
+    private void computeTile( int tileRow, int tileCol )
+    {
+        long    key     = key( tileRow, tileCol );
+        if ( !visited.add( key ) )
+            return;
+
+        long[]  center  = getTile( tileRow, tileCol );
+        long[]  north   = getTile( tileRow - 1, tileCol );
+        long[]  south   = getTile( tileRow + 1, tileCol );
+        long[]  west    = getTile( tileRow, tileCol - 1 );
+        long[]  east    = getTile( tileRow, tileCol + 1 );
+        long[]  nWest   = getTile( tileRow - 1, tileCol - 1 );
+        long[]  nEast   = getTile( tileRow - 1, tileCol + 1 );
+        long[]  sWest   = getTile( tileRow + 1, tileCol - 1 );
+        long[]  sEast   = getTile( tileRow + 1, tileCol + 1 );
+
+        long[]  result  = spareTiles.isEmpty() ? new long[TILE_SIDE] : spareTiles.pop();
+        long    live    = 0;
+        int     last    = TILE_SIDE - 1;
+        for ( int row = 0 ; row < TILE_SIDE ; ++row )
+        {
+            boolean top     = row == 0;
+            boolean bottom  = row == last;
+            long    word    = BitSliceEngine.evolve(
+                rule,
+                top ? nWest[last] : west[row - 1],
+                top ? north[last] : center[row - 1],
+                top ? nEast[last] : east[row - 1],
+                west[row],
+                center[row],
+                east[row],
+                bottom ? sWest[0] : west[row + 1],
+                bottom ? south[0] : center[row + 1],
+                bottom ? sEast[0] : east[row + 1]
+            );
+            result[row] = word;
+            live |= word;
+        }
+
+        if ( live != 0 )
+            nextTiles.put( key, result );
+        else
+            spareTiles.push( result );
+    }
+
+    /**
+     * Gets the tile at the given tile position in the current generation.
+     *
+     * @param tileRow   the tile row of the given tile
+     * @param tileCol   the tile column of the given tile
+     *
+     * @return the given tile; an empty tile if the given tile
+     *         is not allocated
+     */
+    private long[] getTile( int tileRow, int tileCol )
+    {
+        long[]  tile    = tiles.get( key( tileRow, tileCol ) );
+        return tile == null ? EMPTY_TILE : tile;
+    }
+
+    /**
+     * Gets the word holding the given universe row
+     * of the tile in the given tile column.
+     *
+     * @param row       the given row
+     * @param tileCol   the given tile column
+     *
+     * @return the word holding the given row
+     */
+    private long readWord( long row, int tileCol )
+    {
+        long[]  tile    = tiles.get( key( tileIndex( row ), tileCol ) );
+        return tile == null ? 0 : tile[tileOffset( row )];
+    }
+
+    /**
+     * Replaces selected bits of the word holding the given universe row
+     * of the tile in the given tile column. The tile is allocated
+     * if necessary, and released if it becomes empty.
+     *
+     * @param row       the given row
+     * @param tileCol   the given tile column
+     * @param bits      the new values of the selected bits
+     * @param mask      selects the bits to replace
+     */
+    private void writeBits( long row, int tileCol, long bits, long mask )
+    {
+        long    key     = key( tileIndex( row ), tileCol );
+        long[]  tile    = tiles.get( key );
+        if ( tile == null )
+        {
+            if ( (bits & mask) == 0 )
+                return;
+            tile = spareTiles.isEmpty() ? new long[TILE_SIDE] : spareTiles.pop();
+            Arrays.fill( tile, 0 );
+            tiles.put( key, tile );
+        }
+
+        int     offset  = tileOffset( row );
+        tile[offset] = (tile[offset] & ~mask) | (bits & mask);
+        if ( tile[offset] == 0 && isEmpty( tile ) )
+        {
+            tiles.remove( key );
+            spareTiles.push( tile );
+        }
+    }
+
+    /**
+     * Determines whether every cell of the given tile is dead.
+     *
+     * @param tile  the given tile
+     *
+     * @return true, if every cell of the given tile is dead
+     */
+    private static boolean isEmpty( long[] tile )
+    {
+        long    live    = 0;
+        for ( long word : tile )
+            live |= word;
+        return live == 0;
+    }
+
+    /**
+     * Gets the index of the tile containing the given
+     * universe row or column.
+     *
+     * @param coord the given universe row or column
+     *
+     * @return the index of the tile containing the given row or column
+     */
+    private static int tileIndex( long coord )
+    {
+        return (int)Math.floorDiv( coord, TILE_SIDE );
+    }
+
+    /**
+     * Gets the offset of the given universe row or column
+     * within its tile.
+     *
+     * @param coord the given universe row or column
+     *
+     * @return the offset of the given row or column within its tile
+     */
+    private static int tileOffset( long coord )
+    {
+        return (int)Math.floorMod( coord, (long)TILE_SIDE );
+    }
+
+    /**
+     * Combines the given tile row and column into a key.
+     *
+     * @param tileRow   the given tile row
+     * @param tileCol   the given tile column
+     *
+     * @return the key
+     */
+    private static long key( int tileRow, int tileCol )
+    {
+        return ((long)tileRow << 32) | (tileCol & 0xFFFFFFFFL);
+    }
+}
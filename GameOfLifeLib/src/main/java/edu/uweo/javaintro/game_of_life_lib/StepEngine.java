@@ -0,0 +1,146 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+/**
+ * A step engine computes the next generation of a Game of Life grid
+ * from the current generation. The original rules, as specified by Conway,
+ * are:
+ * <ol>
+ * <li>Any live cell with fewer than two live neighbors dies.</li>
+ * <li>Any live cell with two or three live neighbors lives on.</li>
+ * <li>Any live cell with more than three live neighbors dies.</li>
+ * <li>Any dead cell with exactly three live neighbors becomes alive.</li>
+ * </ol>
+ * Engines may also apply other Life-like rules;
+ * see {@link Rule}.
+ * If the grid is finite, any cell outside the bounds of the grid
+ * is considered dead; if the grid is a torus, the cells
+ * on opposite edges of the grid are neighbors.
+ *
+ * @see BitGrid
+ * @see Topology
+ * @see Rule
+ */
+public interface StepEngine
+{
+    /**
+     * Computes the generation following <em>current</em>
+     * and stores it in <em>next</em>. The state of <em>current</em>
+     * is not changed. The two grids must be distinct objects
+     * with identical dimensions.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     *
+     * @throws IllegalArgumentException if the given grids are
+     *         the same object, or if their dimensions differ
+     */
+    void step( BitGrid current, BitGrid next )
+        throws IllegalArgumentException;
+    
+    /**
+     * Computes the generation that follows <em>current</em>
+     * by the given number of generations, and stores it
+     * in <em>next</em>. The result is identical to that of
+     * the given number of calls to {@link #step(BitGrid, BitGrid)}.
+     * Unless the engine documents otherwise, <em>current</em>
+     * is used as a work area, and its state afterward is unspecified.
+     * Engines that can compute several generations per pass
+     * over the grid override this method.
+     * <p>
+     * The default implementation steps the grids alternately,
+     * as a Board does. After an odd number of steps the last
+     * generation is then in <em>next</em>; for an even number,
+     * <em>current</em> is first copied into <em>next</em>,
+     * and the steps begin there.
+     *
+     * @param current       the current generation
+     * @param next          grid to receive the later generation
+     * @param generations   the given number of generations
+     *
+     * @throws IllegalArgumentException if the given grids are
+     *         the same object, or if their dimensions differ,
+     *         or if the number of generations is negative
+     */
+    default void step( BitGrid current, BitGrid next, int generations )
+        throws IllegalArgumentException
+    {
+        BitGrid.validatePair( current, next );
+        if ( generations < 0 )
+            throw new IllegalArgumentException( "generations = " + generations );
+        
+        BitGrid from    = current;
+        BitGrid to      = next;
+        if ( generations % 2 == 0 )
+        {
+            next.copyFrom( current );
+            from = next;
+            to = current;
+        }
+        for ( int count = 0 ; count < generations ; ++count )
+        {
+            step( from, to );
+            BitGrid temp    = from;
+            from = to;
+            to = temp;
+        }
+    }
+    
+    /**
+     * Notifies this engine that the cell at the given position
+     * of the grid most recently passed to {@link #step(BitGrid, BitGrid)}
+     * as <em>next</em> has been changed by some means other than stepping.
+     * Engines that retain state between generations use this
+     * to keep the state up to date.
+     * The default implementation does nothing.
+     *
+     * @param row   the row of the changed cell
+     * @param col   the column of the changed cell
+     */
+    default void cellChanged( int row, int col )
+    {
+    }
+    
+    /**
+     * Notifies this engine that any number of cells
+     * may have been changed by some means other than stepping.
+     * Engines that retain state between generations
+     * must discard that state.
+     * The default implementation does nothing.
+     */
+    default void invalidate()
+    {
+    }
+    
+    /**
+     * Determines whether the most recent call to
+     * {@link #step(BitGrid, BitGrid)} may have made any of the given
+     * words of the given rows of <em>next</em> differ from the same
+     * words of <em>current</em>. Callers that compare the generations
+     * use this to skip the parts of the grid known to be unchanged.
+     * The default implementation returns true.
+     *
+     * @param fromRow   the first of the given rows
+     * @param toRow     the row following the last of the given rows
+     * @param fromWord  the first of the given word columns
+     * @param toWord    the word column following the last
+     *                  of the given word columns
+     *
+     * @return false if none of the given words can have changed;
+     *         true otherwise
+     */
+    default boolean mayHaveChanged( int fromRow, int toRow, int fromWord, int toWord )
+    {
+        return true;
+    }
+    
+    /**
+     * Gets the rule applied by this engine.
+     * The default implementation returns the Game of Life.
+     *
+     * @return the rule applied by this engine
+     */
+    default Rule getRule()
+    {
+        return Rule.CONWAY;
+    }
+}
@@ -0,0 +1,59 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Starts the workers of a {@link DistributedSimulation},
+ * and connects the coordinator to them. Each call to
+ * {@link #open()} starts one worker, which must run
+ * {@link DistributedWorker#serve(InputStream, OutputStream)}
+ * on the far end of the returned link.
+ *
+ * @see SocketTransport
+ * @see DistributedSimulation
+ */
+public interface Transport
+{
+    /**
+     * Starts a new worker, and connects to it.
+     *
+     * @return a link to the new worker
+     *
+     * @throws IOException if the worker cannot be started
+     *         or connected to
+     */
+    Link open()
+        throws IOException;
+
+    /**
+     * A connection from the coordinator to a single worker.
+     */
+    interface Link extends AutoCloseable
+    {
+        /**
+         * Gets the stream from which the worker's replies are read.
+         *
+         * @return the stream from which the worker's replies are read
+         */
+        InputStream getInputStream();
+
+        /**
+         * Gets the stream to which commands are written to the worker.
+         *
+         * @return the stream to which commands are written to the worker
+         */
+        OutputStream getOutputStream();
+
+        /**
+         * Closes the connection, and releases any resources
+         * held by the worker, such as its process.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        void close()
+            throws IOException;
+    }
+}
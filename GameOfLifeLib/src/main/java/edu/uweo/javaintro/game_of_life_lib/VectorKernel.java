@@ -0,0 +1,283 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of the VectorEngine using the Vector API.
+ * This class is kept separate from VectorEngine so that it is
+ * only loaded if the <em>jdk.incubator.vector</em> module is available.
+ *
+ * @see VectorEngine
+ */
+class VectorKernel
+{
+    /** The preferred vector shape for long words on this platform. */
+    static final VectorSpecies<Long>    SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /** The rule applied by this kernel. */
+    private final Rule          rule;
+
+    /**
+     * The terms of the rule's sum of products;
+     * null if the rule is the Game of Life, which is evaluated directly.
+     *
+     * @see Rule#getTerms()
+     */
+    private final long[]        terms;
+
+    /**
+     * Instantiates a new kernel that applies the given rule.
+     *
+     * @param rule  the given rule
+     */
+    VectorKernel( Rule rule )
+    {
+        this.rule = rule;
+        terms = rule.isLife() ? null : rule.getTerms();
+    }
+
+    /**
+     * Computes the next generation for a band of rows.
+     * Each row is processed a vector at a time;
+     * words that do not fill a vector, and the last word
+     * of each row, which must be masked, are processed
+     * with scalar code. The caller is responsible for bracketing
+     * the computation with calls to <em>current.fillGhosts()</em>
+     * and <em>current.clearGhosts()</em>.
+     *
+     * @param current   the current generation
+     * @param next      grid to receive the next generation
+     * @param fromRow   the first row of the band
+     * @param toRow     the row following the last row of the band
+     */
+    void stepRows( BitGrid current, BitGrid next, int fromRow, int toRow )
+    {
+        long[]  src         = current.getWords();
+        long[]  dst         = next.getWords();
+        int     stride      = current.getStride();
+        int     lastWord    = current.getWordsPerRow() - 1;
+        long    lastMask    = current.getLastWordMask();
+
+        for ( int row = fromRow ; row < toRow ; ++row )
+        {
+            int     mid     = current.rowOffset( row );
+            int     up      = mid - stride;
+            int     down    = mid + stride;
+            int     word    = vectors( terms, src, dst, up, mid, down, lastWord );
+            for ( ; word <= lastWord ; ++word )
+            {
+                long    result  = BitSliceEngine.evolve(
+                    rule,
+                    src[up + word - 1], src[up + word], src[up + word + 1],
+                    src[mid + word - 1], src[mid + word], src[mid + word + 1],
+                    src[down + word - 1], src[down + word], src[down + word + 1]
+                );
+                if ( word == lastWord )
+                    result &= lastMask;
+                dst[mid + word] = result;
+            }
+        }
+    }
+
+    /**
+     * Computes the next generation for the vectors of a row.
+     * The ghost words make the unaligned loads of the
+     * west and east neighbors safe at either end of the row.
+     *
+     * @param terms     the terms of the rule's sum of products;
+     *                  null for the Game of Life
+     * @param src       the words of the current generation
+     * @param dst       the words of the next generation
+     * @param up        the offset of the row above
+     * @param mid       the offset of the row
+     * @param down      the offset of the row below
+     * @param lastWord  the index of the last word of the row
+     *
+     * @return the index of the first word not computed
+     */
+    private static int vectors(
+        long[] terms,
+        long[] src, long[] dst, int up, int mid, int down, int lastWord
+    )
+    {
+        int     lanes   = SPECIES.length();
+        int     word    = 0;
+        for ( ; word + lanes <= lastWord ; word += lanes )
+        {
+            LongVector  result  = evolve(
+                terms,
+                LongVector.fromArray( SPECIES, src, up + word - 1 ),
+                LongVector.fromArray( SPECIES, src, up + word ),
+                LongVector.fromArray( SPECIES, src, up + word + 1 ),
+                LongVector.fromArray( SPECIES, src, mid + word - 1 ),
+                LongVector.fromArray( SPECIES, src, mid + word ),
+                LongVector.fromArray( SPECIES, src, mid + word + 1 ),
+                LongVector.fromArray( SPECIES, src, down + word - 1 ),
+                LongVector.fromArray( SPECIES, src, down + word ),
+                LongVector.fromArray( SPECIES, src, down + word + 1 )
+            );
+            result.intoArray( dst, mid + word );
+        }
+        return word;
+    }
+
+    /**
+     * Computes the next state of the cells in a vector of words.
+     * This is a lane-wise transcription of
+     * {@link BitSliceEngine#evolve(Rule, long, long, long, long, long, long, long, long, long)}:
+     * an adder network counts the neighbors of each cell
+     * as four bit slices, to which the rule is applied.
+     *
+     * @param terms     the terms of the rule's sum of products;
+     *                  null for the Game of Life
+     * @param upPrev    words west of the words in the row above
+     * @param up        words in the row above
+     * @param upNext    words east of the words in the row above
+     * @param midPrev   words west of the given words
+     * @param mid       the given words
+     * @param midNext   words east of the given words
+     * @param downPrev  words west of the words in the row below
+     * @param down      words in the row below
+     * @param downNext  words east of the words in the row below
+     *
+     * @return the next state of the cells in the given words
+     */
+    private static LongVector evolve(
+        long[] terms,
+        LongVector upPrev, LongVector up, LongVector upNext,
+        LongVector midPrev, LongVector mid, LongVector midNext,
+        LongVector downPrev, LongVector down, LongVector downNext
+    )
+    {
+        LongVector  nWest   = west( up, upPrev );
+        LongVector  nEast   = east( up, upNext );
+        LongVector  west    = west( mid, midPrev );
+        LongVector  east    = east( mid, midNext );
+        LongVector  sWest   = west( down, downPrev );
+        LongVector  sEast   = east( down, downNext );
+
+        // Row above: full adder.
+        LongVector  sumUp   = nWest.lanewise( VectorOperators.XOR, up )
+            .lanewise( VectorOperators.XOR, nEast );
+        LongVector  carUp   = majority( nWest, up, nEast );
+        // Same row: half adder.
+        LongVector  sumMid  = west.lanewise( VectorOperators.XOR, east );
+        LongVector  carMid  = west.and( east );
+        // Row below: full adder.
+        LongVector  sumDown = sWest.lanewise( VectorOperators.XOR, down )
+            .lanewise( VectorOperators.XOR, sEast );
+        LongVector  carDown = majority( sWest, down, sEast );
+
+        // Bit 0 of the count; carries have weight 2.
+        LongVector  ones    = sumUp.lanewise( VectorOperators.XOR, sumMid )
+            .lanewise( VectorOperators.XOR, sumDown );
+        LongVector  carOnes = majority( sumUp, sumMid, sumDown );
+
+        // Bit 1 of the count; carries have weight 4.
+        LongVector  partial = carUp.lanewise( VectorOperators.XOR, carMid )
+            .lanewise( VectorOperators.XOR, carDown );
+        LongVector  carPart = majority( carUp, carMid, carDown );
+        LongVector  twos    = partial.lanewise( VectorOperators.XOR, carOnes );
+        LongVector  carTwos = partial.and( carOnes );
+
+        // Bits 2 and 3 of the count.
+        LongVector  fours   = carPart.lanewise( VectorOperators.XOR, carTwos );
+        LongVector  eights  = carPart.and( carTwos );
+
+        LongVector  result;
+        if ( terms == null )
+        {
+            // Alive next generation if count == 3, or count == 2 and alive.
+            result = twos
+                .lanewise( VectorOperators.AND_NOT, fours.or( eights ) )
+                .and( ones.or( mid ) );
+        }
+        else
+            result = apply( terms, ones, twos, fours, eights, mid );
+        return result;
+    }
+
+    /**
+     * Computes the next state of the cells in a vector of words
+     * under the given rule, given their neighbor counts
+     * as four bit slices. This is a lane-wise transcription of
+     * {@link Rule#apply(long, long, long, long, long)}.
+     *
+     * @param terms     the terms of the rule's sum of products
+     * @param ones      bit 0 of the neighbor counts
+     * @param twos      bit 1 of the neighbor counts
+     * @param fours     bit 2 of the neighbor counts
+     * @param eights    bit 3 of the neighbor counts
+     * @param alive     the current state of the cells
+     *
+     * @return the next state of the cells
+     */
+    private static LongVector apply(
+        long[] terms,
+        LongVector ones, LongVector twos, LongVector fours,
+        LongVector eights, LongVector alive
+    )
+    {
+        LongVector  dead    = alive.not();
+        LongVector  result  = LongVector.zero( SPECIES );
+        for ( int inx = 0 ; inx < terms.length ; inx += Rule.TERM_LONGS )
+        {
+            LongVector  match   = ones.lanewise( VectorOperators.XOR, terms[inx] )
+                .and( twos.lanewise( VectorOperators.XOR, terms[inx + 1] ) )
+                .and( fours.lanewise( VectorOperators.XOR, terms[inx + 2] ) )
+                .and( eights.lanewise( VectorOperators.XOR, terms[inx + 3] ) );
+            LongVector  select  = dead.and( terms[inx + 4] )
+                .or( alive.and( terms[inx + 5] ) );
+            result = result.or( match.and( select ) );
+        }
+        return result;
+    }
+
+    /**
+     * Computes the west neighbors of a vector of words.
+     *
+     * @param words the vector of words
+     * @param prev  the words west of the vector of words
+     *
+     * @return the west neighbors of the given words
+     */
+    private static LongVector west( LongVector words, LongVector prev )
+    {
+        return words.lanewise( VectorOperators.LSHL, 1 )
+            .or( prev.lanewise( VectorOperators.LSHR, 63 ) );
+    }
+
+    /**
+     * Computes the east neighbors of a vector of words.
+     *
+     * @param words the vector of words
+     * @param next  the words east of the vector of words
+     *
+     * @return the east neighbors of the given words
+     */
+    private static LongVector east( LongVector words, LongVector next )
+    {
+        return words.lanewise( VectorOperators.LSHR, 1 )
+            .or( next.lanewise( VectorOperators.LSHL, 63 ) );
+    }
+
+    /**
+     * Computes the carry of a full adder; each bit is set
+     * if at least two of the corresponding input bits are set.
+     *
+     * @param first   the first input
+     * @param second  the second input
+     * @param third   the third input
+     *
+     * @return the carry of the sum of the inputs
+     */
+    private static LongVector majority(
+        LongVector first, LongVector second, LongVector third
+    )
+    {
+        return first.and( second )
+            .or( third.and( first.lanewise( VectorOperators.XOR, second ) ) );
+    }
+}
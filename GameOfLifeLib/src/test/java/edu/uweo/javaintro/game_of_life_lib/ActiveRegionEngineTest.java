@@ -0,0 +1,162 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ActiveRegionEngineTest
+{
+    @Test
+    public void testMatchesSerial()
+    {
+        Random              random  = new Random( 5 );
+        StepEngine          serial  = new BitSliceEngine();
+        ActiveRegionEngine  engine  = new ActiveRegionEngine();
+        int                 rows    = 300;
+        int                 cols    = 250;
+
+        // A sparse soup in one corner, empty elsewhere.
+        BitGrid     expCurr = new BitGrid( rows, cols );
+        for ( int row = 0 ; row < 80 ; ++row )
+            for ( int col = 0 ; col < 80 ; ++col )
+                expCurr.set( row, col, random.nextInt( 3 ) == 0 );
+        BitGrid     expNext = new BitGrid( rows, cols );
+        BitGrid     actCurr = new BitGrid( expCurr );
+        BitGrid     actNext = new BitGrid( rows, cols );
+
+        for ( int gen = 0 ; gen < 200 ; ++gen )
+        {
+            // Occasionally make a change between steps.
+            if ( gen % 37 == 0 )
+            {
+                int     row     = random.nextInt( rows );
+                int     col     = random.nextInt( cols );
+                boolean alive   = !actCurr.get( row, col );
+                expCurr.set( row, col, alive );
+                actCurr.set( row, col, alive );
+                engine.cellChanged( row, col );
+            }
+
+            serial.step( expCurr, expNext );
+            engine.step( actCurr, actNext );
+            assertEquals( expNext, actNext, "generation " + gen );
+
+            BitGrid temp    = expCurr;
+            expCurr = expNext;
+            expNext = temp;
+            temp = actCurr;
+            actCurr = actNext;
+            actNext = temp;
+        }
+    }
+
+    @Test
+    public void testMayHaveChanged()
+    {
+        ActiveRegionEngine  engine  = new ActiveRegionEngine();
+        BitGrid             curr    = new BitGrid( 256, 256 );
+        BitGrid             next    = new BitGrid( 256, 256 );
+        assertTrue( engine.mayHaveChanged( 0, 256, 0, 4 ) );
+
+        // Block
+        curr.set( 100, 100, true );
+        curr.set( 100, 101, true );
+        curr.set( 101, 100, true );
+        curr.set( 101, 101, true );
+        engine.step( curr, next );
+        engine.step( next, curr );
+        assertFalse( engine.mayHaveChanged( 0, 256, 0, 4 ) );
+
+        curr.set( 10, 10, true );
+        engine.cellChanged( 10, 10 );
+        engine.step( curr, next );
+        assertTrue( engine.mayHaveChanged( 0, 256, 0, 4 ) );
+        assertTrue( engine.mayHaveChanged( 63, 64, 0, 1 ) );
+        assertFalse( engine.mayHaveChanged( 64, 256, 0, 4 ) );
+        assertFalse( engine.mayHaveChanged( 0, 64, 1, 4 ) );
+    }
+
+    @Test
+    public void testStillLife()
+    {
+        ActiveRegionEngine  engine  = new ActiveRegionEngine();
+        BitGrid             curr    = new BitGrid( 256, 256 );
+        BitGrid             next    = new BitGrid( 256, 256 );
+
+        // Block
+        curr.set( 100, 100, true );
+        curr.set( 100, 101, true );
+        curr.set( 101, 100, true );
+        curr.set( 101, 101, true );
+
+        engine.step( curr, next );
+        assertEquals( 16, engine.getComputedTiles() );
+        engine.step( next, curr );
+        assertEquals( 0, engine.getComputedTiles() );
+        assertEquals( 4, curr.getPopulation() );
+
+        // Waking a single tile recomputes it and its neighbors only.
+        curr.set( 10, 10, true );
+        engine.cellChanged( 10, 10 );
+        engine.step( curr, next );
+        assertEquals( 4, engine.getComputedTiles() );
+        assertFalse( next.get( 10, 10 ) );
+        assertEquals( 4, next.getPopulation() );
+
+        // Grids that are not the previous pair are fully recomputed.
+        BitGrid             other   = new BitGrid( 256, 256 );
+        engine.step( next, other );
+        assertEquals( 16, engine.getComputedTiles() );
+        assertEquals( next, other );
+
+        engine.invalidate();
+        engine.step( other, next );
+        assertEquals( 16, engine.getComputedTiles() );
+    }
+
+    @Test
+    public void testTorus()
+    {
+        StepEngine          serial  = new BitSliceEngine();
+        ActiveRegionEngine  engine  = new ActiveRegionEngine();
+        int                 rows    = 150;
+        int                 cols    = 200;
+
+        // A glider heading for the corner, where it wraps in both directions.
+        BitGrid     expCurr = new BitGrid( rows, cols, Topology.TORUS );
+        int[][]     glider  = { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+        for ( int[] cell : glider )
+            expCurr.set( rows - 10 + cell[0], cols - 10 + cell[1], true );
+        BitGrid     expNext = new BitGrid( rows, cols, Topology.TORUS );
+        BitGrid     actCurr = new BitGrid( expCurr );
+        BitGrid     actNext = new BitGrid( rows, cols, Topology.TORUS );
+
+        for ( int gen = 0 ; gen < 200 ; ++gen )
+        {
+            serial.step( expCurr, expNext );
+            engine.step( actCurr, actNext );
+            assertEquals( expNext, actNext, "generation " + gen );
+
+            BitGrid temp    = expCurr;
+            expCurr = expNext;
+            expNext = temp;
+            temp = actCurr;
+            actCurr = actNext;
+            actNext = temp;
+        }
+        assertEquals( 5, actCurr.getPopulation() );
+
+        // A corner tile has eight neighbors on a torus.
+        BitGrid     curr    = new BitGrid( 256, 256, Topology.TORUS );
+        BitGrid     next    = new BitGrid( 256, 256, Topology.TORUS );
+        engine.step( curr, next );
+        engine.step( next, curr );
+        assertEquals( 0, engine.getComputedTiles() );
+        curr.set( 0, 0, true );
+        engine.cellChanged( 0, 0 );
+        engine.step( curr, next );
+        assertEquals( 9, engine.getComputedTiles() );
+    }
+}
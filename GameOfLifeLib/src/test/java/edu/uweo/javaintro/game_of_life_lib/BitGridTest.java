@@ -0,0 +1,159 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BitGridTest
+{
+    @Test
+    public void testBitGridIntInt()
+    {
+        int     rows    = 7;
+        int     cols    = 130;
+        BitGrid grid    = new BitGrid( rows, cols );
+        assertEquals( rows, grid.getRows() );
+        assertEquals( cols, grid.getCols() );
+        assertEquals( 3, grid.getWordsPerRow() );
+        assertEquals( 0, grid.getPopulation() );
+    }
+
+    @Test
+    public void testBitGridGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        assertThrows( clazz, () -> new BitGrid( 0, 10 ) );
+        assertThrows( clazz, () -> new BitGrid( 10, 0 ) );
+    }
+
+    @Test
+    public void testGetSet()
+    {
+        int     side    = 100;
+        BitGrid grid    = new BitGrid( side, side );
+        for ( int inx = 0 ; inx < side ; ++inx )
+            grid.set( inx, side - inx - 1, true );
+        for ( int row = 0 ; row < side ; ++row )
+            for ( int col = 0 ; col < side ; ++col )
+                assertEquals( row + col == side - 1, grid.get( row, col ) );
+        assertEquals( side, grid.getPopulation() );
+
+        grid.set( 0, side - 1, false );
+        assertFalse( grid.get( 0, side - 1 ) );
+        assertEquals( side - 1, grid.getPopulation() );
+    }
+
+    @Test
+    public void testGetSetGoWrong()
+    {
+        Class<IndexOutOfBoundsException>    clazz   =
+            IndexOutOfBoundsException.class;
+        BitGrid grid    = new BitGrid( 10, 20 );
+        assertThrows( clazz, () -> grid.get( 10, 0 ) );
+        assertThrows( clazz, () -> grid.get( 0, 20 ) );
+        assertThrows( clazz, () -> grid.set( -1, 0, true ) );
+        assertThrows( clazz, () -> grid.set( 0, -1, true ) );
+    }
+
+    @Test
+    public void testToArraySetCells()
+    {
+        boolean[][] exp     = randomArray( 70, 150, new Random( 1 ) );
+        BitGrid     grid    = new BitGrid( exp );
+        boolean[][] act     = grid.toArray();
+        assertEquals( exp.length, act.length );
+        for ( int row = 0 ; row < exp.length ; ++row )
+            assertArrayEquals( exp[row], act[row] );
+
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        assertThrows( clazz, () -> grid.setCells( new boolean[71][150] ) );
+        assertThrows( clazz, () -> grid.setCells( new boolean[70][149] ) );
+    }
+
+    @Test
+    public void testCopyEquals()
+    {
+        BitGrid grid    = new BitGrid( randomArray( 30, 65, new Random( 2 ) ) );
+        BitGrid copy    = new BitGrid( grid );
+        assertEquals( grid, copy );
+        assertEquals( grid.hashCode(), copy.hashCode() );
+
+        copy.set( 29, 64, !copy.get( 29, 64 ) );
+        assertNotEquals( grid, copy );
+
+        copy.copyFrom( grid );
+        assertEquals( grid, copy );
+
+        copy.clear();
+        assertEquals( 0, copy.getPopulation() );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> copy.copyFrom( new BitGrid( 30, 64 ) )
+        );
+    }
+
+    @Test
+    public void testTopology()
+    {
+        BitGrid finite  = new BitGrid( 5, 70 );
+        BitGrid torus   = new BitGrid( 5, 70, Topology.TORUS );
+        assertEquals( Topology.FINITE, finite.getTopology() );
+        assertEquals( Topology.TORUS, torus.getTopology() );
+        assertNotEquals( finite, torus );
+        assertEquals( Topology.TORUS, new BitGrid( torus ).getTopology() );
+
+        // Ghost cells do not leak into the state of the grid.
+        torus.set( 0, 0, true );
+        torus.set( 4, 69, true );
+        BitGrid copy    = new BitGrid( torus );
+        torus.fillGhosts();
+        torus.clearGhosts();
+        assertEquals( copy, torus );
+        assertEquals( 2, torus.getPopulation() );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new BitGrid( 5, 5, null )
+        );
+    }
+
+    @Test
+    public void testCopyFromOffset()
+    {
+        boolean[][] source  = randomArray( 40, 150, new Random( 3 ) );
+        int[][]     offsets = { { 0, 0 }, { 5, 7 }, { -3, -70 }, { 20, 100 }, { -1, 63 } };
+        for ( int[] offset : offsets )
+        {
+            boolean[][] exp     = randomArray( 50, 130, new Random( 4 ) );
+            BitGrid     grid    = new BitGrid( exp );
+            grid.copyFrom( new BitGrid( source ), offset[0], offset[1] );
+            for ( int row = 0 ; row < 40 ; ++row )
+                for ( int col = 0 ; col < 150 ; ++col )
+                {
+                    int dRow    = row + offset[0];
+                    int dCol    = col + offset[1];
+                    if ( dRow >= 0 && dRow < 50 && dCol >= 0 && dCol < 130 )
+                        exp[dRow][dCol] = source[row][col];
+                }
+            assertEquals( new BitGrid( exp ), grid );
+        }
+
+        // Entirely outside the grid.
+        BitGrid grid    = new BitGrid( 10, 10 );
+        grid.copyFrom( new BitGrid( source ), 10, 0 );
+        grid.copyFrom( new BitGrid( source ), -40, 0 );
+        grid.copyFrom( new BitGrid( source ), 0, -150 );
+        assertEquals( 0, grid.getPopulation() );
+    }
+
+    static boolean[][] randomArray( int rows, int cols, Random random )
+    {
+        boolean[][] arr = new boolean[rows][cols];
+        for ( int row = 0 ; row < rows ; ++row )
+            for ( int col = 0 ; col < cols ; ++col )
+                arr[row][col] = random.nextInt( 3 ) == 0;
+        return arr;
+    }
+}
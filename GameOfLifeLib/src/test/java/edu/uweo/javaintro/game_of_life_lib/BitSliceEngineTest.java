@@ -0,0 +1,199 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BitSliceEngineTest
+{
+    @Test
+    public void testBlinker()
+    {
+        BitGrid     grid    = new BitGrid( 5, 5 );
+        grid.set( 2, 1, true );
+        grid.set( 2, 2, true );
+        grid.set( 2, 3, true );
+
+        BitGrid     next    = new BitGrid( 5, 5 );
+        StepEngine  engine  = new BitSliceEngine();
+        engine.step( grid, next );
+
+        BitGrid     exp     = new BitGrid( 5, 5 );
+        exp.set( 1, 2, true );
+        exp.set( 2, 2, true );
+        exp.set( 3, 2, true );
+        assertEquals( exp, next );
+
+        engine.step( next, exp );
+        assertEquals( grid, exp );
+    }
+
+    @Test
+    public void testRandom()
+    {
+        Random      random  = new Random( 3 );
+        StepEngine  engine  = new BitSliceEngine();
+        int[][]     sizes   = { {1, 1}, {3, 64}, {64, 65}, {100, 127}, {129, 200} };
+        for ( int[] size : sizes )
+        {
+            boolean[][] cells   = BitGridTest.randomArray( size[0], size[1], random );
+            BitGrid     grid    = new BitGrid( cells );
+            BitGrid     next    = new BitGrid( size[0], size[1] );
+            for ( int gen = 0 ; gen < 10 ; ++gen )
+            {
+                cells = nextState( cells );
+                engine.step( grid, next );
+                assertEquals( new BitGrid( cells ), next, "generation " + gen );
+
+                BitGrid temp    = grid;
+                grid = next;
+                next = temp;
+            }
+        }
+    }
+
+    @Test
+    public void testStepGenerations()
+    {
+        // The default multi-generation step alternates single steps.
+        Random      random  = new Random( 19 );
+        StepEngine  engine  = new BitSliceEngine();
+        BitGrid     initial = new BitGrid( BitGridTest.randomArray( 40, 90, random ) );
+        BitGrid     expCurr = new BitGrid( initial );
+        BitGrid     expNext = new BitGrid( 40, 90 );
+        for ( int generations = 0 ; generations <= 5 ; ++generations )
+        {
+            BitGrid actCurr = new BitGrid( initial );
+            BitGrid actNext = new BitGrid( 40, 90 );
+            engine.step( actCurr, actNext, generations );
+            assertEquals( expCurr, actNext, generations + " generations" );
+
+            engine.step( expCurr, expNext );
+            BitGrid temp    = expCurr;
+            expCurr = expNext;
+            expNext = temp;
+        }
+        BitGrid     grid    = new BitGrid( 40, 90 );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> engine.step( grid, new BitGrid( 40, 90 ), -1 )
+        );
+        assertThrows( IllegalArgumentException.class, () -> engine.step( grid, grid, 2 ) );
+    }
+
+    @Test
+    public void testTorus()
+    {
+        Random      random  = new Random( 6 );
+        StepEngine  engine  = new BitSliceEngine();
+        int[][]     sizes   =
+            { {1, 1}, {2, 3}, {3, 64}, {5, 128}, {64, 65}, {100, 127}, {129, 200} };
+        for ( int[] size : sizes )
+        {
+            boolean[][] cells   = BitGridTest.randomArray( size[0], size[1], random );
+            BitGrid     grid    = torus( cells );
+            BitGrid     next    =
+                new BitGrid( size[0], size[1], Topology.TORUS );
+            for ( int gen = 0 ; gen < 10 ; ++gen )
+            {
+                cells = nextState( cells, Topology.TORUS );
+                engine.step( grid, next );
+                assertEquals( torus( cells ), next, "generation " + gen );
+
+                BitGrid temp    = grid;
+                grid = next;
+                next = temp;
+            }
+        }
+    }
+
+    @Test
+    public void testGliderWraps()
+    {
+        int         side    = 10;
+        BitGrid     grid    = new BitGrid( side, side, Topology.TORUS );
+        int[][]     glider  = { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+        for ( int[] cell : glider )
+            grid.set( cell[0] + 7, cell[1] + 7, true );
+        BitGrid     exp     = new BitGrid( grid );
+
+        // After 4 * side generations the glider is back where it started.
+        StepEngine  engine  = new BitSliceEngine();
+        BitGrid     next    = new BitGrid( side, side, Topology.TORUS );
+        for ( int gen = 0 ; gen < 4 * side ; ++gen )
+        {
+            engine.step( grid, next );
+            BitGrid temp    = grid;
+            grid = next;
+            next = temp;
+        }
+        assertEquals( exp, grid );
+    }
+
+    @Test
+    public void testStepGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        StepEngine  engine  = new BitSliceEngine();
+        BitGrid     grid    = new BitGrid( 10, 10 );
+        assertThrows( clazz, () -> engine.step( grid, grid ) );
+        assertThrows( clazz, () -> engine.step( grid, new BitGrid( 10, 11 ) ) );
+        BitGrid     torus   = new BitGrid( 10, 10, Topology.TORUS );
+        assertThrows( clazz, () -> engine.step( grid, torus ) );
+    }
+
+    /**
+     * Reference implementation; off-board cells are dead.
+     */
+    static boolean[][] nextState( boolean[][] cells )
+    {
+        return nextState( cells, Topology.FINITE );
+    }
+
+    /**
+     * Reference implementation for the given topology.
+     */
+    static boolean[][] nextState( boolean[][] cells, Topology topology )
+    {
+        boolean     wrap    = topology == Topology.TORUS;
+        int         rows    = cells.length;
+        int         cols    = cells[0].length;
+        boolean[][] next    = new boolean[rows][cols];
+        for ( int row = 0 ; row < rows ; ++row )
+            for ( int col = 0 ; col < cols ; ++col )
+            {
+                int count   = 0;
+                for ( int dRow = -1 ; dRow <= 1 ; ++dRow )
+                    for ( int dCol = -1 ; dCol <= 1 ; ++dCol )
+                    {
+                        int nRow    = row + dRow;
+                        int nCol    = col + dCol;
+                        if ( wrap )
+                        {
+                            nRow = Math.floorMod( nRow, rows );
+                            nCol = Math.floorMod( nCol, cols );
+                        }
+                        if ( (dRow != 0 || dCol != 0)
+                            && nRow >= 0 && nRow < rows
+                            && nCol >= 0 && nCol < cols
+                            && cells[nRow][nCol] )
+                            ++count;
+                    }
+                next[row][col] = count == 3 || (count == 2 && cells[row][col]);
+            }
+        return next;
+    }
+
+    /**
+     * Creates a torus with the state of the given array.
+     */
+    static BitGrid torus( boolean[][] cells )
+    {
+        BitGrid grid    =
+            new BitGrid( cells.length, cells[0].length, Topology.TORUS );
+        grid.setCells( cells );
+        return grid;
+    }
+}
@@ -9,6 +9,10 @@ import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 import javax.swing.JFrame;
@@ -381,6 +385,235 @@ public class BoardTest
         validateImage();
     }
 
+    @Test
+    public void testStep()
+    {
+        int[][] glider  = { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+        int     offset  = 10;
+        for ( int[] pos : glider )
+            board.setCell( new Cell( offset + pos[0], offset + pos[1], true ) );
+        
+        // A glider moves one cell south-east every four generations.
+        for ( int inx = 0 ; inx < 4 ; ++inx )
+            board.step();
+        assertEquals( 4, board.getGeneration() );
+        
+        boolean[][] exp     = new boolean[board.getSide()][board.getSide()];
+        for ( int[] pos : glider )
+            exp[offset + pos[0] + 1][offset + pos[1] + 1] = true;
+        boolean[][] act     = board.getCells();
+        for ( int inx = 0 ; inx < exp.length ; ++inx )
+            assertArrayEquals( exp[inx], act[inx] );
+        
+        board.clear();
+        assertEquals( 0, board.getGeneration() );
+    }
+
+    @Test
+    public void testRewind()
+    {
+        assertFalse( board.rewind( 0 ) );
+        
+        List<boolean[][]>   states  = recordGlider( 8 );
+        assertEquals( 0, board.getHistory().getOldestGeneration() );
+        assertEquals( 8, board.getHistory().getNewestGeneration() );
+        for ( int gen = 8 ; gen >= 0 ; gen -= 3 )
+        {
+            assertTrue( board.rewind( gen ) );
+            assertEquals( gen, board.getGeneration() );
+            boolean[][] act = board.getCells();
+            for ( int inx = 0 ; inx < act.length ; ++inx )
+                assertArrayEquals( states.get( gen )[inx], act[inx] );
+        }
+        
+        // Rewinding alone keeps the later generations.
+        assertTrue( board.rewind( 7 ) );
+        assertEquals( 7, board.getGeneration() );
+        assertFalse( board.rewind( 9 ) );
+        assertFalse( board.rewind( -1 ) );
+        
+        board.setUniverse( new SparseUniverse() );
+        assertFalse( board.rewind( 7 ) );
+        board.setUniverse( null );
+        board.setHistory( null );
+        assertFalse( board.rewind( 7 ) );
+    }
+    
+    @Test
+    public void testRewindStep()
+    {
+        List<boolean[][]>   states  = recordGlider( 8 );
+        assertTrue( board.rewind( 3 ) );
+        
+        // Stepping from a rewound generation recomputes the following
+        // generation, and discards the later generations.
+        board.step();
+        assertEquals( 4, board.getGeneration() );
+        boolean[][] act = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( states.get( 4 )[inx], act[inx] );
+        assertEquals( 4, board.getHistory().getNewestGeneration() );
+        assertFalse( board.rewind( 5 ) );
+        
+        board.step();
+        board.step();
+        assertEquals( 6, board.getHistory().getNewestGeneration() );
+        assertTrue( board.rewind( 5 ) );
+        act = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( states.get( 5 )[inx], act[inx] );
+    }
+    
+    @Test
+    public void testHistoryAfterEdits()
+    {
+        board.setHistory( new History( 1 << 20 ) );
+        
+        // Cells drawn between steps are recorded.
+        board.setCells( new Cell[] {
+            new Cell( 10, 11, true ), new Cell( 11, 12, true ),
+            new Cell( 12, 10, true ), new Cell( 12, 11, true ),
+            new Cell( 12, 12, true )
+        } );
+        boolean[][] drawn   = board.getCells();
+        board.step();
+        assertTrue( board.rewind( 0 ) );
+        boolean[][] act     = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( drawn[inx], act[inx] );
+        
+        // Clearing restarts the history at generation 0.
+        board.step();
+        board.step();
+        board.clear();
+        board.step();
+        assertEquals( 0, board.getHistory().getOldestGeneration() );
+        assertTrue( board.rewind( 0 ) );
+        act = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( new boolean[act.length], act[inx] );
+        
+        // Replacing the cells or the generation restarts it as well.
+        board.step();
+        board.setGrid( new BitGrid( board.getSide(), board.getSide() ) );
+        assertEquals( 1, board.getHistory().getOldestGeneration() );
+        assertEquals( 1, board.getHistory().getNewestGeneration() );
+        board.setGeneration( 40 );
+        assertEquals( 40, board.getHistory().getOldestGeneration() );
+        assertFalse( board.rewind( 1 ) );
+    }
+    
+    @Test
+    public void testFastForward()
+    {
+        assertFalse( board.fastForward( 10 ) );
+        
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        board.setEngine( detector );
+        board.setHistory( new History( 1 << 20 ) );
+        for ( int col = 4 ; col <= 6 ; ++col )
+            board.setCell( new Cell( 5, col, true ) );
+        boolean[][] even    = board.getCells();
+        board.step();
+        boolean[][] odd     = board.getCells();
+        board.step();
+        assertEquals( 2, detector.getPeriod() );
+        assertFalse( board.fastForward( 1 ) );
+        
+        assertTrue( board.fastForward( 101 ) );
+        assertEquals( 101, board.getGeneration() );
+        boolean[][] act     = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( odd[inx], act[inx] );
+        
+        // The jump resets the history to the target generation,
+        // and stepping on from there records as usual.
+        History history = board.getHistory();
+        assertEquals( 101, history.getOldestGeneration() );
+        assertEquals( 101, history.getNewestGeneration() );
+        assertTrue( board.fastForward( 102 ) );
+        assertEquals( 101, history.getOldestGeneration() );
+        assertEquals( 102, history.getNewestGeneration() );
+        assertTrue( board.rewind( 101 ) );
+        act = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( odd[inx], act[inx] );
+        assertFalse( board.rewind( 100 ) );
+        board.step();
+        act = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( even[inx], act[inx] );
+    }
+    
+    @Test
+    public void testFastForwardAfterEdit()
+    {
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        board.setEngine( detector );
+        for ( int col = 4 ; col <= 6 ; ++col )
+            board.setCell( new Cell( 5, col, true ) );
+        board.step();
+        board.step();
+        assertEquals( 2, detector.getPeriod() );
+        
+        // After an edit the old period no longer applies.
+        board.setCell( new Cell( 20, 20, true ) );
+        boolean[][] exp = board.getCells();
+        assertFalse( board.fastForward( 101 ) );
+        assertEquals( 2, board.getGeneration() );
+        boolean[][] act = board.getCells();
+        for ( int inx = 0 ; inx < act.length ; ++inx )
+            assertArrayEquals( exp[inx], act[inx] );
+    }
+    
+    @Test
+    public void testPaste() throws IOException
+    {
+        int[][] glider  = { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+        int     side    = board.getSide();
+        int     row     = 10;
+        int     col     = 20;
+        board.paste( gliderSource(), row, col );
+        
+        boolean[][] exp     = new boolean[side][side];
+        for ( int[] pos : glider )
+            exp[row + pos[0]][col + pos[1]] = true;
+        boolean[][] act     = board.getCells();
+        for ( int inx = 0 ; inx < exp.length ; ++inx )
+            assertArrayEquals( exp[inx], act[inx] );
+        
+        // Cells that fall outside the board are discarded.
+        board.clear();
+        board.paste( gliderSource(), side - 2, side - 2 );
+        board.paste( gliderSource(), -2, -2 );
+        exp = new boolean[side][side];
+        exp[side - 2][side - 1] = true;
+        exp[0][0] = true;
+        act = board.getCells();
+        for ( int inx = 0 ; inx < exp.length ; ++inx )
+            assertArrayEquals( exp[inx], act[inx] );
+        
+        // Cells are pasted into the universe relative to the viewport.
+        SparseUniverse  universe    = new SparseUniverse();
+        long            viewRow     = 1000;
+        long            viewCol     = -500;
+        board.clear();
+        board.setUniverse( universe );
+        board.setViewOrigin( viewRow, viewCol );
+        board.paste( gliderSource(), -2, 1 );
+        assertEquals( glider.length, universe.getPopulation() );
+        exp = new boolean[side][side];
+        for ( int[] pos : glider )
+        {
+            assertTrue( universe.get( viewRow - 2 + pos[0], viewCol + 1 + pos[1] ) );
+            if ( pos[0] >= 2 )
+                exp[pos[0] - 2][1 + pos[1]] = true;
+        }
+        act = board.getCells();
+        for ( int inx = 0 ; inx < exp.length ; ++inx )
+            assertArrayEquals( exp[inx], act[inx] );
+    }
+
     @Test
     public void testClear()
     {
@@ -435,6 +668,30 @@ public class BoardTest
         Utils.pause( DEFAULT_PAUSE );
     }
     
+    private List<boolean[][]> recordGlider( int generations )
+    {
+        int[][] glider  = { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+        int     offset  = 10;
+        for ( int[] pos : glider )
+            board.setCell( new Cell( offset + pos[0], offset + pos[1], true ) );
+        board.setHistory( new History( 1 << 20, 4 ) );
+        
+        List<boolean[][]>   states  = new ArrayList<>();
+        states.add( board.getCells() );
+        for ( int inx = 0 ; inx < generations ; ++inx )
+        {
+            board.step();
+            states.add( board.getCells() );
+        }
+        return states;
+    }
+    
+    private static PatternSource gliderSource() throws IOException
+    {
+        String  text    = "x = 3, y = 3\nbo$2bo$3o!\n";
+        return new RleReader( new StringReader( text ) );
+    }
+    
     private JPanel getCanvas()
     {
         Predicate<Component>    pred    = 
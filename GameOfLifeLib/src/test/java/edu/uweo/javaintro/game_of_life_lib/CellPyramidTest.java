@@ -0,0 +1,131 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CellPyramidTest
+{
+    @Test
+    public void testBuild()
+    {
+        Random      rand    = new Random( 14 );
+        boolean[][] cells   = BitGridTest.randomArray( 300, 170, rand );
+        BitGrid     grid    = new BitGrid( cells );
+        CellPyramid pyramid = new CellPyramid();
+        pyramid.build( grid );
+
+        // 300 rows need 9 levels of doubling to become one block.
+        assertEquals( 9, pyramid.getMaxLevel() );
+        verify( cells, pyramid );
+        assertEquals( count( cells, 9, 0, 0 ), pyramid.getCount( 9, 0, 0 ) );
+    }
+
+    @Test
+    public void testCountBlock()
+    {
+        Random      rand    = new Random( 15 );
+        boolean[][] cells   = BitGridTest.randomArray( 130, 200, rand );
+        BitGrid     grid    = new BitGrid( cells );
+        for ( int level = 0 ; level <= CellPyramid.WORD_LEVEL ; ++level )
+            for ( int row = 0 ; row < CellPyramid.blocks( 130, level ) ; ++row )
+                for ( int col = 0 ; col < CellPyramid.blocks( 200, level ) ; ++col )
+                    assertEquals(
+                        count( cells, level, row, col ),
+                        CellPyramid.countBlock( grid, level, row, col )
+                    );
+    }
+
+    @Test
+    public void testUpdate()
+    {
+        Random          rand    = new Random( 16 );
+        boolean[][]     cells   = BitGridTest.randomArray( 260, 260, rand );
+        BitGrid         curr    = new BitGrid( cells );
+        BitGrid         next    = new BitGrid( 260, 260 );
+        DirtyTracker    tracker = new DirtyTracker();
+        CellPyramid     pyramid = new CellPyramid();
+        StepEngine      engine  = new BitSliceEngine();
+        tracker.update( curr );
+        pyramid.build( curr );
+
+        for ( int gen = 0 ; gen < 10 ; ++gen )
+        {
+            engine.step( curr, next );
+            BitGrid temp    = curr;
+            curr = next;
+            next = temp;
+            tracker.update( curr );
+            pyramid.update( curr, tracker );
+            verify( curr.toArray(), pyramid );
+        }
+
+        // Changing a single cell.
+        curr.set( 259, 3, !curr.get( 259, 3 ) );
+        assertEquals( 1, tracker.update( curr ) );
+        pyramid.update( curr, tracker );
+        verify( curr.toArray(), pyramid );
+    }
+
+    @Test
+    public void testResize()
+    {
+        CellPyramid     pyramid = new CellPyramid();
+        DirtyTracker    tracker = new DirtyTracker();
+        BitGrid         small   = new BitGrid( 8, 8 );
+        small.set( 7, 7, true );
+        tracker.update( small );
+        pyramid.build( small );
+        assertEquals( CellPyramid.BASE_LEVEL, pyramid.getMaxLevel() );
+        assertEquals( 1, pyramid.getCount( CellPyramid.BASE_LEVEL, 0, 0 ) );
+
+        boolean[][] cells   = BitGridTest.randomArray( 100, 40, new Random( 17 ) );
+        BitGrid     large   = new BitGrid( cells );
+        tracker.update( large );
+        pyramid.update( large, tracker );
+        verify( cells, pyramid );
+    }
+
+    /**
+     * Verifies every count in the given pyramid.
+     *
+     * @param cells     the expected state of the grid
+     * @param pyramid   the given pyramid
+     */
+    private static void verify( boolean[][] cells, CellPyramid pyramid )
+    {
+        int rows    = cells.length;
+        int cols    = cells[0].length;
+        for ( int level = CellPyramid.BASE_LEVEL ; level <= pyramid.getMaxLevel() ; ++level )
+            for ( int row = 0 ; row < CellPyramid.blocks( rows, level ) ; ++row )
+                for ( int col = 0 ; col < CellPyramid.blocks( cols, level ) ; ++col )
+                    assertEquals(
+                        count( cells, level, row, col ),
+                        pyramid.getCount( level, row, col ),
+                        "level " + level + " block " + row + "," + col
+                    );
+    }
+
+    /**
+     * Counts the live cells in the given block, one cell at a time.
+     *
+     * @param cells the state of the grid
+     * @param level the level of the given block
+     * @param row   the row of the given block
+     * @param col   the column of the given block
+     *
+     * @return the number of live cells in the given block
+     */
+    private static int count( boolean[][] cells, int level, int row, int col )
+    {
+        int side    = 1 << level;
+        int count   = 0;
+        for ( int inx = row * side ; inx < Math.min( (row + 1) * side, cells.length ) ; ++inx )
+            for ( int jnx = col * side ; jnx < Math.min( (col + 1) * side, cells[inx].length ) ; ++jnx )
+                if ( cells[inx][jnx] )
+                    ++count;
+        return count;
+    }
+}
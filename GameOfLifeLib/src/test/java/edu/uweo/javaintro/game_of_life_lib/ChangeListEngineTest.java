@@ -0,0 +1,126 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ChangeListEngineTest
+{
+    @Test
+    public void testMatchesSerial()
+    {
+        Random              random  = new Random( 7 );
+        for ( Rule rule : new Rule[] { Rule.CONWAY, Rule.HIGHLIFE } )
+            for ( Topology topology : Topology.values() )
+            {
+                StepEngine          serial  = new BitSliceEngine( rule );
+                ChangeListEngine    engine  = new ChangeListEngine( rule );
+                int                 rows    = 120;
+                int                 cols    = 130;
+
+                // A sparse soup in one corner, empty elsewhere.
+                BitGrid     expCurr = new BitGrid( rows, cols, topology );
+                for ( int row = 0 ; row < 50 ; ++row )
+                    for ( int col = 0 ; col < 50 ; ++col )
+                        expCurr.set( row, col, random.nextInt( 3 ) == 0 );
+                BitGrid     expNext = new BitGrid( rows, cols, topology );
+                BitGrid     actCurr = new BitGrid( expCurr );
+                BitGrid     actNext = new BitGrid( rows, cols, topology );
+
+                for ( int gen = 0 ; gen < 150 ; ++gen )
+                {
+                    // Occasionally make a change between steps.
+                    if ( gen % 23 == 0 )
+                    {
+                        int     row     = random.nextInt( rows );
+                        int     col     = random.nextInt( cols );
+                        boolean alive   = !actCurr.get( row, col );
+                        expCurr.set( row, col, alive );
+                        actCurr.set( row, col, alive );
+                        engine.cellChanged( row, col );
+                    }
+
+                    serial.step( expCurr, expNext );
+                    engine.step( actCurr, actNext );
+                    assertEquals(
+                        expNext, actNext,
+                        rule + ", " + topology + ", generation " + gen
+                    );
+
+                    BitGrid temp    = expCurr;
+                    expCurr = expNext;
+                    expNext = temp;
+                    temp = actCurr;
+                    actCurr = actNext;
+                    actNext = temp;
+                }
+            }
+    }
+
+    @Test
+    public void testChanges()
+    {
+        ChangeListEngine    engine  = new ChangeListEngine();
+        BitGrid             curr    = new BitGrid( 200, 200 );
+        BitGrid             next    = new BitGrid( 200, 200 );
+
+        // Block and blinker
+        curr.set( 100, 100, true );
+        curr.set( 100, 101, true );
+        curr.set( 101, 100, true );
+        curr.set( 101, 101, true );
+        curr.set( 20, 30, true );
+        curr.set( 20, 31, true );
+        curr.set( 20, 32, true );
+
+        for ( int gen = 0 ; gen < 10 ; ++gen )
+        {
+            engine.step( curr, next );
+            assertEquals( 4, engine.getChangedCells() );
+            assertEquals( 7, next.getPopulation() );
+            BitGrid temp    = curr;
+            curr = next;
+            next = temp;
+        }
+
+        // A cell added between steps dies, and the others carry on.
+        curr.set( 150, 150, true );
+        engine.cellChanged( 150, 150 );
+        engine.step( curr, next );
+        assertEquals( 5, engine.getChangedCells() );
+        assertFalse( next.get( 150, 150 ) );
+        assertEquals( 7, next.getPopulation() );
+
+        // Changing a cell back and forth between steps leaves it unchanged.
+        next.set( 0, 0, true );
+        engine.cellChanged( 0, 0 );
+        next.set( 0, 0, false );
+        engine.cellChanged( 0, 0 );
+        engine.step( next, curr );
+        assertEquals( 4, engine.getChangedCells() );
+        assertEquals( 7, curr.getPopulation() );
+
+        // Grids that are not the previous pair are fully recomputed.
+        BitGrid             other   = new BitGrid( 200, 200 );
+        engine.step( next, other );
+        assertEquals( curr, other );
+
+        engine.invalidate();
+        engine.step( other, next );
+        assertEquals( 4, engine.getChangedCells() );
+        assertEquals( 7, next.getPopulation() );
+    }
+
+    @Test
+    public void testRule()
+    {
+        assertEquals( Rule.HIGHLIFE, new ChangeListEngine( Rule.HIGHLIFE ).getRule() );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new ChangeListEngine( Rule.parse( "B0/S8" ) )
+        );
+        assertThrows( IllegalArgumentException.class, () -> new ChangeListEngine( null ) );
+    }
+}
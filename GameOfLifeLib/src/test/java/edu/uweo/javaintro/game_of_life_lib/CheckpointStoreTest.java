@@ -0,0 +1,187 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CheckpointStoreTest
+{
+    @TempDir
+    Path    tempDir;
+
+    @Test
+    public void testSaveRead()
+        throws IOException
+    {
+        Path    path    = tempDir.resolve( "board.ckpt" );
+        BitGrid grid    = new BitGrid( 100, 130, Topology.TORUS );
+        grid.setCells( BitGridTest.randomArray( 100, 130, new Random( 17 ) ) );
+        try ( CheckpointStore store =
+            CheckpointStore.create( path, 100, 130, Topology.TORUS ) )
+        {
+            assertFalse( store.isComplete() );
+            store.save( grid, 42 );
+            assertTrue( store.isComplete() );
+
+            // A later checkpoint replaces the earlier one.
+            grid.set( 99, 129, !grid.get( 99, 129 ) );
+            store.save( grid, 43 );
+        }
+        assertEquals(
+            CheckpointStore.HEADER_BYTES + 2 * 100 * 3 * Long.BYTES,
+            Files.size( path )
+        );
+
+        try ( CheckpointStore store = CheckpointStore.open( path ) )
+        {
+            assertEquals( 100, store.getRows() );
+            assertEquals( 130, store.getCols() );
+            assertEquals( Topology.TORUS, store.getTopology() );
+            assertTrue( store.isComplete() );
+            assertEquals( 43, store.getGeneration() );
+
+            BitGrid actual  = new BitGrid( 100, 130, Topology.TORUS );
+            store.read( actual );
+            assertEquals( grid, actual );
+        }
+    }
+
+    @Test
+    public void testIncomplete()
+        throws IOException
+    {
+        Path    path    = tempDir.resolve( "board.ckpt" );
+        BitGrid grid    = new BitGrid( 10, 10 );
+        try ( CheckpointStore store =
+            CheckpointStore.create( path, 10, 10, Topology.FINITE ) )
+        {
+            assertThrows( IOException.class, () -> store.read( grid ) );
+            store.write( grid, 1 );
+            assertFalse( store.isComplete() );
+        }
+        try ( CheckpointStore store = CheckpointStore.open( path ) )
+        {
+            assertFalse( store.isComplete() );
+            assertThrows( IOException.class, () -> store.read( grid ) );
+        }
+    }
+
+    @Test
+    public void testInterruptedWrite()
+        throws IOException
+    {
+        Path    path    = tempDir.resolve( "board.ckpt" );
+        BitGrid first   = new BitGrid( 10, 70 );
+        BitGrid second  = new BitGrid( 10, 70 );
+        first.setCells( BitGridTest.randomArray( 10, 70, new Random( 5 ) ) );
+        second.setCells( BitGridTest.randomArray( 10, 70, new Random( 6 ) ) );
+        BitGrid actual  = new BitGrid( 10, 70 );
+        try ( CheckpointStore store =
+            CheckpointStore.create( path, 10, 70, Topology.FINITE ) )
+        {
+            store.save( first, 1 );
+            store.save( second, 2 );
+            store.save( first, 3 );
+
+            // A checkpoint that is written but not forced
+            // leaves the previous checkpoint readable.
+            store.write( second, 4 );
+            assertTrue( store.isComplete() );
+            assertEquals( 3, store.getGeneration() );
+            store.read( actual );
+            assertEquals( first, actual );
+        }
+        try ( CheckpointStore store = CheckpointStore.open( path ) )
+        {
+            assertTrue( store.isComplete() );
+            assertEquals( 3, store.getGeneration() );
+            store.read( actual );
+            assertEquals( first, actual );
+
+            store.save( second, 5 );
+            assertEquals( 5, store.getGeneration() );
+            store.read( actual );
+            assertEquals( second, actual );
+        }
+        try ( CheckpointStore store = CheckpointStore.open( path ) )
+        {
+            assertEquals( 5, store.getGeneration() );
+            store.read( actual );
+            assertEquals( second, actual );
+        }
+    }
+
+    @Test
+    public void testEarlierGeneration()
+        throws IOException
+    {
+        // A checkpoint taken after a rewind or clear is still the latest.
+        Path    path    = tempDir.resolve( "board.ckpt" );
+        BitGrid first   = new BitGrid( 10, 70 );
+        BitGrid second  = new BitGrid( 10, 70 );
+        first.setCells( BitGridTest.randomArray( 10, 70, new Random( 7 ) ) );
+        BitGrid actual  = new BitGrid( 10, 70 );
+        try ( CheckpointStore store =
+            CheckpointStore.create( path, 10, 70, Topology.FINITE ) )
+        {
+            store.save( first, 500 );
+            store.save( second, 0 );
+            assertEquals( 0, store.getGeneration() );
+        }
+        try ( CheckpointStore store = CheckpointStore.open( path ) )
+        {
+            assertEquals( 0, store.getGeneration() );
+            store.read( actual );
+            assertEquals( second, actual );
+
+            store.save( first, 3 );
+        }
+        try ( CheckpointStore store = CheckpointStore.open( path ) )
+        {
+            assertEquals( 3, store.getGeneration() );
+            store.read( actual );
+            assertEquals( first, actual );
+        }
+    }
+
+    @Test
+    public void testGoWrong()
+        throws IOException
+    {
+        Path    path    = tempDir.resolve( "board.ckpt" );
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        assertThrows(
+            clazz,
+            () -> CheckpointStore.create( path, 0, 10, Topology.FINITE )
+        );
+        assertThrows( clazz, () -> CheckpointStore.create( path, 10, 10, null ) );
+        try ( CheckpointStore store =
+            CheckpointStore.create( path, 10, 10, Topology.FINITE ) )
+        {
+            assertThrows( clazz, () -> store.save( new BitGrid( 10, 11 ), 0 ) );
+            assertThrows(
+                clazz,
+                () -> store.save( new BitGrid( 10, 10, Topology.TORUS ), 0 )
+            );
+            assertThrows( clazz, () -> store.save( new BitGrid( 10, 10 ), -1 ) );
+        }
+
+        Path    other   = tempDir.resolve( "other.ckpt" );
+        Files.write( other, new byte[] { 1, 2, 3 } );
+        assertThrows( IOException.class, () -> CheckpointStore.open( other ) );
+        Files.write( other, new byte[CheckpointStore.HEADER_BYTES] );
+        assertThrows( IOException.class, () -> CheckpointStore.open( other ) );
+
+        // Truncated rows.
+        byte[]  bytes   = Files.readAllBytes( path );
+        Files.write( other, Arrays.copyOf( bytes, bytes.length - 8 ) );
+        assertThrows( IOException.class, () -> CheckpointStore.open( other ) );
+    }
+}
@@ -0,0 +1,172 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CycleDetectorTest
+{
+    @Test
+    public void testStillLife()
+    {
+        BitGrid         current     = new BitGrid( 20, 20 );
+        BitGrid         next        = new BitGrid( 20, 20 );
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        current.set( 5, 5, true );
+        current.set( 5, 6, true );
+        current.set( 6, 5, true );
+        current.set( 6, 6, true );
+        detector.step( current, next );
+        assertEquals( 1, detector.getPeriod() );
+    }
+
+    @Test
+    public void testOscillator()
+    {
+        BitGrid         current     = new BitGrid( 20, 20 );
+        BitGrid         next        = new BitGrid( 20, 20 );
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        current.set( 5, 4, true );
+        current.set( 5, 5, true );
+        current.set( 5, 6, true );
+        detector.step( current, next );
+        assertEquals( 0, detector.getPeriod() );
+        detector.step( next, current );
+        assertEquals( 2, detector.getPeriod() );
+    }
+
+    @Test
+    public void testGliderOnTorus()
+    {
+        // A glider moves one cell diagonally every 4 generations,
+        // so on a 16 x 16 torus it returns to its start after 64.
+        BitGrid         current     = new BitGrid( 16, 16, Topology.TORUS );
+        BitGrid         next        = new BitGrid( 16, 16, Topology.TORUS );
+        CycleDetector   detector    =
+            new CycleDetector( new ActiveRegionEngine(), 100 );
+        int[][]         glider      = { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+        for ( int[] cell : glider )
+            current.set( cell[0], cell[1], true );
+
+        for ( int gen = 1 ; gen <= 64 ; ++gen )
+        {
+            assertEquals( 0, detector.getPeriod(), "generation " + gen );
+            detector.step( current, next );
+            assertEquals( CycleDetector.hash( next ), detector.getHash() );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+        }
+        assertEquals( 64, detector.getPeriod() );
+
+        // A window shorter than the period detects nothing.
+        CycleDetector   shortWindow =
+            new CycleDetector( new BitSliceEngine(), 63 );
+        for ( int gen = 1 ; gen <= 200 ; ++gen )
+        {
+            shortWindow.step( current, next );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+        }
+        assertEquals( 0, shortWindow.getPeriod() );
+    }
+
+    @Test
+    public void testIncrementalHash()
+    {
+        Random          random      = new Random( 3 );
+        BitGrid         current     = new BitGrid( 90, 150, Topology.TORUS );
+        BitGrid         next        = new BitGrid( 90, 150, Topology.TORUS );
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        current.setCells( BitGridTest.randomArray( 90, 150, random ) );
+        for ( int gen = 0 ; gen < 30 ; ++gen )
+        {
+            detector.step( current, next );
+            assertEquals( CycleDetector.hash( next ), detector.getHash() );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+
+            // Changes between steps must be reported.
+            if ( gen % 7 == 0 )
+            {
+                current.set( 10, 20, !current.get( 10, 20 ) );
+                detector.cellChanged( 10, 20 );
+            }
+        }
+    }
+
+    @Test
+    public void testActiveRegionHash()
+    {
+        // Only the tiles reported changed by the delegate are compared.
+        Random          random      = new Random( 11 );
+        BitGrid         current     = new BitGrid( 300, 250 );
+        BitGrid         next        = new BitGrid( 300, 250 );
+        CycleDetector   detector    =
+            new CycleDetector( new ActiveRegionEngine() );
+        for ( int row = 150 ; row < 230 ; ++row )
+            for ( int col = 100 ; col < 180 ; ++col )
+                current.set( row, col, random.nextInt( 3 ) == 0 );
+        for ( int gen = 0 ; gen < 100 ; ++gen )
+        {
+            detector.step( current, next );
+            assertEquals( CycleDetector.hash( next ), detector.getHash() );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+
+            if ( gen % 23 == 0 )
+            {
+                current.set( 5, 240, !current.get( 5, 240 ) );
+                detector.cellChanged( 5, 240 );
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        BitGrid         current     = new BitGrid( 20, 20 );
+        BitGrid         next        = new BitGrid( 20, 20 );
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        current.set( 5, 4, true );
+        current.set( 5, 5, true );
+        current.set( 5, 6, true );
+        detector.step( current, next );
+        detector.step( next, current );
+        assertEquals( 2, detector.getPeriod() );
+
+        current.set( 15, 15, true );
+        detector.invalidate();
+        assertEquals( 0, detector.getPeriod() );
+        detector.step( current, next );
+        assertEquals( 0, detector.getPeriod() );
+    }
+
+    @Test
+    public void testCellChanged()
+    {
+        BitGrid         current     = new BitGrid( 20, 20 );
+        BitGrid         next        = new BitGrid( 20, 20 );
+        CycleDetector   detector    = new CycleDetector( new BitSliceEngine() );
+        current.set( 5, 4, true );
+        current.set( 5, 5, true );
+        current.set( 5, 6, true );
+        detector.step( current, next );
+        detector.step( next, current );
+        assertEquals( 2, detector.getPeriod() );
+
+        // An edit must not leave the period of the old pattern.
+        current.set( 15, 15, true );
+        detector.cellChanged( 15, 15 );
+        assertEquals( 0, detector.getPeriod() );
+        detector.step( current, next );
+        assertEquals( 0, detector.getPeriod() );
+        detector.step( next, current );
+        assertEquals( 0, detector.getPeriod() );
+    }
+}
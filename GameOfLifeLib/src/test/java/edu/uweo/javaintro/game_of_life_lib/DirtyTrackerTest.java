@@ -0,0 +1,61 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class DirtyTrackerTest
+{
+    @Test
+    public void testUpdate()
+    {
+        DirtyTracker    tracker = new DirtyTracker();
+        BitGrid         grid    = new BitGrid( 200, 130 );
+
+        // Everything is dirty the first time.
+        assertEquals( 4 * 3, tracker.update( grid ) );
+        assertEquals( 4, tracker.getTileRows() );
+        assertEquals( 3, tracker.getTileCols() );
+        assertEquals( 0, tracker.update( grid ) );
+
+        grid.set( 0, 0, true );
+        grid.set( 130, 129, true );
+        grid.set( 199, 64, true );
+        assertEquals( 3, tracker.update( grid ) );
+        assertEquals( 3, tracker.getDirtyCount() );
+        assertTrue( tracker.isDirty( 0, 0 ) );
+        assertTrue( tracker.isDirty( 2, 2 ) );
+        assertTrue( tracker.isDirty( 3, 1 ) );
+        assertFalse( tracker.isDirty( 0, 1 ) );
+
+        // Changing a cell back is also a change.
+        grid.set( 0, 0, false );
+        assertEquals( 1, tracker.update( grid ) );
+        assertTrue( tracker.isDirty( 0, 0 ) );
+        assertEquals( 0, tracker.update( grid ) );
+
+        // A different grid with the same state is not a change.
+        assertEquals( 0, tracker.update( new BitGrid( grid ) ) );
+
+        // A grid of different dimensions is entirely dirty.
+        assertEquals( 2 * 5, tracker.update( new BitGrid( 100, 300 ) ) );
+    }
+
+    @Test
+    public void testStep()
+    {
+        DirtyTracker    tracker = new DirtyTracker();
+        BitGrid         curr    = new BitGrid( 256, 256 );
+        BitGrid         next    = new BitGrid( 256, 256 );
+        StepEngine      engine  = new BitSliceEngine();
+
+        // A blinker inside a single tile.
+        curr.set( 100, 99, true );
+        curr.set( 100, 100, true );
+        curr.set( 100, 101, true );
+        tracker.update( curr );
+        engine.step( curr, next );
+        assertEquals( 1, tracker.update( next ) );
+        assertTrue( tracker.isDirty( 1, 1 ) );
+    }
+}
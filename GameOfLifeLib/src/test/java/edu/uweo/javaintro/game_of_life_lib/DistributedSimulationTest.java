@@ -0,0 +1,190 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class DistributedSimulationTest
+{
+    @Test
+    public void testMatchesSerial()
+        throws IOException
+    {
+        Random      random      = new Random( 11 );
+        Transport   transport   = new SocketTransport( true );
+        for ( Rule rule : new Rule[] { Rule.CONWAY, Rule.HIGHLIFE } )
+            for ( Topology topology : Topology.values() )
+                for ( int workers : new int[] { 1, 2, 3, 7 } )
+                {
+                    BitGrid     expected    = new BitGrid(
+                        BitGridTest.randomArray( 45, 130, random )
+                    );
+                    expected = copy( expected, topology );
+                    try ( DistributedSimulation sim =
+                        new DistributedSimulation( expected, rule, workers, transport ) )
+                    {
+                        assertEquals( expected, sim.getGrid() );
+                        checkSteps( sim, expected, rule, 30 );
+                    }
+                }
+    }
+
+    @Test
+    public void testProcesses()
+        throws IOException
+    {
+        Random      random      = new Random( 13 );
+        BitGrid     expected    = copy(
+            new BitGrid( BitGridTest.randomArray( 64, 200, random ) ),
+            Topology.TORUS
+        );
+        try ( DistributedSimulation sim =
+            new DistributedSimulation( expected, 3, new SocketTransport() ) )
+        {
+            checkSteps( sim, expected, Rule.CONWAY, 20 );
+        }
+    }
+
+    @Test
+    public void testSetGrid()
+        throws IOException
+    {
+        BitGrid     grid    = new BitGrid( 30, 30 );
+        try ( DistributedSimulation sim =
+            new DistributedSimulation( grid, 3, new SocketTransport( true ) ) )
+        {
+            // A blinker straddling the boundary between two bands.
+            grid.set( 9, 15, true );
+            grid.set( 10, 15, true );
+            grid.set( 11, 15, true );
+            sim.setGrid( grid );
+            sim.step();
+
+            BitGrid     actual  = new BitGrid( 30, 30 );
+            sim.snapshot( actual );
+            assertEquals( 3, actual.getPopulation() );
+            assertTrue( actual.get( 10, 14 ) );
+            assertTrue( actual.get( 10, 15 ) );
+            assertTrue( actual.get( 10, 16 ) );
+            assertEquals( 1, sim.getGeneration() );
+
+            sim.step();
+            assertEquals( grid, sim.getGrid() );
+            assertEquals( 2, sim.getGeneration() );
+
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> sim.snapshot( new BitGrid( 30, 30, Topology.TORUS ) )
+            );
+            assertThrows( IllegalArgumentException.class, () -> sim.run( -1 ) );
+        }
+    }
+
+    @Test
+    public void testInvalid()
+    {
+        BitGrid     grid        = new BitGrid( 4, 10 );
+        Transport   transport   = new SocketTransport( true );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DistributedSimulation( grid, 0, transport )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DistributedSimulation( grid, 5, transport )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DistributedSimulation( null, 1, transport )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DistributedSimulation( grid, null, 1, transport )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DistributedSimulation( grid, 1, null )
+        );
+    }
+
+    @Test
+    public void testFailedOpen()
+    {
+        // A link that fails before its output stream is created,
+        // and fails again when it is closed.
+        Transport.Link  link        = new Transport.Link()
+        {
+            public InputStream getInputStream()
+            {
+                throw new UncheckedIOException( new IOException( "open" ) );
+            }
+
+            public OutputStream getOutputStream()
+            {
+                return OutputStream.nullOutputStream();
+            }
+
+            public void close()
+                throws IOException
+            {
+                throw new IOException( "close" );
+            }
+        };
+        UncheckedIOException    exc = assertThrows(
+            UncheckedIOException.class,
+            () -> new DistributedSimulation( new BitGrid( 4, 10 ), 1, () -> link )
+        );
+        assertEquals( "open", exc.getCause().getMessage() );
+        assertEquals( 1, exc.getSuppressed().length );
+        assertEquals( "close", exc.getSuppressed()[0].getMessage() );
+    }
+
+    /**
+     * Steps the given simulation and a serial engine side by side
+     * from the given state, and verifies that they agree
+     * after every generation.
+     */
+    private static void checkSteps(
+        DistributedSimulation sim,
+        BitGrid expected,
+        Rule rule,
+        int generations
+    ) throws IOException
+    {
+        StepEngine  serial  = new BitSliceEngine( rule );
+        BitGrid     curr    = new BitGrid( expected );
+        BitGrid     next    = new BitGrid(
+            curr.getRows(), curr.getCols(), curr.getTopology()
+        );
+        for ( int gen = 0 ; gen < generations ; ++gen )
+        {
+            serial.step( curr, next );
+            sim.step();
+            assertEquals(
+                next, sim.getGrid(),
+                rule + ", " + curr.getTopology() + ", " + sim.getWorkers()
+                + " workers, generation " + gen
+            );
+            BitGrid temp    = curr;
+            curr = next;
+            next = temp;
+        }
+        assertEquals( generations, sim.getGeneration() );
+    }
+
+    /**
+     * Copies the given grid into a new grid with the given topology.
+     */
+    private static BitGrid copy( BitGrid grid, Topology topology )
+    {
+        BitGrid result  = new BitGrid( grid.getRows(), grid.getCols(), topology );
+        result.copyFrom( grid, 0, 0 );
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class HashLifeTest
+{
+    private static final int[][]    GLIDER  =
+        { {0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2} };
+
+    @Test
+    public void testMatchesSerial()
+    {
+        testMatchesSerial( HashLife.DEFAULT_MAX_NODES );
+    }
+
+    @Test
+    public void testEviction()
+    {
+        // A tiny cache forces an eviction before every step.
+        testMatchesSerial( 500 );
+    }
+
+    @Test
+    public void testSetGetCells()
+    {
+        boolean[][] exp     = BitGridTest.randomArray( 37, 50, new Random( 6 ) );
+        HashLife    life    = new HashLife();
+        life.setCells( exp );
+        boolean[][] act     = life.getCells( 37, 50 );
+        for ( int row = 0 ; row < exp.length ; ++row )
+            assertArrayEquals( exp[row], act[row] );
+        assertEquals( new BitGrid( exp ).getPopulation(), life.getPopulation() );
+        assertEquals( 0, life.getGeneration() );
+    }
+
+    @Test
+    public void testGliderBillions()
+    {
+        BitGrid     grid    = new BitGrid( 3, 3 );
+        for ( int[] pos : GLIDER )
+            grid.set( pos[0], pos[1], true );
+
+        // A glider moves one cell south-east every four generations.
+        HashLife    life    = new HashLife();
+        long        gens    = 1L << 32;
+        long        shift   = gens / 4;
+        life.setGrid( grid );
+        life.advancePow2( 32 );
+        assertEquals( gens, life.getGeneration() );
+        assertEquals( GLIDER.length, life.getPopulation() );
+        for ( int[] pos : GLIDER )
+            assertTrue( life.get( pos[0] + shift, pos[1] + shift ) );
+        assertFalse( life.get( 0, 1 ) );
+
+        life.advance( 12 );
+        assertEquals( gens + 12, life.getGeneration() );
+        for ( int[] pos : GLIDER )
+            assertTrue( life.get( pos[0] + shift + 3, pos[1] + shift + 3 ) );
+    }
+
+    @Test
+    public void testAdvanceGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        HashLife    life    = new HashLife();
+        assertThrows( clazz, () -> life.advance( -1 ) );
+        assertThrows( clazz, () -> life.advancePow2( -1 ) );
+        assertThrows( clazz, () -> new HashLife( 0 ) );
+    }
+
+    private void testMatchesSerial( int maxNodes )
+    {
+        // A random soup far enough from the edges of a finite grid
+        // that the edges cannot affect it.
+        int         side    = 400;
+        int         offset  = 170;
+        Random      random  = new Random( 7 );
+        BitGrid     curr    = new BitGrid( side, side );
+        for ( int row = 0 ; row < 60 ; ++row )
+            for ( int col = 0 ; col < 60 ; ++col )
+                curr.set( offset + row, offset + col, random.nextInt( 3 ) == 0 );
+        BitGrid     next    = new BitGrid( side, side );
+
+        HashLife    life    = new HashLife( maxNodes );
+        life.setGrid( curr );
+
+        StepEngine  engine  = new BitSliceEngine();
+        int[]       steps   = { 1, 1, 2, 5, 8, 16, 30, 37 };
+        for ( int step : steps )
+        {
+            for ( int gen = 0 ; gen < step ; ++gen )
+            {
+                engine.step( curr, next );
+                BitGrid temp    = curr;
+                curr = next;
+                next = temp;
+            }
+            life.advance( step );
+
+            BitGrid act = new BitGrid( side, side );
+            life.getGrid( act );
+            assertEquals( curr, act, "generation " + life.getGeneration() );
+            assertEquals( curr.getPopulation(), life.getPopulation() );
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class HistoryTest
+{
+    @Test
+    public void testRestore()
+    {
+        History         history = new History( 1 << 20, 8 );
+        List<BitGrid>   states  = simulate( history, 0, 50 );
+        assertEquals( 0, history.getOldestGeneration() );
+        assertEquals( 49, history.getNewestGeneration() );
+
+        // Restore out of order, so that each restore starts from
+        // a grid that differs from the restored generation.
+        BitGrid target  = new BitGrid( 70, 130, Topology.TORUS );
+        for ( int gen : new int[] { 49, 0, 17, 8, 7, 31, 16, 9 } )
+        {
+            history.restore( gen, target );
+            assertEquals( states.get( gen ), target, "generation " + gen );
+        }
+    }
+
+    @Test
+    public void testBudget()
+    {
+        History         history = new History( 20_000, 4 );
+        List<BitGrid>   states  = simulate( history, 0, 200 );
+        assertTrue( history.getSize() <= history.getBudget() );
+        assertEquals( 199, history.getNewestGeneration() );
+
+        // Whole segments are discarded, oldest first.
+        long    oldest  = history.getOldestGeneration();
+        assertTrue( oldest > 0 );
+        assertTrue( 199 - oldest >= 4 );
+        assertFalse( history.contains( oldest - 1 ) );
+
+        BitGrid target  = new BitGrid( 70, 130, Topology.TORUS );
+        history.restore( oldest, target );
+        assertEquals( states.get( (int)oldest ), target );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> history.restore( oldest - 1, target )
+        );
+    }
+
+    @Test
+    public void testNewestSegmentKept()
+    {
+        History history = new History( 1, 4 );
+        simulate( history, 0, 10 );
+        assertEquals( 8, history.getOldestGeneration() );
+        assertEquals( 9, history.getNewestGeneration() );
+    }
+
+    @Test
+    public void testBranch()
+    {
+        History         history = new History( 1 << 20, 8 );
+        List<BitGrid>   states  = simulate( history, 0, 20 );
+
+        // Recording an earlier generation discards the later ones.
+        BitGrid grid    = new BitGrid( states.get( 12 ) );
+        grid.set( 0, 0, !grid.get( 0, 0 ) );
+        history.record( grid, 12 );
+        assertEquals( 12, history.getNewestGeneration() );
+        assertTrue( history.contains( 11 ) );
+
+        BitGrid target  = new BitGrid( 70, 130, Topology.TORUS );
+        history.restore( 12, target );
+        assertEquals( grid, target );
+        history.restore( 11, target );
+        assertEquals( states.get( 11 ), target );
+
+        // A gap discards everything.
+        history.record( grid, 40 );
+        assertEquals( 40, history.getOldestGeneration() );
+        assertFalse( history.contains( 12 ) );
+
+        // So does a change of dimensions.
+        history.record( new BitGrid( 10, 10 ), 41 );
+        assertEquals( 41, history.getOldestGeneration() );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> history.restore( 41, target )
+        );
+    }
+
+    /**
+     * Steps a random grid through the given number of generations,
+     * recording each in the given history.
+     *
+     * @param history       the given history
+     * @param generation    the generation of the first state
+     * @param count         the given number of generations
+     *
+     * @return the recorded states, in order
+     */
+    private static List<BitGrid> simulate( History history, long generation, int count )
+    {
+        BitSliceEngine  engine  = new BitSliceEngine();
+        BitGrid         current = new BitGrid( 70, 130, Topology.TORUS );
+        BitGrid         next    = new BitGrid( 70, 130, Topology.TORUS );
+        List<BitGrid>   states  = new ArrayList<>();
+        current.setCells( BitGridTest.randomArray( 70, 130, new Random( 11 ) ) );
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            history.record( current, generation + inx );
+            states.add( new BitGrid( current ) );
+            engine.step( current, next );
+            BitGrid temp    = current;
+            current = next;
+            next = temp;
+        }
+        return states;
+    }
+}
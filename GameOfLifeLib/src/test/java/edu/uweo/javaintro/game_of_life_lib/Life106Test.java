@@ -0,0 +1,61 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class Life106Test
+{
+    @Test
+    public void testRead()
+        throws IOException
+    {
+        String          text    = "#Life 1.06\n1 0\n#comment\n\n-2 1\n 0  -3 \n";
+        Life106Reader   reader  = new Life106Reader( new StringReader( text ) );
+        long[][]        exp     = { { 0, 1 }, { 1, -2 }, { -3, 0 } };
+        for ( long[] cell : exp )
+        {
+            assertTrue( reader.next() );
+            assertEquals( cell[0], reader.getRow() );
+            assertEquals( cell[1], reader.getCol() );
+        }
+        assertFalse( reader.next() );
+    }
+
+    @Test
+    public void testWriteRead()
+        throws IOException
+    {
+        BitGrid grid    = new BitGrid(
+            BitGridTest.randomArray( 30, 140, new Random( 17 ) )
+        );
+        StringWriter    text    = new StringWriter();
+        new Life106Writer( text ).write( grid );
+        assertTrue( text.toString().startsWith( Life106Reader.HEADER + "\n" ) );
+
+        Life106Reader   reader  =
+            new Life106Reader( new StringReader( text.toString() ) );
+        assertEquals( grid, RleTest.read( reader, 30, 140 ) );
+    }
+
+    @Test
+    public void testReadGoWrong()
+    {
+        Class<IOException>  clazz   = IOException.class;
+        assertThrows( clazz, () -> new Life106Reader( new StringReader( "" ) ) );
+        assertThrows( clazz, () -> new Life106Reader( new StringReader( "1 2\n" ) ) );
+        assertThrows(
+            clazz,
+            () -> new Life106Reader( new StringReader( "#Life 1.06\n1\n" ) ).next()
+        );
+        assertThrows(
+            clazz,
+            () -> new Life106Reader( new StringReader( "#Life 1.06\n1 x\n" ) ).next()
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OffHeapGridTest
+{
+    @TempDir
+    Path    tempDir;
+
+    @Test
+    public void testCopy()
+    {
+        BitGrid     grid    = new BitGrid( 100, 130, Topology.TORUS );
+        grid.setCells( BitGridTest.randomArray( 100, 130, new Random( 19 ) ) );
+
+        // Chunks of seven rows, so the rows span several chunks.
+        OffHeapGrid offHeap =
+            new OffHeapGrid( 100, 130, Topology.TORUS, 7 * 3 * Long.BYTES );
+        assertFalse( offHeap.isMapped() );
+        assertEquals( 0, offHeap.getPopulation() );
+        offHeap.copyFrom( grid );
+        assertEquals( grid.getPopulation(), offHeap.getPopulation() );
+        for ( int row = 0 ; row < 100 ; ++row )
+            for ( int col = 0 ; col < 130 ; ++col )
+                assertEquals( grid.get( row, col ), offHeap.get( row, col ) );
+
+        offHeap.set( 99, 129, !grid.get( 99, 129 ) );
+        offHeap.set( 0, 0, !grid.get( 0, 0 ) );
+        BitGrid     actual  = new BitGrid( 100, 130, Topology.TORUS );
+        offHeap.copyTo( actual );
+        grid.set( 99, 129, !grid.get( 99, 129 ) );
+        grid.set( 0, 0, !grid.get( 0, 0 ) );
+        assertEquals( grid, actual );
+
+        offHeap.clear();
+        assertEquals( 0, offHeap.getPopulation() );
+    }
+
+    @Test
+    public void testMapped()
+        throws IOException
+    {
+        Path    path    = tempDir.resolve( "board.bits" );
+        BitGrid grid    = new BitGrid( 50, 200 );
+        grid.setCells( BitGridTest.randomArray( 50, 200, new Random( 23 ) ) );
+        try ( OffHeapGrid offHeap = OffHeapGrid.create( path, 50, 200, Topology.FINITE ) )
+        {
+            assertTrue( offHeap.isMapped() );
+            offHeap.copyFrom( grid );
+            offHeap.force();
+
+            BitGrid actual  = new BitGrid( 50, 200 );
+            offHeap.copyTo( actual );
+            assertEquals( grid, actual );
+        }
+        assertEquals( 50 * 4 * Long.BYTES, Files.size( path ) );
+    }
+
+    @Test
+    public void testGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        assertThrows( clazz, () -> new OffHeapGrid( 0, 10, Topology.FINITE ) );
+        assertThrows( clazz, () -> new OffHeapGrid( 10, 0, Topology.FINITE ) );
+        assertThrows( clazz, () -> new OffHeapGrid( 10, 10, null ) );
+
+        OffHeapGrid grid    = new OffHeapGrid( 10, 10, Topology.FINITE );
+        assertThrows( clazz, () -> grid.copyFrom( new BitGrid( 10, 11 ) ) );
+        assertThrows( clazz, () -> grid.copyTo( new BitGrid( 10, 10, Topology.TORUS ) ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> grid.get( 10, 0 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> grid.set( 0, -1, true ) );
+    }
+}
@@ -0,0 +1,92 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelEngineTest
+{
+    @Test
+    public void testMatchesSerial()
+    {
+        Random          random  = new Random( 4 );
+        StepEngine      serial  = new BitSliceEngine();
+        int[]           threads = { 1, 2, 3, 8 };
+        int[][]         sizes   = { {1, 70}, {17, 64}, {300, 130}, {1000, 1000} };
+        for ( int numThreads : threads )
+        {
+            ParallelEngine  engine  = new ParallelEngine( numThreads );
+            assertEquals( numThreads, engine.getThreads() );
+            for ( int[] size : sizes )
+            {
+                boolean[][] cells   =
+                    BitGridTest.randomArray( size[0], size[1], random );
+                BitGrid     grid    = new BitGrid( cells );
+                BitGrid     expNext = new BitGrid( size[0], size[1] );
+                BitGrid     actNext = new BitGrid( size[0], size[1] );
+                for ( int gen = 0 ; gen < 5 ; ++gen )
+                {
+                    serial.step( grid, expNext );
+                    engine.step( grid, actNext );
+                    assertEquals( expNext, actNext );
+                    grid.copyFrom( actNext );
+                }
+            }
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testTorus()
+    {
+        Random          random  = new Random( 7 );
+        StepEngine      serial  = new BitSliceEngine();
+        ParallelEngine  engine  = new ParallelEngine( 4 );
+        int[][]         sizes   = { {1, 70}, {300, 130} };
+        for ( int[] size : sizes )
+        {
+            boolean[][] cells   =
+                BitGridTest.randomArray( size[0], size[1], random );
+            BitGrid     grid    = BitSliceEngineTest.torus( cells );
+            BitGrid     expNext =
+                new BitGrid( size[0], size[1], Topology.TORUS );
+            BitGrid     actNext =
+                new BitGrid( size[0], size[1], Topology.TORUS );
+            for ( int gen = 0 ; gen < 5 ; ++gen )
+            {
+                serial.step( grid, expNext );
+                engine.step( grid, actNext );
+                assertEquals( expNext, actNext );
+                grid.copyFrom( actNext );
+            }
+        }
+        engine.shutdown();
+    }
+
+    @Test
+    public void testThreadsProperty()
+    {
+        Properties.reset();
+        int             exp     = (Integer)Properties.STEP_THREADS.getProperty();
+        ParallelEngine  engine  = new ParallelEngine();
+        assertEquals( exp, engine.getThreads() );
+        engine.shutdown();
+
+        Properties.STEP_THREADS.setProperty( 3 );
+        engine = new ParallelEngine();
+        assertEquals( 3, engine.getThreads() );
+        engine.shutdown();
+        Properties.reset();
+    }
+
+    @Test
+    public void testParallelEngineGoWrong()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new ParallelEngine( 0 )
+        );
+    }
+}
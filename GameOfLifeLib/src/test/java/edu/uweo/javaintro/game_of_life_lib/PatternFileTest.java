@@ -0,0 +1,120 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PatternFileTest
+{
+    @TempDir
+    Path    tempDir;
+
+    @Test
+    public void testWriteRead()
+        throws IOException
+    {
+        int[][] sizes   = { { 1, 1 }, { 7, 9 }, { 33, 64 }, { 20, 65 }, { 100, 301 } };
+        Random  random  = new Random( 15 );
+        for ( int[] size : sizes )
+        {
+            BitGrid     grid    =
+                new BitGrid( size[0], size[1], Topology.TORUS );
+            grid.setCells( BitGridTest.randomArray( size[0], size[1], random ) );
+            PatternFile pattern = new PatternFile( grid, 1234, "B36/S23" );
+
+            ByteArrayOutputStream   bytes   = new ByteArrayOutputStream();
+            pattern.write( bytes );
+            PatternFile actual  =
+                PatternFile.read( new ByteArrayInputStream( bytes.toByteArray() ) );
+            assertEquals( grid, actual.getGrid() );
+            assertEquals( 1234, actual.getGeneration() );
+            assertEquals( "B36/S23", actual.getRule() );
+        }
+    }
+
+    @Test
+    public void testFile()
+        throws IOException
+    {
+        BitGrid     grid    = new BitGrid( 1000, 1000 );
+        grid.set( 0, 0, true );
+        grid.set( 999, 999, true );
+        File        file    = tempDir.resolve( "board.gol" ).toFile();
+        new PatternFile( grid, 7 ).write( file );
+
+        // A mostly empty board compresses very well.
+        assertTrue( file.length() < 2000, "length = " + file.length() );
+        PatternFile actual  = PatternFile.read( file );
+        assertEquals( grid, actual.getGrid() );
+        assertEquals( 7, actual.getGeneration() );
+        assertEquals( PatternFile.LIFE_RULE, actual.getRule() );
+    }
+
+    @Test
+    public void testIsPatternFile()
+        throws IOException
+    {
+        ByteArrayOutputStream   bytes   = new ByteArrayOutputStream();
+        new PatternFile( new BitGrid( 3, 3 ), 0 ).write( bytes );
+        InputStream pattern =
+            new BufferedInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+        assertTrue( PatternFile.isPatternFile( pattern ) );
+        assertEquals( new BitGrid( 3, 3 ), PatternFile.read( pattern ).getGrid() );
+
+        ByteArrayOutputStream   legacy  = new ByteArrayOutputStream();
+        try ( ObjectOutputStream oStream = new ObjectOutputStream( legacy ) )
+        {
+            oStream.writeObject( new boolean[3][3] );
+        }
+        InputStream serial  =
+            new BufferedInputStream( new ByteArrayInputStream( legacy.toByteArray() ) );
+        assertFalse( PatternFile.isPatternFile( serial ) );
+        assertEquals( legacy.size(), serial.readAllBytes().length );
+
+        InputStream empty   = new BufferedInputStream( InputStream.nullInputStream() );
+        assertFalse( PatternFile.isPatternFile( empty ) );
+    }
+
+    @Test
+    public void testReadGoWrong()
+        throws IOException
+    {
+        ByteArrayOutputStream   bytes   = new ByteArrayOutputStream();
+        new PatternFile( new BitGrid( 50, 50 ), 0 ).write( bytes );
+        byte[]  valid   = bytes.toByteArray();
+
+        byte[]  magic   = valid.clone();
+        magic[0] = 0;
+        assertThrows( IOException.class, () -> read( magic ) );
+
+        byte[]  version = valid.clone();
+        version[5] = 99;
+        assertThrows( IOException.class, () -> read( version ) );
+
+        byte[]  truncated   = Arrays.copyOf( valid, valid.length - 4 );
+        assertThrows( IOException.class, () -> read( truncated ) );
+
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        assertThrows( clazz, () -> new PatternFile( null, 0 ) );
+        assertThrows( clazz, () -> new PatternFile( new BitGrid( 1, 1 ), -1 ) );
+        assertThrows( clazz, () -> new PatternFile( new BitGrid( 1, 1 ), 0, null ) );
+    }
+
+    private static PatternFile read( byte[] bytes )
+        throws IOException
+    {
+        return PatternFile.read( new ByteArrayInputStream( bytes ) );
+    }
+}
@@ -23,6 +23,13 @@ public class PropertiesTest
         new Tester( GRID_SIDE, 500, 600 ),
         new Tester( MIN_CELL_SIDE, 10, 20 ),
         new Tester( CELL_COLOR, Color.BLACK, Color.YELLOW ),
+        new Tester( RENDER_MODE, RenderMode.SHAPES, RenderMode.RASTER ),
+        new Tester( LOD_SHADING, LodShading.DENSITY, LodShading.ANY_ALIVE ),
+        new Tester(
+            STEP_THREADS,
+            Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors() + 1
+        ),
     };
     
     @Test
@@ -0,0 +1,112 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class RleTest
+{
+    @Test
+    public void testRead()
+        throws IOException
+    {
+        String  text    =
+            "#N Glider\n#C a comment\nx = 3, y = 3, rule = B36/S23\n"
+            + "bob$2bo$\n3o!\nignored";
+        RleReader   reader  = new RleReader( new StringReader( text ) );
+        assertEquals( 3, reader.getWidth() );
+        assertEquals( 3, reader.getHeight() );
+        assertEquals( "B36/S23", reader.getRule() );
+
+        BitGrid     grid    = read( reader, 3, 3 );
+        BitGrid     exp     = new BitGrid( 3, 3 );
+        exp.set( 0, 1, true );
+        exp.set( 1, 2, true );
+        exp.set( 2, 0, true );
+        exp.set( 2, 1, true );
+        exp.set( 2, 2, true );
+        assertEquals( exp, grid );
+        assertFalse( reader.next() );
+
+        // No rule, multiple row ends, and no terminating '!'.
+        reader = new RleReader( new StringReader( "x = 2, y = 4\no3$bo" ) );
+        assertEquals( PatternFile.LIFE_RULE, reader.getRule() );
+        exp = new BitGrid( 4, 2 );
+        exp.set( 0, 0, true );
+        exp.set( 3, 1, true );
+        assertEquals( exp, read( reader, 4, 2 ) );
+    }
+
+    @Test
+    public void testWriteRead()
+        throws IOException
+    {
+        Random  random  = new Random( 16 );
+        int[][] sizes   = { { 1, 1 }, { 5, 64 }, { 40, 130 }, { 3, 200 } };
+        for ( int[] size : sizes )
+        {
+            BitGrid grid    = new BitGrid(
+                BitGridTest.randomArray( size[0], size[1], random )
+            );
+            StringWriter    text    = new StringWriter();
+            new RleWriter( text ).write( grid, "B3/S23" );
+            for ( String line : text.toString().split( "\n" ) )
+                assertTrue( line.length() <= RleWriter.LINE_LENGTH + 30 );
+
+            RleReader   reader  = new RleReader( new StringReader( text.toString() ) );
+            assertEquals( size[1], reader.getWidth() );
+            assertEquals( size[0], reader.getHeight() );
+            assertEquals( grid, read( reader, size[0], size[1] ) );
+        }
+
+        // Long runs, trailing dead cells and trailing empty rows.
+        BitGrid grid    = new BitGrid( 10, 300 );
+        for ( int col = 10 ; col < 290 ; ++col )
+            grid.set( 2, col, true );
+        StringWriter    text    = new StringWriter();
+        new RleWriter( text ).write( grid, "B3/S23" );
+        assertEquals(
+            "x = 300, y = 10, rule = B3/S23\n2$10b280o!\n",
+            text.toString()
+        );
+    }
+
+    @Test
+    public void testReadGoWrong()
+    {
+        Class<IOException>  clazz   = IOException.class;
+        assertThrows( clazz, () -> new RleReader( new StringReader( "" ) ) );
+        assertThrows( clazz, () -> new RleReader( new StringReader( "#C\nbo!" ) ) );
+        assertThrows( clazz, () -> new RleReader( new StringReader( "x = 3" ) ) );
+        assertThrows( clazz, () -> new RleReader( new StringReader( "x = a, y = 1" ) ) );
+        assertThrows(
+            clazz,
+            () -> read( new RleReader( new StringReader( "x = 1, y = 1\n2%!" ) ), 1, 1 )
+        );
+    }
+
+    /**
+     * Reads the cells of a pattern into a new grid.
+     *
+     * @param source    the pattern
+     * @param rows      the number of rows in the new grid
+     * @param cols      the number of columns in the new grid
+     *
+     * @return the new grid
+     *
+     * @throws IOException if the pattern cannot be read
+     */
+    static BitGrid read( PatternSource source, int rows, int cols )
+        throws IOException
+    {
+        BitGrid grid    = new BitGrid( rows, cols );
+        while ( source.next() )
+            grid.set( (int)source.getRow(), (int)source.getCol(), true );
+        return grid;
+    }
+}
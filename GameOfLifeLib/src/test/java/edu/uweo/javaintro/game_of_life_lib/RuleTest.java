@@ -0,0 +1,196 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class RuleTest
+{
+    private static final Rule[] RULES   =
+    {
+        Rule.CONWAY,
+        Rule.HIGHLIFE,
+        Rule.DAY_AND_NIGHT,
+        Rule.parse( "B2/S" ),
+        Rule.parse( "B1357/S02468" ),
+        Rule.parse( "B0/S8" ),
+    };
+
+    @Test
+    public void testParse()
+    {
+        assertEquals( "B3/S23", Rule.CONWAY.toString() );
+        assertEquals( "B36/S23", Rule.HIGHLIFE.toString() );
+        assertEquals( "B3678/S34678", Rule.DAY_AND_NIGHT.toString() );
+        assertEquals( Rule.CONWAY, Rule.parse( "b3/s23" ) );
+        assertEquals( Rule.CONWAY, Rule.parse( "S32/B3" ) );
+        assertEquals( Rule.CONWAY, Rule.parse( " 23/3 " ) );
+        assertEquals( Rule.HIGHLIFE, Rule.parse( "23/36" ) );
+        assertEquals( Rule.CONWAY.hashCode(), Rule.parse( "B3/S32" ).hashCode() );
+        assertNotEquals( Rule.CONWAY, Rule.HIGHLIFE );
+        assertEquals( "B2/S", Rule.parse( "B2/S" ).toString() );
+
+        assertTrue( Rule.HIGHLIFE.isBorn( 6 ) );
+        assertFalse( Rule.HIGHLIFE.isBorn( 2 ) );
+        assertTrue( Rule.HIGHLIFE.survives( 2 ) );
+        assertFalse( Rule.HIGHLIFE.survives( 6 ) );
+
+        for ( String text :
+            new String[] { "", "B3", "B3/S23/S4", "B9/S23", "B33/S23",
+                "B3/B23", "X3/S23", "B3/S2a", "3/B3" } )
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> Rule.parse( text ),
+                text
+            );
+    }
+
+    @Test
+    public void testTable()
+    {
+        for ( Rule rule : RULES )
+            for ( int inx = 0 ; inx < 512 ; ++inx )
+            {
+                int     count   = Integer.bitCount( inx & ~0x10 );
+                boolean alive   = (inx & 0x10) != 0;
+                boolean expect  =
+                    alive ? rule.survives( count ) : rule.isBorn( count );
+                assertEquals( expect, rule.next( inx ), rule + ": " + inx );
+            }
+
+        // A vertical blinker: the center becomes part of a horizontal one.
+        assertTrue( Rule.CONWAY.next( 0b010_010_010 ) );
+        assertFalse( Rule.CONWAY.next( 0b010_000_010 ) );
+    }
+
+    @Test
+    public void testEngines()
+    {
+        Random  random  = new Random( 23 );
+        for ( Rule rule : RULES )
+            for ( Topology topology : Topology.values() )
+            {
+                boolean[][]     cells   = BitGridTest.randomArray( 70, 150, random );
+                StepEngine[]    engines =
+                {
+                    new BitSliceEngine( rule ),
+                    new ParallelEngine( 3, rule ),
+                    new ActiveRegionEngine( rule ),
+                    new VectorEngine( rule ),
+                };
+                BitGrid[]       grids   = new BitGrid[engines.length];
+                BitGrid[]       spares  = new BitGrid[engines.length];
+                for ( int inx = 0 ; inx < engines.length ; ++inx )
+                {
+                    assertEquals( rule, engines[inx].getRule() );
+                    grids[inx] = new BitGrid( 70, 150, topology );
+                    grids[inx].setCells( cells );
+                    spares[inx] = new BitGrid( 70, 150, topology );
+                }
+
+                for ( int gen = 0 ; gen < 12 ; ++gen )
+                {
+                    cells = nextState( cells, topology, rule );
+                    for ( int inx = 0 ; inx < engines.length ; ++inx )
+                    {
+                        engines[inx].step( grids[inx], spares[inx] );
+                        BitGrid temp    = grids[inx];
+                        grids[inx] = spares[inx];
+                        spares[inx] = temp;
+                        assertArrayEquals(
+                            cells,
+                            grids[inx].toArray(),
+                            rule + ", " + topology + ", "
+                                + engines[inx].getClass().getSimpleName()
+                                + ", generation " + gen
+                        );
+                    }
+                }
+                ((ParallelEngine)engines[1]).shutdown();
+            }
+    }
+
+    @Test
+    public void testUniverses()
+    {
+        // A soup far enough from the edges of a finite grid
+        // that the edges cannot affect it.
+        int         side    = 400;
+        Random      random  = new Random( 29 );
+        BitGrid     curr    = new BitGrid( side, side );
+        for ( int row = 170 ; row < 230 ; ++row )
+            for ( int col = 170 ; col < 230 ; ++col )
+                curr.set( row, col, random.nextBoolean() );
+        BitGrid     next    = new BitGrid( side, side );
+
+        StepEngine      engine      = new BitSliceEngine( Rule.HIGHLIFE );
+        HashLife        life        = new HashLife( HashLife.DEFAULT_MAX_NODES, Rule.HIGHLIFE );
+        SparseUniverse  universe    = new SparseUniverse( Rule.HIGHLIFE );
+        life.setGrid( curr );
+        universe.copyFrom( curr, 0, 0 );
+        for ( int gen = 0 ; gen < 40 ; ++gen )
+        {
+            engine.step( curr, next );
+            BitGrid temp    = curr;
+            curr = next;
+            next = temp;
+        }
+        life.advance( 40 );
+        for ( int gen = 0 ; gen < 40 ; ++gen )
+            universe.step();
+
+        BitGrid actual  = new BitGrid( side, side );
+        life.getGrid( actual );
+        assertEquals( curr, actual );
+        universe.copyTo( actual, 0, 0 );
+        assertEquals( curr, actual );
+
+        // Cells with no neighbors cannot be born in an unbounded universe.
+        Rule    seeded  = Rule.parse( "B0/S8" );
+        assertThrows( IllegalArgumentException.class, () -> new SparseUniverse( seeded ) );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new HashLife( HashLife.DEFAULT_MAX_NODES, seeded )
+        );
+    }
+
+    /**
+     * Reference implementation for the given topology and rule.
+     */
+    private static boolean[][] nextState(
+        boolean[][] cells, Topology topology, Rule rule
+    )
+    {
+        boolean     wrap    = topology == Topology.TORUS;
+        int         rows    = cells.length;
+        int         cols    = cells[0].length;
+        boolean[][] next    = new boolean[rows][cols];
+        for ( int row = 0 ; row < rows ; ++row )
+            for ( int col = 0 ; col < cols ; ++col )
+            {
+                int count   = 0;
+                for ( int dRow = -1 ; dRow <= 1 ; ++dRow )
+                    for ( int dCol = -1 ; dCol <= 1 ; ++dCol )
+                    {
+                        int nRow    = row + dRow;
+                        int nCol    = col + dCol;
+                        if ( wrap )
+                        {
+                            nRow = Math.floorMod( nRow, rows );
+                            nCol = Math.floorMod( nCol, cols );
+                        }
+                        if ( (dRow != 0 || dCol != 0)
+                            && nRow >= 0 && nRow < rows
+                            && nCol >= 0 && nCol < cols
+                            && cells[nRow][nCol] )
+                            ++count;
+                    }
+                next[row][col] = cells[row][col]
+                    ? rule.survives( count )
+                    : rule.isBorn( count );
+            }
+        return next;
+    }
+}
@@ -0,0 +1,122 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SimulationTest
+{
+    @TempDir
+    Path    tempDir;
+
+    @Test
+    public void testRun()
+    {
+        Random      random  = new Random( 9 );
+        boolean[][] cells   = BitGridTest.randomArray( 50, 70, random );
+        Simulation  sim     = new Simulation( new BitGrid( cells ) );
+        assertEquals( 0, sim.getGeneration() );
+        assertEquals( 0, sim.getGenerationsPerSecond() );
+
+        sim.run( 20 );
+        sim.step();
+        for ( int gen = 0 ; gen < 21 ; ++gen )
+            cells = BitSliceEngineTest.nextState( cells );
+        assertEquals( new BitGrid( cells ), sim.getGrid() );
+        assertEquals( 21, sim.getGeneration() );
+        assertEquals( sim.getGrid().getPopulation(), sim.getPopulation() );
+        assertTrue( sim.getElapsedNanos() > 0 );
+        assertTrue( sim.getGenerationsPerSecond() > 0 );
+
+        // Changing engines does not change the result.
+        sim.setEngine( new ActiveRegionEngine() );
+        sim.run( 5 );
+        for ( int gen = 0 ; gen < 5 ; ++gen )
+            cells = BitSliceEngineTest.nextState( cells );
+        assertEquals( new BitGrid( cells ), sim.getGrid() );
+    }
+
+    @Test
+    public void testRunGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        Simulation  sim     = new Simulation( new BitGrid( 5, 5 ) );
+        assertThrows( clazz, () -> sim.run( -1 ) );
+        assertThrows( clazz, () -> sim.setEngine( null ) );
+    }
+
+    @Test
+    public void testMain()
+        throws IOException, ClassNotFoundException
+    {
+        boolean[][] cells   = BitGridTest.randomArray( 40, 40, new Random( 10 ) );
+        File        input   = tempDir.resolve( "input.ser" ).toFile();
+        File        output  = tempDir.resolve( "output.ser" ).toFile();
+        try ( ObjectOutputStream oStream =
+            new ObjectOutputStream( new FileOutputStream( input ) ) )
+        {
+            oStream.writeObject( cells );
+        }
+
+        ByteArrayOutputStream   bytes   = new ByteArrayOutputStream();
+        PrintStream             out     = new PrintStream( bytes, true );
+        String[]                args    = {
+            "-g", "12", "-e", "parallel", "-t", "2", "-w",
+            "-o", output.getPath(), input.getPath()
+        };
+        assertEquals( 0, SimulationMain.run( args, out, out ) );
+        assertTrue( bytes.toString().contains( "generations:   12" ) );
+
+        BitGrid     exp     = BitSliceEngineTest.torus( cells );
+        BitGrid     next    = new BitGrid( 40, 40, Topology.TORUS );
+        StepEngine  engine  = new BitSliceEngine();
+        for ( int gen = 0 ; gen < 12 ; ++gen )
+        {
+            engine.step( exp, next );
+            exp.copyFrom( next );
+        }
+        PatternFile actual  = PatternFile.read( output );
+        assertEquals( exp, actual.getGrid() );
+        assertEquals( 12, actual.getGeneration() );
+
+        // The output is a valid input, and the generation continues.
+        String[]    again   = { "-g", "3", "-o", output.getPath(), output.getPath() };
+        assertEquals( 0, SimulationMain.run( again, out, out ) );
+        for ( int gen = 0 ; gen < 3 ; ++gen )
+        {
+            engine.step( exp, next );
+            exp.copyFrom( next );
+        }
+        actual = PatternFile.read( output );
+        assertEquals( exp, actual.getGrid() );
+        assertEquals( 15, actual.getGeneration() );
+    }
+
+    @Test
+    public void testMainGoWrong()
+    {
+        PrintStream out     = new PrintStream( new ByteArrayOutputStream() );
+        String      missing = tempDir.resolve( "missing.ser" ).toString();
+        assertEquals( 2, SimulationMain.run( new String[0], out, out ) );
+        assertEquals( 2, SimulationMain.run( new String[] { "-g" }, out, out ) );
+        assertEquals(
+            2,
+            SimulationMain.run( new String[] { "-g", "x", missing }, out, out )
+        );
+        assertEquals(
+            2,
+            SimulationMain.run( new String[] { "-e", "x", missing }, out, out )
+        );
+        assertEquals( 1, SimulationMain.run( new String[] { missing }, out, out ) );
+    }
+}
@@ -0,0 +1,96 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class SnapshotBufferTest
+{
+    @Test
+    public void testPublishAcquire()
+    {
+        SnapshotBuffer  buffer  = new SnapshotBuffer( 10, 70, Topology.TORUS );
+        BitGrid         grid    = new BitGrid( 10, 70, Topology.TORUS );
+        assertFalse( buffer.acquire() );
+        assertEquals( grid, buffer.getGrid() );
+        assertEquals( 0, buffer.getGeneration() );
+
+        // The acquired snapshot is a copy, unaffected by later changes.
+        grid.set( 3, 65, true );
+        buffer.publish( grid, 1 );
+        grid.set( 4, 4, true );
+        assertEquals( 0, buffer.getGrid().getPopulation() );
+        assertTrue( buffer.acquire() );
+        assertTrue( buffer.getGrid().get( 3, 65 ) );
+        assertEquals( 1, buffer.getGrid().getPopulation() );
+        assertEquals( 1, buffer.getGeneration() );
+        assertFalse( buffer.acquire() );
+        assertEquals( 1, buffer.getGeneration() );
+
+        // Only the most recent of several publications is acquired.
+        buffer.publish( grid, 2 );
+        grid.clear();
+        buffer.publish( grid, 3 );
+        assertEquals( 1, buffer.getGrid().getPopulation() );
+        assertTrue( buffer.acquire() );
+        assertEquals( 0, buffer.getGrid().getPopulation() );
+        assertEquals( 3, buffer.getGeneration() );
+        assertFalse( buffer.acquire() );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> buffer.publish( new BitGrid( 10, 71 ), 4 )
+        );
+    }
+
+    @Test
+    public void testConcurrent()
+        throws InterruptedException
+    {
+        int             rows        = 64;
+        int             cols        = 128;
+        int             last        = 20_000;
+        SnapshotBuffer  buffer      = new SnapshotBuffer( rows, cols, Topology.FINITE );
+        AtomicBoolean   done        = new AtomicBoolean();
+        Thread          writer      = new Thread( () -> {
+            // In generation n, the first n % (rows * cols) cells are alive,
+            // so a generation mixed with another is detected.
+            BitGrid grid    = new BitGrid( rows, cols );
+            for ( int gen = 1 ; gen <= last ; ++gen )
+            {
+                int     cell    = (gen - 1) % (rows * cols);
+                if ( cell == 0 )
+                    grid.clear();
+                else
+                    grid.set( (cell - 1) / cols, (cell - 1) % cols, true );
+                buffer.publish( grid, gen );
+            }
+            done.set( true );
+        } );
+
+        writer.start();
+        long    previous    = 0;
+        int     acquired    = 0;
+        boolean finished    = false;
+        while ( !finished )
+        {
+            finished = done.get();
+            if ( buffer.acquire() )
+            {
+                long    gen     = buffer.getGeneration();
+                assertTrue( gen > previous, gen + " after " + previous );
+                assertEquals(
+                    (gen - 1) % (rows * cols), buffer.getGrid().getPopulation(),
+                    "generation " + gen
+                );
+                previous = gen;
+                ++acquired;
+            }
+        }
+        writer.join();
+        assertEquals( last, previous );
+        assertTrue( acquired > 0 );
+    }
+}
@@ -0,0 +1,153 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SparseUniverseTest
+{
+    @Test
+    public void testMatchesSerial()
+    {
+        Random          random      = new Random( 11 );
+        StepEngine      serial      = new BitSliceEngine();
+        SparseUniverse  universe    = new SparseUniverse();
+        int             rows        = 400;
+        int             cols        = 400;
+        long            originRow   = -200;
+        long            originCol   = -173;
+
+        // A soup far enough from the edges that it never reaches them.
+        BitGrid     curr    = new BitGrid( rows, cols );
+        for ( int row = 170 ; row < 230 ; ++row )
+            for ( int col = 170 ; col < 230 ; ++col )
+                curr.set( row, col, random.nextBoolean() );
+        BitGrid     next    = new BitGrid( rows, cols );
+        universe.copyFrom( curr, originRow, originCol );
+        assertEquals( curr.getPopulation(), universe.getPopulation() );
+
+        BitGrid     actual  = new BitGrid( rows, cols );
+        for ( int gen = 0 ; gen < 100 ; ++gen )
+        {
+            serial.step( curr, next );
+            universe.step();
+            universe.copyTo( actual, originRow, originCol );
+            assertEquals( next, actual, "generation " + gen );
+            assertEquals( next.getPopulation(), universe.getPopulation() );
+
+            BitGrid temp    = curr;
+            curr = next;
+            next = temp;
+        }
+        assertEquals( 100, universe.getGeneration() );
+    }
+
+    @Test
+    public void testGliderAcrossOrigin()
+    {
+        SparseUniverse  universe    = new SparseUniverse();
+        long            base        = -100;
+        universe.set( base, base + 1, true );
+        universe.set( base + 1, base + 2, true );
+        universe.set( base + 2, base, true );
+        universe.set( base + 2, base + 1, true );
+        universe.set( base + 2, base + 2, true );
+
+        // A glider moves one cell diagonally every four generations.
+        for ( int gen = 0 ; gen < 800 ; ++gen )
+            universe.step();
+        long    shift   = base + 200;
+        assertTrue( universe.get( shift, shift + 1 ) );
+        assertTrue( universe.get( shift + 1, shift + 2 ) );
+        assertTrue( universe.get( shift + 2, shift ) );
+        assertTrue( universe.get( shift + 2, shift + 1 ) );
+        assertTrue( universe.get( shift + 2, shift + 2 ) );
+        assertEquals( 5, universe.getPopulation() );
+
+        // Tiles left behind by the glider are released.
+        assertTrue( universe.getTileCount() <= 4 );
+    }
+
+    @Test
+    public void testCopyUnaligned()
+    {
+        Random          random      = new Random( 3 );
+        SparseUniverse  universe    = new SparseUniverse();
+        boolean[][]     cells       = BitGridTest.randomArray( 70, 150, random );
+        BitGrid         grid        = new BitGrid( cells );
+        universe.copyFrom( grid, -37, 1001 );
+        for ( int row = 0 ; row < 70 ; ++row )
+            for ( int col = 0 ; col < 150 ; ++col )
+                assertEquals(
+                    cells[row][col],
+                    universe.get( row - 37, col + 1001 )
+                );
+
+        BitGrid         actual      = new BitGrid( 70, 150 );
+        universe.copyTo( actual, -37, 1001 );
+        assertEquals( grid, actual );
+
+        // Cells outside the copied region are dead.
+        assertFalse( universe.get( -38, 1001 ) );
+        assertFalse( universe.get( -37, 1000 ) );
+        assertFalse( universe.get( 33, 1150 ) );
+    }
+
+    @Test
+    public void testSetAndClear()
+    {
+        SparseUniverse  universe    = new SparseUniverse();
+        assertEquals( 0, universe.getTileCount() );
+        universe.set( -(1L << 36), 5, true );
+        universe.set( 1L << 35, -(1L << 35), true );
+        assertTrue( universe.get( -(1L << 36), 5 ) );
+        assertTrue( universe.get( 1L << 35, -(1L << 35) ) );
+        assertEquals( 2, universe.getTileCount() );
+        assertEquals( 2, universe.getPopulation() );
+
+        universe.set( 1L << 35, -(1L << 35), false );
+        assertEquals( 1, universe.getTileCount() );
+
+        universe.step();
+        assertEquals( 0, universe.getTileCount() );
+        assertEquals( 1, universe.getGeneration() );
+
+        universe.set( 0, 0, true );
+        universe.clear();
+        assertEquals( 0, universe.getTileCount() );
+        assertEquals( 0, universe.getGeneration() );
+        assertFalse( universe.get( 0, 0 ) );
+    }
+
+    @Test
+    public void testSpareTilesReleased()
+    {
+        // Blocks in 500 separate tiles, then single cells,
+        // which die after one generation.
+        SparseUniverse  universe    = new SparseUniverse();
+        for ( int inx = 0 ; inx < 500 ; ++inx )
+        {
+            long    row     = inx * 2L * SparseUniverse.TILE_SIDE;
+            universe.set( row + 10, 10, true );
+            universe.set( row + 10, 11, true );
+            universe.set( row + 11, 10, true );
+            universe.set( row + 11, 11, true );
+        }
+        universe.step();
+        assertEquals( 500, universe.getTileCount() );
+        assertTrue(
+            universe.getSpareTileCount() <= 500 + SparseUniverse.MIN_SPARE_TILES
+        );
+
+        universe.clear();
+        assertTrue( universe.getSpareTileCount() <= SparseUniverse.MIN_SPARE_TILES );
+
+        for ( int inx = 0 ; inx < 500 ; ++inx )
+            universe.set( inx * 2L * SparseUniverse.TILE_SIDE, 0, true );
+        universe.step();
+        assertEquals( 0, universe.getTileCount() );
+        assertTrue( universe.getSpareTileCount() <= SparseUniverse.MIN_SPARE_TILES );
+    }
+}
@@ -0,0 +1,76 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamingEngineTest
+{
+    @Test
+    public void testMatchesSerial()
+    {
+        Random          random  = new Random( 29 );
+        int[][]         sizes   =
+            { {1, 1}, {2, 3}, {5, 128}, {64, 65}, {100, 127}, {129, 200} };
+        for ( Rule rule : new Rule[] { Rule.CONWAY, Rule.HIGHLIFE } )
+            for ( Topology topology : Topology.values() )
+            {
+                // One engine for every size, so its buffers are reused.
+                StreamingEngine engine  = new StreamingEngine( rule );
+                StepEngine      serial  = new BitSliceEngine( rule );
+                for ( int[] size : sizes )
+                {
+                    BitGrid     expCurr = new BitGrid( size[0], size[1], topology );
+                    expCurr.setCells(
+                        BitGridTest.randomArray( size[0], size[1], random )
+                    );
+                    BitGrid     expNext = new BitGrid( size[0], size[1], topology );
+                    OffHeapGrid actCurr =
+                        new OffHeapGrid( size[0], size[1], topology, 4 * Long.BYTES );
+                    OffHeapGrid actNext =
+                        new OffHeapGrid( size[0], size[1], topology );
+                    actCurr.copyFrom( expCurr );
+                    BitGrid     actual  = new BitGrid( size[0], size[1], topology );
+
+                    for ( int gen = 0 ; gen < 10 ; ++gen )
+                    {
+                        serial.step( expCurr, expNext );
+                        engine.step( actCurr, actNext );
+                        actNext.copyTo( actual );
+                        assertEquals(
+                            expNext, actual,
+                            rule + ", " + topology + ", " + size[0] + " x "
+                                + size[1] + ", generation " + gen
+                        );
+
+                        BitGrid     temp    = expCurr;
+                        expCurr = expNext;
+                        expNext = temp;
+                        OffHeapGrid swap    = actCurr;
+                        actCurr = actNext;
+                        actNext = swap;
+                    }
+                }
+            }
+    }
+
+    @Test
+    public void testStepGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        StreamingEngine engine  = new StreamingEngine();
+        OffHeapGrid     grid    = new OffHeapGrid( 10, 10, Topology.FINITE );
+        assertThrows( clazz, () -> engine.step( grid, grid ) );
+        assertThrows(
+            clazz,
+            () -> engine.step( grid, new OffHeapGrid( 10, 11, Topology.FINITE ) )
+        );
+        assertThrows(
+            clazz,
+            () -> engine.step( grid, new OffHeapGrid( 10, 10, Topology.TORUS ) )
+        );
+        assertThrows( clazz, () -> new StreamingEngine( null ) );
+    }
+}
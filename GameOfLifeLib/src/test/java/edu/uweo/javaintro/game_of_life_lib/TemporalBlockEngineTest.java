@@ -0,0 +1,114 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TemporalBlockEngineTest
+{
+    @Test
+    public void testMatchesSerial()
+    {
+        Random      random  = new Random( 11 );
+        // Sizes that are smaller than a tile, not a multiple of a tile,
+        // and not a multiple of a word.
+        int[][]     sizes   =
+            { {5, 7}, {70, 150}, {300, 1100}, {257, 2048}, {40, 4200} };
+        for ( Rule rule : new Rule[] { Rule.CONWAY, Rule.DAY_AND_NIGHT } )
+            for ( Topology topology : Topology.values() )
+                for ( int[] size : sizes )
+                {
+                    StepEngine          serial  = new BitSliceEngine( rule );
+                    TemporalBlockEngine engine  = new TemporalBlockEngine( 6, rule );
+                    BitGrid             expCurr = new BitGrid( size[0], size[1], topology );
+                    expCurr.setCells(
+                        BitGridTest.randomArray( size[0], size[1], random )
+                    );
+                    BitGrid             expNext = new BitGrid( size[0], size[1], topology );
+                    BitGrid             actCurr = new BitGrid( expCurr );
+                    BitGrid             actNext = new BitGrid( size[0], size[1], topology );
+
+                    for ( int generations = 0 ; generations <= 6 ; ++generations )
+                    {
+                        for ( int gen = 0 ; gen < generations ; ++gen )
+                        {
+                            serial.step( expCurr, expNext );
+                            BitGrid temp    = expCurr;
+                            expCurr = expNext;
+                            expNext = temp;
+                        }
+                        BitGrid before  = new BitGrid( actCurr );
+                        engine.step( actCurr, actNext, generations );
+                        assertEquals( before, actCurr );
+                        assertEquals(
+                            expCurr, actNext,
+                            rule + ", " + topology + ", " + size[0] + " x "
+                                + size[1] + ", " + generations + " generations"
+                        );
+                        BitGrid temp    = actCurr;
+                        actCurr = actNext;
+                        actNext = temp;
+                    }
+                }
+    }
+
+    @Test
+    public void testBeyondDepth()
+    {
+        // More generations than the depth take several passes.
+        Random              random  = new Random( 17 );
+        StepEngine          serial  = new BitSliceEngine();
+        TemporalBlockEngine engine  = new TemporalBlockEngine( 4 );
+        BitGrid             initial = new BitGrid( 70, 300, Topology.TORUS );
+        initial.setCells( BitGridTest.randomArray( 70, 300, random ) );
+        for ( int generations : new int[] { 5, 8, 9, 13 } )
+        {
+            BitGrid expCurr = new BitGrid( initial );
+            BitGrid expNext = new BitGrid( 70, 300, Topology.TORUS );
+            for ( int gen = 0 ; gen < generations ; ++gen )
+            {
+                serial.step( expCurr, expNext );
+                BitGrid temp    = expCurr;
+                expCurr = expNext;
+                expNext = temp;
+            }
+            BitGrid actCurr = new BitGrid( initial );
+            BitGrid actNext = new BitGrid( 70, 300, Topology.TORUS );
+            engine.step( actCurr, actNext, generations );
+            assertEquals( expCurr, actNext, generations + " generations" );
+        }
+    }
+
+    @Test
+    public void testSimulation()
+    {
+        BitGrid     grid    = new BitGrid(
+            BitGridTest.randomArray( 200, 300, new Random( 13 ) )
+        );
+        Simulation  expect  = new Simulation( grid );
+        Simulation  actual  = new Simulation( grid, new TemporalBlockEngine() );
+        expect.run( 45 );
+        actual.run( 45 );
+        assertEquals( 45, actual.getGeneration() );
+        assertEquals( expect.getGrid(), actual.getGrid() );
+    }
+
+    @Test
+    public void testDepth()
+    {
+        assertEquals( TemporalBlockEngine.DEFAULT_DEPTH, new TemporalBlockEngine().getDepth() );
+        assertThrows( IllegalArgumentException.class, () -> new TemporalBlockEngine( 0 ) );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new TemporalBlockEngine( TemporalBlockEngine.MAX_DEPTH + 1 )
+        );
+
+        TemporalBlockEngine engine  = new TemporalBlockEngine( 4 );
+        BitGrid             curr    = new BitGrid( 10, 10 );
+        BitGrid             next    = new BitGrid( 10, 10 );
+        assertThrows( IllegalArgumentException.class, () -> engine.step( curr, next, -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> engine.step( curr, curr, 1 ) );
+    }
+}
@@ -0,0 +1,83 @@
+package edu.uweo.javaintro.game_of_life_lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class VectorEngineTest
+{
+    @Test
+    public void testVectorized()
+    {
+        // The build adds jdk.incubator.vector to the test JVM.
+        VectorEngine    engine  = new VectorEngine();
+        assertTrue( engine.isVectorized() );
+        assertTrue( engine.getLanes() >= 1 );
+    }
+
+    @Test
+    public void testMatchesSerial()
+    {
+        checkMatchesSerial( new VectorEngine() );
+    }
+
+    @Test
+    public void testScalarFallback()
+    {
+        VectorEngine    engine  = new VectorEngine( Rule.CONWAY, false );
+        assertFalse( engine.isVectorized() );
+        assertEquals( 1, engine.getLanes() );
+        checkMatchesSerial( engine );
+
+        VectorEngine    rule    = new VectorEngine( Rule.HIGHLIFE, false );
+        assertEquals( Rule.HIGHLIFE, rule.getRule() );
+        BitGrid         grid    = new BitGrid( 40, 70, Topology.TORUS );
+        grid.setCells( BitGridTest.randomArray( 40, 70, new Random( 9 ) ) );
+        BitGrid         expNext = new BitGrid( 40, 70, Topology.TORUS );
+        BitGrid         actNext = new BitGrid( 40, 70, Topology.TORUS );
+        new BitSliceEngine( Rule.HIGHLIFE ).step( grid, expNext );
+        rule.step( grid, actNext );
+        assertEquals( expNext, actNext );
+    }
+
+    /**
+     * Verifies that the given engine computes the same generations
+     * as a BitSliceEngine, for grids of several sizes and topologies.
+     */
+    private static void checkMatchesSerial( StepEngine engine )
+    {
+        Random          random  = new Random( 8 );
+        StepEngine      serial  = new BitSliceEngine();
+        int[][]         sizes   =
+            { {1, 1}, {3, 64}, {20, 129}, {64, 300}, {100, 513}, {257, 1000} };
+        for ( Topology topology : Topology.values() )
+            for ( int[] size : sizes )
+            {
+                BitGrid grid    = new BitGrid( size[0], size[1], topology );
+                grid.setCells(
+                    BitGridTest.randomArray( size[0], size[1], random )
+                );
+                BitGrid expNext = new BitGrid( size[0], size[1], topology );
+                BitGrid actNext = new BitGrid( size[0], size[1], topology );
+                for ( int gen = 0 ; gen < 10 ; ++gen )
+                {
+                    serial.step( grid, expNext );
+                    engine.step( grid, actNext );
+                    assertEquals( expNext, actNext, topology + " " + gen );
+                    grid.copyFrom( actNext );
+                }
+            }
+    }
+
+    @Test
+    public void testStepGoWrong()
+    {
+        Class<IllegalArgumentException> clazz   = IllegalArgumentException.class;
+        StepEngine  engine  = new VectorEngine();
+        BitGrid     grid    = new BitGrid( 10, 10 );
+        assertThrows( clazz, () -> engine.step( grid, grid ) );
+        assertThrows( clazz, () -> engine.step( grid, new BitGrid( 10, 11 ) ) );
+    }
+}